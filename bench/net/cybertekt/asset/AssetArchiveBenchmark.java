@@ -0,0 +1,134 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Asset Archive Benchmark - (C) Cybertekt Software
+ *
+ * JMH benchmark comparing the time taken to read a small asset from a loose
+ * file against reading the same asset from a stored and a compressed
+ * {@link AssetArchive asset archive}. A set of semi-compressible assets is
+ * generated and packed once per trial; each operation reads the next asset in
+ * the set and touches one byte per page so that every page is faulted in.
+ *
+ * Run with: ant bench -Dbench.args="AssetArchiveBenchmark"
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetArchiveBenchmark {
+
+    /**
+     * Number of distinct assets.
+     */
+    @Param({"5000"})
+    private int count;
+
+    /**
+     * Size of each asset in bytes.
+     */
+    @Param({"4096", "65536"})
+    private int size;
+
+    private Path dir, loose;
+
+    private AssetKey[] keys;
+
+    private AssetArchive stored, compressed;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("cybertekt-archive-benchmark");
+        loose = Files.createDirectories(dir.resolve("loose"));
+
+        // Generate Semi-Compressible Test Assets \\
+        final Random random = new Random(0);
+        final byte[] data = new byte[size];
+        keys = new AssetKey[count];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < size; j++) {
+                data[j] = (byte) ((j % 64 < 48) ? j : random.nextInt());
+            }
+            keys[i] = AssetKey.get("dir" + (i % 32) + "/asset" + i + ".bin");
+            Files.createDirectories(loose.resolve(keys[i].getPath()).getParent());
+            Files.write(loose.resolve(keys[i].getPath()), data);
+        }
+
+        final Path storedPath = dir.resolve("stored." + AssetArchive.EXT);
+        final Path compressedPath = dir.resolve("compressed." + AssetArchive.EXT);
+        AssetPacker.pack(loose, storedPath, false);
+        AssetPacker.pack(loose, compressedPath, true);
+        stored = AssetArchive.open(storedPath);
+        compressed = AssetArchive.open(compressedPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        stored.close();
+        compressed.close();
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void loose(final Blackhole HOLE) throws IOException {
+        touch(AssetBuffer.map(loose.resolve(next().getPath())), HOLE);
+    }
+
+    @Benchmark
+    public void stored(final Blackhole HOLE) throws IOException {
+        touch(stored.read(next()), HOLE);
+    }
+
+    @Benchmark
+    public void compressed(final Blackhole HOLE) throws IOException {
+        touch(compressed.read(next()), HOLE);
+    }
+
+    private AssetKey next() {
+        final AssetKey key = keys[cursor];
+        cursor = (cursor + 1 == count) ? 0 : cursor + 1;
+        return key;
+    }
+
+    /**
+     * Reads one byte per page so that every page of the asset is faulted in,
+     * then releases the buffer.
+     */
+    private static void touch(final AssetBuffer BUFFER, final Blackhole HOLE) {
+        final ByteBuffer data = BUFFER.get();
+        for (int i = 0; i < data.capacity(); i += 4096) {
+            HOLE.consume(data.get(i));
+        }
+        BUFFER.release();
+    }
+}
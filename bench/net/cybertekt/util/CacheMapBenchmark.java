@@ -0,0 +1,313 @@
+package net.cybertekt.util;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import net.cybertekt.util.CacheMap.CacheMode;
+import net.cybertekt.util.CacheMap.CacheType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Cache Map Benchmark - (C) Cybertekt Software
+ *
+ * JMH benchmarks of {@link CacheMap cache map} lookups, insertions, mixed
+ * workloads and explicit updates for every {@link CacheType cache type} and
+ * {@link CacheMode cache mode}, compared against a plain
+ * {@link ConcurrentHashMap concurrent hash map}. Keys are drawn from a uniform
+ * or Zipfian distribution, a configurable number of bytes of garbage is
+ * allocated per operation to apply GC pressure, and a configurable fraction of
+ * the cached values is kept strongly reachable so that the remainder is
+ * reclaimed and reloaded during the run.
+ *
+ * Hash and Identity caches are not thread safe and are guarded by a lock in
+ * the multi-threaded benchmarks, as they would be when shared. The cache type
+ * and cache mode are combined into a single parameter so that the baseline,
+ * to which the cache mode does not apply, is only measured once.
+ *
+ * Run with: ant bench -Dbench.args="CacheMapBenchmark -p map=Concurrent/Soft,Concurrent/Weak"
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheMapBenchmark {
+
+    /**
+     * Number of distinct keys.
+     */
+    private static final int KEYS = 4096;
+
+    /**
+     * Length of the precomputed key sequence of each thread.
+     */
+    private static final int SEQUENCE = 1 << 16;
+
+    /**
+     * Zipf exponent of the skewed key distribution.
+     */
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * Map implementation - a cache map type and cache mode separated by a
+     * slash, or Baseline for a plain concurrent hash map of strong references.
+     */
+    @Param({"Hash/Soft", "Hash/Weak", "Identity/Soft", "Identity/Weak", "Concurrent/Soft", "Concurrent/Weak", "Baseline"})
+    private String map;
+
+    @Param({"Uniform", "Zipf"})
+    private String distribution;
+
+    /**
+     * Bytes of garbage allocated per operation.
+     */
+    @Param({"0", "256"})
+    private int pressure;
+
+    /**
+     * Percentage of cached values kept strongly reachable.
+     */
+    @Param({"100", "50"})
+    private int retained;
+
+    private final Integer[] KEY = new Integer[KEYS];
+
+    private final Object[] STRONG = new Object[KEYS];
+
+    private Target target;
+
+    private double[] cdf;
+
+    @Setup(Level.Trial)
+    public void setup(final BenchmarkParams PARAMS) {
+        final boolean shared = PARAMS.getThreads() > 1;
+        for (int i = 0; i < KEYS; i++) {
+            KEY[i] = Integer.valueOf(i);
+        }
+        if (map.equals("Baseline")) {
+            target = new BaselineTarget();
+        } else {
+            final CacheType type = CacheType.valueOf(map.substring(0, map.indexOf('/')));
+            final CacheMode mode = CacheMode.valueOf(map.substring(map.indexOf('/') + 1));
+            final CacheMap<Integer, Object> cache = new CacheMap<>(type, mode);
+            target = (shared && type != CacheType.Concurrent) ? new LockedTarget(cache) : new CacheTarget(cache);
+        }
+        final Random random = new Random(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            final Object value = new Object();
+            if (random.nextInt(100) < retained) {
+                STRONG[i] = value;
+            }
+            target.put(KEY[i], value);
+        }
+
+        // Precompute Zipf Cumulative Distribution \\
+        cdf = new double[KEYS];
+        double sum = 0;
+        for (int i = 0; i < KEYS; i++) {
+            cdf[i] = (sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT));
+        }
+        for (int i = 0; i < KEYS; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    /**
+     * Per-thread key sequence.
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+
+        private int[] sequence;
+
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setup(final CacheMapBenchmark BENCHMARK, final ThreadParams PARAMS) {
+            final Random random = new Random(PARAMS.getThreadIndex());
+            sequence = new int[SEQUENCE];
+            for (int i = 0; i < SEQUENCE; i++) {
+                if (BENCHMARK.distribution.equals("Zipf")) {
+                    final int index = Arrays.binarySearch(BENCHMARK.cdf, random.nextDouble());
+                    sequence[i] = Math.min((index >= 0) ? index : -index - 1, KEYS - 1);
+                } else {
+                    sequence[i] = random.nextInt(KEYS);
+                }
+            }
+        }
+
+        private int next() {
+            return sequence[cursor++ & (SEQUENCE - 1)];
+        }
+    }
+
+    @Benchmark
+    public Object get(final Keys KEYS, final Blackhole HOLE) {
+        return lookup(KEYS.next(), HOLE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object get4(final Keys KEYS, final Blackhole HOLE) {
+        return lookup(KEYS.next(), HOLE);
+    }
+
+    @Benchmark
+    public void put(final Keys KEYS, final Blackhole HOLE) {
+        store(KEYS.next(), HOLE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void put4(final Keys KEYS, final Blackhole HOLE) {
+        store(KEYS.next(), HOLE);
+    }
+
+    /**
+     * 90% lookups and 10% insertions, reloading values that were reclaimed.
+     */
+    @Benchmark
+    public Object mixed(final Keys KEYS, final Blackhole HOLE) {
+        return mix(KEYS, HOLE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object mixed4(final Keys KEYS, final Blackhole HOLE) {
+        return mix(KEYS, HOLE);
+    }
+
+    /**
+     * Cost of an explicit update with an empty or near empty reference queue.
+     */
+    @Benchmark
+    public void update() {
+        target.update();
+    }
+
+    private Object lookup(final int INDEX, final Blackhole HOLE) {
+        if (pressure > 0) {
+            // Consume The Garbage So That Its Allocation Is Not Eliminated \\
+            HOLE.consume(new byte[pressure]);
+        }
+        return target.get(KEY[INDEX]);
+    }
+
+    private void store(final int INDEX, final Blackhole HOLE) {
+        final Object value = (STRONG[INDEX] != null) ? STRONG[INDEX] : (pressure > 0) ? new byte[pressure] : new Object();
+        target.put(KEY[INDEX], value);
+        HOLE.consume(value);
+    }
+
+    private Object mix(final Keys KEYS, final Blackhole HOLE) {
+        final int index = KEYS.next();
+        if (KEYS.cursor % 10 == 0) {
+            store(index, HOLE);
+            return null;
+        }
+        final Object value = lookup(index, HOLE);
+        if (value == null) {
+            store(index, HOLE);
+        }
+        return value;
+    }
+
+    /**
+     * Common view of the benchmarked maps.
+     */
+    private interface Target {
+
+        Object get(Integer KEY);
+
+        void put(Integer KEY, Object VALUE);
+
+        void update();
+    }
+
+    private static final class CacheTarget implements Target {
+
+        private final CacheMap<Integer, Object> CACHE;
+
+        private CacheTarget(final CacheMap<Integer, Object> CACHE) {
+            this.CACHE = CACHE;
+        }
+
+        @Override
+        public Object get(final Integer KEY) {
+            return CACHE.get(KEY);
+        }
+
+        @Override
+        public void put(final Integer KEY, final Object VALUE) {
+            CACHE.put(KEY, VALUE);
+        }
+
+        @Override
+        public void update() {
+            CACHE.update();
+        }
+    }
+
+    private static final class LockedTarget implements Target {
+
+        private final CacheMap<Integer, Object> CACHE;
+
+        private LockedTarget(final CacheMap<Integer, Object> CACHE) {
+            this.CACHE = CACHE;
+        }
+
+        @Override
+        public synchronized Object get(final Integer KEY) {
+            return CACHE.get(KEY);
+        }
+
+        @Override
+        public synchronized void put(final Integer KEY, final Object VALUE) {
+            CACHE.put(KEY, VALUE);
+        }
+
+        @Override
+        public synchronized void update() {
+            CACHE.update();
+        }
+    }
+
+    private static final class BaselineTarget implements Target {
+
+        private final ConcurrentHashMap<Integer, Object> MAP = new ConcurrentHashMap<>();
+
+        @Override
+        public Object get(final Integer KEY) {
+            return MAP.get(KEY);
+        }
+
+        @Override
+        public void put(final Integer KEY, final Object VALUE) {
+            MAP.put(KEY, VALUE);
+        }
+
+        @Override
+        public void update() {
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package net.cybertekt.vulkan;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.cybertekt.vulkan.DeviceAllocator.Allocation;
+import net.cybertekt.vulkan.DeviceAllocator.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Device Allocator Benchmark - (C) Cybertekt Software
+ *
+ * JMH benchmark of {@link DeviceAllocator device allocator} latency under
+ * churn against a {@link SimulatedDeviceMemory simulated device}. A live set
+ * of allocations is kept at a fixed size, and each operation frees a random
+ * live allocation and replaces it with a new one, so that the allocator runs
+ * in the fragmented steady state of a streaming renderer. Latency is sampled
+ * per operation; the fragmentation and block count of the heap at the end of
+ * each trial are logged.
+ *
+ * Run with: ant bench -Dbench.args="DeviceAllocatorBenchmark"
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceAllocatorBenchmark {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(DeviceAllocatorBenchmark.class);
+
+    /**
+     * Length of the precomputed request sequence.
+     */
+    private static final int SEQUENCE = 1 << 16;
+
+    /**
+     * Number of live allocations.
+     */
+    @Param({"1000", "10000"})
+    private int live;
+
+    /**
+     * Size distribution - Uniform buffers up to 64 KiB, or Mixed buffers and
+     * textures up to 4 MiB with a long tail.
+     */
+    @Param({"Uniform", "Mixed"})
+    private String sizes;
+
+    /**
+     * Buffer-image granularity of the simulated device.
+     */
+    @Param({"1", "4096"})
+    private long granularity;
+
+    private DeviceAllocator allocator;
+
+    private Allocation[] allocations;
+
+    private long[] requestSizes, requestAlignments;
+
+    private Resource[] requestResources;
+
+    private int[] victims;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(42);
+        requestSizes = new long[SEQUENCE];
+        requestAlignments = new long[SEQUENCE];
+        requestResources = new Resource[SEQUENCE];
+        victims = new int[SEQUENCE];
+        for (int i = 0; i < SEQUENCE; i++) {
+            final boolean image = sizes.equals("Mixed") && random.nextInt(4) == 0;
+            if (image) {
+                requestSizes[i] = (random.nextInt(16) == 0) ? 1 + random.nextInt(4 << 20) : 1 + random.nextInt(256 << 10);
+                requestAlignments[i] = 1L << (10 + random.nextInt(7));
+            } else {
+                requestSizes[i] = 1 + random.nextInt(64 << 10);
+                requestAlignments[i] = 1L << (4 + random.nextInt(5));
+            }
+            requestResources[i] = image ? Resource.Optimal : Resource.Linear;
+            victims[i] = random.nextInt(live);
+        }
+
+        allocator = new DeviceAllocator(new SimulatedDeviceMemory(new long[]{64L << 30}, new int[]{0}, granularity, SimulatedDeviceMemory.DEFAULT_MAX_ALLOCATIONS));
+        allocations = new Allocation[live];
+        for (int i = 0; i < live; i++) {
+            allocations[i] = request(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        LOG.info("{}", allocator.getStats(0));
+        allocator.close();
+    }
+
+    @Benchmark
+    public Allocation churn() {
+        final int index = cursor++ & (SEQUENCE - 1);
+        final int victim = victims[index];
+        allocator.free(allocations[victim]);
+        return allocations[victim] = request(index);
+    }
+
+    private Allocation request(final int INDEX) {
+        final int index = INDEX & (SEQUENCE - 1);
+        return allocator.allocate(0, requestSizes[index], requestAlignments[index], requestResources[index]);
+    }
+}
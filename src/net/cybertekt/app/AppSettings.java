@@ -3,6 +3,11 @@ package net.cybertekt.app;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
+import net.cybertekt.job.FrameGraph;
+import net.cybertekt.job.JobSystem;
+import net.cybertekt.render.NullRenderer;
+import net.cybertekt.render.Renderer;
+import net.cybertekt.util.MemoryTracker;
 import net.cybertekt.vulkan.Vulkan.Extension;
 import net.cybertekt.vulkan.Vulkan.Layer;
 
@@ -14,6 +19,18 @@ import net.cybertekt.vulkan.Vulkan.Layer;
  */
 public final class AppSettings {
     
+    /**
+     * System property that selects the {@link #setHeadless(boolean) headless
+     * mode} by default when set to true.
+     */
+    public static final String HEADLESS_PROPERTY = "net.cybertekt.headless";
+    
+    /**
+     * System property that enables the {@link Profiler profiler} by default
+     * when set to true.
+     */
+    public static final String PROFILING_PROPERTY = "net.cybertekt.profiling";
+    
     /**
      * Hard-coded Engine Name Constant.
      */
@@ -45,12 +62,169 @@ public final class AppSettings {
     
     public final Set<Layer> VK_LAYERS = EnumSet.noneOf(Layer.class);
     
+    /**
+     * Native Memory Instrumentation Mode.
+     */
+    private MemoryTracker.Mode memoryTracking = MemoryTracker.Mode.Off;
+    
+    /**
+     * One In This Many Native Allocations Is Sampled In The Sampled Mode.
+     */
+    private int memorySampleRate = 64;
+    
+    /**
+     * Fixed Simulation Timestep In Seconds, Or 0 To Step Once Per Frame.
+     */
+    private double fixedTimestep = 0;
+
+    /**
+     * Maximum Frames Per Second, Or 0 For No Limit.
+     */
+    private double frameRateLimit = 0;
+    
+    /**
+     * Number Of Job System Worker Threads.
+     */
+    private int workerThreads = JobSystem.defaultThreads();
+    
+    /**
+     * Headless Mode - No Window System Or Vulkan.
+     */
+    private boolean headless = Boolean.getBoolean(HEADLESS_PROPERTY);
+    
+    /**
+     * Profiler Recording Of Startup Phases, Frames And Stages.
+     */
+    private boolean profiling = Boolean.getBoolean(PROFILING_PROPERTY);
+    
 
     public AppSettings(final String NAME, final Version VERSION) {
         this.APP_NAME = NAME;
         this.APP_VERSION = VERSION;
     }
     
+    /**
+     * Sets the native memory instrumentation installed when the application
+     * is initialized.
+     * 
+     * @param MODE the {@link MemoryTracker.Mode instrumentation mode}.
+     */
+    public final void setMemoryTracking(final MemoryTracker.Mode MODE) {
+        this.memoryTracking = MODE;
+    }
+    
+    /**
+     * Sets the native memory instrumentation installed when the application
+     * is initialized, sampling one in every RATE allocations.
+     * 
+     * @param MODE the {@link MemoryTracker.Mode instrumentation mode}.
+     * @param RATE the sample rate of the {@link MemoryTracker.Mode#Sampled
+     * sampled} mode.
+     */
+    public final void setMemoryTracking(final MemoryTracker.Mode MODE, final int RATE) {
+        if (RATE < 1) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + RATE);
+        }
+        this.memoryTracking = MODE;
+        this.memorySampleRate = RATE;
+    }
+    
+    public final MemoryTracker.Mode getMemoryTracking() {
+        return memoryTracking;
+    }
+    
+    public final int getMemorySampleRate() {
+        return memorySampleRate;
+    }
+    
+    /**
+     * Sets the fixed timestep of the simulation. The simulation stage then
+     * runs once per elapsed timestep instead of once per frame.
+     * 
+     * @param SECONDS the timestep in seconds, or 0 to step the simulation
+     * once per frame.
+     */
+    public final void setFixedTimestep(final double SECONDS) {
+        if (!(SECONDS >= 0)) {
+            throw new IllegalArgumentException("Invalid timestep: " + SECONDS);
+        }
+        this.fixedTimestep = SECONDS;
+    }
+    
+    public final double getFixedTimestep() {
+        return fixedTimestep;
+    }
+    
+    /**
+     * Limits the rate at which the application loop starts frames. The loop
+     * parks between frames instead of spinning; a limit of one frame per
+     * fixed timestep runs exactly one simulation step per frame. Without a
+     * limit, renderers that do not block on presentation apply
+     * {@link Renderer#limitFrameRate(FrameGraph) their own}.
+     * 
+     * @param FPS the maximum number of frames per second, or 0 for no limit.
+     */
+    public final void setFrameRateLimit(final double FPS) {
+        if (!(FPS >= 0)) {
+            throw new IllegalArgumentException("Invalid frame rate limit: " + FPS);
+        }
+        this.frameRateLimit = FPS;
+    }
+    
+    public final double getFrameRateLimit() {
+        return frameRateLimit;
+    }
+    
+    /**
+     * Sets the number of worker threads of the application's job system.
+     * Defaults to one for every core but one.
+     * 
+     * @param THREADS the number of worker threads.
+     */
+    public final void setWorkerThreads(final int THREADS) {
+        if (THREADS < 1) {
+            throw new IllegalArgumentException("Invalid worker thread count: " + THREADS);
+        }
+        this.workerThreads = THREADS;
+    }
+    
+    public final int getWorkerThreads() {
+        return workerThreads;
+    }
+    
+    /**
+     * Selects the headless mode, in which the application skips GLFW and
+     * Vulkan initialization and runs its loop, asset and job systems against
+     * a {@link NullRenderer null renderer}, paced to the fixed timestep unless
+     * a {@link #setFrameRateLimit(double) frame rate limit} is set. Defaults
+     * to the value of the {@link #HEADLESS_PROPERTY system property}.
+     * 
+     * @param HEADLESS true to run headless.
+     */
+    public final void setHeadless(final boolean HEADLESS) {
+        this.headless = HEADLESS;
+    }
+    
+    public final boolean isHeadless() {
+        return headless;
+    }
+    
+    /**
+     * Enables the {@link Profiler profiler} when the application is
+     * initialized, recording the startup phases and the time of every frame
+     * and stage. Defaults to the value of the
+     * {@link #PROFILING_PROPERTY system property}.
+     * 
+     * @param PROFILING true to enable the profiler.
+     */
+    public final void setProfiling(final boolean PROFILING) {
+        this.profiling = PROFILING;
+    }
+    
+    public final boolean isProfiling() {
+        return profiling;
+    }
+    
     public static class Version {
         
         private final int MAJOR, MINOR, REVISION;
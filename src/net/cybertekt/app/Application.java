@@ -1,10 +1,13 @@
 package net.cybertekt.app;
 
-import net.cybertekt.vulkan.Vulkan;
+import net.cybertekt.job.FrameGraph;
+import net.cybertekt.job.JobSystem;
+import net.cybertekt.render.NullRenderer;
+import net.cybertekt.render.Renderer;
+import net.cybertekt.util.MemoryTracker;
+import net.cybertekt.vulkan.NativeArena;
+import net.cybertekt.vulkan.VulkanRenderer;
 import org.lwjgl.system.Configuration;
-import static org.lwjgl.vulkan.EXTDebugReport.VK_DEBUG_REPORT_ERROR_BIT_EXT;
-import static org.lwjgl.vulkan.EXTDebugReport.VK_DEBUG_REPORT_WARNING_BIT_EXT;
-import org.lwjgl.vulkan.VkInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,41 +23,78 @@ public abstract class Application {
      * SLF4J Application Class Logger.
      */
     private static final Logger LOG = LoggerFactory.getLogger(Application.class);
-    
+
+    // Startup Profiler Scopes \\
+    private static final int STARTUP = Profiler.scope("Startup");
+
+    private static final int STARTUP_RENDERER = Profiler.scope("Startup.Renderer");
+
+    private static final int STARTUP_JOBS = Profiler.scope("Startup.Jobs");
+
+    private static final int STARTUP_REGISTER = Profiler.scope("Startup.Register");
+
     /**
-     * Static Application Initialization Block.
+     * Render Backend.
      */
-    static {
-        // LWJGL Configuration \\
-        //Configuration.DEBUG.set(true);                    // LWJGL General Debugging.
-        Configuration.DEBUG_MEMORY_ALLOCATOR.set(true);     // LWJGL Native Memory Allocator Debugging.
-        Configuration.DEBUG_STACK.set(true);                // LWJGL Native Memory Stack Debugging.
-        Configuration.STACK_SIZE.set(64);                   // LWJGL Native Memory Stack Size (in KB).
-
-        // GLFW Initialization \\
-        if (!org.lwjgl.glfw.GLFW.glfwInit()) {
-            LOG.error("GLFW Initialization Failed");
-            throw new ApplicationInitializationException("GLFW Initialization Failed");
-        }
-    }
+    private Renderer renderer;
+
+    /**
+     * Job System Running The Frame Graph.
+     */
+    private JobSystem jobs;
+
+    /**
+     * Frame Graph Of The Application Loop.
+     */
+    private FrameGraph graph;
+
+    /**
+     * True Until The Application Loop Is Stopped.
+     */
+    private volatile boolean running;
 
     public final void initialize(final AppSettings SETTINGS) {
         LOG.info("Initializing {} {}", SETTINGS.APP_NAME, SETTINGS.APP_VERSION);
+        Profiler.setEnabled(SETTINGS.isProfiling());
 
         try {
-            // Create Vulkan Instance \\
-            VkInstance vkInstance = Vulkan.createInstance(SETTINGS);
-
-            // Enable Vulkan Instance Debugging \\
-            final long vkDebugCallback = Vulkan.enableDebug(vkInstance, VK_DEBUG_REPORT_ERROR_BIT_EXT | VK_DEBUG_REPORT_WARNING_BIT_EXT);
-            
-            // final VkPhysicalDevice physicalDevice = getFirstPhysicalDevice(instance);
-            // final DeviceAndGraphicsQueueFamily deviceAndGraphicsQueueFamily = createDeviceAndGetGraphicsQueueFamily(physicalDevice);
-            // final VkDevice device = deviceAndGraphicsQueueFamily.device;
-            // int queueFamilyIndex = deviceAndGraphicsQueueFamily.queueFamilyIndex;
-            init();
+            Profiler.begin(STARTUP);
+            try {
+                // LWJGL Configuration - Must Precede Any Native Allocation \\
+                //Configuration.DEBUG.set(true);                    // LWJGL General Debugging.
+                MemoryTracker.install(SETTINGS.getMemoryTracking(), SETTINGS.getMemorySampleRate());
+                Configuration.STACK_SIZE.set(64);                   // LWJGL Native Memory Stack Size (in KB).
+
+                // Render Backend Initialization - Headless Skips GLFW And Vulkan \\
+                Profiler.begin(STARTUP_RENDERER);
+                try {
+                    renderer = SETTINGS.isHeadless() ? new NullRenderer() : new VulkanRenderer();
+                    renderer.initialize(SETTINGS);
+                } finally {
+                    Profiler.end(STARTUP_RENDERER);
+                }
+
+                // Register Frame Stages \\
+                Profiler.begin(STARTUP_JOBS);
+                try {
+                    jobs = new JobSystem(SETTINGS.getWorkerThreads());
+                    graph = new FrameGraph(jobs, SETTINGS.getFixedTimestep()).setFrameRateLimit(SETTINGS.getFrameRateLimit());
+                } finally {
+                    Profiler.end(STARTUP_JOBS);
+                }
+                Profiler.begin(STARTUP_REGISTER);
+                try {
+                    renderer.register(graph);
+                    register(graph);
+                } finally {
+                    Profiler.end(STARTUP_REGISTER);
+                }
+            } finally {
+                Profiler.end(STARTUP);
+            }
 
             LOG.info("{} {} Initialized", SETTINGS.APP_NAME, SETTINGS.APP_VERSION);
+            Profiler.report("Startup");
 
             loop();
         } finally {
@@ -63,19 +103,82 @@ public abstract class Application {
     }
 
     /**
-     * Application Subclass Initialization.
+     * Application Subclass Initialization - Registers the tasks run during the
+     * {@link FrameGraph.Stage stages} of every frame.
+     *
+     * @param GRAPH the frame graph of the application loop.
      */
-    public abstract void init();
+    protected abstract void register(final FrameGraph GRAPH);
 
+    /**
+     * Runs frames until the application is {@link #stop() stopped} or a task
+     * fails, then waits for the frames in flight.
+     */
     public final void loop() {
+        running = true;
+        try {
+            while (running) {
+                graph.frame();
+            }
+        } finally {
+            running = false;
+            try {
+                graph.finish();
+            } finally {
+                exit();
+            }
+        }
+    }
+
+    /**
+     * Stops the application loop after the current frame. May be invoked from
+     * any thread, including tasks.
+     */
+    public final void stop() {
+        running = false;
+    }
 
+    /**
+     * @return the render backend of the application, or null before
+     * initialization.
+     */
+    public final Renderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * @return the job system of the application, or null before
+     * initialization.
+     */
+    public final JobSystem getJobs() {
+        return jobs;
     }
 
     public final void destroy() {
-        Vulkan.terminate();
-        org.lwjgl.glfw.GLFW.glfwTerminate();
+        if (jobs != null) {
+            jobs.close();
+            jobs = null;
+        }
+        if (renderer != null) {
+            renderer.close();
+            renderer = null;
+        }
+
+        // Report Native Memory Still Allocated \\
+        NativeArena.freeScratch();
+        MemoryTracker.report();
+
+        // Report Frame And Stage Times \\
+        if (Profiler.isEnabled()) {
+            Profiler.report("Frame");
+            Profiler.report("Stage");
+        }
     }
 
+    /**
+     * Application Subclass Exit - Invoked once the loop has stopped and every
+     * frame has completed.
+     */
     public abstract void exit();
 
     /**
@@ -0,0 +1,159 @@
+package net.cybertekt.app;
+
+/**
+ * Histogram - (C) Cybertekt Software
+ *
+ * Log-linear latency histogram in the manner of HdrHistogram. Values below
+ * {@link #SUB_BUCKETS} nanoseconds are counted exactly; above, every power of
+ * two is split into 32 buckets, so that any percentile is reported within
+ * about 3% of the recorded value. Values are clamped to
+ * {@link #MAX_VALUE}. Recording is a handful of arithmetic instructions and
+ * never allocates.
+ *
+ * -Not synchronized.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class Histogram {
+
+    /**
+     * Log2 of the number of exactly counted values.
+     */
+    private static final int SUB_BITS = 6;
+
+    /**
+     * Number of exactly counted values.
+     */
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Largest value that can be recorded, about 18 minutes in nanoseconds.
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    /**
+     * Number of buckets.
+     */
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final long[] COUNTS = new long[BUCKETS];
+
+    private long count, total, max;
+
+    /**
+     * Records a value.
+     *
+     * @param VALUE the value in nanoseconds.
+     */
+    public final void record(final long VALUE) {
+        final long value = Math.min(Math.max(VALUE, 0), MAX_VALUE);
+        COUNTS[index(value)]++;
+        count++;
+        total += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds the values recorded by another histogram.
+     *
+     * @param OTHER the histogram to add.
+     */
+    public final void add(final Histogram OTHER) {
+        for (int i = 0; i < BUCKETS; i++) {
+            COUNTS[i] += OTHER.COUNTS[i];
+        }
+        count += OTHER.count;
+        total += OTHER.total;
+        max = Math.max(max, OTHER.max);
+    }
+
+    /**
+     * @return the number of values recorded.
+     */
+    public final long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the values recorded.
+     */
+    public final long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the largest value recorded.
+     */
+    public final long getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean of the values recorded, or 0 if none were recorded.
+     */
+    public final double getMean() {
+        return (count == 0) ? 0 : (double) total / count;
+    }
+
+    /**
+     * @param PERCENTILE the percentile, in [0, 100].
+     * @return the highest value equivalent to the value at the percentile, or
+     * 0 if no value was recorded.
+     */
+    public final long getPercentile(final double PERCENTILE) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(PERCENTILE, 0), 100) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += COUNTS[i];
+            if (seen >= rank) {
+                return Math.min(upper(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public final String toString() {
+        return String.format("%d samples, p50 %s, p99 %s, p99.9 %s, max %s", count, format(getPercentile(50)), format(getPercentile(99)), format(getPercentile(99.9)), format(max));
+    }
+
+    /**
+     * @param NANOS a duration in nanoseconds.
+     * @return the duration in readable units.
+     */
+    public static String format(final long NANOS) {
+        if (NANOS < 1000) {
+            return NANOS + " ns";
+        } else if (NANOS < 1000000) {
+            return String.format("%.1f us", NANOS / 1e3);
+        } else {
+            return String.format("%.2f ms", NANOS / 1e6);
+        }
+    }
+
+    /**
+     * Buckets below {@link #SUB_BUCKETS} hold a single value. Above, a value
+     * with its highest bit at position e is shifted right by e - SUB_BITS + 1
+     * into [SUB_BUCKETS / 2, SUB_BUCKETS), and each shift adds another
+     * SUB_BUCKETS / 2 buckets.
+     */
+    private static int index(final long VALUE) {
+        final int shift = Math.max(0, 64 - SUB_BITS - Long.numberOfLeadingZeros(VALUE));
+        return (shift << (SUB_BITS - 1)) + (int) (VALUE >>> shift);
+    }
+
+    /**
+     * @return the highest value counted by a bucket.
+     */
+    private static long upper(final int INDEX) {
+        final int shift = (INDEX < SUB_BUCKETS) ? 0 : (INDEX >>> (SUB_BITS - 1)) - 1;
+        final long mantissa = INDEX - ((long) shift << (SUB_BITS - 1));
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,282 @@
+package net.cybertekt.app;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import net.cybertekt.util.ClassUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Profiler - (C) Cybertekt Software
+ *
+ * Hot path instrumentation through named, nestable scopes. Each scope is
+ * registered once with {@link #scope(String)}, and timed by pairing
+ * {@link #begin(int)} with {@link #end(int)}, normally in a finally block:
+ *
+ * <pre>
+ * Profiler.begin(CULLING);
+ * try {
+ *     ...
+ * } finally {
+ *     Profiler.end(CULLING);
+ * }
+ * </pre>
+ *
+ * Every thread records into its own stack of open scopes and its own
+ * {@link Histogram histogram} per scope, so that recording takes no lock and,
+ * once a thread has recorded a scope, allocates nothing outside of flight
+ * recordings. Histograms of every thread are merged when read; reads made
+ * while threads are recording are approximate.
+ *
+ * While a flight recording with the profiler scope event enabled is running,
+ * every scope is additionally committed as a flight recorder event, so that
+ * stalls can be correlated with garbage collection and other JVM activity.
+ * Each such scope allocates its event. Recording is disabled by default and
+ * enabled through {@link AppSettings#setProfiling(boolean)}; while disabled,
+ * scopes cost a single volatile read.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class Profiler {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(Profiler.class);
+
+    /**
+     * Maximum nesting depth of recorded scopes. Scopes nested deeper are not
+     * recorded.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    /**
+     * True if the flight recorder API is available.
+     */
+    private static final boolean JFR = ClassUtil.isAvailable("jdk.jfr.FlightRecorderListener");
+
+    private static final Map<String, Integer> IDS = new HashMap<>();
+
+    /**
+     * Recorder of every thread that has recorded a scope.
+     */
+    private static final CopyOnWriteArrayList<Recorder> RECORDERS = new CopyOnWriteArrayList<>();
+
+    private static final ThreadLocal<Recorder> RECORDER = ThreadLocal.withInitial(() -> {
+        final Recorder recorder = new Recorder();
+        RECORDERS.add(recorder);
+        return recorder;
+    });
+
+    /**
+     * Scope names by id - Replaced whenever a scope is registered.
+     */
+    private static volatile String[] names = new String[0];
+
+    private static volatile boolean enabled, recording, listening;
+
+    /**
+     * Profiler Is A Static Utility And Cannot Be Instantiated.
+     */
+    private Profiler() {
+
+    }
+
+    /**
+     * Returns the id of the scope with the given name, registering it if
+     * necessary. Ids should be obtained once and kept in a constant.
+     *
+     * @param NAME the name of the scope.
+     * @return the id of the scope.
+     */
+    public static synchronized int scope(final String NAME) {
+        Integer id = IDS.get(NAME);
+        if (id == null) {
+            id = names.length;
+            final String[] grown = Arrays.copyOf(names, id + 1);
+            grown[id] = NAME;
+            IDS.put(NAME, id);
+            names = grown;
+        }
+        return id;
+    }
+
+    /**
+     * Enables or disables recording. Scopes open when recording is toggled
+     * are ignored.
+     *
+     * @param ENABLED true to record scopes.
+     */
+    public static synchronized void setEnabled(final boolean ENABLED) {
+        if (ENABLED && JFR && !listening) {
+            ProfilerEvent.listen();
+            listening = true;
+        }
+        enabled = ENABLED;
+    }
+
+    /**
+     * @return true if scopes are recorded.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens a scope on the calling thread.
+     *
+     * @param SCOPE the id of the scope.
+     */
+    public static void begin(final int SCOPE) {
+        if (enabled) {
+            final Recorder recorder = RECORDER.get();
+            final int depth = recorder.depth++;
+            if (depth < MAX_DEPTH) {
+                recorder.SCOPES[depth] = SCOPE;
+                recorder.EVENTS[depth] = recording ? ProfilerEvent.begin(names[SCOPE]) : null;
+                recorder.STARTS[depth] = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Closes a scope of the calling thread and records its duration. Scopes
+     * opened inside the scope and left open, such as by an exception thrown
+     * before their end, are closed without being recorded. Ignored if the
+     * scope is not open.
+     *
+     * @param SCOPE the id of the scope.
+     */
+    public static void end(final int SCOPE) {
+        if (enabled) {
+            final long now = System.nanoTime();
+            final Recorder recorder = RECORDER.get();
+            final int depth = recorder.depth - 1;
+            if (depth >= MAX_DEPTH) {
+                recorder.depth = depth;
+            } else {
+                // Find The Scope - Discarding Open Scopes Nested Inside It \\
+                int match = depth;
+                while (match >= 0 && recorder.SCOPES[match] != SCOPE) {
+                    match--;
+                }
+                if (match >= 0) {
+                    for (int i = depth; i > match; i--) {
+                        recorder.EVENTS[i] = null;
+                    }
+                    recorder.depth = match;
+                    recorder.histogram(SCOPE).record(now - recorder.STARTS[match]);
+                    if (recorder.EVENTS[match] != null) {
+                        ProfilerEvent.end(recorder.EVENTS[match]);
+                        recorder.EVENTS[match] = null;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a duration measured by the caller, such as a duration that
+     * begins and ends on different threads.
+     *
+     * @param SCOPE the id of the scope.
+     * @param NANOS the duration in nanoseconds.
+     */
+    public static void record(final int SCOPE, final long NANOS) {
+        if (enabled) {
+            RECORDER.get().histogram(SCOPE).record(NANOS);
+        }
+    }
+
+    /**
+     * @param SCOPE the id of a scope.
+     * @return the durations recorded for the scope by every thread.
+     */
+    public static Histogram getHistogram(final int SCOPE) {
+        final Histogram merged = new Histogram();
+        for (Recorder recorder : RECORDERS) {
+            final Histogram[] histograms = recorder.histograms;
+            if (SCOPE < histograms.length && histograms[SCOPE] != null) {
+                merged.add(histograms[SCOPE]);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Logs the durations of every recorded scope.
+     */
+    public static void report() {
+        report("");
+    }
+
+    /**
+     * Logs the durations of every recorded scope whose name starts with the
+     * given prefix, in registration order.
+     *
+     * @param PREFIX the prefix of the scope names to report.
+     */
+    public static void report(final String PREFIX) {
+        final String[] scopes = names;
+        for (int i = 0; i < scopes.length; i++) {
+            if (scopes[i].startsWith(PREFIX)) {
+                final Histogram histogram = getHistogram(i);
+                if (histogram.getCount() == 1) {
+                    LOG.info("{}: {}", scopes[i], Histogram.format(histogram.getTotal()));
+                } else if (histogram.getCount() > 1) {
+                    LOG.info("{}: {}", scopes[i], histogram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invoked by the flight recorder listener whenever a recording changes
+     * state.
+     *
+     * @param RECORDING true if a flight recording is running.
+     */
+    static void setRecording(final boolean RECORDING) {
+        recording = RECORDING;
+    }
+
+    /**
+     * Open scopes and histograms of a single thread.
+     */
+    private static final class Recorder {
+
+        private final int[] SCOPES = new int[MAX_DEPTH];
+
+        private final long[] STARTS = new long[MAX_DEPTH];
+
+        /**
+         * Flight recorder event of each open scope, or null if no recording
+         * was running when the scope was opened.
+         */
+        private final Object[] EVENTS = new Object[MAX_DEPTH];
+
+        /**
+         * Histogram of each scope by id, read by other threads when merged.
+         */
+        private volatile Histogram[] histograms = new Histogram[0];
+
+        private int depth;
+
+        private Histogram histogram(final int SCOPE) {
+            Histogram[] current = histograms;
+            if (SCOPE >= current.length) {
+                current = Arrays.copyOf(current, names.length);
+                histograms = current;
+            }
+            Histogram histogram = current[SCOPE];
+            if (histogram == null) {
+                histogram = new Histogram();
+                current[SCOPE] = histogram;
+            }
+            return histogram;
+        }
+    }
+}
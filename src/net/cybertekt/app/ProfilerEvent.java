@@ -0,0 +1,85 @@
+package net.cybertekt.app;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Profiler Event - (C) Cybertekt Software
+ *
+ * Flight recorder event committed for every {@link Profiler profiler} scope
+ * closed while a flight recording is running. The event spans the scope, so
+ * that scopes appear on the recording's thread timeline next to garbage
+ * collection pauses. Only loaded if the flight recorder API is available.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+@Name("net.cybertekt.ProfilerScope")
+@Label("Profiler Scope")
+@Category({"Cybertekt", "Profiler"})
+@Description("Duration of an instrumented engine scope")
+final class ProfilerEvent extends Event {
+
+    /**
+     * Type of the event, checked before an event is allocated.
+     */
+    private static final EventType TYPE = EventType.getEventType(ProfilerEvent.class);
+
+    @Label("Scope")
+    private String scope;
+
+    static Object begin(final String SCOPE) {
+        // Allocate Nothing If The Running Recordings Disable The Event \\
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        final ProfilerEvent event = new ProfilerEvent();
+        event.scope = SCOPE;
+        event.begin();
+        return event;
+    }
+
+    static void end(final Object EVENT) {
+        final ProfilerEvent event = (ProfilerEvent) EVENT;
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+
+    /**
+     * Tracks whether a flight recording is running, so that no event is
+     * allocated otherwise.
+     */
+    static void listen() {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(final FlightRecorder RECORDER) {
+                update(RECORDER);
+            }
+
+            @Override
+            public void recordingStateChanged(final Recording RECORDING) {
+                update(FlightRecorder.getFlightRecorder());
+            }
+        });
+    }
+
+    private static void update(final FlightRecorder RECORDER) {
+        boolean running = false;
+        for (Recording recording : RECORDER.getRecordings()) {
+            if (recording.getState() == RecordingState.RUNNING) {
+                running = true;
+            }
+        }
+        Profiler.setRecording(running);
+    }
+}
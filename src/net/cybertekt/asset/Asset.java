@@ -1,5 +1,8 @@
 package net.cybertekt.asset;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Asset - (C) Cybertekt Software
  *
@@ -7,6 +10,14 @@ package net.cybertekt.asset;
  * specified by an {@link AssetKey asset key}. As a general rule, asset
  * subclasses should be designed to be effectively immutable.
  *
+ * The native resources of an asset are reference counted. The owner of the
+ * asset, usually an {@link AssetCache asset cache}, holds the initial
+ * reference and gives it up by {@link #dispose() disposing} the asset. Other
+ * holders {@link #acquire() acquire} a reference and
+ * {@link #relinquish() relinquish} it when they no longer use the asset, so
+ * an asset that is disposed while it is still in use is only released once
+ * its last holder relinquishes it.
+ *
  * @version 1.2.0
  * @author Andrew Vektor
  */
@@ -18,12 +29,168 @@ public abstract class Asset {
      */
     private final AssetKey KEY;
 
+    /**
+     * Native {@link AssetBuffer buffer} retained by the asset, or null if the
+     * asset does not reference the raw data of its external resource.
+     */
+    private final AssetBuffer BUFFER;
+
+    /**
+     * Set once the asset has been disposed.
+     */
+    private final AtomicBoolean DISPOSED = new AtomicBoolean();
+
+    /**
+     * Number of references to the native resources of the asset, including
+     * the reference of the owner until the asset is disposed.
+     */
+    private final AtomicInteger REFERENCES = new AtomicInteger(1);
+
     protected Asset(final AssetKey KEY) {
+        this(KEY, null);
+    }
+
+    /**
+     * Constructs an asset that retains the raw data of its external resource.
+     * The lifetime of the {@link AssetBuffer buffer} is tied to the asset and
+     * the buffer is released when the asset is {@link #dispose() disposed}.
+     *
+     * @param KEY the {@link AssetKey key} of the asset.
+     * @param BUFFER the {@link AssetBuffer buffer} owned by the asset.
+     */
+    protected Asset(final AssetKey KEY, final AssetBuffer BUFFER) {
         this.KEY = KEY;
+        this.BUFFER = BUFFER;
     }
 
     public final AssetKey getKey() {
         return KEY;
     }
 
+    /**
+     * @return the {@link AssetBuffer buffer} owned by the asset, or null if
+     * the asset does not retain the raw data of its external resource.
+     */
+    public final AssetBuffer getBuffer() {
+        return BUFFER;
+    }
+
+    /**
+     * Returns an estimate of the Java heap memory retained by the asset.
+     * Subclasses that hold significant heap data should override this method.
+     *
+     * @return the estimated heap footprint in bytes.
+     */
+    public long getHeapSize() {
+        return 64;
+    }
+
+    /**
+     * Returns the native memory retained by the asset. By default this is the
+     * size of its {@link AssetBuffer buffer}. Subclasses that allocate native
+     * memory should override this method.
+     *
+     * @return the native footprint in bytes.
+     */
+    public long getNativeSize() {
+        return (BUFFER != null) ? BUFFER.size() : 0;
+    }
+
+    /**
+     * @return the combined heap and native footprint of the asset in bytes.
+     */
+    public final long getSize() {
+        return getHeapSize() + getNativeSize();
+    }
+
+    /**
+     * @return true if the asset has been disposed by its owner. The native
+     * resources of a disposed asset remain valid until every acquired
+     * reference has been relinquished.
+     */
+    public final boolean isDisposed() {
+        return DISPOSED.get();
+    }
+
+    /**
+     * @return true if the native resources of the asset have been released.
+     */
+    public final boolean isReleased() {
+        return REFERENCES.get() == 0;
+    }
+
+    /**
+     * Acquires a reference to the asset, keeping its native resources valid
+     * until the reference is {@link #relinquish() relinquished}, even if the
+     * asset is disposed in the meantime.
+     *
+     * @return true if a reference was acquired, or false if the native
+     * resources of the asset have already been released.
+     */
+    public final boolean acquire() {
+        for (;;) {
+            final int count = REFERENCES.get();
+            if (count == 0) {
+                return false;
+            }
+            if (REFERENCES.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Relinquishes a reference acquired by {@link #acquire()}. The native
+     * resources of a disposed asset are released when its last reference is
+     * relinquished.
+     *
+     * @throws IllegalStateException if no reference is held.
+     */
+    public final void relinquish() {
+        for (;;) {
+            final int count = REFERENCES.get();
+            if (count == 0) {
+                throw new IllegalStateException("Asset reference already relinquished: " + KEY);
+            }
+            if (REFERENCES.compareAndSet(count, count - 1)) {
+                if (count == 1) {
+                    free();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Disposes the asset, giving up the reference of its owner. The native
+     * resources held by the asset, including its {@link AssetBuffer buffer},
+     * are released immediately if no other references have been acquired, or
+     * once the last acquired reference is relinquished. The owner must not use
+     * the asset after it has been disposed. Subsequent calls have no effect.
+     */
+    public final void dispose() {
+        if (DISPOSED.compareAndSet(false, true)) {
+            relinquish();
+        }
+    }
+
+    /**
+     * Releases the native resources held by the asset once its last reference
+     * has been given up.
+     */
+    private void free() {
+        release();
+        if (BUFFER != null) {
+            BUFFER.release();
+        }
+    }
+
+    /**
+     * Releases native resources allocated by an asset subclass. Invoked once,
+     * when the last reference to the asset is given up, before the
+     * {@link AssetBuffer buffer} is released.
+     */
+    protected void release() {
+    }
+
 }
@@ -0,0 +1,292 @@
+package net.cybertekt.asset;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import net.cybertekt.asset.AssetBuffer.Storage;
+import net.cybertekt.util.BufferUtil;
+import net.cybertekt.util.LZ4;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Asset Archive - (C) Cybertekt Software
+ *
+ * Read-only, memory mapped archive of packed external resources created by the
+ * {@link AssetPacker asset packer}. An archive is a single file containing the
+ * data of every packed resource followed by a table of contents sorted by
+ * {@link AssetKey asset key} path, so any entry can be located with a binary
+ * search and read without opening another file.
+ *
+ * <pre>
+ * Header (32 bytes, little endian)
+ *     int     magic ("CTPK")
+ *     int     format version
+ *     int     entry count
+ *     int     reserved
+ *     long    table of contents offset
+ *     long    table of contents size
+ * Data
+ *     entry data, stored or LZ4 block compressed
+ * Table Of Contents (sorted by path)
+ *     short   path length
+ *     byte[]  UTF-8 path
+ *     long    data offset
+ *     int     stored size
+ *     int     uncompressed size
+ *     byte    flags
+ * </pre>
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AssetArchive implements Closeable {
+
+    /**
+     * Archive file type extension.
+     */
+    public static final String EXT = "ctpk";
+
+    /**
+     * Archive magic number ("CTPK").
+     */
+    static final int MAGIC = 0x4B505443;
+
+    /**
+     * Archive format version.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Archive header size in bytes.
+     */
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * Entry flag set when the entry data is LZ4 block compressed.
+     */
+    static final byte FLAG_LZ4 = 0x01;
+
+    /**
+     * Path of the archive file.
+     */
+    private final Path PATH;
+
+    /**
+     * Memory mapping of the entire archive file.
+     */
+    private final MappedByteBuffer BUFFER;
+
+    /**
+     * Native address of the archive mapping.
+     */
+    private final long ADDRESS;
+
+    /**
+     * Sorted entry paths.
+     */
+    private final String[] PATHS;
+
+    /**
+     * Entry data offsets, indexed in the same order as {@link #PATHS}.
+     */
+    private final long[] OFFSETS;
+
+    /**
+     * Stored entry sizes, indexed in the same order as {@link #PATHS}.
+     */
+    private final int[] STORED;
+
+    /**
+     * Uncompressed entry sizes, indexed in the same order as {@link #PATHS}.
+     */
+    private final int[] SIZES;
+
+    /**
+     * Entry flags, indexed in the same order as {@link #PATHS}.
+     */
+    private final byte[] FLAGS;
+
+    /**
+     * Set once the archive has been closed.
+     */
+    private volatile boolean closed;
+
+    private AssetArchive(final Path PATH, final MappedByteBuffer BUFFER) throws IOException {
+        this.PATH = PATH;
+        this.BUFFER = BUFFER;
+        this.ADDRESS = MemoryUtil.memAddress(BUFFER);
+
+        final ByteBuffer header = BUFFER.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (header.capacity() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IOException("Not an asset archive: " + PATH);
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported asset archive version " + header.getInt(4) + ": " + PATH);
+        }
+
+        final int count = header.getInt(8);
+        final long tocOffset = header.getLong(16);
+        final long tocSize = header.getLong(24);
+        if (count < 0 || tocOffset < HEADER_SIZE || tocSize < 0 || tocSize > header.capacity() - tocOffset) {
+            throw new IOException("Corrupt asset archive table of contents: " + PATH);
+        }
+
+        PATHS = new String[count];
+        OFFSETS = new long[count];
+        STORED = new int[count];
+        SIZES = new int[count];
+        FLAGS = new byte[count];
+
+        // Read Table Of Contents \\
+        final ByteBuffer toc = header;
+        toc.limit((int) (tocOffset + tocSize)).position((int) tocOffset);
+        byte[] name = new byte[256];
+        try {
+            for (int i = 0; i < count; i++) {
+                final int length = toc.getShort() & 0xFFFF;
+                if (length > name.length) {
+                    name = new byte[length];
+                }
+                toc.get(name, 0, length);
+                PATHS[i] = new String(name, 0, length, StandardCharsets.UTF_8);
+                OFFSETS[i] = toc.getLong();
+                STORED[i] = toc.getInt();
+                SIZES[i] = toc.getInt();
+                FLAGS[i] = toc.get();
+                if (!isValid(i, tocOffset)) {
+                    throw new IOException("Corrupt asset archive entry '" + PATHS[i] + "': " + PATH);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt asset archive table of contents: " + PATH, e);
+        }
+    }
+
+    /**
+     * Determines if an entry lies entirely within the data section of the
+     * archive. Stored entries are read with their uncompressed size, so their
+     * stored and uncompressed sizes must be equal.
+     */
+    private boolean isValid(final int INDEX, final long DATA_END) {
+        if (OFFSETS[INDEX] < HEADER_SIZE || STORED[INDEX] < 0 || SIZES[INDEX] < 0) {
+            return false;
+        }
+        if ((FLAGS[INDEX] & FLAG_LZ4) == 0 && STORED[INDEX] != SIZES[INDEX]) {
+            return false;
+        }
+        return OFFSETS[INDEX] <= DATA_END - STORED[INDEX];
+    }
+
+    /**
+     * Opens and memory maps an asset archive.
+     *
+     * @param PATH the path of the archive file.
+     * @return the opened archive.
+     * @throws IOException if the file cannot be mapped or is not a valid
+     * archive.
+     */
+    public static AssetArchive open(final Path PATH) throws IOException {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(PATH, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Asset archive exceeds maximum mappable size: " + PATH);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            return new AssetArchive(PATH, buffer);
+        } catch (IOException | RuntimeException e) {
+            BufferUtil.unmap(buffer);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the path of the archive file.
+     */
+    public final Path getPath() {
+        return PATH;
+    }
+
+    /**
+     * @return the number of entries in the archive.
+     */
+    public final int size() {
+        return PATHS.length;
+    }
+
+    /**
+     * Determines if the archive contains the specified asset.
+     *
+     * @param KEY the {@link AssetKey key} of the asset.
+     * @return true if the archive contains an entry for the key.
+     */
+    public final boolean contains(final AssetKey KEY) {
+        return Arrays.binarySearch(PATHS, KEY.getPath()) >= 0;
+    }
+
+    /**
+     * Reads the data of the specified asset. Stored entries are returned as a
+     * zero-copy view of the archive mapping that remains valid until the
+     * archive is {@link #close() closed}. Compressed entries are decompressed
+     * directly from the mapping into a newly allocated native buffer that is
+     * owned by the caller.
+     *
+     * @param KEY the {@link AssetKey key} of the asset to read.
+     * @return the {@link AssetBuffer buffer} containing the asset data, or
+     * null if the archive does not contain the asset.
+     * @throws IOException if the archive has been closed or the entry is
+     * corrupt.
+     */
+    public final AssetBuffer read(final AssetKey KEY) throws IOException {
+        if (closed) {
+            throw new IOException("Asset archive is closed: " + PATH);
+        }
+
+        final int index = Arrays.binarySearch(PATHS, KEY.getPath());
+        if (index < 0) {
+            return null;
+        }
+
+        final long offset = OFFSETS[index];
+        if ((FLAGS[index] & FLAG_LZ4) == 0) {
+            // Stored Entries Were Validated With STORED == SIZES On Open \\
+            return new AssetBuffer(MemoryUtil.memByteBuffer(ADDRESS + offset, STORED[index]), Storage.Shared);
+        }
+
+        final ByteBuffer data = MemoryUtil.memAlloc(SIZES[index]);
+        try {
+            LZ4.decompress(ADDRESS + offset, STORED[index], MemoryUtil.memAddress(data), SIZES[index]);
+        } catch (IllegalArgumentException e) {
+            MemoryUtil.memFree(data);
+            throw new IOException("Corrupt asset archive entry '" + KEY + "': " + PATH, e);
+        }
+        return new AssetBuffer(data, Storage.Allocated);
+    }
+
+    /**
+     * Unmaps the archive. Stored entries previously returned by
+     * {@link #read(AssetKey)} must not be accessed after the archive has been
+     * closed.
+     */
+    @Override
+    public final void close() {
+        if (!closed) {
+            closed = true;
+            BufferUtil.unmap(BUFFER);
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return PATH.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Asset Baker - (C) Cybertekt Software
+ *
+ * {@link AssetLoader Asset loader} that can serialize the assets it decodes
+ * into a baked binary form - already decoded and laid out for direct use -
+ * and restore assets from that form without decoding the source data again.
+ * Baked forms are stored by the {@link AssetBakery asset bakery} and reused
+ * for as long as neither the source data nor the {@link #getVersion() loader
+ * version} changes.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public interface AssetBaker extends AssetLoader {
+
+    /**
+     * Returns the version of the baked form produced by the loader. The
+     * version must be incremented whenever the decoding or the layout of the
+     * baked form changes, which invalidates every previously baked asset.
+     *
+     * @return the baked form version.
+     */
+    public int getVersion();
+
+    /**
+     * Writes the baked form of an asset decoded by this loader.
+     *
+     * @param ASSET the asset to bake.
+     * @param OUT the channel to which the baked form is written.
+     * @throws IOException if the baked form cannot be written.
+     */
+    public void bake(final Asset ASSET, final WritableByteChannel OUT) throws IOException;
+
+    /**
+     * Restores an asset from its baked form. The baked form is memory mapped
+     * and may be retained by the asset by passing it to the
+     * {@link Asset#Asset(AssetKey, AssetBuffer) asset constructor}, otherwise
+     * it is released when this method returns.
+     *
+     * @param KEY the {@link AssetKey key} of the asset.
+     * @param DATA the memory mapped baked form.
+     * @return the restored asset.
+     * @throws IOException if the baked form is invalid.
+     */
+    public Asset restore(final AssetKey KEY, final AssetBuffer DATA) throws IOException;
+
+}
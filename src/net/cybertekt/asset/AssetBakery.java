@@ -0,0 +1,169 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asset Bakery - (C) Cybertekt Software
+ *
+ * Persistent on-disk cache of baked assets. Baked forms are produced by
+ * {@link AssetBaker asset bakers} the first time an asset is decoded from its
+ * source data and are named after a content hash of the source data and the
+ * version of the baker, so a baked form is only reused while both are
+ * unchanged. Later loads memory map the baked form instead of decoding the
+ * source data.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AssetBakery {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AssetBakery.class);
+
+    /**
+     * Default baked asset cache directory.
+     */
+    public static final String DIR = System.getProperty("user.dir").replace('\\', '/') + "/cache/baked/";
+
+    /**
+     * Baked asset file type extension.
+     */
+    public static final String EXT = "baked";
+
+    /**
+     * Hexadecimal digits used to encode content hashes.
+     */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Directory in which baked assets are stored.
+     */
+    private final Path PATH;
+
+    /**
+     * Constructs an asset bakery that stores baked assets in the
+     * {@link #DIR default directory}.
+     *
+     * @throws IOException if the directory cannot be created.
+     */
+    public AssetBakery() throws IOException {
+        this(Paths.get(DIR));
+    }
+
+    /**
+     * Constructs an asset bakery.
+     *
+     * @param PATH the directory in which baked assets are stored.
+     * @throws IOException if the directory cannot be created.
+     */
+    public AssetBakery(final Path PATH) throws IOException {
+        this.PATH = Files.createDirectories(PATH);
+    }
+
+    /**
+     * @return the directory in which baked assets are stored.
+     */
+    public final Path getPath() {
+        return PATH;
+    }
+
+    /**
+     * Computes the file name of the baked form of an asset from the content
+     * hash of its source data and the version of its baker.
+     *
+     * @param INPUT the source data of the asset.
+     * @param BAKER the baker of the asset.
+     * @return the baked form file name.
+     * @throws IOException if the source data cannot be read.
+     */
+    final String name(final AssetInput INPUT, final AssetBaker BAKER) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-1 digest unavailable", e);
+        }
+        INPUT.digest(digest);
+        final byte[] hash = digest.digest();
+        final StringBuilder name = new StringBuilder(hash.length * 2 + 24);
+        for (byte b : hash) {
+            name.append(HEX[(b >>> 4) & 0x0F]).append(HEX[b & 0x0F]);
+        }
+        return name.append('-').append(INPUT.getKey().getType()).append("-v").append(BAKER.getVersion()).append('.').append(EXT).toString();
+    }
+
+    /**
+     * Memory maps a baked form.
+     *
+     * @param NAME the baked form file name.
+     * @return the mapped baked form, or null if it has not been baked.
+     * @throws IOException if the baked form exists but cannot be mapped.
+     */
+    final AssetBuffer open(final String NAME) throws IOException {
+        try {
+            return AssetBuffer.map(PATH.resolve(NAME));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Bakes an asset and stores its baked form. The baked form is written to a
+     * temporary file that is atomically moved into place, so concurrent
+     * processes never observe a partially written baked form.
+     *
+     * @param NAME the baked form file name.
+     * @param BAKER the baker of the asset.
+     * @param ASSET the asset to bake.
+     * @throws IOException if the baked form cannot be written.
+     */
+    final void store(final String NAME, final AssetBaker BAKER, final Asset ASSET) throws IOException {
+        final Path temp = Files.createTempFile(PATH, NAME, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                BAKER.bake(ASSET, channel);
+            }
+            try {
+                Files.move(temp, PATH.resolve(NAME), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, PATH.resolve(NAME), StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOG.debug("Asset baked: {} -> {}", ASSET.getKey(), NAME);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Deletes every baked form in the cache directory.
+     *
+     * @return the number of deleted files.
+     * @throws IOException if the directory cannot be read.
+     */
+    public final int clear() throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(PATH, "*." + EXT)) {
+            for (Path file : stream) {
+                if (Files.deleteIfExists(file)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
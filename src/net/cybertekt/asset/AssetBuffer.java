@@ -0,0 +1,159 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.cybertekt.util.BufferUtil;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Asset Buffer - (C) Cybertekt Software
+ *
+ * Read-only view of the raw data of an external resource held in native
+ * memory. The data is memory mapped directly from the file system, or from an
+ * {@link AssetArchive asset archive}, so it can be passed to native calls
+ * without being copied onto the Java heap. The native memory is released
+ * deterministically by {@link #release()}, which is normally invoked when the
+ * {@link Asset asset} that owns the buffer is
+ * {@link Asset#dispose() disposed}.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AssetBuffer {
+
+    /**
+     * Determines how the native memory of an asset buffer is released.
+     */
+    static enum Storage {
+        /**
+         * The buffer owns a memory mapping that is unmapped on release.
+         */
+        Mapped,
+        /**
+         * The buffer owns memory allocated with {@link MemoryUtil#memAlloc(int)}
+         * that is freed on release.
+         */
+        Allocated,
+        /**
+         * The buffer is a view of memory owned by another object, such as an
+         * {@link AssetArchive asset archive}, and release has no effect on
+         * the memory.
+         */
+        Shared;
+    }
+
+    /**
+     * The native data.
+     */
+    private final ByteBuffer BUFFER;
+
+    /**
+     * Determines how the native memory is released.
+     */
+    private final Storage STORAGE;
+
+    /**
+     * Native address of the first byte of the data.
+     */
+    private final long ADDRESS;
+
+    /**
+     * Set once the native memory has been released.
+     */
+    private final AtomicBoolean RELEASED = new AtomicBoolean();
+
+    AssetBuffer(final ByteBuffer BUFFER, final Storage STORAGE) {
+        this.BUFFER = BUFFER;
+        this.STORAGE = STORAGE;
+        this.ADDRESS = MemoryUtil.memAddress(BUFFER);
+    }
+
+    /**
+     * Memory maps the entire file at the specified path.
+     *
+     * @param PATH the path of the file to map.
+     * @return a new asset buffer that owns the mapping.
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    public static AssetBuffer map(final Path PATH) throws IOException {
+        try (FileChannel channel = FileChannel.open(PATH, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File exceeds maximum mappable size: " + PATH);
+            }
+            // The Mapping Remains Valid After The Channel Is Closed \\
+            return new AssetBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), Storage.Mapped);
+        }
+    }
+
+    /**
+     * Returns a new read-only view of the data, positioned at zero, in native
+     * byte order. The view shares the native memory of this buffer and is
+     * invalid once the buffer has been {@link #release() released}.
+     *
+     * @return a read-only view of the data.
+     * @throws IllegalStateException if the buffer has been released.
+     */
+    public final ByteBuffer get() {
+        checkReleased();
+        return BUFFER.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns the native address of the data for use with LWJGL
+     * {@link MemoryUtil} and native calls.
+     *
+     * @return the native address of the first byte of the data.
+     * @throws IllegalStateException if the buffer has been released.
+     */
+    public final long address() {
+        checkReleased();
+        return ADDRESS;
+    }
+
+    /**
+     * @return the size of the data in bytes.
+     */
+    public final int size() {
+        return BUFFER.capacity();
+    }
+
+    /**
+     * @return true if the native memory has been released.
+     */
+    public final boolean isReleased() {
+        return RELEASED.get();
+    }
+
+    /**
+     * Releases the native memory. Subsequent calls have no effect.
+     */
+    public final void release() {
+        if (RELEASED.compareAndSet(false, true)) {
+            switch (STORAGE) {
+                case Mapped: {
+                    BufferUtil.unmap(BUFFER);
+                    break;
+                }
+                case Allocated: {
+                    MemoryUtil.memFree(BUFFER);
+                    break;
+                }
+                default: {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void checkReleased() {
+        if (RELEASED.get()) {
+            throw new IllegalStateException("Asset buffer has been released");
+        }
+    }
+}
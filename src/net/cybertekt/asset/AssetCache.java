@@ -0,0 +1,491 @@
+package net.cybertekt.asset;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asset Cache - (C) Cybertekt Software
+ *
+ * Thread-safe cache of {@link Asset assets} bounded by the combined heap and
+ * native {@link Asset#getSize() footprint} of its contents. Assets are evicted
+ * with a segmented LRU policy - newly cached assets enter a probationary
+ * segment and are promoted to a protected segment when they are accessed
+ * again - combined with TinyLFU admission, which refuses a new asset if any
+ * asset it would evict has been requested more frequently than it.
+ *
+ * The cache owns the assets it holds. Evicted, replaced and removed assets are
+ * {@link Asset#dispose() disposed}, so the memory they hold is released as
+ * soon as no caller still uses them. Callers that keep using a cached asset
+ * must {@link #acquire(AssetKey) acquire} it and
+ * {@link Asset#relinquish() relinquish} it when they are done. Assets that
+ * must remain cached, such as those referenced by the current scene, should be
+ * {@link #pin(AssetKey) pinned}. Pinned assets are never evicted and may cause
+ * the cache to exceed its budget.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AssetCache {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AssetCache.class);
+
+    /**
+     * Fraction of the budget reserved for the protected segment.
+     */
+    private static final double PROTECTED_RATIO = 0.8;
+
+    /**
+     * Maximum combined footprint of the cached assets in bytes.
+     */
+    private final long BUDGET;
+
+    /**
+     * Maximum combined footprint of the protected segment in bytes.
+     */
+    private final long PROTECTED_BUDGET;
+
+    /**
+     * Cached entries by {@link AssetKey key}.
+     */
+    private final Map<AssetKey, Node> ENTRIES = new HashMap<>();
+
+    /**
+     * Pin counts by {@link AssetKey key}. Keys may be pinned before their
+     * assets are cached.
+     */
+    private final Map<AssetKey, Integer> PINS = new HashMap<>();
+
+    /**
+     * Probationary segment, ordered from least to most recently used.
+     */
+    private final Segment PROBATION = new Segment();
+
+    /**
+     * Protected segment, ordered from least to most recently used.
+     */
+    private final Segment PROTECTED = new Segment();
+
+    /**
+     * Approximate access frequency of recently requested keys.
+     */
+    private final FrequencySketch SKETCH;
+
+    /**
+     * Number of assets evicted since construction.
+     */
+    private long evictions;
+
+    /**
+     * Number of assets rejected by the admission policy since construction.
+     */
+    private long rejections;
+
+    /**
+     * Constructs an asset cache.
+     *
+     * @param BUDGET the maximum combined footprint of the cached assets in
+     * bytes.
+     */
+    public AssetCache(final long BUDGET) {
+        if (BUDGET <= 0) {
+            throw new IllegalArgumentException("Asset cache budget must be positive");
+        }
+        this.BUDGET = BUDGET;
+        this.PROTECTED_BUDGET = (long) (BUDGET * PROTECTED_RATIO);
+        this.SKETCH = new FrequencySketch(4096);
+    }
+
+    /**
+     * Returns the cached asset for the specified key and records the access.
+     *
+     * @param KEY the {@link AssetKey key} of the asset.
+     * @return the cached asset, or null if the asset is not cached.
+     */
+    public final synchronized Asset get(final AssetKey KEY) {
+        SKETCH.increment(KEY.hashCode());
+        final Node node = ENTRIES.get(KEY);
+        if (node == null) {
+            return null;
+        }
+        if (node.segment == PROBATION) {
+            // Promote To Protected Segment \\
+            PROBATION.remove(node);
+            PROTECTED.add(node);
+            demote();
+        } else {
+            PROTECTED.remove(node);
+            PROTECTED.add(node);
+        }
+        return node.ASSET;
+    }
+
+    /**
+     * Returns the cached asset for the specified key with an acquired
+     * reference and records the access. The caller must
+     * {@link Asset#relinquish() relinquish} the reference once it no longer
+     * uses the asset.
+     *
+     * @param KEY the {@link AssetKey key} of the asset.
+     * @return the cached asset, or null if the asset is not cached.
+     */
+    public final synchronized Asset acquire(final AssetKey KEY) {
+        final Asset asset = get(KEY);
+        // Cached Assets Hold The Reference Of The Cache Until They Are Evicted \\
+        return (asset != null && asset.acquire()) ? asset : null;
+    }
+
+    /**
+     * Returns the cached asset for the specified key without recording the
+     * access.
+     *
+     * @param KEY the {@link AssetKey key} of the asset.
+     * @return the cached asset, or null if the asset is not cached.
+     */
+    public final synchronized Asset peek(final AssetKey KEY) {
+        final Node node = ENTRIES.get(KEY);
+        return (node != null) ? node.ASSET : null;
+    }
+
+    /**
+     * Adds an asset to the cache, transferring ownership of the asset to the
+     * cache, and evicts less valuable assets if the budget is exceeded. An
+     * asset already cached under the same key is replaced and disposed. If the
+     * asset is less frequently requested than the assets it would displace it
+     * is not admitted and is disposed, so callers that still use it must have
+     * {@link Asset#acquire() acquired} it beforehand.
+     *
+     * @param ASSET the asset to cache.
+     * @return true if the asset was admitted to the cache.
+     */
+    public final synchronized boolean put(final Asset ASSET) {
+        final AssetKey key = ASSET.getKey();
+        final Node existing = ENTRIES.get(key);
+        if (existing != null) {
+            if (existing.ASSET == ASSET) {
+                return true;
+            }
+            unlink(existing);
+            evict(existing);
+        }
+
+        final Node node = new Node(ASSET);
+        if (!PINS.containsKey(key)) {
+            if (node.SIZE > BUDGET || !admit(node)) {
+                rejections++;
+                LOG.debug("Asset rejected: {} ({} bytes)", key, node.SIZE);
+                ASSET.dispose();
+                return false;
+            }
+        }
+
+        ENTRIES.put(key, node);
+        PROBATION.add(node);
+        trim();
+        return true;
+    }
+
+    /**
+     * Removes and {@link Asset#dispose() disposes} the cached asset for the
+     * specified key. The asset is released once every acquired reference to
+     * it has been relinquished.
+     *
+     * @param KEY the {@link AssetKey key} of the asset.
+     * @return true if an asset was removed.
+     */
+    public final synchronized boolean remove(final AssetKey KEY) {
+        final Node node = ENTRIES.get(KEY);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        node.ASSET.dispose();
+        return true;
+    }
+
+    /**
+     * Pins the asset with the specified key so that it cannot be evicted. Pins
+     * are counted, so every call must be matched by a call to
+     * {@link #unpin(AssetKey)}. A key may be pinned before its asset has been
+     * loaded.
+     *
+     * @param KEY the {@link AssetKey key} of the asset to pin.
+     */
+    public final synchronized void pin(final AssetKey KEY) {
+        PINS.merge(KEY, 1, Integer::sum);
+    }
+
+    /**
+     * Releases a pin acquired by {@link #pin(AssetKey)}. The asset becomes
+     * eligible for eviction once all of its pins have been released.
+     *
+     * @param KEY the {@link AssetKey key} of the asset to unpin.
+     */
+    public final synchronized void unpin(final AssetKey KEY) {
+        final Integer count = PINS.get(KEY);
+        if (count == null) {
+            throw new IllegalStateException("Asset is not pinned: " + KEY);
+        }
+        if (count == 1) {
+            PINS.remove(KEY);
+            trim();
+        } else {
+            PINS.put(KEY, count - 1);
+        }
+    }
+
+    /**
+     * @param KEY the {@link AssetKey key} of the asset.
+     * @return true if the asset is pinned.
+     */
+    public final synchronized boolean isPinned(final AssetKey KEY) {
+        return PINS.containsKey(KEY);
+    }
+
+    /**
+     * Removes and {@link Asset#dispose() disposes} every unpinned asset.
+     * Assets are released once every acquired reference to them has been
+     * relinquished.
+     */
+    public final synchronized void clear() {
+        for (Node node : ENTRIES.values().toArray(new Node[ENTRIES.size()])) {
+            if (!PINS.containsKey(node.ASSET.getKey())) {
+                unlink(node);
+                node.ASSET.dispose();
+            }
+        }
+    }
+
+    /**
+     * @return the maximum combined footprint of the cached assets in bytes.
+     */
+    public final long getBudget() {
+        return BUDGET;
+    }
+
+    /**
+     * @return the combined footprint of the cached assets in bytes.
+     */
+    public final synchronized long getUsage() {
+        return PROBATION.size + PROTECTED.size;
+    }
+
+    /**
+     * @return the number of cached assets.
+     */
+    public final synchronized int size() {
+        return ENTRIES.size();
+    }
+
+    /**
+     * @return the number of assets evicted since construction.
+     */
+    public final synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of assets rejected by the admission policy since
+     * construction.
+     */
+    public final synchronized long getRejections() {
+        return rejections;
+    }
+
+    /**
+     * TinyLFU admission - determines if a new entry is worth the entries that
+     * would have to be evicted to make room for it.
+     */
+    private boolean admit(final Node CANDIDATE) {
+        long required = getUsage() + CANDIDATE.SIZE - BUDGET;
+        if (required <= 0) {
+            return true;
+        }
+        final int frequency = SKETCH.frequency(CANDIDATE.ASSET.getKey().hashCode());
+        for (Segment segment : new Segment[]{PROBATION, PROTECTED}) {
+            for (Node victim = segment.head; victim != null && required > 0; victim = victim.next) {
+                if (PINS.containsKey(victim.ASSET.getKey())) {
+                    continue;
+                }
+                if (SKETCH.frequency(victim.ASSET.getKey().hashCode()) > frequency) {
+                    return false;
+                }
+                required -= victim.SIZE;
+            }
+        }
+        return required <= 0;
+    }
+
+    /**
+     * Evicts unpinned entries, least valuable first, until the cache is within
+     * its budget.
+     */
+    private void trim() {
+        trim(PROBATION);
+        trim(PROTECTED);
+        if (getUsage() > BUDGET) {
+            LOG.debug("Asset cache exceeds budget due to pinned assets: {} / {} bytes", getUsage(), BUDGET);
+        }
+    }
+
+    private void trim(final Segment SEGMENT) {
+        Node node = SEGMENT.head;
+        while (node != null && getUsage() > BUDGET) {
+            final Node next = node.next;
+            if (!PINS.containsKey(node.ASSET.getKey())) {
+                unlink(node);
+                evict(node);
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * Moves least recently used entries from the protected segment back to the
+     * probationary segment while the protected segment exceeds its share of
+     * the budget.
+     */
+    private void demote() {
+        while (PROTECTED.size > PROTECTED_BUDGET && PROTECTED.head != PROTECTED.tail) {
+            final Node node = PROTECTED.head;
+            PROTECTED.remove(node);
+            PROBATION.add(node);
+        }
+    }
+
+    private void unlink(final Node NODE) {
+        NODE.segment.remove(NODE);
+        ENTRIES.remove(NODE.ASSET.getKey());
+    }
+
+    private void evict(final Node NODE) {
+        evictions++;
+        LOG.debug("Asset evicted: {} ({} bytes)", NODE.ASSET.getKey(), NODE.SIZE);
+        NODE.ASSET.dispose();
+    }
+
+    /**
+     * Cache entry.
+     */
+    private static final class Node {
+
+        private final Asset ASSET;
+
+        /**
+         * Footprint of the asset when it was cached.
+         */
+        private final long SIZE;
+
+        private Segment segment;
+
+        private Node prev, next;
+
+        private Node(final Asset ASSET) {
+            this.ASSET = ASSET;
+            this.SIZE = ASSET.getSize();
+        }
+    }
+
+    /**
+     * Doubly linked list of entries ordered from least to most recently used.
+     */
+    private static final class Segment {
+
+        private Node head, tail;
+
+        /**
+         * Combined footprint of the entries in the segment.
+         */
+        private long size;
+
+        private void add(final Node NODE) {
+            NODE.segment = this;
+            NODE.prev = tail;
+            NODE.next = null;
+            if (tail != null) {
+                tail.next = NODE;
+            } else {
+                head = NODE;
+            }
+            tail = NODE;
+            size += NODE.SIZE;
+        }
+
+        private void remove(final Node NODE) {
+            if (NODE.prev != null) {
+                NODE.prev.next = NODE.next;
+            } else {
+                head = NODE.next;
+            }
+            if (NODE.next != null) {
+                NODE.next.prev = NODE.prev;
+            } else {
+                tail = NODE.prev;
+            }
+            NODE.prev = NODE.next = null;
+            NODE.segment = null;
+            size -= NODE.SIZE;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters used to estimate how often a key has
+     * been requested. All counters are halved periodically so that the
+     * estimates favor recent history.
+     */
+    private static final class FrequencySketch {
+
+        private static final int DEPTH = 4;
+
+        private static final int[] SEEDS = {0x97CB3127, 0xB9D6D4F5, 0x8E5A5E63, 0xC2B2AE35};
+
+        private final byte[] TABLE;
+
+        private final int MASK;
+
+        private final int SAMPLE_SIZE;
+
+        private int additions;
+
+        private FrequencySketch(final int WIDTH) {
+            TABLE = new byte[WIDTH * DEPTH];
+            MASK = WIDTH - 1;
+            SAMPLE_SIZE = WIDTH * 10;
+        }
+
+        private void increment(final int HASH) {
+            boolean added = false;
+            for (int i = 0; i < DEPTH; i++) {
+                final int index = index(HASH, i);
+                if (TABLE[index] < 15) {
+                    TABLE[index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= SAMPLE_SIZE) {
+                for (int i = 0; i < TABLE.length; i++) {
+                    TABLE[i] >>= 1;
+                }
+                additions >>= 1;
+            }
+        }
+
+        private int frequency(final int HASH) {
+            int min = 15;
+            for (int i = 0; i < DEPTH; i++) {
+                min = Math.min(min, TABLE[index(HASH, i)]);
+            }
+            return min;
+        }
+
+        private int index(final int HASH, final int ROW) {
+            int h = HASH * SEEDS[ROW];
+            h ^= h >>> 16;
+            return (ROW * (MASK + 1)) + (h & MASK);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package net.cybertekt.asset;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Asset Dependencies - (C) Cybertekt Software
+ *
+ * Thread-safe directed graph of the dependencies between
+ * {@link AssetKey assets}. An asset depends on another asset if its decoded
+ * form is derived from the data of the other asset, for example a material
+ * that references a texture. The graph is used to determine which assets
+ * must be reloaded when the external resource of an asset changes.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AssetDependencies {
+
+    /**
+     * Direct dependencies of each asset.
+     */
+    private final Map<AssetKey, Set<AssetKey>> DEPENDENCIES = new HashMap<>();
+
+    /**
+     * Direct dependents of each asset.
+     */
+    private final Map<AssetKey, Set<AssetKey>> DEPENDENTS = new HashMap<>();
+
+    /**
+     * Replaces the direct dependencies of an asset.
+     *
+     * @param KEY the {@link AssetKey key} of the dependent asset.
+     * @param DEPENDENCIES the keys of the assets on which it depends.
+     */
+    public final synchronized void set(final AssetKey KEY, final Collection<AssetKey> DEPENDENCIES) {
+        remove(KEY);
+        for (AssetKey dependency : DEPENDENCIES) {
+            add(KEY, dependency);
+        }
+    }
+
+    /**
+     * Records that an asset depends on another asset.
+     *
+     * @param KEY the {@link AssetKey key} of the dependent asset.
+     * @param DEPENDENCY the key of the asset on which it depends.
+     */
+    public final synchronized void add(final AssetKey KEY, final AssetKey DEPENDENCY) {
+        if (KEY == DEPENDENCY) {
+            return;
+        }
+        DEPENDENCIES.computeIfAbsent(KEY, key -> new HashSet<>()).add(DEPENDENCY);
+        DEPENDENTS.computeIfAbsent(DEPENDENCY, key -> new HashSet<>()).add(KEY);
+    }
+
+    /**
+     * Removes every direct dependency of an asset.
+     *
+     * @param KEY the {@link AssetKey key} of the dependent asset.
+     */
+    public final synchronized void remove(final AssetKey KEY) {
+        final Set<AssetKey> dependencies = DEPENDENCIES.remove(KEY);
+        if (dependencies != null) {
+            for (AssetKey dependency : dependencies) {
+                final Set<AssetKey> dependents = DEPENDENTS.get(dependency);
+                if (dependents != null && dependents.remove(KEY) && dependents.isEmpty()) {
+                    DEPENDENTS.remove(dependency);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param KEY the {@link AssetKey key} of an asset.
+     * @return the keys of the assets on which the asset directly depends.
+     */
+    public final synchronized Set<AssetKey> getDependencies(final AssetKey KEY) {
+        final Set<AssetKey> dependencies = DEPENDENCIES.get(KEY);
+        return (dependencies != null) ? new HashSet<>(dependencies) : Collections.<AssetKey>emptySet();
+    }
+
+    /**
+     * Returns the specified assets together with every asset that directly or
+     * transitively depends on them, in dependency order - every asset follows
+     * the affected assets on which it depends. Assets that depend on each
+     * other cyclically are returned in an arbitrary order.
+     *
+     * @param KEYS the {@link AssetKey keys} of the changed assets.
+     * @return the keys of every affected asset in dependency order.
+     */
+    public final synchronized List<AssetKey> affected(final Collection<AssetKey> KEYS) {
+        final Set<AssetKey> affected = new HashSet<>(KEYS);
+        final Deque<AssetKey> queue = new ArrayDeque<>(KEYS);
+        while (!queue.isEmpty()) {
+            final Set<AssetKey> dependents = DEPENDENTS.get(queue.poll());
+            if (dependents != null) {
+                for (AssetKey dependent : dependents) {
+                    if (affected.add(dependent)) {
+                        queue.add(dependent);
+                    }
+                }
+            }
+        }
+
+        final List<AssetKey> order = new ArrayList<>(affected.size());
+        final Set<AssetKey> visited = new HashSet<>();
+        for (AssetKey key : affected) {
+            sort(key, affected, visited, order);
+        }
+        return order;
+    }
+
+    /**
+     * Depth first topological sort - appends the affected dependencies of an
+     * asset to the order before the asset itself.
+     */
+    private void sort(final AssetKey KEY, final Set<AssetKey> AFFECTED, final Set<AssetKey> VISITED, final List<AssetKey> ORDER) {
+        if (!VISITED.add(KEY)) {
+            return;
+        }
+        final Set<AssetKey> dependencies = DEPENDENCIES.get(KEY);
+        if (dependencies != null) {
+            for (AssetKey dependency : dependencies) {
+                if (AFFECTED.contains(dependency)) {
+                    sort(dependency, AFFECTED, VISITED, ORDER);
+                }
+            }
+        }
+        ORDER.add(KEY);
+    }
+}
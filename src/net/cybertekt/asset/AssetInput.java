@@ -0,0 +1,292 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Asset Input - (C) Cybertekt Software
+ *
+ * Source of the raw data supplied to an {@link AssetLoader asset loader}. The
+ * data is either backed by a memory mapped {@link AssetBuffer buffer}, or
+ * streamed from the file system through a fixed-size native window so that
+ * very large external resources never have to be held in memory in their
+ * entirety. Loaders may consume the data incrementally through
+ * {@link #window(int)} or {@link #channel()}, or take ownership of the entire
+ * data through {@link #retain()}.
+ *
+ * An asset input is confined to the thread that invokes the loader and is
+ * closed by the {@link AssetManager asset manager} once the loader returns.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AssetInput {
+
+    /**
+     * Default size in bytes of the native window used for streamed inputs.
+     */
+    public static final int WINDOW_SIZE = 1 << 20;
+
+    /**
+     * {@link AssetKey Key} of the asset being loaded.
+     */
+    private final AssetKey KEY;
+
+    /**
+     * Path of the streamed file, or null if the input is buffer-backed.
+     */
+    private final Path PATH;
+
+    /**
+     * Channel of the streamed file, or null if the input is buffer-backed.
+     */
+    private final FileChannel CHANNEL;
+
+    /**
+     * Size of the data in bytes.
+     */
+    private final long SIZE;
+
+    /**
+     * Buffer containing the entire data. Null for streamed inputs until
+     * {@link #retain()} is invoked.
+     */
+    private AssetBuffer buffer;
+
+    /**
+     * Current read window.
+     */
+    private ByteBuffer window;
+
+    /**
+     * Lazily constructed channel view of the data.
+     */
+    private ReadableByteChannel channel;
+
+    /**
+     * Keys of the assets on which the asset being loaded depends.
+     */
+    private List<AssetKey> dependencies;
+
+    /**
+     * Constructs a buffer-backed input.
+     */
+    AssetInput(final AssetKey KEY, final AssetBuffer BUFFER) {
+        this.KEY = KEY;
+        this.PATH = null;
+        this.CHANNEL = null;
+        this.SIZE = BUFFER.size();
+        this.buffer = BUFFER;
+    }
+
+    /**
+     * Constructs a streamed input. The input takes ownership of the channel.
+     */
+    AssetInput(final AssetKey KEY, final Path PATH, final FileChannel CHANNEL, final long SIZE) {
+        this.KEY = KEY;
+        this.PATH = PATH;
+        this.CHANNEL = CHANNEL;
+        this.SIZE = SIZE;
+    }
+
+    /**
+     * @return the {@link AssetKey key} of the asset being loaded.
+     */
+    public final AssetKey getKey() {
+        return KEY;
+    }
+
+    /**
+     * @return the size of the data in bytes.
+     */
+    public final long size() {
+        return SIZE;
+    }
+
+    /**
+     * @return true if the entire data is available in memory without
+     * streaming.
+     */
+    public final boolean isMapped() {
+        return CHANNEL == null;
+    }
+
+    /**
+     * Returns the current read window. Loaders consume data by advancing the
+     * position of the window. For streamed inputs, unconsumed data is
+     * compacted to the start of the window and the remainder of the window is
+     * refilled whenever fewer than MIN bytes remain. For buffer-backed inputs
+     * the window always contains all of the remaining data.
+     *
+     * The window is a native buffer that is only valid until the next call to
+     * this method and must not be referenced once the loader returns.
+     *
+     * @param MIN the minimum number of bytes required by the loader.
+     * @return the read window, containing at least MIN bytes unless the end of
+     * the data has been reached.
+     * @throws IOException if the data cannot be read.
+     */
+    public final ByteBuffer window(final int MIN) throws IOException {
+        if (CHANNEL == null) {
+            if (window == null) {
+                window = buffer.get();
+            }
+            return window;
+        }
+
+        if (window == null) {
+            window = MemoryUtil.memAlloc(Math.max(WINDOW_SIZE, MIN));
+            window.limit(0);
+        } else if (window.remaining() >= MIN) {
+            return window;
+        } else if (MIN > window.capacity()) {
+            final int position = window.position(), limit = window.limit();
+            window = MemoryUtil.memRealloc(window, MIN);
+            window.limit(limit).position(position);
+        }
+
+        window.compact();
+        while (window.hasRemaining() && CHANNEL.read(window) != -1) {
+        }
+        window.flip();
+        return window;
+    }
+
+    /**
+     * Returns a channel view of the remaining data. Data already buffered in
+     * the {@link #window(int) read window} is returned first. Loaders should
+     * not mix reads from the channel with further use of the window.
+     *
+     * @return a readable channel of the remaining data.
+     */
+    public final ReadableByteChannel channel() {
+        if (channel == null) {
+            channel = new ReadableByteChannel() {
+                @Override
+                public int read(final ByteBuffer DST) throws IOException {
+                    final ByteBuffer src = (window != null || CHANNEL == null) ? window(1) : null;
+                    if (src == null) {
+                        return CHANNEL.read(DST);
+                    }
+                    if (!src.hasRemaining()) {
+                        return -1;
+                    }
+                    final int count = Math.min(src.remaining(), DST.remaining());
+                    final int limit = src.limit();
+                    src.limit(src.position() + count);
+                    DST.put(src);
+                    src.limit(limit);
+                    return count;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+        return channel;
+    }
+
+    /**
+     * Takes ownership of the entire data as a native {@link AssetBuffer
+     * buffer} without copying it. Streamed inputs are memory mapped. Passing
+     * the buffer to the {@link Asset#Asset(AssetKey, AssetBuffer) asset
+     * constructor} ties its lifetime to the asset, otherwise the buffer is
+     * released when the loader returns.
+     *
+     * @return the buffer containing the entire data.
+     * @throws IOException if a streamed input cannot be mapped.
+     */
+    public final AssetBuffer retain() throws IOException {
+        if (buffer == null) {
+            buffer = AssetBuffer.map(PATH);
+        }
+        return buffer;
+    }
+
+    /**
+     * Declares that the asset being loaded depends on another asset, so that
+     * it is reloaded whenever the other asset changes. Loaders must declare
+     * every external resource that contributes to the decoded asset.
+     *
+     * @param DEPENDENCY the {@link AssetKey key} of the asset on which the
+     * asset being loaded depends.
+     */
+    public final void dependsOn(final AssetKey DEPENDENCY) {
+        if (dependencies == null) {
+            dependencies = new ArrayList<>(4);
+        }
+        dependencies.add(DEPENDENCY);
+    }
+
+    /**
+     * @return the keys of the assets on which the asset being loaded depends.
+     */
+    final List<AssetKey> getDependencies() {
+        return (dependencies != null) ? dependencies : Collections.<AssetKey>emptyList();
+    }
+
+    /**
+     * Updates a digest with the entire data without consuming the input.
+     * Streamed inputs are read with positional reads through a temporary
+     * native buffer.
+     *
+     * @param DIGEST the digest to update.
+     * @throws IOException if the data cannot be read.
+     */
+    final void digest(final MessageDigest DIGEST) throws IOException {
+        if (buffer != null) {
+            DIGEST.update(buffer.get());
+            return;
+        }
+        final ByteBuffer chunk = MemoryUtil.memAlloc(WINDOW_SIZE);
+        try {
+            long position = 0;
+            int read;
+            while ((read = CHANNEL.read(chunk, position)) != -1) {
+                chunk.flip();
+                DIGEST.update(chunk);
+                chunk.clear();
+                position += read;
+            }
+        } finally {
+            MemoryUtil.memFree(chunk);
+        }
+    }
+
+    /**
+     * Releases the resources of the input. The {@link AssetBuffer buffer} is
+     * released unless it has been transferred to the loaded asset.
+     *
+     * @param ASSET the loaded asset, or null if the load failed.
+     */
+    final void close(final Asset ASSET) {
+        if (buffer != null && (ASSET == null || ASSET.getBuffer() != buffer)) {
+            buffer.release();
+        }
+        if (CHANNEL != null) {
+            if (window != null) {
+                MemoryUtil.memFree(window);
+                window = null;
+            }
+            try {
+                CHANNEL.close();
+            } catch (IOException e) {
+                // Ignored - The Channel Is Read Only \\
+            }
+        }
+    }
+}
@@ -1,14 +1,136 @@
 package net.cybertekt.asset;
 
+import net.cybertekt.util.CacheMap;
+import net.cybertekt.util.CacheMap.CacheMode;
+import net.cybertekt.util.CacheMap.CacheType;
+import net.cybertekt.util.CacheStats;
+
 /**
  * Asset Key - (C) Cybertekt Software
  *
  * Immutable object that specifies the file path location, relative to the
  * {@link AssetManager#DIR base assets directory}, of an external resource.
+ * Asset keys are interned flyweights - paths are normalized once, when a key
+ * is first created, and only one instance exists for each normalized path, so
+ * asset keys may be compared by reference.
  *
  * @version 1.2.0
  * @author Andrew Vektor
  */
 public final class AssetKey {
 
+    /**
+     * {@link CacheMap Cache} that stores every unique asset key created by the
+     * {@link #get(java.lang.String)} static utility method. Keys are cached by
+     * their normalized path and by every alternate spelling that has been
+     * requested, so repeated lookups never allocate or re-normalize.
+     */
+    private static final CacheMap<String, AssetKey> CACHE = new CacheMap(CacheType.Concurrent, CacheMode.Weak);
+
+    static {
+        if (CacheStats.isRequested()) {
+            CACHE.enableStats("AssetKey").register();
+        }
+    }
+
+    /**
+     * Normalized file path of the external resource relative to the
+     * {@link AssetManager#DIR base assets directory}.
+     */
+    private final String PATH;
+
+    /**
+     * {@link AssetType Type} of the external resource.
+     */
+    private final AssetType TYPE;
+
+    /**
+     * Hash code computed during construction.
+     */
+    private final int HASH;
+
+    private AssetKey(final String PATH) {
+        this.PATH = PATH;
+        final int dot = PATH.lastIndexOf('.');
+        this.TYPE = AssetType.getType((dot > PATH.lastIndexOf('/')) ? PATH.substring(dot + 1) : "");
+        this.HASH = PATH.hashCode();
+    }
+
+    /**
+     * Returns the canonical asset key for the specified file path. Back
+     * slashes are converted to forward slashes and empty, "." and ".."
+     * segments are resolved. A cache hit performs no allocation.
+     *
+     * @param PATH the file path relative to the
+     * {@link AssetManager#DIR base assets directory}.
+     * @return the canonical asset key for the path.
+     * @throws IllegalArgumentException if the path resolves to a location
+     * outside the assets directory.
+     */
+    public static final AssetKey get(final String PATH) {
+        final AssetKey key = CACHE.get(PATH);
+        if (key != null) {
+            return key;
+        }
+        final String path = normalize(PATH);
+        final AssetKey canonical = CACHE.getOrLoad(path, AssetKey::new);
+        return path.equals(PATH) ? canonical : CACHE.getOrLoad(PATH, alias -> canonical);
+    }
+
+    /**
+     * @return the normalized file path relative to the
+     * {@link AssetManager#DIR base assets directory}.
+     */
+    public final String getPath() {
+        return PATH;
+    }
+
+    /**
+     * @return the {@link AssetType type} of the external resource.
+     */
+    public final AssetType getType() {
+        return TYPE;
+    }
+
+    @Override
+    public final int hashCode() {
+        return HASH;
+    }
+
+    @Override
+    public final String toString() {
+        return PATH;
+    }
+
+    /**
+     * Normalizes a relative file path.
+     *
+     * @param PATH the file path to normalize.
+     * @return the normalized path.
+     */
+    private static String normalize(final String PATH) {
+        final String[] segments = PATH.replace('\\', '/').split("/");
+        int count = 0;
+        for (String segment : segments) {
+            if (segment.isEmpty() || segment.equals(".")) {
+                continue;
+            }
+            if (segment.equals("..")) {
+                if (count == 0) {
+                    throw new IllegalArgumentException("Asset path is outside the assets directory: " + PATH);
+                }
+                count--;
+            } else {
+                segments[count++] = segment;
+            }
+        }
+        final StringBuilder path = new StringBuilder(PATH.length());
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                path.append('/');
+            }
+            path.append(segments[i]);
+        }
+        return path.toString();
+    }
 }
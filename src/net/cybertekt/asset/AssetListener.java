@@ -0,0 +1,26 @@
+package net.cybertekt.asset;
+
+/**
+ * Asset Listener - (C) Cybertekt Software
+ *
+ * Receives notifications when the {@link AssetManager asset manager} reloads
+ * an asset whose external resource, or one of whose dependencies, has
+ * changed. Listeners are notified from asset manager threads.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public interface AssetListener {
+
+    /**
+     * Invoked after an asset has been reloaded and before the reloaded asset
+     * replaces the previous asset in the cache. Listeners should replace any
+     * references to the previous asset, which may be evicted from the cache,
+     * and disposed, once every listener has been notified.
+     *
+     * @param PREVIOUS the previously loaded asset.
+     * @param ASSET the reloaded asset.
+     */
+    public void reloaded(final Asset PREVIOUS, final Asset ASSET);
+
+}
@@ -0,0 +1,46 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+
+/**
+ * Asset Loader - (C) Cybertekt Software
+ *
+ * Decodes the raw data of an external resource into an {@link Asset asset}.
+ * Loaders are invoked concurrently from the {@link AssetManager asset manager}
+ * decode threads and must therefore be stateless or thread-safe.
+ *
+ * The raw data is supplied as an {@link AssetInput asset input}. Loaders
+ * should parse the data incrementally through its read window or channel so
+ * that large external resources never have to be held in memory in their
+ * entirety. A loader that needs the entire data beyond the call to
+ * {@link #load(AssetInput)} takes ownership of it through
+ * {@link AssetInput#retain()} and passes the buffer to the
+ * {@link Asset#Asset(AssetKey, AssetBuffer) asset constructor}.
+ *
+ * Loaders are registered with the {@link AssetLoaders loader registry} of an
+ * asset manager, either explicitly or through {@link java.util.ServiceLoader}
+ * by listing the implementation class in
+ * META-INF/services/net.cybertekt.asset.AssetLoader. Service loaders require
+ * a public no-argument constructor.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public interface AssetLoader {
+
+    /**
+     * @return the {@link AssetType asset types} decoded by the loader.
+     */
+    public AssetType[] getTypes();
+
+    /**
+     * Decodes the raw data of an external resource.
+     *
+     * @param INPUT the {@link AssetInput input} containing the data of the
+     * asset being loaded.
+     * @return the decoded {@link Asset asset}.
+     * @throws IOException if the data cannot be read or decoded.
+     */
+    public Asset load(final AssetInput INPUT) throws IOException;
+
+}
@@ -0,0 +1,96 @@
+package net.cybertekt.asset;
+
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asset Loaders - (C) Cybertekt Software
+ *
+ * Thread-safe registry that maps {@link AssetType asset types} to the
+ * {@link AssetLoader asset loaders} that decode them. Registering a loader for
+ * a type replaces any loader previously registered for that type.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AssetLoaders {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AssetLoaders.class);
+
+    /**
+     * Registered loaders by {@link AssetType asset type}. Asset types are
+     * interned, so the map is effectively an identity map.
+     */
+    private final Map<AssetType, AssetLoader> LOADERS = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a loader for every {@link AssetType type} it reports through
+     * {@link AssetLoader#getTypes()}.
+     *
+     * @param LOADER the loader to register.
+     */
+    public final void register(final AssetLoader LOADER) {
+        register(LOADER, LOADER.getTypes());
+    }
+
+    /**
+     * Registers a loader for the specified {@link AssetType types}.
+     *
+     * @param LOADER the loader to register.
+     * @param TYPES the types decoded by the loader.
+     */
+    public final void register(final AssetLoader LOADER, final AssetType... TYPES) {
+        for (AssetType type : TYPES) {
+            final AssetLoader last = LOADERS.put(type, LOADER);
+            if (last != null && last != LOADER) {
+                LOG.debug("Asset loader for type '{}' replaced: {} -> {}", type, last.getClass().getName(), LOADER.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Removes the loader registered for the specified type.
+     *
+     * @param TYPE the asset type.
+     */
+    public final void unregister(final AssetType TYPE) {
+        LOADERS.remove(TYPE);
+    }
+
+    /**
+     * @param TYPE the asset type.
+     * @return the loader registered for the type, or null if no loader has
+     * been registered.
+     */
+    public final AssetLoader get(final AssetType TYPE) {
+        return LOADERS.get(TYPE);
+    }
+
+    /**
+     * Registers every {@link AssetLoader loader} declared as a service
+     * provider and visible to the specified class loader.
+     *
+     * @param CLASS_LOADER the class loader used to locate providers.
+     * @return the number of loaders registered.
+     */
+    public final int discover(final ClassLoader CLASS_LOADER) {
+        int count = 0;
+        try {
+            for (AssetLoader loader : ServiceLoader.load(AssetLoader.class, CLASS_LOADER)) {
+                register(loader);
+                count++;
+                LOG.debug("Discovered asset loader {}", loader.getClass().getName());
+            }
+        } catch (ServiceConfigurationError e) {
+            LOG.error("Asset loader discovery failed", e);
+        }
+        return count;
+    }
+}
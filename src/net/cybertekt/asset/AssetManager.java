@@ -1,11 +1,67 @@
 package net.cybertekt.asset;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Asset Manager - (C) Cybertekt Software
  *
+ * Loads {@link Asset assets} asynchronously. Every load is split into an I/O
+ * phase, executed on a bounded pool of I/O threads, and a decode phase,
+ * executed on a bounded pool of decode threads sized to the number of
+ * available processors. Concurrent requests for the same
+ * {@link AssetKey asset key} are merged into a single load.
+ *
+ * Assets are resolved against every mounted {@link AssetArchive asset
+ * archive}, in mount order, before falling back to the loose files in the
+ * {@link #DIR assets directory}. Loose files larger than
+ * {@link #STREAM_THRESHOLD} are streamed to their loaders instead of being
+ * mapped in their entirety.
+ *
+ * Loaded assets are cached in an {@link AssetCache asset cache} that bounds
+ * the combined heap and native footprint of the cached assets, disposes the
+ * assets it evicts, replaces or removes, and supports
+ * {@link #pin(AssetKey) pinning}. Every asset returned by the asset
+ * manager is {@link Asset#acquire() acquired} on behalf of the caller, so it
+ * remains valid if the cache evicts it, until the caller
+ * {@link Asset#relinquish() relinquishes} it.
+ *
+ * If an {@link AssetBakery asset bakery} is set, assets decoded by
+ * {@link AssetBaker asset bakers} are baked to disk the first time they are
+ * decoded, and restored from their memory mapped baked form by later loads.
+ *
+ * In {@link Mode#Development development mode} the assets directory is
+ * watched for changes. Cached assets whose external resources change are
+ * reloaded together with every asset that depends on them, as recorded in the
+ * {@link AssetDependencies dependency graph}, and
+ * {@link AssetListener asset listeners} are notified. All other cached assets
+ * are unaffected.
+ *
  * @version 1.2.0
  * @author Andrew Vektor
  */
@@ -23,4 +79,698 @@ public final class AssetManager {
      */
     public static final String DIR = System.getProperty("user.dir").replace('\\', '/') + "/assets/";
 
+    /**
+     * Determines whether the asset manager reloads assets when their external
+     * resources change.
+     */
+    public static enum Mode {
+        /**
+         * Assets are loaded once and external resources are not watched.
+         */
+        Production,
+        /**
+         * The {@link AssetManager#DIR assets directory} is watched and changed
+         * assets, and their dependents, are reloaded.
+         */
+        Development;
+    }
+
+    /**
+     * Default number of I/O threads. I/O threads spend most of their time
+     * blocked on the file system, so the pool is larger than the number of
+     * available processors.
+     */
+    public static final int IO_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * Default number of decode threads.
+     */
+    public static final int DECODE_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Size in bytes above which loose files are streamed through a fixed-size
+     * window instead of being memory mapped.
+     */
+    public static final long STREAM_THRESHOLD = 16L << 20;
+
+    /**
+     * Default maximum combined footprint of the cached assets in bytes.
+     */
+    public static final long DEFAULT_BUDGET = 256L << 20;
+
+    /**
+     * Bounded executor that reads the raw data of external resources.
+     */
+    private final ExecutorService IO;
+
+    /**
+     * Bounded executor that decodes raw data into {@link Asset assets}.
+     */
+    private final ExecutorService DECODE;
+
+    /**
+     * Registry of {@link AssetLoader asset loaders}.
+     */
+    private final AssetLoaders LOADERS = new AssetLoaders();
+
+    /**
+     * Mounted {@link AssetArchive asset archives} in resolution order.
+     */
+    private final List<AssetArchive> ARCHIVES = new CopyOnWriteArrayList<>();
+
+    /**
+     * Loads that are currently in progress. Used to merge concurrent requests
+     * for the same {@link AssetKey asset key} into a single load.
+     */
+    private final ConcurrentHashMap<AssetKey, CompletableFuture<Asset>> PENDING = new ConcurrentHashMap<>();
+
+    /**
+     * Keys whose external resources changed while they were being loaded.
+     * They are reloaded once the load in progress completes.
+     */
+    private final Set<AssetKey> STALE = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Byte-budgeted {@link AssetCache cache} of loaded assets.
+     */
+    private final AssetCache CACHE;
+
+    /**
+     * Dependency graph of loaded assets.
+     */
+    private final AssetDependencies DEPENDENCIES = new AssetDependencies();
+
+    /**
+     * Listeners notified when assets are reloaded.
+     */
+    private final List<AssetListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Watches the assets directory in {@link Mode#Development development
+     * mode}, otherwise null.
+     */
+    private AssetWatcher watcher;
+
+    /**
+     * Persistent cache of baked assets, or null if baking is disabled.
+     */
+    private volatile AssetBakery bakery;
+
+    /**
+     * Constructs an asset manager that caches assets within the
+     * {@link #DEFAULT_BUDGET default budget}.
+     */
+    public AssetManager() {
+        this(IO_THREADS, DECODE_THREADS, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Constructs an asset manager that caches assets within a budget.
+     *
+     * @param BUDGET the maximum combined footprint of the cached assets in
+     * bytes.
+     */
+    public AssetManager(final long BUDGET) {
+        this(IO_THREADS, DECODE_THREADS, BUDGET);
+    }
+
+    /**
+     * Constructs an asset manager.
+     *
+     * @param IO_THREADS the number of I/O threads.
+     * @param DECODE_THREADS the number of decode threads.
+     * @param BUDGET the maximum combined footprint of the cached assets in
+     * bytes.
+     */
+    public AssetManager(final int IO_THREADS, final int DECODE_THREADS, final long BUDGET) {
+        IO = createExecutor("Asset-IO", IO_THREADS);
+        DECODE = createExecutor("Asset-Decode", DECODE_THREADS);
+        CACHE = new AssetCache(BUDGET);
+        LOADERS.discover(Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * @return the byte-budgeted {@link AssetCache asset cache} of loaded
+     * assets.
+     */
+    public final AssetCache getCache() {
+        return CACHE;
+    }
+
+    /**
+     * Sets the {@link Mode mode} of the asset manager. Entering
+     * {@link Mode#Development development mode} starts watching the
+     * {@link #DIR assets directory}, entering
+     * {@link Mode#Production production mode} stops watching it.
+     *
+     * @param MODE the new mode.
+     * @throws AssetLoadException if the assets directory cannot be watched.
+     */
+    public final synchronized void setMode(final Mode MODE) {
+        if (MODE == Mode.Development && watcher == null) {
+            try {
+                watcher = new AssetWatcher(Paths.get(DIR), this::reload);
+            } catch (IOException e) {
+                throw new AssetLoadException("Unable to watch assets directory: " + DIR, e);
+            }
+        } else if (MODE == Mode.Production && watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * @return the current {@link Mode mode} of the asset manager.
+     */
+    public final synchronized Mode getMode() {
+        return (watcher != null) ? Mode.Development : Mode.Production;
+    }
+
+    /**
+     * @return the {@link AssetDependencies dependency graph} of loaded
+     * assets. Dependencies declared by loaders through
+     * {@link AssetInput#dependsOn(AssetKey)} are recorded automatically.
+     */
+    public final AssetDependencies getDependencies() {
+        return DEPENDENCIES;
+    }
+
+    /**
+     * Adds a listener that is notified when assets are reloaded.
+     *
+     * @param LISTENER the listener to add.
+     */
+    public final void addListener(final AssetListener LISTENER) {
+        LISTENERS.add(LISTENER);
+    }
+
+    /**
+     * Removes a listener added by {@link #addListener(AssetListener)}.
+     *
+     * @param LISTENER the listener to remove.
+     */
+    public final void removeListener(final AssetListener LISTENER) {
+        LISTENERS.remove(LISTENER);
+    }
+
+    /**
+     * Sets the {@link AssetBakery asset bakery} used to store and restore
+     * baked assets.
+     *
+     * @param BAKERY the asset bakery, or null to disable baking.
+     */
+    public final void setBakery(final AssetBakery BAKERY) {
+        bakery = BAKERY;
+    }
+
+    /**
+     * @return the {@link AssetBakery asset bakery}, or null if baking is
+     * disabled.
+     */
+    public final AssetBakery getBakery() {
+        return bakery;
+    }
+
+    /**
+     * Pins an asset so that it cannot be evicted from the
+     * {@link AssetCache asset cache}. See {@link AssetCache#pin(AssetKey)}.
+     *
+     * @param KEY the {@link AssetKey key} of the asset to pin.
+     */
+    public final void pin(final AssetKey KEY) {
+        CACHE.pin(KEY);
+    }
+
+    /**
+     * Releases a pin acquired by {@link #pin(AssetKey)}.
+     *
+     * @param KEY the {@link AssetKey key} of the asset to unpin.
+     */
+    public final void unpin(final AssetKey KEY) {
+        CACHE.unpin(KEY);
+    }
+
+    /**
+     * @return the {@link AssetLoaders registry} of asset loaders used by the
+     * asset manager. Loaders declared as service providers are registered when
+     * the asset manager is constructed.
+     */
+    public final AssetLoaders getLoaders() {
+        return LOADERS;
+    }
+
+    /**
+     * Registers an {@link AssetLoader asset loader} for every
+     * {@link AssetType type} it decodes.
+     *
+     * @param LOADER the {@link AssetLoader asset loader} to register.
+     */
+    public final void register(final AssetLoader LOADER) {
+        LOADERS.register(LOADER);
+    }
+
+    /**
+     * Mounts an {@link AssetArchive asset archive}. Archives are searched in
+     * the order in which they are mounted, before the loose files in the
+     * {@link #DIR assets directory}.
+     *
+     * @param ARCHIVE the archive to mount.
+     */
+    public final void mount(final AssetArchive ARCHIVE) {
+        ARCHIVES.add(ARCHIVE);
+        LOG.info("Mounted asset archive {} ({} entries)", ARCHIVE, ARCHIVE.size());
+    }
+
+    /**
+     * Unmounts an {@link AssetArchive asset archive}. The archive is not
+     * closed, since assets loaded from it may still reference its mapping.
+     *
+     * @param ARCHIVE the archive to unmount.
+     */
+    public final void unmount(final AssetArchive ARCHIVE) {
+        ARCHIVES.remove(ARCHIVE);
+    }
+
+    /**
+     * Loads the {@link Asset asset} specified by the {@link AssetKey key}
+     * without blocking the calling thread. If the asset is already cached a
+     * completed future is returned. If the asset is already being loaded the
+     * caller waits for the load in progress, so concurrent requests for the
+     * same key are merged into a single load.
+     *
+     * The loaded asset is {@link Asset#acquire() acquired} on behalf of the
+     * caller, who must {@link Asset#relinquish() relinquish} it once it no
+     * longer uses the asset.
+     *
+     * @param KEY the {@link AssetKey key} of the asset to load.
+     * @return a future that completes with the loaded asset, or exceptionally
+     * with an {@link AssetLoadException} if the asset cannot be loaded.
+     */
+    public final CompletableFuture<Asset> loadAsync(final AssetKey KEY) {
+        final Asset cached = acquireCached(KEY);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        // Retry If The Asset Was Released Before The Caller Could Acquire It \\
+        return share(KEY).thenCompose(asset -> asset.acquire() ? CompletableFuture.completedFuture(asset) : loadAsync(KEY));
+    }
+
+    /**
+     * Returns the future of the load in progress for the specified key,
+     * starting a new load if there is none. The future is shared by every
+     * caller requesting the key, so it must not be completed by them, and the
+     * asset it completes with has not been acquired.
+     */
+    private CompletableFuture<Asset> share(final AssetKey KEY) {
+        CompletableFuture<Asset> pending = PENDING.get(KEY);
+        if (pending != null) {
+            return pending;
+        }
+
+        final CompletableFuture<Asset> future = new CompletableFuture<>();
+        if ((pending = PENDING.putIfAbsent(KEY, future)) != null) {
+            return pending;
+        }
+
+        // Re-check Cache In Case A Load Completed Before The Future Was Registered \\
+        final Asset cached = peek(KEY);
+        if (cached != null) {
+            PENDING.remove(KEY, future);
+            future.complete(cached);
+            return future;
+        }
+
+        submit(KEY, future, null);
+        return future;
+    }
+
+    /**
+     * Reloads every cached asset affected by changes to the specified assets,
+     * that is the changed assets themselves and every asset that directly or
+     * transitively depends on them. Assets that are not cached are not loaded.
+     * Assets are reloaded in dependency order - an asset is decoded only once
+     * the affected assets on which it depends have been reloaded. Assets that
+     * are being loaded when they change are reloaded again once the load in
+     * progress completes. Each reloaded asset replaces the previous asset in
+     * the cache once the {@link AssetListener asset listeners} have been
+     * notified.
+     *
+     * @param KEYS the {@link AssetKey keys} of the changed assets.
+     */
+    public final void reload(final Set<AssetKey> KEYS) {
+        final Map<AssetKey, CompletableFuture<Asset>> reloads = new HashMap<>();
+        for (AssetKey key : DEPENDENCIES.affected(KEYS)) {
+            final CompletableFuture<Asset> pending = requeue(key);
+            if (pending != null) {
+                reloads.put(key, pending);
+                continue;
+            }
+            final Asset previous = peek(key);
+            if (previous == null || !previous.acquire()) {
+                continue;
+            }
+            final CompletableFuture<Asset> future = new CompletableFuture<>();
+            if (PENDING.putIfAbsent(key, future) != null) {
+                // Loaded Concurrently - Reload Once That Load Completes \\
+                previous.relinquish();
+                reload(Collections.singleton(key));
+                continue;
+            }
+            reloads.put(key, future);
+            future.whenComplete((asset, error) -> {
+                if (error != null) {
+                    LOG.error("Asset reload failed: {}", key, error);
+                }
+            });
+
+            // Wait For Affected Dependencies, Whether Or Not They Reload Successfully \\
+            final List<CompletableFuture<Asset>> dependencies = new ArrayList<>();
+            for (AssetKey dependency : DEPENDENCIES.getDependencies(key)) {
+                final CompletableFuture<Asset> reload = reloads.get(dependency);
+                if (reload != null) {
+                    dependencies.add(reload);
+                }
+            }
+            LOG.info("Reloading asset: {}", key);
+            if (dependencies.isEmpty()) {
+                submit(key, future, previous);
+            } else {
+                CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[dependencies.size()]))
+                        .whenComplete((done, error) -> submit(key, future, previous));
+            }
+        }
+    }
+
+    /**
+     * Marks a key that is being loaded as stale, so that it is reloaded once
+     * the load in progress completes.
+     *
+     * @return the future of the load in progress, or null if the key is not
+     * being loaded.
+     */
+    private CompletableFuture<Asset> requeue(final AssetKey KEY) {
+        CompletableFuture<Asset> pending;
+        while ((pending = PENDING.get(KEY)) != null) {
+            STALE.add(KEY);
+            // The Load Either Remains In Progress Or Has Already Claimed The Mark \\
+            if (PENDING.get(KEY) == pending || !STALE.remove(KEY)) {
+                return pending;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads a batch of {@link Asset assets} without blocking the calling
+     * thread. The assets are read and decoded in parallel across the I/O and
+     * decode threads.
+     *
+     * @param KEYS the {@link AssetKey keys} of the assets to load.
+     * @return a future that completes with the loaded assets, in the iteration
+     * order of the keys, once every asset has been loaded, or exceptionally if
+     * any asset cannot be loaded. Every loaded asset is
+     * {@link Asset#acquire() acquired} on behalf of the caller. If any asset
+     * cannot be loaded the assets that were loaded are relinquished.
+     */
+    public final CompletableFuture<List<Asset>> loadAll(final Collection<AssetKey> KEYS) {
+        final List<CompletableFuture<Asset>> futures = new ArrayList<>(KEYS.size());
+        for (AssetKey key : KEYS) {
+            futures.add(loadAsync(key));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).whenComplete((done, error) -> {
+            if (error != null) {
+                for (CompletableFuture<Asset> future : futures) {
+                    if (!future.isCompletedExceptionally()) {
+                        future.join().relinquish();
+                    }
+                }
+            }
+        }).thenApply(done -> {
+            final List<Asset> assets = new ArrayList<>(futures.size());
+            for (CompletableFuture<Asset> future : futures) {
+                assets.add(future.join());
+            }
+            return assets;
+        });
+    }
+
+    /**
+     * Loads the {@link Asset asset} specified by the {@link AssetKey key},
+     * blocking the calling thread until the asset is available.
+     *
+     * @param KEY the {@link AssetKey key} of the asset to load.
+     * @return the loaded asset, {@link Asset#acquire() acquired} on behalf of
+     * the caller, who must {@link Asset#relinquish() relinquish} it once it no
+     * longer uses the asset.
+     * @throws AssetLoadException if the asset cannot be loaded.
+     */
+    public final Asset load(final AssetKey KEY) {
+        try {
+            return loadAsync(KEY).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AssetLoadException) {
+                throw (AssetLoadException) e.getCause();
+            }
+            throw new AssetLoadException("Asset load failed: " + KEY, e.getCause());
+        }
+    }
+
+    /**
+     * Shuts down the I/O and decode threads and clears the cache. Loads
+     * already in progress are allowed to complete. Unpinned cached assets are
+     * disposed, and released once callers have relinquished them.
+     */
+    public final void destroy() {
+        setMode(Mode.Production);
+        IO.shutdown();
+        DECODE.shutdown();
+        CACHE.clear();
+    }
+
+    /**
+     * Starts the I/O and decode phases of a load registered in
+     * {@link #PENDING}. The loaded asset is cached before the future is
+     * completed. The asset manager holds a reference to the asset until the
+     * future has been completed, so that waiting callers can acquire the asset
+     * even if the cache does not admit it.
+     *
+     * For reloads, listeners are notified before the reloaded asset replaces
+     * the previous asset in the cache, and the reference to the previous asset
+     * acquired by {@link #reload(Set)} is then relinquished. Keys marked
+     * {@link #STALE stale} during the load are reloaded once it completes.
+     *
+     * If either phase is rejected because the asset manager has been
+     * {@link #destroy() destroyed}, the load is removed from {@link #PENDING}
+     * and its future completed exceptionally, so that later requests for the
+     * key do not wait forever.
+     */
+    private void submit(final AssetKey KEY, final CompletableFuture<Asset> FUTURE, final Asset PREVIOUS) {
+        final CompletableFuture<AssetInput> input;
+        try {
+            input = CompletableFuture.supplyAsync(() -> read(KEY), IO);
+        } catch (RejectedExecutionException e) {
+            PENDING.remove(KEY, FUTURE);
+            STALE.remove(KEY);
+            FUTURE.completeExceptionally(new AssetLoadException("Asset manager destroyed: " + KEY, e));
+            if (PREVIOUS != null) {
+                PREVIOUS.relinquish();
+            }
+            return;
+        }
+        input.thenCompose(data -> decodeAsync(KEY, data))
+                .whenComplete((asset, error) -> {
+                    if (asset != null) {
+                        asset.acquire();
+                        if (PREVIOUS != null) {
+                            for (AssetListener listener : LISTENERS) {
+                                try {
+                                    listener.reloaded(PREVIOUS, asset);
+                                } catch (RuntimeException e) {
+                                    LOG.error("Asset listener failed", e);
+                                }
+                            }
+                        }
+                        cache(asset);
+                    }
+                    PENDING.remove(KEY, FUTURE);
+                    if (error != null) {
+                        FUTURE.completeExceptionally((error instanceof CompletionException) ? error.getCause() : error);
+                    } else {
+                        FUTURE.complete(asset);
+                        asset.relinquish();
+                    }
+                    if (PREVIOUS != null) {
+                        PREVIOUS.relinquish();
+                    }
+                    if (STALE.remove(KEY)) {
+                        reload(Collections.singleton(KEY));
+                    }
+                });
+    }
+
+    /**
+     * Submits the decode phase of a load. If the decode executor rejects the
+     * task the input is closed, releasing its data, and the returned future
+     * completes exceptionally.
+     */
+    private CompletableFuture<Asset> decodeAsync(final AssetKey KEY, final AssetInput INPUT) {
+        try {
+            return CompletableFuture.supplyAsync(() -> decode(KEY, INPUT), DECODE);
+        } catch (RejectedExecutionException e) {
+            INPUT.close(null);
+            final CompletableFuture<Asset> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new AssetLoadException("Asset manager destroyed: " + KEY, e));
+            return failed;
+        }
+    }
+
+    /**
+     * Returns the cached asset for the specified key, or null if the asset is
+     * not cached, without recording the access.
+     */
+    private Asset peek(final AssetKey KEY) {
+        return CACHE.peek(KEY);
+    }
+
+    /**
+     * Returns the cached asset for the specified key with an acquired
+     * reference, or null if the asset is not cached.
+     */
+    private Asset acquireCached(final AssetKey KEY) {
+        return CACHE.acquire(KEY);
+    }
+
+    /**
+     * Adds a loaded asset to the cache. A replaced asset is disposed and
+     * released once its remaining holders relinquish it.
+     */
+    private void cache(final Asset ASSET) {
+        CACHE.put(ASSET);
+    }
+
+    /**
+     * I/O phase - opens the raw data of the external resource specified by the
+     * {@link AssetKey key} from the first mounted archive that contains it, or
+     * from the {@link #DIR assets directory}. The data is memory mapped, or
+     * streamed if it is larger than the {@link #STREAM_THRESHOLD}, and never
+     * copied onto the heap.
+     */
+    private AssetInput read(final AssetKey KEY) {
+        try {
+            for (AssetArchive archive : ARCHIVES) {
+                final AssetBuffer data = archive.read(KEY);
+                if (data != null) {
+                    return new AssetInput(KEY, data);
+                }
+            }
+            final Path path = Paths.get(DIR, KEY.getPath());
+            final long size = Files.size(path);
+            if (size > STREAM_THRESHOLD) {
+                return new AssetInput(KEY, path, FileChannel.open(path, StandardOpenOption.READ), size);
+            }
+            return new AssetInput(KEY, AssetBuffer.map(path));
+        } catch (NoSuchFileException e) {
+            throw new AssetLoadException("Asset not found: " + KEY, e);
+        } catch (IOException e) {
+            throw new AssetLoadException("Asset read failed: " + KEY, e);
+        }
+    }
+
+    /**
+     * Decode phase - decodes the raw data of the external resource into an
+     * {@link Asset asset} using the loader registered for its type. The input
+     * is closed, and its data released unless the loader transferred it to the
+     * asset.
+     */
+    private Asset decode(final AssetKey KEY, final AssetInput INPUT) {
+        Asset asset = null;
+        try {
+            final AssetLoader loader = LOADERS.get(KEY.getType());
+            if (loader == null) {
+                throw new AssetLoadException("No asset loader registered for type: " + KEY.getType());
+            }
+            final AssetBakery baking = bakery;
+            if (baking != null && loader instanceof AssetBaker) {
+                asset = bake(baking, (AssetBaker) loader, INPUT);
+            } else {
+                asset = loader.load(INPUT);
+            }
+            DEPENDENCIES.set(KEY, INPUT.getDependencies());
+            LOG.debug("Asset loaded: {}", KEY);
+            return asset;
+        } catch (IOException e) {
+            throw new AssetLoadException("Asset decode failed: " + KEY, e);
+        } finally {
+            INPUT.close(asset);
+        }
+    }
+
+    /**
+     * Restores an asset from its baked form, or decodes the asset and stores
+     * its baked form if it has not been baked. Failing to read or write a
+     * baked form is not fatal - the asset is decoded from its source data.
+     */
+    private Asset bake(final AssetBakery BAKERY, final AssetBaker BAKER, final AssetInput INPUT) throws IOException {
+        final AssetKey key = INPUT.getKey();
+        String name = null;
+        try {
+            name = BAKERY.name(INPUT, BAKER);
+            final AssetBuffer baked = BAKERY.open(name);
+            if (baked != null) {
+                Asset asset = null;
+                try {
+                    asset = BAKER.restore(key, baked);
+                    return asset;
+                } finally {
+                    if (asset == null || asset.getBuffer() != baked) {
+                        baked.release();
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Baked asset unavailable: {}", key, e);
+        }
+
+        final Asset asset = BAKER.load(INPUT);
+        if (name != null) {
+            try {
+                BAKERY.store(name, BAKER, asset);
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Asset baking failed: {}", key, e);
+            }
+        }
+        return asset;
+    }
+
+    /**
+     * Constructs a bounded executor of daemon threads.
+     *
+     * @param NAME the thread name prefix.
+     * @param THREADS the number of threads in the pool.
+     * @return the new executor.
+     */
+    private static ExecutorService createExecutor(final String NAME, final int THREADS) {
+        final AtomicInteger count = new AtomicInteger();
+        final ThreadFactory factory = (Runnable task) -> {
+            Thread thread = new Thread(task, NAME + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), factory);
+    }
+
+    /**
+     * {@link RuntimeException Runtime Exception} thrown when an
+     * {@link Asset asset} cannot be loaded.
+     */
+    public static class AssetLoadException extends RuntimeException {
+
+        public AssetLoadException(final String REASON) {
+            super(REASON);
+        }
+
+        public AssetLoadException(final String REASON, final Throwable CAUSE) {
+            super(REASON, CAUSE);
+        }
+    }
 }
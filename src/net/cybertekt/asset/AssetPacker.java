@@ -0,0 +1,159 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import net.cybertekt.util.LZ4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asset Packer - (C) Cybertekt Software
+ *
+ * Offline tool that packs a directory tree of external resources into a
+ * single {@link AssetArchive asset archive}. Entry paths are relative to the
+ * packed directory, so packing the {@link AssetManager#DIR assets directory}
+ * produces an archive that resolves the same {@link AssetKey asset keys} as
+ * the loose files.
+ *
+ * Usage: AssetPacker &lt;source directory&gt; &lt;archive file&gt; [-compress]
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AssetPacker {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AssetPacker.class);
+
+    /**
+     * Compressed entries are only stored compressed if compression reduces
+     * their size to at most this fraction of the original.
+     */
+    private static final double MIN_RATIO = 0.9;
+
+    private AssetPacker() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: AssetPacker <source directory> <archive file> [-compress]");
+            System.exit(1);
+        }
+        final boolean compress = args.length > 2 && args[2].equals("-compress");
+        pack(Paths.get(args[0]), Paths.get(args[1]), compress);
+    }
+
+    /**
+     * Packs every regular file below the source directory into an archive.
+     *
+     * @param SOURCE the directory to pack.
+     * @param ARCHIVE the archive file to create or replace.
+     * @param COMPRESS true to LZ4 compress entries that benefit from it.
+     * @return the number of packed entries.
+     * @throws IOException if a file cannot be read or the archive cannot be
+     * written.
+     */
+    public static int pack(final Path SOURCE, final Path ARCHIVE, final boolean COMPRESS) throws IOException {
+        final List<Path> files;
+        try (Stream<Path> walk = Files.walk(SOURCE)) {
+            files = walk.filter(Files::isRegularFile).filter(file -> !file.toAbsolutePath().equals(ARCHIVE.toAbsolutePath())).collect(Collectors.toList());
+        }
+
+        // Sort Entries By Asset Key Path \\
+        final List<Entry> entries = new ArrayList<>(files.size());
+        for (Path file : files) {
+            entries.add(new Entry(file, AssetKey.get(SOURCE.relativize(file).toString()).getPath()));
+        }
+        Collections.sort(entries, (a, b) -> a.PATH.compareTo(b.PATH));
+
+        long rawBytes = 0, storedBytes = 0;
+        try (FileChannel channel = FileChannel.open(ARCHIVE, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(AssetArchive.HEADER_SIZE);
+
+            // Write Entry Data \\
+            for (Entry entry : entries) {
+                final byte[] data = Files.readAllBytes(entry.FILE);
+                entry.size = data.length;
+                entry.offset = channel.position();
+                ByteBuffer stored = ByteBuffer.wrap(data);
+                if (COMPRESS) {
+                    final byte[] compressed = new byte[LZ4.maxCompressedLength(data.length)];
+                    final int length = LZ4.compress(data, 0, data.length, compressed, 0);
+                    if (length <= data.length * MIN_RATIO) {
+                        stored = ByteBuffer.wrap(compressed, 0, length);
+                        entry.flags |= AssetArchive.FLAG_LZ4;
+                    }
+                }
+                entry.stored = stored.remaining();
+                writeFully(channel, stored);
+                rawBytes += entry.size;
+                storedBytes += entry.stored;
+            }
+
+            // Write Table Of Contents \\
+            final long tocOffset = channel.position();
+            for (Entry entry : entries) {
+                final byte[] path = entry.PATH.getBytes(StandardCharsets.UTF_8);
+                if (path.length > 0xFFFF) {
+                    throw new IOException("Asset path too long: " + entry.PATH);
+                }
+                final ByteBuffer record = ByteBuffer.allocate(2 + path.length + 17).order(ByteOrder.LITTLE_ENDIAN);
+                record.putShort((short) path.length).put(path).putLong(entry.offset).putInt(entry.stored).putInt(entry.size).put(entry.flags);
+                record.flip();
+                writeFully(channel, record);
+            }
+            final long tocSize = channel.position() - tocOffset;
+
+            // Write Header \\
+            final ByteBuffer header = ByteBuffer.allocate(AssetArchive.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(AssetArchive.MAGIC).putInt(AssetArchive.VERSION).putInt(entries.size()).putInt(0).putLong(tocOffset).putLong(tocSize);
+            header.flip();
+            channel.position(0);
+            writeFully(channel, header);
+        }
+
+        LOG.info("Packed {} assets ({} bytes, {} bytes stored) into {}", entries.size(), rawBytes, storedBytes, ARCHIVE);
+        return entries.size();
+    }
+
+    private static void writeFully(final FileChannel CHANNEL, final ByteBuffer DATA) throws IOException {
+        while (DATA.hasRemaining()) {
+            CHANNEL.write(DATA);
+        }
+    }
+
+    /**
+     * Archive entry under construction.
+     */
+    private static final class Entry {
+
+        private final Path FILE;
+
+        private final String PATH;
+
+        private long offset;
+
+        private int stored, size;
+
+        private byte flags;
+
+        private Entry(final Path FILE, final String PATH) {
+            this.FILE = FILE;
+            this.PATH = PATH;
+        }
+    }
+}
@@ -3,12 +3,15 @@ package net.cybertekt.asset;
 import net.cybertekt.util.CacheMap;
 import net.cybertekt.util.CacheMap.CacheMode;
 import net.cybertekt.util.CacheMap.CacheType;
+import net.cybertekt.util.CacheStats;
 
 /**
  * Asset Type - (C) Cybertekt Software
  *
  * Immutable class that uniquely describes a specific type of external resource
- * based on its file type extension.
+ * based on its file type extension. Asset types are interned flyweights - only
+ * one instance exists for each extension, so asset types may be compared by
+ * reference.
  *
  * @version 1.2.0
  * @author Andrew Vektor
@@ -17,11 +20,64 @@ public final class AssetType {
 
     /**
      * {@link CacheMap Cache} that stores every unique asset type created by the
-     * {@link #getType(java.lang.String)} static utility method.
+     * {@link #getType(java.lang.String)} static utility method. Types are
+     * cached by their lower case extension and by every alternate spelling
+     * that has been requested, so repeated lookups never allocate.
      */
-    private static final CacheMap<String, AssetType> CACHE = new CacheMap(CacheType.Hash, CacheMode.Weak);
+    private static final CacheMap<String, AssetType> CACHE = new CacheMap(CacheType.Concurrent, CacheMode.Weak);
 
+    static {
+        if (CacheStats.isRequested()) {
+            CACHE.enableStats("AssetType").register();
+        }
+    }
+
+    /**
+     * Lower case file type extension, without the leading dot.
+     */
+    private final String EXT;
+
+    /**
+     * Hash code computed during construction.
+     */
+    private final int HASH;
+
+    private AssetType(final String EXT) {
+        this.EXT = EXT;
+        this.HASH = EXT.hashCode();
+    }
+
+    /**
+     * Returns the canonical asset type for the specified file type extension.
+     * Extensions are case insensitive. A cache hit performs no allocation.
+     *
+     * @param EXT the file type extension, without the leading dot.
+     * @return the canonical asset type for the extension.
+     */
     public static final AssetType getType(final String EXT) {
-        return null;
+        final AssetType type = CACHE.get(EXT);
+        if (type != null) {
+            return type;
+        }
+        final String ext = EXT.toLowerCase();
+        final AssetType canonical = CACHE.getOrLoad(ext, AssetType::new);
+        return ext.equals(EXT) ? canonical : CACHE.getOrLoad(EXT, alias -> canonical);
+    }
+
+    /**
+     * @return the lower case file type extension, without the leading dot.
+     */
+    public final String getExtension() {
+        return EXT;
+    }
+
+    @Override
+    public final int hashCode() {
+        return HASH;
+    }
+
+    @Override
+    public final String toString() {
+        return EXT;
     }
 }
@@ -0,0 +1,162 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asset Watcher - (C) Cybertekt Software
+ *
+ * Watches a directory tree of external resources for changes using a
+ * {@link WatchService watch service}. Changes are collected until the file
+ * system has been quiet for a short period, so that editors writing a file in
+ * several steps trigger a single notification, and are then reported as a set
+ * of changed {@link AssetKey asset keys} from a daemon thread.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AssetWatcher {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AssetWatcher.class);
+
+    /**
+     * Time in milliseconds that the file system must be quiet before collected
+     * changes are reported.
+     */
+    public static final long QUIET_PERIOD = 100;
+
+    /**
+     * Root of the watched directory tree.
+     */
+    private final Path ROOT;
+
+    /**
+     * Receives the set of changed asset keys.
+     */
+    private final Consumer<Set<AssetKey>> LISTENER;
+
+    /**
+     * Watch service used to watch the directory tree.
+     */
+    private final WatchService SERVICE;
+
+    /**
+     * Watched directories by watch key.
+     */
+    private final Map<WatchKey, Path> DIRS = new HashMap<>();
+
+    /**
+     * Watcher thread.
+     */
+    private final Thread THREAD;
+
+    /**
+     * Starts watching a directory tree.
+     *
+     * @param ROOT the root of the directory tree.
+     * @param LISTENER receives the set of changed asset keys.
+     * @throws IOException if the directory tree cannot be watched.
+     */
+    public AssetWatcher(final Path ROOT, final Consumer<Set<AssetKey>> LISTENER) throws IOException {
+        this.ROOT = ROOT.toAbsolutePath();
+        this.LISTENER = LISTENER;
+        this.SERVICE = FileSystems.getDefault().newWatchService();
+        try {
+            registerTree(this.ROOT);
+        } catch (IOException e) {
+            SERVICE.close();
+            throw e;
+        }
+        THREAD = new Thread(this::run, "Asset-Watcher");
+        THREAD.setDaemon(true);
+        THREAD.start();
+        LOG.info("Watching assets in {}", this.ROOT);
+    }
+
+    /**
+     * Stops watching the directory tree.
+     */
+    public final void close() {
+        try {
+            SERVICE.close();
+        } catch (IOException e) {
+            LOG.warn("Asset watch service could not be closed", e);
+        }
+        THREAD.interrupt();
+    }
+
+    private void run() {
+        final Set<AssetKey> changed = new HashSet<>();
+        try {
+            while (true) {
+                // Block Until A Change Occurs, Then Collect Until Quiet \\
+                WatchKey key = changed.isEmpty() ? SERVICE.take() : SERVICE.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    final Set<AssetKey> batch = new HashSet<>(changed);
+                    changed.clear();
+                    try {
+                        LISTENER.accept(batch);
+                    } catch (RuntimeException e) {
+                        LOG.error("Asset change listener failed", e);
+                    }
+                    continue;
+                }
+                collect(key, changed);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            LOG.debug("Asset watcher stopped");
+        }
+    }
+
+    private void collect(final WatchKey KEY, final Set<AssetKey> CHANGED) {
+        final Path dir = DIRS.get(KEY);
+        for (WatchEvent<?> event : KEY.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                LOG.warn("Asset watcher overflow - some changes may have been missed");
+                continue;
+            }
+            final Path path = dir.resolve((Path) event.context());
+            if (Files.isDirectory(path)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    try {
+                        registerTree(path);
+                    } catch (IOException e) {
+                        LOG.warn("Unable to watch asset directory {}", path, e);
+                    }
+                }
+                continue;
+            }
+            CHANGED.add(AssetKey.get(ROOT.relativize(path).toString()));
+        }
+        if (!KEY.reset()) {
+            DIRS.remove(KEY);
+        }
+    }
+
+    private void registerTree(final Path DIR) throws IOException {
+        try (Stream<Path> walk = Files.walk(DIR)) {
+            for (Path dir : (Iterable<Path>) walk.filter(Files::isDirectory)::iterator) {
+                DIRS.put(dir.register(SERVICE, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), dir);
+            }
+        }
+    }
+}
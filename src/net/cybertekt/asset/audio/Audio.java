@@ -0,0 +1,103 @@
+package net.cybertekt.asset.audio;
+
+import net.cybertekt.asset.Asset;
+import net.cybertekt.asset.AssetBuffer;
+import net.cybertekt.asset.AssetKey;
+
+/**
+ * Audio - (C) Cybertekt Software
+ *
+ * Ogg Vorbis encoded audio track. The encoded data is held in its memory
+ * mapped {@link AssetBuffer buffer} and decoded incrementally by
+ * {@link AudioStream audio streams}, so that the decoded PCM of a long track
+ * never has to be held in memory in its entirety. Any number of streams may be
+ * opened on the same track.
+ *
+ * Every open stream holds an {@link #acquire() acquired} reference to its
+ * track, so the encoded data remains mapped until the last stream is closed,
+ * even if the track is evicted or disposed in the meantime. Tracks that are
+ * played repeatedly should be
+ * {@link net.cybertekt.asset.AssetManager#pin(AssetKey) pinned} so that they
+ * are not evicted and reloaded between plays.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class Audio extends Asset {
+
+    /**
+     * Number of interleaved channels.
+     */
+    private final int CHANNELS;
+
+    /**
+     * Sample rate in Hz.
+     */
+    private final int SAMPLE_RATE;
+
+    /**
+     * Length of the track in sample frames.
+     */
+    private final int FRAMES;
+
+    Audio(final AssetKey KEY, final AssetBuffer DATA, final int CHANNELS, final int SAMPLE_RATE, final int FRAMES) {
+        super(KEY, DATA);
+        this.CHANNELS = CHANNELS;
+        this.SAMPLE_RATE = SAMPLE_RATE;
+        this.FRAMES = FRAMES;
+    }
+
+    /**
+     * @return the number of interleaved channels.
+     */
+    public final int getChannels() {
+        return CHANNELS;
+    }
+
+    /**
+     * @return the sample rate in Hz.
+     */
+    public final int getSampleRate() {
+        return SAMPLE_RATE;
+    }
+
+    /**
+     * @return the length of the track in sample frames.
+     */
+    public final int getFrames() {
+        return FRAMES;
+    }
+
+    /**
+     * @return the length of the track in seconds.
+     */
+    public final double getDuration() {
+        return FRAMES / (double) SAMPLE_RATE;
+    }
+
+    /**
+     * Opens a stream that decodes the track in the background into a ring
+     * buffer of a fixed size. The stream holds a reference to the track until
+     * it is {@link AudioStream#close() closed}.
+     *
+     * @param BUFFER_FRAMES the capacity of the ring buffer in sample frames.
+     * @param LOOP true to restart decoding from the beginning of the track
+     * once the end has been reached.
+     * @return the opened stream.
+     * @throws IllegalStateException if the track has been released.
+     */
+    public final AudioStream open(final int BUFFER_FRAMES, final boolean LOOP) {
+        if (!acquire()) {
+            throw new IllegalStateException("Audio has been released: " + getKey());
+        }
+        final AudioStream stream;
+        try {
+            stream = new AudioStream(this, BUFFER_FRAMES, LOOP);
+        } catch (RuntimeException | OutOfMemoryError e) {
+            relinquish();
+            throw e;
+        }
+        AudioDecoder.register(stream);
+        return stream;
+    }
+}
@@ -0,0 +1,79 @@
+package net.cybertekt.asset.audio;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Audio Decoder - (C) Cybertekt Software
+ *
+ * Daemon thread shared by every open {@link AudioStream audio stream}. The
+ * thread round-robins over the open streams, topping up the ring buffer of
+ * each one step at a time, and parks briefly whenever every ring buffer is
+ * full or every stream has ended. The thread is started when the first stream
+ * is opened.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+final class AudioDecoder {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AudioDecoder.class);
+
+    /**
+     * Time to park when no stream made progress.
+     */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    /**
+     * Open streams.
+     */
+    private static final List<AudioStream> STREAMS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Decoder thread, or null if not yet started.
+     */
+    private static Thread thread;
+
+    private AudioDecoder() {
+    }
+
+    static void register(final AudioStream STREAM) {
+        STREAMS.add(STREAM);
+        synchronized (AudioDecoder.class) {
+            if (thread == null) {
+                thread = new Thread(AudioDecoder::run, "Audio-Decoder");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+        LockSupport.unpark(thread);
+    }
+
+    static void unregister(final AudioStream STREAM) {
+        STREAMS.remove(STREAM);
+    }
+
+    private static void run() {
+        while (true) {
+            boolean progress = false;
+            for (AudioStream stream : STREAMS) {
+                try {
+                    progress |= stream.decode();
+                } catch (RuntimeException e) {
+                    LOG.error("Audio stream decode failed: {}", stream.getAudio().getKey(), e);
+                    stream.close();
+                }
+            }
+            if (!progress) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package net.cybertekt.asset.audio;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import net.cybertekt.asset.Asset;
+import net.cybertekt.asset.AssetBuffer;
+import net.cybertekt.asset.AssetInput;
+import net.cybertekt.asset.AssetLoader;
+import net.cybertekt.asset.AssetType;
+import org.lwjgl.stb.STBVorbis;
+import org.lwjgl.stb.STBVorbisInfo;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Audio Loader - (C) Cybertekt Software
+ *
+ * {@link AssetLoader Asset loader} for Ogg Vorbis tracks. Loading only reads
+ * the stream header; the encoded data is retained and decoded incrementally
+ * by {@link AudioStream audio streams}.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AudioLoader implements AssetLoader {
+
+    /**
+     * Ogg Vorbis types.
+     */
+    private static final AssetType[] TYPES = {
+        AssetType.getType("ogg"), AssetType.getType("oga")
+    };
+
+    @Override
+    public final AssetType[] getTypes() {
+        return TYPES.clone();
+    }
+
+    @Override
+    public final Asset load(final AssetInput INPUT) throws IOException {
+        final AssetBuffer data = INPUT.retain();
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            final IntBuffer error = stack.mallocInt(1);
+            final long handle = STBVorbis.stb_vorbis_open_memory(data.get(), error, null);
+            if (handle == MemoryUtil.NULL) {
+                throw new IOException("Invalid Ogg Vorbis stream: " + INPUT.getKey() + " - error " + error.get(0));
+            }
+            try {
+                final STBVorbisInfo info = STBVorbis.stb_vorbis_get_info(handle, STBVorbisInfo.mallocStack(stack));
+                return new Audio(INPUT.getKey(), data, info.channels(), info.sample_rate(), STBVorbis.stb_vorbis_stream_length_in_samples(handle));
+            } finally {
+                STBVorbis.stb_vorbis_close(handle);
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package net.cybertekt.asset.audio;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.cybertekt.util.RingBuffer;
+import org.lwjgl.stb.STBVorbis;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Audio Stream - (C) Cybertekt Software
+ *
+ * Incremental decoder of an {@link Audio audio track}. The shared
+ * {@link AudioDecoder decoder thread} decodes the track with stb_vorbis into a
+ * fixed-size off-heap {@link RingBuffer ring buffer} of interleaved signed
+ * 16-bit samples, and a single consumer thread drains the ring buffer through
+ * {@link #read(ShortBuffer)} without taking any locks.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class AudioStream implements AutoCloseable {
+
+    /**
+     * Maximum number of sample frames decoded in a single step.
+     */
+    private static final int DECODE_FRAMES = 4096;
+
+    /**
+     * The stream is open and not being decoded.
+     */
+    private static final int IDLE = 0;
+
+    /**
+     * The stream is being decoded by the decoder thread.
+     */
+    private static final int DECODING = 1;
+
+    /**
+     * The stream has been closed.
+     */
+    private static final int CLOSED = 2;
+
+    /**
+     * Track being streamed.
+     */
+    private final Audio AUDIO;
+
+    /**
+     * True to restart from the beginning of the track at its end.
+     */
+    private final boolean LOOP;
+
+    /**
+     * Size of a sample frame in bytes.
+     */
+    private final int FRAME_SIZE;
+
+    /**
+     * Decoded samples awaiting the consumer.
+     */
+    private final RingBuffer RING;
+
+    /**
+     * stb_vorbis decoder handle.
+     */
+    private final long HANDLE;
+
+    /**
+     * Native scratch buffer the decoder decodes into.
+     */
+    private final ShortBuffer SCRATCH;
+
+    /**
+     * Lifecycle state, guarding the native resources against being freed
+     * while the decoder thread is using them.
+     */
+    private final AtomicInteger STATE = new AtomicInteger(IDLE);
+
+    /**
+     * True once the end of a non-looping track has been decoded.
+     */
+    private volatile boolean ended;
+
+    AudioStream(final Audio AUDIO, final int BUFFER_FRAMES, final boolean LOOP) {
+        if (BUFFER_FRAMES <= 0) {
+            throw new IllegalArgumentException("Invalid audio buffer size: " + BUFFER_FRAMES);
+        }
+        this.AUDIO = AUDIO;
+        this.LOOP = LOOP;
+        this.FRAME_SIZE = AUDIO.getChannels() * Short.BYTES;
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            final IntBuffer error = stack.mallocInt(1);
+            HANDLE = STBVorbis.stb_vorbis_open_memory(AUDIO.getBuffer().get(), error, null);
+            if (HANDLE == MemoryUtil.NULL) {
+                throw new IllegalStateException("Unable to open audio stream: " + AUDIO.getKey() + " - error " + error.get(0));
+            }
+        }
+        try {
+            RING = new RingBuffer(BUFFER_FRAMES * FRAME_SIZE);
+            SCRATCH = MemoryUtil.memAllocShort(DECODE_FRAMES * AUDIO.getChannels());
+        } catch (RuntimeException | OutOfMemoryError e) {
+            STBVorbis.stb_vorbis_close(HANDLE);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the track being streamed.
+     */
+    public final Audio getAudio() {
+        return AUDIO;
+    }
+
+    /**
+     * Reads decoded samples without blocking. Only whole sample frames are
+     * read. Invoked by the consumer thread only.
+     *
+     * @param DST the direct buffer to read interleaved samples into.
+     * @return the number of samples read, which is zero if no decoded samples
+     * are currently available, or -1 if the stream has ended or been closed.
+     */
+    public final int read(final ShortBuffer DST) {
+        if (STATE.get() == CLOSED) {
+            return -1;
+        }
+        final int frames = RING.poll(MemoryUtil.memAddress(DST), Math.min(DST.remaining() / AUDIO.getChannels() * FRAME_SIZE, RING.readable() / FRAME_SIZE * FRAME_SIZE)) / FRAME_SIZE;
+        if (frames == 0) {
+            return (ended && RING.readable() == 0) ? -1 : 0;
+        }
+        DST.position(DST.position() + frames * AUDIO.getChannels());
+        return frames * AUDIO.getChannels();
+    }
+
+    /**
+     * @return true once every sample of a non-looping track has been read, or
+     * the stream has been closed.
+     */
+    public final boolean isFinished() {
+        return STATE.get() == CLOSED || (ended && RING.readable() == 0);
+    }
+
+    /**
+     * @return true if the stream has been closed.
+     */
+    public final boolean isClosed() {
+        return STATE.get() == CLOSED;
+    }
+
+    /**
+     * Closes the stream, frees its native resources and relinquishes its
+     * reference to the {@link Audio track}, waiting for the decoder thread to
+     * finish decoding the current step if necessary. Invoked by the consumer
+     * thread only; the stream must not be read concurrently with or after
+     * closing it.
+     */
+    @Override
+    public final void close() {
+        while (true) {
+            final int state = STATE.get();
+            if (state == CLOSED) {
+                return;
+            } else if (state == IDLE && STATE.compareAndSet(IDLE, CLOSED)) {
+                break;
+            }
+            Thread.yield();
+        }
+        STBVorbis.stb_vorbis_close(HANDLE);
+        MemoryUtil.memFree(SCRATCH);
+        RING.free();
+        AudioDecoder.unregister(this);
+        AUDIO.relinquish();
+    }
+
+    /**
+     * Decodes the next step of the track if the ring buffer has space for it.
+     * Invoked by the decoder thread only.
+     *
+     * @return true if any progress was made.
+     */
+    final boolean decode() {
+        if (ended || !STATE.compareAndSet(IDLE, DECODING)) {
+            return false;
+        }
+        try {
+            final int frames = Math.min(DECODE_FRAMES, RING.writable() / FRAME_SIZE);
+            if (frames == 0) {
+                return false;
+            }
+            SCRATCH.clear().limit(frames * AUDIO.getChannels());
+            final int decoded = STBVorbis.stb_vorbis_get_samples_short_interleaved(HANDLE, AUDIO.getChannels(), SCRATCH);
+            if (decoded == 0) {
+                if (LOOP && AUDIO.getFrames() > 0) {
+                    STBVorbis.stb_vorbis_seek_start(HANDLE);
+                    return true;
+                }
+                ended = true;
+                return false;
+            }
+            RING.offer(MemoryUtil.memAddress(SCRATCH), decoded * FRAME_SIZE);
+            return true;
+        } finally {
+            STATE.set(IDLE);
+        }
+    }
+}
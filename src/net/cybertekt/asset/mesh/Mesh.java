@@ -0,0 +1,223 @@
+package net.cybertekt.asset.mesh;
+
+import java.nio.ByteBuffer;
+import net.cybertekt.asset.Asset;
+import net.cybertekt.asset.AssetBuffer;
+import net.cybertekt.asset.AssetKey;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Mesh - (C) Cybertekt Software
+ *
+ * Triangle mesh stored as a single interleaved vertex buffer and a single
+ * index buffer in native memory, ready to be copied into device buffers. Each
+ * vertex is {@link #VERTEX_SIZE 20 bytes}:
+ *
+ * <pre>
+ *  0  position  3 x float32
+ * 12  normal    2 x snorm16, octahedral encoded
+ * 16  texcoord  2 x float16
+ * </pre>
+ *
+ * A mesh consists of one or more {@link Part parts}, one per material. The
+ * indices of a part are relative to its first vertex, so that 16-bit indices
+ * are used whenever no part exceeds 65535 vertices. Mesh data is either owned
+ * by the mesh, or, for meshes restored from their baked form, a view of the
+ * memory mapped baked {@link AssetBuffer buffer}.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class Mesh extends Asset {
+
+    /**
+     * Size of an interleaved vertex in bytes.
+     */
+    public static final int VERTEX_SIZE = 20;
+
+    /**
+     * Offset of the position within a vertex in bytes.
+     */
+    public static final int POSITION_OFFSET = 0;
+
+    /**
+     * Offset of the octahedral encoded normal within a vertex in bytes.
+     */
+    public static final int NORMAL_OFFSET = 12;
+
+    /**
+     * Offset of the texture coordinate within a vertex in bytes.
+     */
+    public static final int TEXCOORD_OFFSET = 16;
+
+    /**
+     * Interleaved vertex data.
+     */
+    private final ByteBuffer VERTICES;
+
+    /**
+     * Index data.
+     */
+    private final ByteBuffer INDICES;
+
+    /**
+     * Size of an index in bytes, either 2 or 4.
+     */
+    private final int INDEX_SIZE;
+
+    /**
+     * Parts of the mesh.
+     */
+    private final Part[] PARTS;
+
+    /**
+     * True if the vertex and index memory is owned by the mesh.
+     */
+    private final boolean OWNED;
+
+    /**
+     * Constructs a mesh that owns its vertex and index memory.
+     */
+    Mesh(final AssetKey KEY, final ByteBuffer VERTICES, final ByteBuffer INDICES, final int INDEX_SIZE, final Part[] PARTS) {
+        super(KEY);
+        this.VERTICES = VERTICES;
+        this.INDICES = INDICES;
+        this.INDEX_SIZE = INDEX_SIZE;
+        this.PARTS = PARTS;
+        this.OWNED = true;
+    }
+
+    /**
+     * Constructs a mesh whose data is a view of a baked buffer.
+     */
+    Mesh(final AssetKey KEY, final AssetBuffer BAKED, final ByteBuffer VERTICES, final ByteBuffer INDICES, final int INDEX_SIZE, final Part[] PARTS) {
+        super(KEY, BAKED);
+        this.VERTICES = VERTICES;
+        this.INDICES = INDICES;
+        this.INDEX_SIZE = INDEX_SIZE;
+        this.PARTS = PARTS;
+        this.OWNED = false;
+    }
+
+    /**
+     * Returns the interleaved vertex data. The buffer must be treated as
+     * read-only and is invalid once the mesh has been disposed.
+     *
+     * @return the vertex data of every part.
+     */
+    public final ByteBuffer getVertices() {
+        return VERTICES;
+    }
+
+    /**
+     * Returns the index data. The buffer must be treated as read-only and is
+     * invalid once the mesh has been disposed.
+     *
+     * @return the index data of every part.
+     */
+    public final ByteBuffer getIndices() {
+        return INDICES;
+    }
+
+    /**
+     * @return the size of an index in bytes, 2 for 16-bit indices and 4 for
+     * 32-bit indices.
+     */
+    public final int getIndexSize() {
+        return INDEX_SIZE;
+    }
+
+    /**
+     * @return the total number of vertices.
+     */
+    public final int getVertexCount() {
+        return VERTICES.capacity() / VERTEX_SIZE;
+    }
+
+    /**
+     * @return the total number of indices.
+     */
+    public final int getIndexCount() {
+        return INDICES.capacity() / INDEX_SIZE;
+    }
+
+    /**
+     * @return the number of parts.
+     */
+    public final int getParts() {
+        return PARTS.length;
+    }
+
+    /**
+     * @param PART the index of the part.
+     * @return the part.
+     */
+    public final Part getPart(final int PART) {
+        return PARTS[PART];
+    }
+
+    @Override
+    public final long getNativeSize() {
+        return OWNED ? VERTICES.capacity() + INDICES.capacity() : super.getNativeSize();
+    }
+
+    @Override
+    protected final void release() {
+        if (OWNED) {
+            MemoryUtil.memFree(VERTICES);
+            MemoryUtil.memFree(INDICES);
+        }
+    }
+
+    /**
+     * Range of vertices and indices drawn with a single material.
+     */
+    public static final class Part {
+
+        private final int VERTEX_OFFSET, VERTEX_COUNT, INDEX_OFFSET, INDEX_COUNT, MATERIAL;
+
+        Part(final int VERTEX_OFFSET, final int VERTEX_COUNT, final int INDEX_OFFSET, final int INDEX_COUNT, final int MATERIAL) {
+            this.VERTEX_OFFSET = VERTEX_OFFSET;
+            this.VERTEX_COUNT = VERTEX_COUNT;
+            this.INDEX_OFFSET = INDEX_OFFSET;
+            this.INDEX_COUNT = INDEX_COUNT;
+            this.MATERIAL = MATERIAL;
+        }
+
+        /**
+         * @return the first vertex of the part, added to every index of the
+         * part when drawing.
+         */
+        public final int getVertexOffset() {
+            return VERTEX_OFFSET;
+        }
+
+        /**
+         * @return the number of vertices of the part.
+         */
+        public final int getVertexCount() {
+            return VERTEX_COUNT;
+        }
+
+        /**
+         * @return the first index of the part.
+         */
+        public final int getIndexOffset() {
+            return INDEX_OFFSET;
+        }
+
+        /**
+         * @return the number of indices of the part.
+         */
+        public final int getIndexCount() {
+            return INDEX_COUNT;
+        }
+
+        /**
+         * @return the index of the material of the part in the source scene.
+         */
+        public final int getMaterial() {
+            return MATERIAL;
+        }
+    }
+}
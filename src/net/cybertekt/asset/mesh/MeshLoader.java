@@ -0,0 +1,347 @@
+package net.cybertekt.asset.mesh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.stream.IntStream;
+import net.cybertekt.asset.Asset;
+import net.cybertekt.asset.AssetBaker;
+import net.cybertekt.asset.AssetBuffer;
+import net.cybertekt.asset.AssetInput;
+import net.cybertekt.asset.AssetKey;
+import net.cybertekt.asset.AssetType;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.assimp.AIFace;
+import org.lwjgl.assimp.AIMesh;
+import org.lwjgl.assimp.AIScene;
+import org.lwjgl.assimp.Assimp;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Mesh Loader - (C) Cybertekt Software
+ *
+ * {@link AssetBaker Asset baker} that imports scenes with Assimp and converts
+ * every triangle mesh of the scene into a {@link Mesh.Part part} of a single
+ * compact {@link Mesh mesh}. Scenes are imported directly from the memory
+ * mapped source data. Each part is then optimized for vertex cache efficiency,
+ * overdraw and vertex fetch locality by the {@link MeshOptimizer optimizer},
+ * and its vertices quantized and written into the shared native vertex and
+ * index buffers. Parts are optimized and written in parallel.
+ *
+ * Meshes are imported from memory, so formats that reference external files,
+ * such as the material libraries of OBJ files, are imported without them.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class MeshLoader implements AssetBaker {
+
+    /**
+     * Baked mesh magic number ("CMSH").
+     */
+    private static final int MAGIC = 0x48534D43;
+
+    /**
+     * Baked mesh header size in bytes.
+     */
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * Size of a baked part record in bytes.
+     */
+    private static final int PART_SIZE = 20;
+
+    /**
+     * Alignment of the vertex and index data within a baked mesh.
+     */
+    private static final int DATA_ALIGNMENT = 16;
+
+    /**
+     * Largest part vertex count addressable with 16-bit indices. The value
+     * 0xFFFF is excluded as it is reserved for primitive restart.
+     */
+    private static final int MAX_SHORT_VERTICES = 0xFFFF;
+
+    /**
+     * Assimp post-processing steps. Vertex cache optimization is performed by
+     * the {@link MeshOptimizer optimizer} instead of Assimp.
+     */
+    private static final int FLAGS = Assimp.aiProcess_Triangulate | Assimp.aiProcess_JoinIdenticalVertices | Assimp.aiProcess_GenSmoothNormals
+            | Assimp.aiProcess_SortByPType | Assimp.aiProcess_FindInvalidData | Assimp.aiProcess_FlipUVs;
+
+    /**
+     * Scene types imported by Assimp.
+     */
+    private static final AssetType[] TYPES = {
+        AssetType.getType("obj"), AssetType.getType("fbx"), AssetType.getType("dae"),
+        AssetType.getType("glb"), AssetType.getType("3ds"), AssetType.getType("ply"),
+        AssetType.getType("stl"), AssetType.getType("blend"), AssetType.getType("x")
+    };
+
+    @Override
+    public final AssetType[] getTypes() {
+        return TYPES.clone();
+    }
+
+    @Override
+    public final int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public final Asset load(final AssetInput INPUT) throws IOException {
+        final AssetBuffer source = INPUT.retain();
+        final AIScene scene = Assimp.aiImportFileFromMemory(source.get(), FLAGS, INPUT.getKey().getType().getExtension());
+        if (scene == null) {
+            throw new IOException("Mesh import failed: " + INPUT.getKey() + " - " + Assimp.aiGetErrorString());
+        }
+
+        ByteBuffer vertices = null, indices = null;
+        try {
+            // Collect Triangle Meshes \\
+            final PointerBuffer meshes = scene.mMeshes();
+            final long[] addresses = new long[scene.mNumMeshes()];
+            int count = 0;
+            for (int i = 0; i < addresses.length; i++) {
+                final long mesh = meshes.get(i);
+                if (AIMesh.nmPrimitiveTypes(mesh) == Assimp.aiPrimitiveType_TRIANGLE && AIMesh.nmNumFaces(mesh) > 0) {
+                    addresses[count++] = mesh;
+                }
+            }
+            if (count == 0) {
+                throw new IOException("Mesh contains no triangles: " + INPUT.getKey());
+            }
+
+            // Optimize Parts In Parallel \\
+            final Source[] sources = IntStream.range(0, count).parallel().mapToObj(i -> prepare(addresses[i])).toArray(Source[]::new);
+
+            // Lay Out Parts \\
+            final Mesh.Part[] parts = new Mesh.Part[count];
+            int vertexCount = 0, indexCount = 0, maxVertices = 0;
+            for (int i = 0; i < count; i++) {
+                final Source part = sources[i];
+                parts[i] = new Mesh.Part(vertexCount, part.VERTICES.length, indexCount, part.INDICES.length, AIMesh.nmMaterialIndex(part.MESH));
+                vertexCount += part.VERTICES.length;
+                indexCount += part.INDICES.length;
+                maxVertices = Math.max(maxVertices, part.VERTICES.length);
+            }
+            final int indexSize = (maxVertices <= MAX_SHORT_VERTICES) ? 2 : 4;
+
+            // Write Parts In Parallel \\
+            vertices = MemoryUtil.memAlloc(vertexCount * Mesh.VERTEX_SIZE);
+            indices = MemoryUtil.memAlloc(indexCount * indexSize);
+            final long vertexAddress = MemoryUtil.memAddress(vertices), indexAddress = MemoryUtil.memAddress(indices);
+            IntStream.range(0, count).parallel().forEach(i -> write(sources[i],
+                    vertexAddress + (long) parts[i].getVertexOffset() * Mesh.VERTEX_SIZE,
+                    indexAddress + (long) parts[i].getIndexOffset() * indexSize, indexSize));
+
+            return new Mesh(INPUT.getKey(), vertices, indices, indexSize, parts);
+        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+            if (vertices != null) {
+                MemoryUtil.memFree(vertices);
+            }
+            if (indices != null) {
+                MemoryUtil.memFree(indices);
+            }
+            throw e;
+        } finally {
+            Assimp.aiReleaseImport(scene);
+        }
+    }
+
+    @Override
+    public final void bake(final Asset ASSET, final WritableByteChannel OUT) throws IOException {
+        final Mesh mesh = (Mesh) ASSET;
+        final ByteBuffer header = ByteBuffer.allocate(align(HEADER_SIZE + mesh.getParts() * PART_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(mesh.getVertexCount()).putInt(mesh.getIndexCount()).putInt(mesh.getIndexSize()).putInt(mesh.getParts()).putInt(0);
+        for (int i = 0; i < mesh.getParts(); i++) {
+            final Mesh.Part part = mesh.getPart(i);
+            header.putInt(part.getVertexOffset()).putInt(part.getVertexCount()).putInt(part.getIndexOffset()).putInt(part.getIndexCount()).putInt(part.getMaterial());
+        }
+        header.clear();
+        writeFully(OUT, header);
+
+        final ByteBuffer vertices = mesh.getVertices().duplicate();
+        vertices.clear();
+        writeFully(OUT, vertices);
+        final ByteBuffer padding = ByteBuffer.allocate(align(vertices.capacity()) - vertices.capacity());
+        writeFully(OUT, padding);
+        final ByteBuffer indices = mesh.getIndices().duplicate();
+        indices.clear();
+        writeFully(OUT, indices);
+    }
+
+    @Override
+    public final Asset restore(final AssetKey KEY, final AssetBuffer DATA) throws IOException {
+        final ByteBuffer header = DATA.get().order(ByteOrder.LITTLE_ENDIAN);
+        if (header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IOException("Invalid baked mesh: " + KEY);
+        }
+        final int vertexCount = header.getInt(4), indexCount = header.getInt(8), indexSize = header.getInt(12), count = header.getInt(16);
+        final long vertexOffset = align(HEADER_SIZE + (long) count * PART_SIZE);
+        final long indexOffset = vertexOffset + align((long) vertexCount * Mesh.VERTEX_SIZE);
+        if ((indexSize != 2 && indexSize != 4) || indexOffset + (long) indexCount * indexSize > DATA.size()) {
+            throw new IOException("Invalid baked mesh: " + KEY);
+        }
+
+        final Mesh.Part[] parts = new Mesh.Part[count];
+        for (int i = 0; i < count; i++) {
+            final int record = HEADER_SIZE + i * PART_SIZE;
+            parts[i] = new Mesh.Part(header.getInt(record), header.getInt(record + 4), header.getInt(record + 8), header.getInt(record + 12), header.getInt(record + 16));
+        }
+        return new Mesh(KEY, DATA,
+                MemoryUtil.memByteBuffer(DATA.address() + vertexOffset, vertexCount * Mesh.VERTEX_SIZE),
+                MemoryUtil.memByteBuffer(DATA.address() + indexOffset, indexCount * indexSize), indexSize, parts);
+    }
+
+    /**
+     * Reads the indices and positions of an Assimp mesh and optimizes them.
+     */
+    private static Source prepare(final long MESH) {
+        final int vertexCount = AIMesh.nmNumVertices(MESH), faceCount = AIMesh.nmNumFaces(MESH);
+        final long faces = MemoryUtil.memGetAddress(MESH + AIMesh.MFACES);
+        final int[] indices = new int[faceCount * 3];
+        for (int i = 0; i < faceCount; i++) {
+            final long face = MemoryUtil.memGetAddress(faces + (long) i * AIFace.SIZEOF + AIFace.MINDICES);
+            indices[i * 3] = MemoryUtil.memGetInt(face);
+            indices[i * 3 + 1] = MemoryUtil.memGetInt(face + 4);
+            indices[i * 3 + 2] = MemoryUtil.memGetInt(face + 8);
+        }
+        final long positions = MemoryUtil.memGetAddress(MESH + AIMesh.MVERTICES);
+        final float[] position = new float[vertexCount * 3];
+        for (int i = 0; i < position.length; i++) {
+            position[i] = MemoryUtil.memGetFloat(positions + i * 4L);
+        }
+
+        MeshOptimizer.optimizeVertexCache(indices, vertexCount);
+        MeshOptimizer.optimizeOverdraw(indices, position);
+        return new Source(MESH, indices, MeshOptimizer.optimizeVertexFetch(indices, vertexCount));
+    }
+
+    /**
+     * Writes the quantized vertices and indices of an optimized part.
+     */
+    private static void write(final Source PART, final long VERTICES, final long INDICES, final int INDEX_SIZE) {
+        final long positions = MemoryUtil.memGetAddress(PART.MESH + AIMesh.MVERTICES);
+        final long normals = MemoryUtil.memGetAddress(PART.MESH + AIMesh.MNORMALS);
+        final long texcoords = MemoryUtil.memGetAddress(PART.MESH + AIMesh.MTEXTURECOORDS);
+
+        long dst = VERTICES;
+        for (int source : PART.VERTICES) {
+            final long p = positions + source * 12L;
+            MemoryUtil.memPutFloat(dst + Mesh.POSITION_OFFSET, MemoryUtil.memGetFloat(p));
+            MemoryUtil.memPutFloat(dst + Mesh.POSITION_OFFSET + 4, MemoryUtil.memGetFloat(p + 4));
+            MemoryUtil.memPutFloat(dst + Mesh.POSITION_OFFSET + 8, MemoryUtil.memGetFloat(p + 8));
+            if (normals != MemoryUtil.NULL) {
+                final long n = normals + source * 12L;
+                encodeNormal(MemoryUtil.memGetFloat(n), MemoryUtil.memGetFloat(n + 4), MemoryUtil.memGetFloat(n + 8), dst + Mesh.NORMAL_OFFSET);
+            } else {
+                encodeNormal(0, 0, 1, dst + Mesh.NORMAL_OFFSET);
+            }
+            if (texcoords != MemoryUtil.NULL) {
+                final long t = texcoords + source * 12L;
+                MemoryUtil.memPutShort(dst + Mesh.TEXCOORD_OFFSET, toHalf(MemoryUtil.memGetFloat(t)));
+                MemoryUtil.memPutShort(dst + Mesh.TEXCOORD_OFFSET + 2, toHalf(MemoryUtil.memGetFloat(t + 4)));
+            } else {
+                MemoryUtil.memPutInt(dst + Mesh.TEXCOORD_OFFSET, 0);
+            }
+            dst += Mesh.VERTEX_SIZE;
+        }
+
+        if (INDEX_SIZE == 2) {
+            for (int i = 0; i < PART.INDICES.length; i++) {
+                MemoryUtil.memPutShort(INDICES + i * 2L, (short) PART.INDICES[i]);
+            }
+        } else {
+            for (int i = 0; i < PART.INDICES.length; i++) {
+                MemoryUtil.memPutInt(INDICES + i * 4L, PART.INDICES[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes a unit normal as two octahedral encoded snorm16 values.
+     */
+    static void encodeNormal(final float X, final float Y, final float Z, final long DST) {
+        final float sum = Math.abs(X) + Math.abs(Y) + Math.abs(Z);
+        float x = (sum > 0) ? X / sum : 0, y = (sum > 0) ? Y / sum : 0;
+        if (Z < 0) {
+            final float ox = x;
+            x = (1 - Math.abs(y)) * (ox >= 0 ? 1 : -1);
+            y = (1 - Math.abs(ox)) * (y >= 0 ? 1 : -1);
+        }
+        MemoryUtil.memPutShort(DST, (short) Math.round(Math.max(-1, Math.min(1, x)) * Short.MAX_VALUE));
+        MemoryUtil.memPutShort(DST + 2, (short) Math.round(Math.max(-1, Math.min(1, y)) * Short.MAX_VALUE));
+    }
+
+    /**
+     * Converts a float to an IEEE 754 half precision float, rounding to
+     * nearest.
+     */
+    static short toHalf(final float VALUE) {
+        final int bits = Float.floatToRawIntBits(VALUE);
+        final int sign = (bits >>> 16) & 0x8000;
+        final int abs = bits & 0x7FFFFFFF;
+        final int rounded = abs + 0x1000;
+
+        if (rounded >= 0x47800000) {
+            // Overflow, Infinity Or NaN \\
+            if (abs >= 0x47800000) {
+                return (short) (abs > 0x7F800000 ? sign | 0x7E00 : sign | 0x7C00);
+            }
+            return (short) (sign | 0x7BFF);
+        }
+        if (rounded >= 0x38800000) {
+            return (short) (sign | ((rounded - 0x38000000) >>> 13));
+        }
+        if (rounded < 0x33000000) {
+            return (short) sign;
+        }
+
+        // Subnormal \\
+        final int exponent = abs >>> 23;
+        return (short) (sign | ((((abs & 0x7FFFFF) | 0x800000) + (0x800000 >>> (exponent - 102))) >>> (126 - exponent)));
+    }
+
+    private static int align(final int OFFSET) {
+        return (OFFSET + DATA_ALIGNMENT - 1) & -DATA_ALIGNMENT;
+    }
+
+    private static long align(final long OFFSET) {
+        return (OFFSET + DATA_ALIGNMENT - 1) & -DATA_ALIGNMENT;
+    }
+
+    private static void writeFully(final WritableByteChannel OUT, final ByteBuffer DATA) throws IOException {
+        while (DATA.hasRemaining()) {
+            OUT.write(DATA);
+        }
+    }
+
+    /**
+     * Optimized part awaiting conversion.
+     */
+    private static final class Source {
+
+        /**
+         * Address of the Assimp mesh.
+         */
+        private final long MESH;
+
+        /**
+         * Optimized indices, relative to the first vertex of the part.
+         */
+        private final int[] INDICES;
+
+        /**
+         * Source vertex of each output vertex.
+         */
+        private final int[] VERTICES;
+
+        private Source(final long MESH, final int[] INDICES, final int[] VERTICES) {
+            this.MESH = MESH;
+            this.INDICES = INDICES;
+            this.VERTICES = VERTICES;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package net.cybertekt.asset.mesh;
+
+import java.util.Arrays;
+
+/**
+ * Mesh Optimizer - (C) Cybertekt Software
+ *
+ * Index buffer optimizations applied to every imported mesh part:
+ *
+ * <ul>
+ * <li>{@link #optimizeVertexCache(int[], int) Vertex cache} - reorders
+ * triangles with Forsyth's linear-speed algorithm so that consecutive
+ * triangles share vertices still held in the post-transform cache.</li>
+ * <li>{@link #optimizeOverdraw(int[], float[]) Overdraw} - splits the cache
+ * optimized triangle order into clusters at cache boundaries and sorts the
+ * clusters front-facing outwards, so that occluding geometry tends to be drawn
+ * first without giving up most of the cache efficiency.</li>
+ * <li>{@link #optimizeVertexFetch(int[], int) Vertex fetch} - renumbers
+ * vertices in the order in which they are first referenced.</li>
+ * </ul>
+ *
+ * Each method operates on a single part and is safe to invoke concurrently for
+ * different parts.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+final class MeshOptimizer {
+
+    /**
+     * Size of the simulated post-transform vertex cache.
+     */
+    static final int CACHE_SIZE = 32;
+
+    private static final float CACHE_DECAY_POWER = 1.5f;
+
+    private static final float LAST_TRIANGLE_SCORE = 0.75f;
+
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+
+    private static final float VALENCE_BOOST_POWER = 0.5f;
+
+    /**
+     * Size of the FIFO cache used to detect cluster boundaries.
+     */
+    private static final int CLUSTER_CACHE_SIZE = 16;
+
+    private MeshOptimizer() {
+    }
+
+    /**
+     * Reorders triangles for post-transform vertex cache efficiency.
+     *
+     * @param INDICES the triangle list, reordered in place.
+     * @param VERTEX_COUNT the number of vertices referenced by the indices.
+     */
+    static void optimizeVertexCache(final int[] INDICES, final int VERTEX_COUNT) {
+        final int triangles = INDICES.length / 3;
+        if (triangles < 2) {
+            return;
+        }
+
+        // Build Vertex To Triangle Adjacency \\
+        final int[] live = new int[VERTEX_COUNT];
+        for (int index : INDICES) {
+            live[index]++;
+        }
+        final int[] first = new int[VERTEX_COUNT + 1];
+        for (int v = 0; v < VERTEX_COUNT; v++) {
+            first[v + 1] = first[v] + live[v];
+        }
+        final int[] adjacency = new int[INDICES.length];
+        final int[] fill = Arrays.copyOf(first, VERTEX_COUNT);
+        for (int i = 0; i < INDICES.length; i++) {
+            adjacency[fill[INDICES[i]]++] = i / 3;
+        }
+
+        final int[] position = new int[VERTEX_COUNT];
+        Arrays.fill(position, -1);
+        final float[] vertexScore = new float[VERTEX_COUNT];
+        for (int v = 0; v < VERTEX_COUNT; v++) {
+            vertexScore[v] = score(-1, live[v]);
+        }
+        final float[] triangleScore = new float[triangles];
+        final boolean[] emitted = new boolean[triangles];
+        int best = 0;
+        for (int t = 0; t < triangles; t++) {
+            triangleScore[t] = vertexScore[INDICES[t * 3]] + vertexScore[INDICES[t * 3 + 1]] + vertexScore[INDICES[t * 3 + 2]];
+            if (triangleScore[t] > triangleScore[best]) {
+                best = t;
+            }
+        }
+
+        int[] cache = new int[CACHE_SIZE + 3], next = new int[CACHE_SIZE + 3];
+        int cached = 0, scan = 0;
+        final int[] output = new int[INDICES.length];
+
+        for (int n = 0; n < triangles; n++) {
+            if (best < 0) {
+                // No Cached Triangle Remains - Continue With The Next In Order \\
+                while (emitted[scan]) {
+                    scan++;
+                }
+                best = scan;
+            }
+
+            // Emit Triangle And Remove It From The Adjacency Of Its Vertices \\
+            emitted[best] = true;
+            int count = 0;
+            for (int k = 0; k < 3; k++) {
+                final int v = INDICES[best * 3 + k];
+                output[n * 3 + k] = v;
+                final int end = first[v] + --live[v];
+                for (int i = first[v]; i <= end; i++) {
+                    if (adjacency[i] == best) {
+                        adjacency[i] = adjacency[end];
+                        adjacency[end] = best;
+                        break;
+                    }
+                }
+                next[count++] = v;
+            }
+
+            // Move Triangle Vertices To The Front Of The Cache \\
+            for (int i = 0; i < cached; i++) {
+                final int v = cache[i];
+                if (v != next[0] && v != next[1] && v != next[2]) {
+                    next[count++] = v;
+                }
+            }
+            final int[] swap = cache;
+            cache = next;
+            next = swap;
+            for (int i = 0; i < count; i++) {
+                final int v = cache[i];
+                position[v] = (i < CACHE_SIZE) ? i : -1;
+                vertexScore[v] = score(position[v], live[v]);
+            }
+
+            // Rescore Triangles Of Affected Vertices \\
+            best = -1;
+            float bestScore = -1;
+            for (int i = 0; i < count; i++) {
+                final int v = cache[i];
+                for (int j = first[v], end = first[v] + live[v]; j < end; j++) {
+                    final int t = adjacency[j];
+                    final float s = vertexScore[INDICES[t * 3]] + vertexScore[INDICES[t * 3 + 1]] + vertexScore[INDICES[t * 3 + 2]];
+                    triangleScore[t] = s;
+                    if (s > bestScore) {
+                        bestScore = s;
+                        best = t;
+                    }
+                }
+            }
+            cached = Math.min(count, CACHE_SIZE);
+        }
+        System.arraycopy(output, 0, INDICES, 0, output.length);
+    }
+
+    /**
+     * Forsyth vertex score for a vertex at a cache position with a number of
+     * remaining triangles.
+     */
+    private static float score(final int POSITION, final int LIVE) {
+        if (LIVE == 0) {
+            return -1;
+        }
+        float score = 0;
+        if (POSITION >= 0) {
+            if (POSITION < 3) {
+                score = LAST_TRIANGLE_SCORE;
+            } else {
+                score = (float) Math.pow(1.0f - (POSITION - 3) / (float) (CACHE_SIZE - 3), CACHE_DECAY_POWER);
+            }
+        }
+        return score + VALENCE_BOOST_SCALE * (float) Math.pow(LIVE, -VALENCE_BOOST_POWER);
+    }
+
+    /**
+     * Reorders clusters of a cache optimized triangle list to reduce overdraw.
+     * Clusters begin at triangles whose vertices all miss a simulated FIFO
+     * cache, and are sorted by how far they face away from the centroid of the
+     * part.
+     *
+     * @param INDICES the cache optimized triangle list, reordered in place.
+     * @param POSITIONS the vertex positions, three floats per vertex.
+     */
+    static void optimizeOverdraw(final int[] INDICES, final float[] POSITIONS) {
+        final int triangles = INDICES.length / 3;
+        if (triangles < 2) {
+            return;
+        }
+
+        // Find Cluster Boundaries \\
+        final int[] starts = new int[triangles + 1];
+        int clusters = 0;
+        final int[] fifo = new int[CLUSTER_CACHE_SIZE];
+        Arrays.fill(fifo, -1);
+        int head = 0;
+        for (int t = 0; t < triangles; t++) {
+            int misses = 0;
+            for (int k = 0; k < 3; k++) {
+                final int v = INDICES[t * 3 + k];
+                boolean hit = false;
+                for (int c : fifo) {
+                    if (c == v) {
+                        hit = true;
+                        break;
+                    }
+                }
+                if (!hit) {
+                    fifo[head] = v;
+                    head = (head + 1) % CLUSTER_CACHE_SIZE;
+                    misses++;
+                }
+            }
+            if (t == 0 || misses == 3) {
+                starts[clusters++] = t;
+            }
+        }
+        starts[clusters] = triangles;
+        if (clusters < 2) {
+            return;
+        }
+
+        // Compute Centroid Of The Part \\
+        double cx = 0, cy = 0, cz = 0;
+        for (int index : INDICES) {
+            cx += POSITIONS[index * 3];
+            cy += POSITIONS[index * 3 + 1];
+            cz += POSITIONS[index * 3 + 2];
+        }
+        cx /= INDICES.length;
+        cy /= INDICES.length;
+        cz /= INDICES.length;
+
+        // Score Each Cluster By Its Outward Facing Direction \\
+        final float[] keys = new float[clusters];
+        final Integer[] order = new Integer[clusters];
+        for (int c = 0; c < clusters; c++) {
+            double px = 0, py = 0, pz = 0, nx = 0, ny = 0, nz = 0;
+            for (int t = starts[c]; t < starts[c + 1]; t++) {
+                final int a = INDICES[t * 3] * 3, b = INDICES[t * 3 + 1] * 3, d = INDICES[t * 3 + 2] * 3;
+                final double ux = POSITIONS[b] - POSITIONS[a], uy = POSITIONS[b + 1] - POSITIONS[a + 1], uz = POSITIONS[b + 2] - POSITIONS[a + 2];
+                final double vx = POSITIONS[d] - POSITIONS[a], vy = POSITIONS[d + 1] - POSITIONS[a + 1], vz = POSITIONS[d + 2] - POSITIONS[a + 2];
+                nx += uy * vz - uz * vy;
+                ny += uz * vx - ux * vz;
+                nz += ux * vy - uy * vx;
+                px += POSITIONS[a] + POSITIONS[b] + POSITIONS[d];
+                py += POSITIONS[a + 1] + POSITIONS[b + 1] + POSITIONS[d + 1];
+                pz += POSITIONS[a + 2] + POSITIONS[b + 2] + POSITIONS[d + 2];
+            }
+            final int count = (starts[c + 1] - starts[c]) * 3;
+            final double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            keys[c] = (length > 0) ? (float) (((px / count - cx) * nx + (py / count - cy) * ny + (pz / count - cz) * nz) / length) : 0;
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(keys[b], keys[a]));
+
+        final int[] output = new int[INDICES.length];
+        int n = 0;
+        for (int c : order) {
+            final int length = (starts[c + 1] - starts[c]) * 3;
+            System.arraycopy(INDICES, starts[c] * 3, output, n, length);
+            n += length;
+        }
+        System.arraycopy(output, 0, INDICES, 0, output.length);
+    }
+
+    /**
+     * Renumbers vertices in the order in which they are first referenced.
+     *
+     * @param INDICES the triangle list, renumbered in place.
+     * @param VERTEX_COUNT the number of vertices referenced by the indices.
+     * @return the original vertex of each renumbered vertex. Vertices that are
+     * never referenced are dropped, so the result may be shorter than the
+     * vertex count.
+     */
+    static int[] optimizeVertexFetch(final int[] INDICES, final int VERTEX_COUNT) {
+        final int[] remap = new int[VERTEX_COUNT];
+        Arrays.fill(remap, -1);
+        final int[] source = new int[VERTEX_COUNT];
+        int count = 0;
+        for (int i = 0; i < INDICES.length; i++) {
+            final int v = INDICES[i];
+            if (remap[v] < 0) {
+                remap[v] = count;
+                source[count++] = v;
+            }
+            INDICES[i] = remap[v];
+        }
+        return (count == VERTEX_COUNT) ? source : Arrays.copyOf(source, count);
+    }
+}
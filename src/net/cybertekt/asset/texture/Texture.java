@@ -0,0 +1,141 @@
+package net.cybertekt.asset.texture;
+
+import java.nio.ByteBuffer;
+import net.cybertekt.asset.Asset;
+import net.cybertekt.asset.AssetBuffer;
+import net.cybertekt.asset.AssetKey;
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Texture - (C) Cybertekt Software
+ *
+ * Decoded 8-bit per channel image with a complete mipmap chain. Every mipmap
+ * level is stored in native memory, tightly packed, ready to be copied into a
+ * staging buffer. Texture data is either owned by the texture, or, for
+ * textures restored from their baked form, a view of the memory mapped baked
+ * {@link AssetBuffer buffer}.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class Texture extends Asset {
+
+    /**
+     * Width and height of the base level in pixels.
+     */
+    private final int WIDTH, HEIGHT;
+
+    /**
+     * Number of 8-bit channels per pixel.
+     */
+    private final int CHANNELS;
+
+    /**
+     * Mipmap levels, from the base level to the 1x1 level.
+     */
+    private final ByteBuffer[] LEVELS;
+
+    /**
+     * True if the level memory is owned by the texture - the base level was
+     * allocated by stb_image and the remaining levels by
+     * {@link MemoryUtil#memAlloc(int)}.
+     */
+    private final boolean OWNED;
+
+    /**
+     * Constructs a texture that owns its level memory.
+     */
+    Texture(final AssetKey KEY, final int WIDTH, final int HEIGHT, final int CHANNELS, final ByteBuffer[] LEVELS) {
+        super(KEY);
+        this.WIDTH = WIDTH;
+        this.HEIGHT = HEIGHT;
+        this.CHANNELS = CHANNELS;
+        this.LEVELS = LEVELS;
+        this.OWNED = true;
+    }
+
+    /**
+     * Constructs a texture whose levels are views of a baked buffer.
+     */
+    Texture(final AssetKey KEY, final AssetBuffer BAKED, final int WIDTH, final int HEIGHT, final int CHANNELS, final ByteBuffer[] LEVELS) {
+        super(KEY, BAKED);
+        this.WIDTH = WIDTH;
+        this.HEIGHT = HEIGHT;
+        this.CHANNELS = CHANNELS;
+        this.LEVELS = LEVELS;
+        this.OWNED = false;
+    }
+
+    /**
+     * @return the width of the base level in pixels.
+     */
+    public final int getWidth() {
+        return WIDTH;
+    }
+
+    /**
+     * @return the height of the base level in pixels.
+     */
+    public final int getHeight() {
+        return HEIGHT;
+    }
+
+    /**
+     * @return the number of 8-bit channels per pixel.
+     */
+    public final int getChannels() {
+        return CHANNELS;
+    }
+
+    /**
+     * @return the number of mipmap levels.
+     */
+    public final int getLevels() {
+        return LEVELS.length;
+    }
+
+    /**
+     * Returns the native data of a mipmap level. The buffer must be treated as
+     * read-only and is invalid once the texture has been disposed.
+     *
+     * @param LEVEL the mipmap level, zero being the base level.
+     * @return the tightly packed pixel data of the level.
+     */
+    public final ByteBuffer getLevel(final int LEVEL) {
+        return LEVELS[LEVEL];
+    }
+
+    @Override
+    public final long getNativeSize() {
+        if (!OWNED) {
+            return super.getNativeSize();
+        }
+        long size = 0;
+        for (ByteBuffer level : LEVELS) {
+            size += level.capacity();
+        }
+        return size;
+    }
+
+    @Override
+    protected final void release() {
+        if (OWNED) {
+            STBImage.stbi_image_free(LEVELS[0]);
+            for (int i = 1; i < LEVELS.length; i++) {
+                MemoryUtil.memFree(LEVELS[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of levels in a complete mipmap chain.
+     *
+     * @param WIDTH the width of the base level.
+     * @param HEIGHT the height of the base level.
+     * @return the number of levels down to and including the 1x1 level.
+     */
+    public static int levels(final int WIDTH, final int HEIGHT) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(WIDTH, HEIGHT));
+    }
+}
@@ -0,0 +1,194 @@
+package net.cybertekt.asset.texture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.stream.IntStream;
+import net.cybertekt.asset.Asset;
+import net.cybertekt.asset.AssetBaker;
+import net.cybertekt.asset.AssetBuffer;
+import net.cybertekt.asset.AssetInput;
+import net.cybertekt.asset.AssetKey;
+import net.cybertekt.asset.AssetType;
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Texture Loader - (C) Cybertekt Software
+ *
+ * {@link AssetBaker Asset baker} that decodes images into
+ * {@link Texture textures} with stb_image. Images are decoded directly from
+ * the memory mapped source data into native memory and expanded to four
+ * channels. A complete mipmap chain is generated on the CPU with a 2x2 box
+ * filter, processing the rows of each level in parallel. No intermediate heap
+ * arrays are used. Textures from different files are decoded in parallel by
+ * the decode threads of the asset manager, see
+ * {@link net.cybertekt.asset.AssetManager#loadAll(java.util.Collection)}.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class TextureLoader implements AssetBaker {
+
+    /**
+     * Baked texture magic number ("CTEX").
+     */
+    private static final int MAGIC = 0x58455443;
+
+    /**
+     * Baked texture header size in bytes.
+     */
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * Alignment of each level within a baked texture.
+     */
+    private static final int LEVEL_ALIGNMENT = 16;
+
+    /**
+     * Number of channels every texture is expanded to.
+     */
+    private static final int CHANNELS = 4;
+
+    /**
+     * Levels with fewer pixels are filtered on the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 128 * 128;
+
+    /**
+     * Image types decoded by stb_image.
+     */
+    private static final AssetType[] TYPES = {
+        AssetType.getType("png"), AssetType.getType("jpg"), AssetType.getType("jpeg"),
+        AssetType.getType("tga"), AssetType.getType("bmp"), AssetType.getType("psd"),
+        AssetType.getType("gif"), AssetType.getType("pic"), AssetType.getType("pnm"),
+        AssetType.getType("ppm"), AssetType.getType("pgm")
+    };
+
+    @Override
+    public final AssetType[] getTypes() {
+        return TYPES.clone();
+    }
+
+    @Override
+    public final int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public final Asset load(final AssetInput INPUT) throws IOException {
+        final AssetBuffer source = INPUT.retain();
+        final ByteBuffer base;
+        final int width, height;
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            final IntBuffer w = stack.mallocInt(1), h = stack.mallocInt(1), c = stack.mallocInt(1);
+            base = STBImage.stbi_load_from_memory(source.get(), w, h, c, CHANNELS);
+            if (base == null) {
+                throw new IOException("Image decode failed: " + INPUT.getKey() + " - " + STBImage.stbi_failure_reason());
+            }
+            width = w.get(0);
+            height = h.get(0);
+        }
+
+        // Generate Mipmap Chain \\
+        final ByteBuffer[] levels = new ByteBuffer[Texture.levels(width, height)];
+        levels[0] = base;
+        try {
+            for (int i = 1; i < levels.length; i++) {
+                final int sw = Math.max(1, width >> (i - 1)), sh = Math.max(1, height >> (i - 1));
+                final int dw = Math.max(1, width >> i), dh = Math.max(1, height >> i);
+                levels[i] = MemoryUtil.memAlloc(dw * dh * CHANNELS);
+                downsample(MemoryUtil.memAddress(levels[i - 1]), sw, sh, MemoryUtil.memAddress(levels[i]), dw, dh);
+            }
+        } catch (RuntimeException | OutOfMemoryError e) {
+            STBImage.stbi_image_free(base);
+            for (int i = 1; i < levels.length && levels[i] != null; i++) {
+                MemoryUtil.memFree(levels[i]);
+            }
+            throw e;
+        }
+
+        return new Texture(INPUT.getKey(), width, height, CHANNELS, levels);
+    }
+
+    @Override
+    public final void bake(final Asset ASSET, final WritableByteChannel OUT) throws IOException {
+        final Texture texture = (Texture) ASSET;
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(texture.getWidth()).putInt(texture.getHeight()).putInt(texture.getChannels()).putInt(texture.getLevels()).putInt(0);
+        header.flip();
+        writeFully(OUT, header);
+
+        final ByteBuffer padding = ByteBuffer.allocate(LEVEL_ALIGNMENT);
+        long offset = HEADER_SIZE;
+        for (int i = 0; i < texture.getLevels(); i++) {
+            padding.clear().limit((int) (align(offset) - offset));
+            writeFully(OUT, padding);
+            final ByteBuffer level = texture.getLevel(i).duplicate();
+            level.clear();
+            offset = align(offset) + level.remaining();
+            writeFully(OUT, level);
+        }
+    }
+
+    @Override
+    public final Asset restore(final AssetKey KEY, final AssetBuffer DATA) throws IOException {
+        final ByteBuffer header = DATA.get().order(ByteOrder.LITTLE_ENDIAN);
+        if (header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IOException("Invalid baked texture: " + KEY);
+        }
+        final int width = header.getInt(4), height = header.getInt(8), channels = header.getInt(12), count = header.getInt(16);
+        if (count != Texture.levels(width, height)) {
+            throw new IOException("Invalid baked texture: " + KEY);
+        }
+
+        final ByteBuffer[] levels = new ByteBuffer[count];
+        long offset = HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            final int size = Math.max(1, width >> i) * Math.max(1, height >> i) * channels;
+            offset = align(offset);
+            if (offset + size > DATA.size()) {
+                throw new IOException("Truncated baked texture: " + KEY);
+            }
+            levels[i] = MemoryUtil.memByteBuffer(DATA.address() + offset, size);
+            offset += size;
+        }
+        return new Texture(KEY, DATA, width, height, channels, levels);
+    }
+
+    /**
+     * Generates a mipmap level from the previous level with a 2x2 box filter.
+     * Odd dimensions are handled by clamping to the last row or column. Large
+     * levels are filtered in parallel, one task per destination row.
+     */
+    private static void downsample(final long SRC, final int SW, final int SH, final long DST, final int DW, final int DH) {
+        final IntStream rows = IntStream.range(0, DH);
+        (DW * DH >= PARALLEL_THRESHOLD ? rows.parallel() : rows).forEach(y -> {
+            final long row0 = SRC + (long) Math.min(y * 2, SH - 1) * SW * CHANNELS;
+            final long row1 = SRC + (long) Math.min(y * 2 + 1, SH - 1) * SW * CHANNELS;
+            long dst = DST + (long) y * DW * CHANNELS;
+            for (int x = 0; x < DW; x++) {
+                final int x0 = Math.min(x * 2, SW - 1) * CHANNELS;
+                final int x1 = Math.min(x * 2 + 1, SW - 1) * CHANNELS;
+                for (int c = 0; c < CHANNELS; c++) {
+                    final int sum = (MemoryUtil.memGetByte(row0 + x0 + c) & 0xFF) + (MemoryUtil.memGetByte(row0 + x1 + c) & 0xFF)
+                            + (MemoryUtil.memGetByte(row1 + x0 + c) & 0xFF) + (MemoryUtil.memGetByte(row1 + x1 + c) & 0xFF);
+                    MemoryUtil.memPutByte(dst++, (byte) ((sum + 2) >> 2));
+                }
+            }
+        });
+    }
+
+    private static long align(final long OFFSET) {
+        return (OFFSET + LEVEL_ALIGNMENT - 1) & -LEVEL_ALIGNMENT;
+    }
+
+    private static void writeFully(final WritableByteChannel OUT, final ByteBuffer DATA) throws IOException {
+        while (DATA.hasRemaining()) {
+            OUT.write(DATA);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package net.cybertekt.job;
+
+/**
+ * Frame - (C) Cybertekt Software
+ *
+ * Immutable description of a single frame, passed to every
+ * {@link FrameGraph.Task task} of the frame. With a fixed timestep, the
+ * simulation stage runs once per elapsed {@link #getDelta() step}, possibly
+ * not at all, and later stages interpolate simulation state by
+ * {@link #getAlpha() the remaining fraction of a step}. Each simulation step
+ * receives its own {@link #step(int) step frame} carrying the time and index
+ * of the step.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class Frame {
+
+    private final long NUMBER;
+
+    private final double TIME, DELTA, ALPHA;
+
+    private final int STEPS, STEP;
+
+    private final JobSystem JOBS;
+
+    Frame(final long NUMBER, final double TIME, final double DELTA, final int STEPS, final double ALPHA, final JobSystem JOBS) {
+        this(NUMBER, TIME, DELTA, STEPS, -1, ALPHA, JOBS);
+    }
+
+    private Frame(final long NUMBER, final double TIME, final double DELTA, final int STEPS, final int STEP, final double ALPHA, final JobSystem JOBS) {
+        this.NUMBER = NUMBER;
+        this.TIME = TIME;
+        this.DELTA = DELTA;
+        this.STEPS = STEPS;
+        this.STEP = STEP;
+        this.ALPHA = ALPHA;
+        this.JOBS = JOBS;
+    }
+
+    /**
+     * Returns the frame passed to the simulation tasks of a step. Its time is
+     * the simulation time at the end of the step.
+     *
+     * @param STEP the index of the step, in [0, {@link #getSteps()}).
+     * @return the frame of the step.
+     */
+    final Frame step(final int STEP) {
+        return new Frame(NUMBER, TIME - (STEPS - 1 - STEP) * DELTA, DELTA, STEPS, STEP, ALPHA, JOBS);
+    }
+
+    /**
+     * @return the number of the frame, starting at 0.
+     */
+    public final long getNumber() {
+        return NUMBER;
+    }
+
+    /**
+     * @return the simulation time in seconds at the end of the
+     * {@link #getStep() step} being run, or outside the simulation stage at
+     * the end of the frame's simulation steps.
+     */
+    public final double getTime() {
+        return TIME;
+    }
+
+    /**
+     * @return the simulation time in seconds advanced by each simulation step.
+     */
+    public final double getDelta() {
+        return DELTA;
+    }
+
+    /**
+     * @return the number of simulation steps run during the frame. Always 1
+     * without a fixed timestep.
+     */
+    public final int getSteps() {
+        return STEPS;
+    }
+
+    /**
+     * @return the index of the simulation step being run, starting at 0, or
+     * -1 outside the simulation stage.
+     */
+    public final int getStep() {
+        return STEP;
+    }
+
+    /**
+     * @return the fraction of a fixed timestep elapsed after the frame's last
+     * simulation step, in [0, 1). Always 0 without a fixed timestep.
+     */
+    public final double getAlpha() {
+        return ALPHA;
+    }
+
+    /**
+     * @return the job system running the frame, on which tasks may split
+     * their work.
+     */
+    public final JobSystem getJobs() {
+        return JOBS;
+    }
+
+    @Override
+    public final String toString() {
+        return "Frame " + NUMBER;
+    }
+}
@@ -0,0 +1,434 @@
+package net.cybertekt.job;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import net.cybertekt.app.Profiler;
+
+/**
+ * Frame Graph - (C) Cybertekt Software
+ *
+ * Dependency graph of the {@link Stage stages} of a frame, run on a
+ * {@link JobSystem job system}. Tasks are registered to a stage before the
+ * first frame; the tasks of a stage run in parallel, and each stage of a frame
+ * starts once the previous stage of the same frame and the same stage of the
+ * previous frame have completed. Stages of consecutive frames therefore
+ * pipeline - the simulation of frame N + 1 runs while frame N is culled,
+ * recorded and submitted - with at most {@link #getFramesInFlight()} frames
+ * in flight.
+ *
+ * {@link Stage#Input Input} tasks run on the thread invoking
+ * {@link #frame()}, as window systems require, while the previous frame's
+ * simulation may still be running; they should only queue input for the
+ * simulation. Every other stage runs on the workers. Simulation tasks receive
+ * a {@link Frame#step(int) frame of each step}, with the time and index of the
+ * step. Unless a {@link #setFrameRateLimit(double) frame rate limit} is set,
+ * frames start as soon as the frames in flight allow, so the loop relies on
+ * presentation to block; renderers that do not block set a limit. The time of every stage,
+ * and of every frame from its start to the completion of its submission, is
+ * recorded by the {@link Profiler profiler}.
+ *
+ * -Not synchronized.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class FrameGraph {
+
+    /**
+     * Default maximum number of frames in flight.
+     */
+    public static final int DEFAULT_FRAMES_IN_FLIGHT = 2;
+
+    /**
+     * Maximum number of fixed simulation steps per frame. Time beyond these
+     * steps is dropped, so that a slow frame does not cause ever slower ones.
+     */
+    public static final int MAX_STEPS = 8;
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    /**
+     * Profiler scope of the time from the start of a frame to the completion
+     * of its submission.
+     */
+    private static final int FRAME = Profiler.scope("Frame");
+
+    /**
+     * Profiler scope of each stage.
+     */
+    private static final int[] STAGE_SCOPES = new int[STAGES.length];
+
+    static {
+        for (Stage stage : STAGES) {
+            STAGE_SCOPES[stage.ordinal()] = Profiler.scope("Stage." + stage);
+        }
+    }
+
+    private final JobSystem JOBS;
+
+    /**
+     * Fixed timestep in seconds, or 0 to step the simulation once per frame.
+     */
+    private final double TIMESTEP;
+
+    private final Map<Stage, List<Entry>> TASKS = new EnumMap<>(Stage.class);
+
+    /**
+     * Future of each stage of the most recently scheduled frame.
+     */
+    private final CompletableFuture<?>[] PREVIOUS = new CompletableFuture<?>[STAGES.length];
+
+    /**
+     * Future of the last stage of each frame in flight, by frame number
+     * modulo the number of frames in flight.
+     */
+    private final CompletableFuture<?>[] IN_FLIGHT;
+
+    private Entry[][] stages;
+
+    /**
+     * Minimum time between the starts of consecutive frames in nanoseconds,
+     * or 0 if the frame rate is unlimited.
+     */
+    private long period;
+
+    private long number, last;
+
+    private double time, accumulator;
+
+    /**
+     * Failure already thrown by {@link #frame()}, otherwise null.
+     */
+    private FrameException failure;
+
+    /**
+     * Constructs a frame graph with the
+     * {@link #DEFAULT_FRAMES_IN_FLIGHT default number of frames in flight}.
+     *
+     * @param JOBS the job system on which stages are run.
+     * @param TIMESTEP the fixed timestep in seconds, or 0 to step the
+     * simulation once per frame.
+     */
+    public FrameGraph(final JobSystem JOBS, final double TIMESTEP) {
+        this(JOBS, TIMESTEP, DEFAULT_FRAMES_IN_FLIGHT);
+    }
+
+    /**
+     * Constructs a frame graph.
+     *
+     * @param JOBS the job system on which stages are run.
+     * @param TIMESTEP the fixed timestep in seconds, or 0 to step the
+     * simulation once per frame.
+     * @param FRAMES_IN_FLIGHT the maximum number of frames in flight.
+     */
+    public FrameGraph(final JobSystem JOBS, final double TIMESTEP, final int FRAMES_IN_FLIGHT) {
+        if (!(TIMESTEP >= 0)) {
+            throw new IllegalArgumentException("Invalid timestep: " + TIMESTEP);
+        }
+        if (FRAMES_IN_FLIGHT < 1) {
+            throw new IllegalArgumentException("Invalid frames in flight: " + FRAMES_IN_FLIGHT);
+        }
+        this.JOBS = JOBS;
+        this.TIMESTEP = TIMESTEP;
+        for (Stage stage : STAGES) {
+            TASKS.put(stage, new ArrayList<>());
+        }
+        IN_FLIGHT = new CompletableFuture<?>[FRAMES_IN_FLIGHT];
+        Arrays.fill(IN_FLIGHT, COMPLETED);
+        Arrays.fill(PREVIOUS, COMPLETED);
+    }
+
+    /**
+     * Registers a task. Tasks must be registered before the first frame.
+     *
+     * @param STAGE the stage during which the task runs.
+     * @param NAME the name of the task, reported if the task fails.
+     * @param TASK the task.
+     * @return this frame graph.
+     */
+    public final FrameGraph add(final Stage STAGE, final String NAME, final Task TASK) {
+        if (stages != null) {
+            throw new IllegalStateException("Tasks must be registered before the first frame: " + NAME);
+        }
+        TASKS.get(STAGE).add(new Entry(NAME, TASK));
+        return this;
+    }
+
+    /**
+     * Limits the rate at which frames start. {@link #frame()} parks the
+     * invoking thread until the period of the previous frame has elapsed.
+     * With a limit of one frame per fixed timestep, every frame runs at least
+     * one simulation step.
+     *
+     * @param FPS the maximum number of frames per second, or 0 for no limit.
+     * @return this frame graph.
+     */
+    public final FrameGraph setFrameRateLimit(final double FPS) {
+        if (!(FPS >= 0)) {
+            throw new IllegalArgumentException("Invalid frame rate limit: " + FPS);
+        }
+        period = (FPS == 0) ? 0 : (long) Math.ceil(TimeUnit.SECONDS.toNanos(1) / FPS);
+        return this;
+    }
+
+    /**
+     * @return the maximum number of frames per second, or 0 if the frame rate
+     * is unlimited.
+     */
+    public final double getFrameRateLimit() {
+        return (period == 0) ? 0 : TimeUnit.SECONDS.toNanos(1) / (double) period;
+    }
+
+    /**
+     * Starts the next frame. Waits until fewer than the maximum number of
+     * frames are in flight and the {@link #setFrameRateLimit(double) frame
+     * rate limit} allows the frame, runs the {@link Stage#Input input} tasks
+     * on the invoking thread, and schedules the remaining stages on the
+     * workers.
+     *
+     * @return the started frame.
+     * @throws FrameException if a task of an earlier frame failed.
+     */
+    public final Frame frame() {
+        if (stages == null) {
+            stages = new Entry[STAGES.length][];
+            for (Stage stage : STAGES) {
+                stages[stage.ordinal()] = TASKS.get(stage).toArray(new Entry[0]);
+            }
+        }
+
+        // Limit The Frames In Flight \\
+        final int slot = (int) (number % IN_FLIGHT.length);
+        await(IN_FLIGHT[slot]);
+
+        // Limit The Frame Rate \\
+        long now = System.nanoTime();
+        if (period > 0 && number > 0) {
+            while (now - last < period) {
+                LockSupport.parkNanos(period - (now - last));
+                now = System.nanoTime();
+            }
+        }
+
+        // Advance The Clock \\
+        final long START = now;
+        final double elapsed = (number == 0) ? 0 : (now - last) / (double) TimeUnit.SECONDS.toNanos(1);
+        last = now;
+        final Frame frame;
+        if (TIMESTEP > 0) {
+            accumulator = Math.min(accumulator + elapsed, MAX_STEPS * TIMESTEP);
+            final int steps = (int) (accumulator / TIMESTEP);
+            accumulator -= steps * TIMESTEP;
+            time += steps * TIMESTEP;
+            frame = new Frame(number, time, TIMESTEP, steps, accumulator / TIMESTEP, JOBS);
+        } else {
+            time += elapsed;
+            frame = new Frame(number, time, elapsed, 1, 0, JOBS);
+        }
+        number++;
+
+        // Run Input On The Invoking Thread \\
+        Profiler.begin(STAGE_SCOPES[0]);
+        try {
+            for (Entry entry : stages[0]) {
+                entry.run(Stage.Input, frame);
+            }
+        } finally {
+            Profiler.end(STAGE_SCOPES[0]);
+        }
+
+        // Schedule The Remaining Stages \\
+        CompletableFuture<?> stage = COMPLETED;
+        for (int i = 1; i < STAGES.length; i++) {
+            final Stage STAGE = STAGES[i];
+            final Entry[] ENTRIES = stages[i];
+            final int RUNS = (STAGE == Stage.Simulation) ? frame.getSteps() : 1;
+            final int SCOPE = STAGE_SCOPES[i];
+            stage = stage.runAfterBothAsync(PREVIOUS[i], () -> {
+                Profiler.begin(SCOPE);
+                try {
+                    if (STAGE == Stage.Simulation) {
+                        for (int step = 0; step < RUNS; step++) {
+                            run(STAGE, ENTRIES, frame.step(step));
+                        }
+                    } else {
+                        run(STAGE, ENTRIES, frame);
+                    }
+                } finally {
+                    Profiler.end(SCOPE);
+                }
+                if (STAGE == Stage.Submission) {
+                    Profiler.record(FRAME, System.nanoTime() - START);
+                }
+            }, JOBS.getPool());
+            PREVIOUS[i] = stage;
+        }
+        IN_FLIGHT[slot] = stage;
+        return frame;
+    }
+
+    /**
+     * Waits until every frame in flight has completed.
+     *
+     * @throws FrameException if a task failed and the failure was not already
+     * thrown by {@link #frame()}.
+     */
+    public final void finish() {
+        final FrameException thrown = failure;
+        FrameException error = null;
+        for (int i = 0; i < IN_FLIGHT.length; i++) {
+            try {
+                await(IN_FLIGHT[i]);
+            } catch (FrameException e) {
+                if (error == null && e != thrown) {
+                    error = e;
+                }
+            }
+            IN_FLIGHT[i] = COMPLETED;
+        }
+        Arrays.fill(PREVIOUS, COMPLETED);
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * @return the maximum number of frames in flight.
+     */
+    public final int getFramesInFlight() {
+        return IN_FLIGHT.length;
+    }
+
+    /**
+     * @return the fixed timestep in seconds, or 0 if the simulation is
+     * stepped once per frame.
+     */
+    public final double getTimestep() {
+        return TIMESTEP;
+    }
+
+    /**
+     * @return the number of frames started.
+     */
+    public final long getFrames() {
+        return number;
+    }
+
+    private void await(final CompletableFuture<?> FUTURE) {
+        try {
+            FUTURE.join();
+        } catch (CompletionException e) {
+            if (failure == null || failure != e.getCause()) {
+                failure = (e.getCause() instanceof FrameException) ? (FrameException) e.getCause() : new FrameException("Frame failed", e.getCause());
+            }
+            throw failure;
+        }
+    }
+
+    /**
+     * Runs the tasks of a stage in parallel on the workers.
+     */
+    private static void run(final Stage STAGE, final Entry[] ENTRIES, final Frame FRAME) {
+        switch (ENTRIES.length) {
+            case 0: {
+                break;
+            }
+            case 1: {
+                ENTRIES[0].run(STAGE, FRAME);
+                break;
+            }
+            default: {
+                final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[ENTRIES.length];
+                for (int i = 0; i < ENTRIES.length; i++) {
+                    final Entry entry = ENTRIES[i];
+                    tasks[i] = ForkJoinTask.adapt(() -> entry.run(STAGE, FRAME));
+                }
+                ForkJoinTask.invokeAll(tasks);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Stages of a frame, in dependency order.
+     */
+    public static enum Stage {
+
+        /**
+         * Input polling, on the thread running the application loop.
+         */
+        Input,
+        /**
+         * Simulation - Runs once per step with a fixed timestep.
+         */
+        Simulation,
+        /**
+         * Visibility determination.
+         */
+        Culling,
+        /**
+         * Command buffer recording.
+         */
+        Commands,
+        /**
+         * Queue submission and presentation.
+         */
+        Submission;
+    }
+
+    /**
+     * Task run during a stage of every frame.
+     */
+    @FunctionalInterface
+    public static interface Task {
+
+        /**
+         * @param FRAME the frame being run.
+         */
+        public void run(final Frame FRAME);
+    }
+
+    /**
+     * Registered task and its name.
+     */
+    private static final class Entry {
+
+        private final String NAME;
+
+        private final Task TASK;
+
+        private Entry(final String NAME, final Task TASK) {
+            this.NAME = NAME;
+            this.TASK = TASK;
+        }
+
+        private void run(final Stage STAGE, final Frame FRAME) {
+            try {
+                TASK.run(FRAME);
+            } catch (RuntimeException e) {
+                throw new FrameException(STAGE + " task " + NAME + " failed in " + FRAME, e);
+            }
+        }
+    }
+
+    /**
+     * {@link RuntimeException Runtime Exception} thrown when a task of a frame
+     * fails.
+     */
+    public static class FrameException extends RuntimeException {
+
+        public FrameException(final String REASON, final Throwable CAUSE) {
+            super(REASON, CAUSE);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package net.cybertekt.job;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Job System - (C) Cybertekt Software
+ *
+ * Work-stealing pool of daemon worker threads on which the
+ * {@link FrameGraph frame graph} runs its stages. Jobs forked by a worker are
+ * pushed onto that worker's own deque and stolen by idle workers, so that a
+ * stage may split its work with {@link #parallelFor(int, int, int, RangeJob)}
+ * and have every core share it.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class JobSystem implements AutoCloseable {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(JobSystem.class);
+
+    private final ForkJoinPool POOL;
+
+    /**
+     * Constructs a job system with {@link #defaultThreads() a worker for
+     * every core but one}.
+     */
+    public JobSystem() {
+        this(defaultThreads());
+    }
+
+    /**
+     * Constructs a job system.
+     *
+     * @param THREADS the number of worker threads.
+     */
+    public JobSystem(final int THREADS) {
+        if (THREADS < 1) {
+            throw new IllegalArgumentException("Invalid worker thread count: " + THREADS);
+        }
+        final AtomicInteger count = new AtomicInteger();
+        POOL = new ForkJoinPool(THREADS, (final ForkJoinPool POOL) -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(POOL);
+            thread.setName("Job-Worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (final Thread THREAD, final Throwable ERROR) -> LOG.error("Uncaught exception in {}", THREAD.getName(), ERROR), false);
+    }
+
+    /**
+     * @return the default number of worker threads - one for every core but
+     * the one running the application loop, and at least one.
+     */
+    public static int defaultThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * Runs a job over the range [START, END) split into sub-ranges of at most
+     * GRAIN indices, which are run in parallel on the workers. Returns once
+     * every sub-range has been run. When invoked from a worker, the invoking
+     * worker runs sub-ranges itself while waiting.
+     *
+     * @param START the first index of the range.
+     * @param END the index following the last index of the range.
+     * @param GRAIN the maximum number of indices per sub-range.
+     * @param JOB the job to run over each sub-range.
+     */
+    public final void parallelFor(final int START, final int END, final int GRAIN, final RangeJob JOB) {
+        if (GRAIN < 1) {
+            throw new IllegalArgumentException("Invalid grain size: " + GRAIN);
+        }
+        if (END - START <= GRAIN) {
+            if (END > START) {
+                JOB.run(START, END);
+            }
+        } else if (ForkJoinTask.getPool() == POOL) {
+            new Range(START, END, GRAIN, JOB).invoke();
+        } else {
+            POOL.invoke(new Range(START, END, GRAIN, JOB));
+        }
+    }
+
+    /**
+     * Runs a job on a worker.
+     *
+     * @param JOB the job to run.
+     */
+    public final void execute(final Runnable JOB) {
+        POOL.execute(JOB);
+    }
+
+    /**
+     * @return the worker pool, as the executor of asynchronous stages.
+     */
+    final ForkJoinPool getPool() {
+        return POOL;
+    }
+
+    /**
+     * @return true if the invoking thread is a worker of this job system.
+     */
+    public final boolean isWorker() {
+        return ForkJoinTask.getPool() == POOL;
+    }
+
+    /**
+     * @return the number of worker threads.
+     */
+    public final int getParallelism() {
+        return POOL.getParallelism();
+    }
+
+    /**
+     * @return the number of jobs stolen by one worker from another.
+     */
+    public final long getSteals() {
+        return POOL.getStealCount();
+    }
+
+    /**
+     * Stops the workers once the jobs already submitted have run.
+     */
+    @Override
+    public final void close() {
+        POOL.shutdown();
+        try {
+            if (!POOL.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("Job workers did not terminate");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Job run over a sub-range of indices.
+     */
+    @FunctionalInterface
+    public static interface RangeJob {
+
+        /**
+         * @param START the first index of the sub-range.
+         * @param END the index following the last index of the sub-range.
+         */
+        public void run(final int START, final int END);
+    }
+
+    /**
+     * Recursive split of a range - The upper half is forked for other workers
+     * to steal, and the lower half is split further by the current worker.
+     */
+    private static final class Range extends RecursiveAction {
+
+        private final int START, END, GRAIN;
+
+        private final RangeJob JOB;
+
+        private Range(final int START, final int END, final int GRAIN, final RangeJob JOB) {
+            this.START = START;
+            this.END = END;
+            this.GRAIN = GRAIN;
+            this.JOB = JOB;
+        }
+
+        @Override
+        protected final void compute() {
+            if (END - START <= GRAIN) {
+                JOB.run(START, END);
+            } else {
+                final int middle = (START + END) >>> 1;
+                final Range upper = new Range(middle, END, GRAIN, JOB);
+                upper.fork();
+                new Range(START, middle, GRAIN, JOB).compute();
+                upper.join();
+            }
+        }
+    }
+}
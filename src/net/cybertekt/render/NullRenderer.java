@@ -0,0 +1,56 @@
+package net.cybertekt.render;
+
+import net.cybertekt.app.AppSettings;
+import net.cybertekt.job.FrameGraph;
+import net.cybertekt.job.FrameGraph.Stage;
+
+/**
+ * Null Renderer - (C) Cybertekt Software
+ *
+ * {@link Renderer Renderer} of headless applications. Loads no window system
+ * or graphics API and only counts the frames that reach submission, so that
+ * simulation and asset throughput can be measured on machines without a GPU.
+ * Without presentation to block on, the loop would spin; unless the
+ * application sets a {@link AppSettings#setFrameRateLimit(double) frame rate
+ * limit}, the frame rate is {@link Renderer#limitFrameRate(FrameGraph)
+ * limited} to one frame per fixed timestep.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class NullRenderer implements Renderer {
+
+    /**
+     * Number of frames submitted - Written only by the submission stage,
+     * which never runs concurrently with itself.
+     */
+    private volatile long frames;
+
+    @Override
+    public final void initialize(final AppSettings SETTINGS) {
+
+    }
+
+    @Override
+    public final void register(final FrameGraph GRAPH) {
+        Renderer.limitFrameRate(GRAPH);
+        GRAPH.add(Stage.Submission, "Null Submission", (frame) -> frames++);
+    }
+
+    @Override
+    public final boolean isHeadless() {
+        return true;
+    }
+
+    /**
+     * @return the number of frames submitted.
+     */
+    public final long getFrames() {
+        return frames;
+    }
+
+    @Override
+    public final void close() {
+
+    }
+}
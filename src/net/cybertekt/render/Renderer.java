@@ -0,0 +1,70 @@
+package net.cybertekt.render;
+
+import net.cybertekt.app.AppSettings;
+import net.cybertekt.job.FrameGraph;
+
+/**
+ * Renderer - (C) Cybertekt Software
+ *
+ * Render backend of an application. The backend is initialized before the
+ * application registers its tasks, contributes its own command recording and
+ * submission tasks to the {@link FrameGraph frame graph}, and is closed once
+ * the application loop has stopped. The backend is selected through
+ * {@link AppSettings#setHeadless(boolean)}.
+ *
+ * A backend that does not block the loop on presentation must
+ * {@link #limitFrameRate(FrameGraph) limit the frame rate} when registering,
+ * as the loop would otherwise spin between fixed timestep steps.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public interface Renderer extends AutoCloseable {
+
+    /**
+     * Frame rate limit of applications without a fixed timestep or their own
+     * limit, on backends that do not block on presentation.
+     */
+    public static final double DEFAULT_FRAME_RATE = 60;
+
+    /**
+     * Limits the frame rate of a frame graph that has no
+     * {@link AppSettings#setFrameRateLimit(double) frame rate limit} to one
+     * frame per fixed timestep, or to {@link #DEFAULT_FRAME_RATE} without a
+     * fixed timestep.
+     *
+     * @param GRAPH the frame graph of the application loop.
+     */
+    public static void limitFrameRate(final FrameGraph GRAPH) {
+        if (GRAPH.getFrameRateLimit() == 0) {
+            GRAPH.setFrameRateLimit((GRAPH.getTimestep() > 0) ? 1 / GRAPH.getTimestep() : DEFAULT_FRAME_RATE);
+        }
+    }
+
+    /**
+     * Initializes the backend.
+     *
+     * @param SETTINGS the settings of the application.
+     */
+    public void initialize(final AppSettings SETTINGS);
+
+    /**
+     * Registers the backend's tasks.
+     *
+     * @param GRAPH the frame graph of the application loop.
+     */
+    public void register(final FrameGraph GRAPH);
+
+    /**
+     * @return true if the backend renders nothing and requires no window
+     * system or GPU.
+     */
+    public boolean isHeadless();
+
+    /**
+     * Releases every resource of the backend. Invoked even if initialization
+     * failed part way.
+     */
+    @Override
+    public void close();
+}
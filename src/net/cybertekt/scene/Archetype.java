@@ -0,0 +1,210 @@
+package net.cybertekt.scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Archetype - (C) Cybertekt Software
+ *
+ * Set of {@link Component component types} shared by a group of entities,
+ * and the {@link Chunk chunks} storing them. Every chunk of an archetype has
+ * the same layout: one column per component type, each aligned to
+ * {@link #ALIGNMENT} bytes, within a block of at most
+ * {@link EntityStore#CHUNK_SIZE} bytes. Archetypes are created by their
+ * {@link EntityStore entity store}.
+ *
+ * -Not synchronized.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class Archetype {
+
+    /**
+     * Alignment of the chunk blocks and of every column, a cache line.
+     */
+    public static final int ALIGNMENT = 64;
+
+    /**
+     * Maximum number of entities per chunk, reached by archetypes with small
+     * or tag-only components.
+     */
+    public static final int MAX_CAPACITY = 4096;
+
+    private final long MASK;
+
+    private final Component[] COMPONENTS;
+
+    /**
+     * Byte offset of each component type's column by component id, or -1 if
+     * the archetype does not have the component.
+     */
+    private final int[] OFFSETS = new int[Component.MAX_COMPONENTS];
+
+    /**
+     * Number of entities per chunk, and size of a chunk block in bytes.
+     */
+    private final int CAPACITY, BYTES;
+
+    private final List<Chunk> CHUNKS = new ArrayList<>();
+
+    /**
+     * Index of the first chunk that may have free rows.
+     */
+    private int open;
+
+    Archetype(final long MASK) {
+        this.MASK = MASK;
+        this.COMPONENTS = Component.of(MASK);
+
+        // Fit As Many Rows As The Aligned Columns Allow \\
+        int row = 0;
+        for (Component component : COMPONENTS) {
+            row += component.getSize();
+        }
+        int capacity = (row == 0) ? MAX_CAPACITY : Math.max(1, Math.min(MAX_CAPACITY, EntityStore.CHUNK_SIZE / row));
+        while (capacity > 1 && layout(capacity) > EntityStore.CHUNK_SIZE) {
+            capacity--;
+        }
+        CAPACITY = capacity;
+        BYTES = Math.max(ALIGNMENT, layout(capacity));
+    }
+
+    /**
+     * Computes the column offsets for a capacity.
+     *
+     * @return the size of a chunk block in bytes.
+     */
+    private int layout(final int CAPACITY) {
+        Arrays.fill(OFFSETS, -1);
+        int offset = 0;
+        for (Component component : COMPONENTS) {
+            OFFSETS[component.getId()] = offset;
+            offset += align(component.getSize() * CAPACITY);
+        }
+        return offset;
+    }
+
+    private static int align(final int BYTES) {
+        return (BYTES + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * @return the component mask of the archetype.
+     */
+    public final long getMask() {
+        return MASK;
+    }
+
+    /**
+     * @return a copy of the component types of the archetype, in id order.
+     */
+    public final Component[] getComponents() {
+        return COMPONENTS.clone();
+    }
+
+    /**
+     * @param COMPONENT a component type.
+     * @return true if the archetype has the component type.
+     */
+    public final boolean has(final Component COMPONENT) {
+        return (MASK & COMPONENT.getMask()) != 0;
+    }
+
+    /**
+     * @return the number of entities per chunk.
+     */
+    public final int getChunkCapacity() {
+        return CAPACITY;
+    }
+
+    /**
+     * @return the number of chunks.
+     */
+    public final int getChunkCount() {
+        return CHUNKS.size();
+    }
+
+    /**
+     * @param INDEX the index of a chunk, in [0, {@link #getChunkCount()}).
+     * @return the chunk.
+     */
+    public final Chunk getChunk(final int INDEX) {
+        return CHUNKS.get(INDEX);
+    }
+
+    /**
+     * @return the number of entities of the archetype.
+     */
+    public final int getEntityCount() {
+        int count = 0;
+        for (Chunk chunk : CHUNKS) {
+            count += chunk.getCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return the native memory of the chunks in bytes.
+     */
+    public final long getMemory() {
+        return (long) BYTES * CHUNKS.size();
+    }
+
+    /**
+     * @return the component types of the archetype, not to be modified.
+     */
+    final Component[] getComponentArray() {
+        return COMPONENTS;
+    }
+
+    final int offset(final Component COMPONENT) {
+        return OFFSETS[COMPONENT.getId()];
+    }
+
+    /**
+     * @return a chunk with at least one free row, allocated if necessary.
+     */
+    final Chunk acquire() {
+        for (; open < CHUNKS.size(); open++) {
+            final Chunk chunk = CHUNKS.get(open);
+            if (chunk.getCount() < CAPACITY) {
+                return chunk;
+            }
+        }
+        final Chunk chunk = new Chunk(this, CAPACITY, BYTES);
+        chunk.index = CHUNKS.size();
+        CHUNKS.add(chunk);
+        return chunk;
+    }
+
+    /**
+     * Invoked when a row of a chunk is freed. Empty chunks are freed, except
+     * for the last one.
+     */
+    final void released(final Chunk CHUNK) {
+        if (CHUNK.getCount() == 0 && CHUNKS.size() > 1) {
+            final Chunk last = CHUNKS.remove(CHUNKS.size() - 1);
+            if (last != CHUNK) {
+                last.index = CHUNK.index;
+                CHUNKS.set(CHUNK.index, last);
+            }
+            CHUNK.free();
+        }
+        open = Math.min(open, CHUNK.index);
+    }
+
+    final void free() {
+        for (Chunk chunk : CHUNKS) {
+            chunk.free();
+        }
+        CHUNKS.clear();
+        open = 0;
+    }
+
+    @Override
+    public final String toString() {
+        return "Archetype " + Arrays.toString(COMPONENTS);
+    }
+}
@@ -0,0 +1,187 @@
+package net.cybertekt.scene;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import net.cybertekt.util.MemoryTracker;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Chunk - (C) Cybertekt Software
+ *
+ * Block of native memory storing up to {@link #getCapacity()} entities of an
+ * {@link Archetype archetype} as structs of arrays: the components of each
+ * type are contiguous in a column, and rows [0, {@link #getCount()}) are
+ * occupied. Removing an entity moves the last row into its place, so rows are
+ * always dense and a job iterating a chunk touches only live components.
+ *
+ * Column addresses and views are stable for the lifetime of the chunk, but an
+ * entity's row changes when another entity of the chunk is destroyed or
+ * changes archetype.
+ *
+ * -Not synchronized.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class Chunk {
+
+    /**
+     * Native Memory Tag Of The Scene Subsystem.
+     */
+    private static final MemoryTracker.Tag SCENE = MemoryTracker.tag("Scene");
+
+    private final Archetype ARCHETYPE;
+
+    private final int CAPACITY;
+
+    private final long ADDRESS;
+
+    /**
+     * Entity of each occupied row.
+     */
+    private final long[] ENTITIES;
+
+    private int count;
+
+    /**
+     * Index of the chunk within its archetype.
+     */
+    int index;
+
+    Chunk(final Archetype ARCHETYPE, final int CAPACITY, final int BYTES) {
+        this.ARCHETYPE = ARCHETYPE;
+        this.CAPACITY = CAPACITY;
+        this.ENTITIES = new long[CAPACITY];
+        final MemoryTracker.Tag previous = SCENE.enter();
+        try {
+            ADDRESS = MemoryUtil.nmemAlignedAlloc(Archetype.ALIGNMENT, BYTES);
+        } finally {
+            MemoryTracker.restore(previous);
+        }
+        if (ADDRESS == MemoryUtil.NULL) {
+            throw new OutOfMemoryError("Unable to allocate a chunk of " + BYTES + " bytes");
+        }
+    }
+
+    /**
+     * @return the archetype of the chunk's entities.
+     */
+    public final Archetype getArchetype() {
+        return ARCHETYPE;
+    }
+
+    /**
+     * @return the number of entities in the chunk.
+     */
+    public final int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the maximum number of entities in the chunk.
+     */
+    public final int getCapacity() {
+        return CAPACITY;
+    }
+
+    /**
+     * @param ROW a row in [0, {@link #getCount()}).
+     * @return the entity stored in the row.
+     */
+    public final long getEntity(final int ROW) {
+        return ENTITIES[ROW];
+    }
+
+    /**
+     * @param COMPONENT a component type.
+     * @return true if the chunk stores the component type.
+     */
+    public final boolean has(final Component COMPONENT) {
+        return ARCHETYPE.has(COMPONENT);
+    }
+
+    /**
+     * @param COMPONENT a component type of the chunk's archetype.
+     * @return the native address of the component's column. The component of
+     * row r is at the address plus r times the component size.
+     * @throws IllegalArgumentException if the chunk does not store the
+     * component type.
+     */
+    public final long getAddress(final Component COMPONENT) {
+        final int offset = ARCHETYPE.offset(COMPONENT);
+        if (offset < 0) {
+            throw new IllegalArgumentException(ARCHETYPE + " has no " + COMPONENT);
+        }
+        return ADDRESS + offset;
+    }
+
+    /**
+     * @param COMPONENT a component type of the chunk's archetype.
+     * @param ROW a row in [0, {@link #getCount()}).
+     * @return the native address of the component of the row.
+     */
+    public final long getAddress(final Component COMPONENT, final int ROW) {
+        return getAddress(COMPONENT) + (long) ROW * COMPONENT.getSize();
+    }
+
+    /**
+     * Creates a float view of a component's column, covering the occupied
+     * rows. Views should be created once per chunk by each job rather than
+     * per entity.
+     *
+     * @param COMPONENT a component type of the chunk's archetype.
+     * @return a view of the column.
+     */
+    public final FloatBuffer getFloats(final Component COMPONENT) {
+        return MemoryUtil.memFloatBuffer(getAddress(COMPONENT), count * COMPONENT.getSize() / Float.BYTES);
+    }
+
+    /**
+     * Creates an int view of a component's column, covering the occupied
+     * rows. Views should be created once per chunk by each job rather than
+     * per entity.
+     *
+     * @param COMPONENT a component type of the chunk's archetype.
+     * @return a view of the column.
+     */
+    public final IntBuffer getInts(final Component COMPONENT) {
+        return MemoryUtil.memIntBuffer(getAddress(COMPONENT), count * COMPONENT.getSize() / Integer.BYTES);
+    }
+
+    /**
+     * Stores an entity in the first free row, with zeroed components.
+     *
+     * @return the row of the entity.
+     */
+    final int add(final long ENTITY) {
+        final int row = count++;
+        ENTITIES[row] = ENTITY;
+        for (Component component : ARCHETYPE.getComponentArray()) {
+            MemoryUtil.memSet(getAddress(component, row), 0, component.getSize());
+        }
+        return row;
+    }
+
+    /**
+     * Removes the entity of a row, moving the last row into its place.
+     *
+     * @return the entity moved into the row, or {@link EntityStore#NULL} if
+     * the removed row was the last.
+     */
+    final long remove(final int ROW) {
+        final int last = --count;
+        if (ROW == last) {
+            return EntityStore.NULL;
+        }
+        for (Component component : ARCHETYPE.getComponentArray()) {
+            MemoryUtil.memCopy(getAddress(component, last), getAddress(component, ROW), component.getSize());
+        }
+        ENTITIES[ROW] = ENTITIES[last];
+        return ENTITIES[ROW];
+    }
+
+    final void free() {
+        MemoryUtil.nmemAlignedFree(ADDRESS);
+        count = 0;
+    }
+}
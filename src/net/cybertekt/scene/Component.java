@@ -0,0 +1,153 @@
+package net.cybertekt.scene;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Component - (C) Cybertekt Software
+ *
+ * Type of a fixed-size, plain data component stored off-heap by an
+ * {@link EntityStore entity store}. Each component type is defined once,
+ * normally in a constant, and is identified by a bit in the component mask of
+ * an {@link Archetype archetype}. Components of size 0 are tags, which only
+ * select archetypes.
+ *
+ * The built-in components use the memory layout of JOML, so that they can be
+ * read and written directly with setFromAddress and getToAddress.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class Component {
+
+    /**
+     * Maximum number of component types.
+     */
+    public static final int MAX_COMPONENTS = 64;
+
+    private static final Map<String, Component> NAMES = new HashMap<>();
+
+    /**
+     * Component types by id - Replaced whenever a type is defined.
+     */
+    private static volatile Component[] components = new Component[0];
+
+    /**
+     * Local to world transform - 16 floats in the column-major order of a
+     * JOML Matrix4f.
+     */
+    public static final Component TRANSFORM = define("Transform", 16 * Float.BYTES);
+
+    /**
+     * World space axis-aligned bounding box - 6 floats, minimum x, y and z
+     * followed by maximum x, y and z, in the field order of a JOML AABBf.
+     */
+    public static final Component BOUNDS = define("Bounds", 6 * Float.BYTES);
+
+    /**
+     * Application defined bit flags - 1 int.
+     */
+    public static final Component FLAGS = define("Flags", Integer.BYTES);
+
+    private final String NAME;
+
+    private final int ID, SIZE;
+
+    private Component(final String NAME, final int ID, final int SIZE) {
+        this.NAME = NAME;
+        this.ID = ID;
+        this.SIZE = SIZE;
+    }
+
+    /**
+     * Returns the component type with the given name, defining it if
+     * necessary.
+     *
+     * @param NAME the name of the component type.
+     * @param SIZE the size of a component in bytes, a multiple of 4.
+     * @return the component type.
+     * @throws IllegalArgumentException if the type is already defined with a
+     * different size, or the size is invalid.
+     * @throws IllegalStateException if {@link #MAX_COMPONENTS} types are
+     * already defined.
+     */
+    public static synchronized Component define(final String NAME, final int SIZE) {
+        if (SIZE < 0 || SIZE % 4 != 0) {
+            throw new IllegalArgumentException("Invalid component size: " + NAME + " " + SIZE);
+        }
+        Component component = NAMES.get(NAME);
+        if (component == null) {
+            if (components.length == MAX_COMPONENTS) {
+                throw new IllegalStateException("Too many component types: " + NAME);
+            }
+            component = new Component(NAME, components.length, SIZE);
+            final Component[] grown = Arrays.copyOf(components, components.length + 1);
+            grown[component.ID] = component;
+            NAMES.put(NAME, component);
+            components = grown;
+        } else if (component.SIZE != SIZE) {
+            throw new IllegalArgumentException("Component " + NAME + " already defined with size " + component.SIZE);
+        }
+        return component;
+    }
+
+    /**
+     * @param MASK a component mask.
+     * @return the component types of the mask, in id order.
+     */
+    static Component[] of(final long MASK) {
+        final Component[] defined = components;
+        final Component[] result = new Component[Long.bitCount(MASK)];
+        int i = 0;
+        for (long bits = MASK; bits != 0; bits &= bits - 1) {
+            result[i++] = defined[Long.numberOfTrailingZeros(bits)];
+        }
+        return result;
+    }
+
+    /**
+     * @param COMPONENTS component types.
+     * @return the component mask of the types.
+     */
+    public static long mask(final Component... COMPONENTS) {
+        long mask = 0;
+        for (Component component : COMPONENTS) {
+            mask |= component.getMask();
+        }
+        return mask;
+    }
+
+    /**
+     * @return the name of the component type.
+     */
+    public final String getName() {
+        return NAME;
+    }
+
+    /**
+     * @return the id of the component type, in [0, {@link #MAX_COMPONENTS}).
+     */
+    public final int getId() {
+        return ID;
+    }
+
+    /**
+     * @return the bit of the component type in a component mask.
+     */
+    public final long getMask() {
+        return 1L << ID;
+    }
+
+    /**
+     * @return the size of a component in bytes.
+     */
+    public final int getSize() {
+        return SIZE;
+    }
+
+    @Override
+    public final String toString() {
+        return NAME;
+    }
+}
@@ -0,0 +1,397 @@
+package net.cybertekt.scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.joml.AABBf;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Entity Store - (C) Cybertekt Software
+ *
+ * Entity/component store of a scene. Entities are not objects but 64-bit
+ * ids - an index into the store's entity table in the low 32 bits and the
+ * generation of that index in the high 32 bits - so that an id kept after its
+ * entity was destroyed is detected as stale instead of addressing the entity
+ * that reused the index. Components live off-heap in the
+ * {@link Chunk chunks} of the entity's {@link Archetype archetype}, and the
+ * entity table holds only each entity's chunk and row, so that a store of
+ * hundreds of thousands of entities holds a few hundred Java objects.
+ *
+ * Systems read and write components through {@link Query queries}, which
+ * iterate whole chunks, in parallel if given a job system. Structural changes
+ * - creating and destroying entities, adding and removing components - must
+ * not be made while a query is iterating.
+ *
+ * -Not synchronized.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class EntityStore implements AutoCloseable {
+
+    /**
+     * Id that never identifies an entity.
+     */
+    public static final long NULL = 0;
+
+    /**
+     * Maximum size of a chunk block in bytes.
+     */
+    public static final int CHUNK_SIZE = 64 << 10;
+
+    private final Map<Long, Archetype> ARCHETYPES = new HashMap<>();
+
+    /**
+     * Archetypes in creation order, scanned by queries.
+     */
+    private final List<Archetype> ARCHETYPE_LIST = new ArrayList<>();
+
+    // Entity Table \\
+    private int[] generations = new int[1024];
+
+    private Chunk[] chunks = new Chunk[1024];
+
+    private int[] rows = new int[1024];
+
+    /**
+     * Indices of destroyed entities available for reuse.
+     */
+    private int[] free = new int[256];
+
+    private int freeCount, next, alive;
+
+    private boolean closed;
+
+    /**
+     * Returns the archetype with the given component types, creating it if
+     * necessary.
+     *
+     * @param COMPONENTS the component types.
+     * @return the archetype.
+     */
+    public final Archetype archetype(final Component... COMPONENTS) {
+        return archetype(Component.mask(COMPONENTS));
+    }
+
+    private Archetype archetype(final long MASK) {
+        Archetype archetype = ARCHETYPES.get(MASK);
+        if (archetype == null) {
+            archetype = new Archetype(MASK);
+            ARCHETYPES.put(MASK, archetype);
+            ARCHETYPE_LIST.add(archetype);
+        }
+        return archetype;
+    }
+
+    /**
+     * Creates an entity with zeroed components.
+     *
+     * @param COMPONENTS the component types of the entity.
+     * @return the id of the entity.
+     */
+    public final long create(final Component... COMPONENTS) {
+        return create(archetype(COMPONENTS));
+    }
+
+    /**
+     * Creates an entity with zeroed components.
+     *
+     * @param ARCHETYPE an archetype of this store.
+     * @return the id of the entity.
+     */
+    public final long create(final Archetype ARCHETYPE) {
+        checkOpen();
+        final int index;
+        if (freeCount > 0) {
+            index = free[--freeCount];
+        } else {
+            if (next == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Entity table is full");
+            }
+            index = next++;
+            if (index == generations.length) {
+                final int capacity = (int) Math.min(Integer.MAX_VALUE, index * 2L);
+                generations = Arrays.copyOf(generations, capacity);
+                chunks = Arrays.copyOf(chunks, capacity);
+                rows = Arrays.copyOf(rows, capacity);
+            }
+            generations[index] = 1;
+        }
+        final long entity = id(index, generations[index]);
+        final Chunk chunk = ARCHETYPE.acquire();
+        chunks[index] = chunk;
+        rows[index] = chunk.add(entity);
+        alive++;
+        return entity;
+    }
+
+    /**
+     * Destroys an entity. Its id, and every copy of it, becomes stale.
+     *
+     * @param ENTITY the id of the entity.
+     * @throws IllegalArgumentException if the entity does not exist.
+     */
+    public final void destroy(final long ENTITY) {
+        final int index = check(ENTITY);
+        final Chunk chunk = chunks[index];
+        detach(chunk, rows[index]);
+        chunks[index] = null;
+
+        // Invalidate The Id - Generation 0 Is Never Used So That NULL Stays Invalid \\
+        generations[index] = (generations[index] == Integer.MAX_VALUE) ? 1 : generations[index] + 1;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = index;
+        alive--;
+    }
+
+    /**
+     * @param ENTITY an entity id.
+     * @return true if the entity exists.
+     */
+    public final boolean isAlive(final long ENTITY) {
+        final int index = (int) ENTITY;
+        return index >= 0 && index < next && chunks[index] != null && generations[index] == (int) (ENTITY >>> 32);
+    }
+
+    /**
+     * Adds a zeroed component to an entity, moving it to the archetype with
+     * the component. Does nothing if the entity already has the component.
+     *
+     * @param ENTITY the id of the entity.
+     * @param COMPONENT the component type.
+     */
+    public final void add(final long ENTITY, final Component COMPONENT) {
+        final int index = check(ENTITY);
+        final Archetype archetype = chunks[index].getArchetype();
+        if (!archetype.has(COMPONENT)) {
+            move(index, ENTITY, archetype(archetype.getMask() | COMPONENT.getMask()));
+        }
+    }
+
+    /**
+     * Removes a component from an entity, moving it to the archetype without
+     * the component. Does nothing if the entity does not have the component.
+     *
+     * @param ENTITY the id of the entity.
+     * @param COMPONENT the component type.
+     */
+    public final void remove(final long ENTITY, final Component COMPONENT) {
+        final int index = check(ENTITY);
+        final Archetype archetype = chunks[index].getArchetype();
+        if (archetype.has(COMPONENT)) {
+            move(index, ENTITY, archetype(archetype.getMask() & ~COMPONENT.getMask()));
+        }
+    }
+
+    /**
+     * @param ENTITY the id of the entity.
+     * @param COMPONENT a component type.
+     * @return true if the entity has the component type.
+     */
+    public final boolean has(final long ENTITY, final Component COMPONENT) {
+        return chunks[check(ENTITY)].has(COMPONENT);
+    }
+
+    /**
+     * @param ENTITY the id of the entity.
+     * @return the archetype of the entity.
+     */
+    public final Archetype getArchetype(final long ENTITY) {
+        return chunks[check(ENTITY)].getArchetype();
+    }
+
+    /**
+     * Returns the native address of a component of an entity. The address is
+     * valid until the next structural change of the store.
+     *
+     * @param ENTITY the id of the entity.
+     * @param COMPONENT a component type of the entity.
+     * @return the address of the component.
+     * @throws IllegalArgumentException if the entity does not exist or does
+     * not have the component type.
+     */
+    public final long getAddress(final long ENTITY, final Component COMPONENT) {
+        final int index = check(ENTITY);
+        return chunks[index].getAddress(COMPONENT, rows[index]);
+    }
+
+    /**
+     * @param ENTITY the id of an entity with a {@link Component#TRANSFORM}.
+     * @param DEST the matrix receiving the transform.
+     * @return DEST.
+     */
+    public final Matrix4f getTransform(final long ENTITY, final Matrix4f DEST) {
+        return DEST.setFromAddress(getAddress(ENTITY, Component.TRANSFORM));
+    }
+
+    /**
+     * @param ENTITY the id of an entity with a {@link Component#TRANSFORM}.
+     * @param TRANSFORM the new transform.
+     */
+    public final void setTransform(final long ENTITY, final Matrix4fc TRANSFORM) {
+        TRANSFORM.getToAddress(getAddress(ENTITY, Component.TRANSFORM));
+    }
+
+    /**
+     * @param ENTITY the id of an entity with {@link Component#BOUNDS}.
+     * @param DEST the box receiving the bounds.
+     * @return DEST.
+     */
+    public final AABBf getBounds(final long ENTITY, final AABBf DEST) {
+        final long address = getAddress(ENTITY, Component.BOUNDS);
+        return DEST.setMin(MemoryUtil.memGetFloat(address), MemoryUtil.memGetFloat(address + 4), MemoryUtil.memGetFloat(address + 8))
+                .setMax(MemoryUtil.memGetFloat(address + 12), MemoryUtil.memGetFloat(address + 16), MemoryUtil.memGetFloat(address + 20));
+    }
+
+    /**
+     * @param ENTITY the id of an entity with {@link Component#BOUNDS}.
+     * @param BOUNDS the new bounds.
+     */
+    public final void setBounds(final long ENTITY, final AABBf BOUNDS) {
+        final long address = getAddress(ENTITY, Component.BOUNDS);
+        MemoryUtil.memPutFloat(address, BOUNDS.minX);
+        MemoryUtil.memPutFloat(address + 4, BOUNDS.minY);
+        MemoryUtil.memPutFloat(address + 8, BOUNDS.minZ);
+        MemoryUtil.memPutFloat(address + 12, BOUNDS.maxX);
+        MemoryUtil.memPutFloat(address + 16, BOUNDS.maxY);
+        MemoryUtil.memPutFloat(address + 20, BOUNDS.maxZ);
+    }
+
+    /**
+     * @param ENTITY the id of an entity with {@link Component#FLAGS}.
+     * @return the flags of the entity.
+     */
+    public final int getFlags(final long ENTITY) {
+        return MemoryUtil.memGetInt(getAddress(ENTITY, Component.FLAGS));
+    }
+
+    /**
+     * @param ENTITY the id of an entity with {@link Component#FLAGS}.
+     * @param FLAGS the new flags.
+     */
+    public final void setFlags(final long ENTITY, final int FLAGS) {
+        MemoryUtil.memPutInt(getAddress(ENTITY, Component.FLAGS), FLAGS);
+    }
+
+    /**
+     * Creates a query of the entities that have every given component type.
+     * Queries may be kept and reused; archetypes created later are matched
+     * when the query next runs.
+     *
+     * @param COMPONENTS the required component types.
+     * @return the query.
+     */
+    public final Query query(final Component... COMPONENTS) {
+        return new Query(this, Component.mask(COMPONENTS));
+    }
+
+    /**
+     * @return the number of entities.
+     */
+    public final int getEntityCount() {
+        return alive;
+    }
+
+    /**
+     * @return the number of archetypes.
+     */
+    public final int getArchetypeCount() {
+        return ARCHETYPE_LIST.size();
+    }
+
+    /**
+     * @param INDEX the index of an archetype, in creation order.
+     * @return the archetype.
+     */
+    public final Archetype getArchetypeAt(final int INDEX) {
+        return ARCHETYPE_LIST.get(INDEX);
+    }
+
+    /**
+     * @return the native memory of every chunk in bytes.
+     */
+    public final long getMemory() {
+        long memory = 0;
+        for (Archetype archetype : ARCHETYPE_LIST) {
+            memory += archetype.getMemory();
+        }
+        return memory;
+    }
+
+    /**
+     * Frees the native memory of every chunk. Every entity is destroyed.
+     */
+    @Override
+    public final void close() {
+        if (!closed) {
+            closed = true;
+            for (Archetype archetype : ARCHETYPE_LIST) {
+                archetype.free();
+            }
+            Arrays.fill(chunks, 0, next, null);
+            alive = 0;
+        }
+    }
+
+    private void move(final int INDEX, final long ENTITY, final Archetype TARGET) {
+        final Chunk source = chunks[INDEX];
+        final int row = rows[INDEX];
+        final Chunk target = TARGET.acquire();
+        final int targetRow = target.add(ENTITY);
+
+        // Copy The Components Shared By Both Archetypes \\
+        for (Component component : TARGET.getComponentArray()) {
+            if (source.has(component)) {
+                MemoryUtil.memCopy(source.getAddress(component, row), target.getAddress(component, targetRow), component.getSize());
+            }
+        }
+        detach(source, row);
+        chunks[INDEX] = target;
+        rows[INDEX] = targetRow;
+    }
+
+    /**
+     * Removes a row from a chunk and updates the entity moved into its place.
+     */
+    private void detach(final Chunk CHUNK, final int ROW) {
+        final long moved = CHUNK.remove(ROW);
+        if (moved != NULL) {
+            rows[(int) moved] = ROW;
+        }
+        CHUNK.getArchetype().released(CHUNK);
+    }
+
+    /**
+     * @return the index of an existing entity.
+     */
+    private int check(final long ENTITY) {
+        if (!isAlive(ENTITY)) {
+            throw new IllegalArgumentException("No such entity: " + Long.toHexString(ENTITY));
+        }
+        return (int) ENTITY;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Entity store is closed");
+        }
+    }
+
+    /**
+     * @return the archetypes matched by queries, in creation order.
+     */
+    final List<Archetype> getArchetypes() {
+        return ARCHETYPE_LIST;
+    }
+
+    private static long id(final int INDEX, final int GENERATION) {
+        return ((long) GENERATION << 32) | INDEX;
+    }
+}
@@ -0,0 +1,141 @@
+package net.cybertekt.scene;
+
+import java.util.Arrays;
+import java.util.List;
+import net.cybertekt.job.JobSystem;
+
+/**
+ * Query - (C) Cybertekt Software
+ *
+ * Iteration over the {@link Chunk chunks} of every {@link Archetype
+ * archetype} of an {@link EntityStore entity store} that has a set of
+ * required {@link Component component types}. Jobs receive whole chunks and
+ * iterate their columns directly. With a {@link JobSystem job system},
+ * chunks are distributed over the workers; a job must then only write the
+ * components of the chunk it was given.
+ *
+ * -Not synchronized.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class Query {
+
+    private final EntityStore STORE;
+
+    private final long MASK;
+
+    /**
+     * Matching archetypes, and the number of the store's archetypes examined
+     * when they were matched.
+     */
+    private Archetype[] matched = new Archetype[0];
+
+    private int examined;
+
+    /**
+     * Non-empty chunks gathered for parallel iteration.
+     */
+    private Chunk[] gathered = new Chunk[16];
+
+    Query(final EntityStore STORE, final long MASK) {
+        this.STORE = STORE;
+        this.MASK = MASK;
+    }
+
+    /**
+     * Runs a job on every non-empty chunk on the calling thread.
+     *
+     * @param JOB the job.
+     */
+    public final void forEach(final ChunkJob JOB) {
+        for (Archetype archetype : match()) {
+            for (int i = 0; i < archetype.getChunkCount(); i++) {
+                final Chunk chunk = archetype.getChunk(i);
+                if (chunk.getCount() > 0) {
+                    JOB.run(chunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a job on every non-empty chunk in parallel. Returns once every
+     * chunk has been processed.
+     *
+     * @param JOBS the job system running the job.
+     * @param JOB the job.
+     */
+    public final void forEach(final JobSystem JOBS, final ChunkJob JOB) {
+        final int count = gather();
+        final Chunk[] chunks = gathered;
+        JOBS.parallelFor(0, count, 1, (final int START, final int END) -> {
+            for (int i = START; i < END; i++) {
+                JOB.run(chunks[i]);
+            }
+        });
+        Arrays.fill(chunks, 0, count, null);
+    }
+
+    /**
+     * @return the number of entities matched by the query.
+     */
+    public final int getEntityCount() {
+        int count = 0;
+        for (Archetype archetype : match()) {
+            count += archetype.getEntityCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return the archetypes matching the query, including those created
+     * since the query last ran.
+     */
+    private Archetype[] match() {
+        final List<Archetype> archetypes = STORE.getArchetypes();
+        if (examined < archetypes.size()) {
+            for (; examined < archetypes.size(); examined++) {
+                final Archetype archetype = archetypes.get(examined);
+                if ((archetype.getMask() & MASK) == MASK) {
+                    matched = Arrays.copyOf(matched, matched.length + 1);
+                    matched[matched.length - 1] = archetype;
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Gathers the non-empty chunks of the matching archetypes.
+     *
+     * @return the number of chunks gathered.
+     */
+    private int gather() {
+        int count = 0;
+        for (Archetype archetype : match()) {
+            for (int i = 0; i < archetype.getChunkCount(); i++) {
+                final Chunk chunk = archetype.getChunk(i);
+                if (chunk.getCount() > 0) {
+                    if (count == gathered.length) {
+                        gathered = Arrays.copyOf(gathered, count * 2);
+                    }
+                    gathered[count++] = chunk;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Job run on a chunk of matching entities.
+     */
+    @FunctionalInterface
+    public static interface ChunkJob {
+
+        /**
+         * @param CHUNK a chunk of at least one matching entity.
+         */
+        public void run(final Chunk CHUNK);
+    }
+}
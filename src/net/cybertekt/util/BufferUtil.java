@@ -0,0 +1,88 @@
+package net.cybertekt.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Buffer Utility - (C) Cybertekt Software
+ *
+ * Static utility methods for releasing the native memory of direct and memory
+ * mapped {@link ByteBuffer byte buffers} deterministically instead of waiting
+ * for the garbage collector to run their cleaners.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class BufferUtil {
+
+    /**
+     * Static SLF4J Class Logger for Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(BufferUtil.class);
+
+    /**
+     * The sun.misc.Unsafe instance on Java 9 and later, otherwise null.
+     */
+    private static final Object UNSAFE;
+
+    /**
+     * The sun.misc.Unsafe.invokeCleaner(ByteBuffer) method on Java 9 and later,
+     * otherwise null.
+     */
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 8 - Buffers Are Cleaned Through DirectBuffer.cleaner() \\
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private BufferUtil() {
+    }
+
+    /**
+     * Immediately releases the native memory backing a direct or memory mapped
+     * {@link ByteBuffer byte buffer}. The buffer, and every duplicate, slice or
+     * view created from it, must not be accessed after this method returns.
+     * Heap buffers are ignored.
+     *
+     * @param BUFFER the buffer to release. Must not be a duplicate or a slice.
+     * @return true if the buffer was released, false if it could not be
+     * released and will be left for the garbage collector.
+     */
+    public static boolean unmap(final ByteBuffer BUFFER) {
+        if (!BUFFER.isDirect()) {
+            return false;
+        }
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, BUFFER);
+            } else {
+                final Method cleaner = BUFFER.getClass().getMethod("cleaner");
+                cleaner.setAccessible(true);
+                final Object clean = cleaner.invoke(BUFFER);
+                if (clean != null) {
+                    clean.getClass().getMethod("clean").invoke(clean);
+                }
+            }
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.warn("Unable to release direct buffer - release deferred to garbage collector", e);
+            return false;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,8 +16,12 @@ import org.slf4j.LoggerFactory;
  * Cache Map - (C) Cybertekt Software
  *
  * -Null keys are not permitted.
- * -Not synchronized for performance reasons.
+ * -Hash and Identity caches are not synchronized for performance reasons.
+ * -Concurrent caches are thread safe. Reads are lock-free and {@link #getOrLoad(Object, Function) getOrLoad}
+ *  computes a missing value at most once while concurrent callers for the same key wait for it.
  * -Cache is updated automatically during method calls, but may be updated manually by calling update().
+ *  The amount of reclamation work performed by each call is determined by the {@link CacheCleanup cleanup mode}.
+ * -Statistics are disabled by default and may be enabled with {@link #enableStats(String) enableStats}.
  *
  * @version 1.2.0
  * @author Andrew Vektor
@@ -71,6 +76,37 @@ public class CacheMap<Key, Value> {
         Weak;
     }
 
+    /**
+     * Determines where and how much of the work of removing reclaimed entries
+     * is performed.
+     */
+    public static enum CacheCleanup {
+        /**
+         * Every cache operation removes every reclaimed entry before
+         * proceeding.
+         */
+        Inline,
+        /**
+         * Every cache operation removes at most {@link #CLEANUP_BATCH}
+         * reclaimed entries, bounding the cleanup work placed on the caller
+         * after a garbage collection reclaims many values at once.
+         */
+        Bounded,
+        /**
+         * Reclaimed entries are removed in batches by a shared daemon cleaner
+         * thread and cache operations perform no cleanup. Requires a
+         * {@link CacheType#Concurrent concurrent} cache.
+         */
+        Background;
+    }
+
+    /**
+     * Maximum number of reclaimed entries removed by a single cache operation
+     * in {@link CacheCleanup#Bounded bounded} mode, and by the cleaner thread
+     * between yields in {@link CacheCleanup#Background background} mode.
+     */
+    public static final int CLEANUP_BATCH = 32;
+
     /**
      * Determines when a cached key-value pairs will be considered obsolete and
      * enqueued for removal from the cache map.
@@ -81,6 +117,16 @@ public class CacheMap<Key, Value> {
 
     private final ReferenceQueue<? extends Value> QUEUE;
 
+    /**
+     * Determines where reclaimed entries are removed.
+     */
+    private final CacheCleanup CLEANUP;
+
+    /**
+     * Statistics of the cache, or null if disabled.
+     */
+    private volatile CacheStats stats;
+
     public CacheMap() {
         this(CacheType.Hash, CacheMode.Weak);
     }
@@ -94,58 +140,220 @@ public class CacheMap<Key, Value> {
     }
     
     public CacheMap(final CacheType cacheType, final CacheMode cacheMode) {
+        this(cacheType, cacheMode, CacheCleanup.Inline);
+    }
+
+    public CacheMap(final CacheType cacheType, final CacheMode cacheMode, final CacheCleanup cacheCleanup) {
+        if (cacheCleanup == CacheCleanup.Background && cacheType != CacheType.Concurrent) {
+            throw new IllegalArgumentException("Cache map initialization failed - background cleanup requires a concurrent cache.");
+        }
         MODE = cacheMode;
+        CLEANUP = cacheCleanup;
         CACHE = createCache(cacheType);
-        QUEUE = new ReferenceQueue<>();
+        QUEUE = (cacheCleanup == CacheCleanup.Background) ? (ReferenceQueue) Cleaner.QUEUE : new ReferenceQueue<>();
+    }
+
+    /**
+     * Enables the recording of {@link CacheStats statistics}. Statistics add a
+     * small cost to every operation and are therefore disabled by default.
+     *
+     * @param NAME the name under which the statistics are reported.
+     * @return the statistics of the cache. If statistics were already enabled
+     * the existing statistics are returned.
+     */
+    public final synchronized CacheStats enableStats(final String NAME) {
+        if (stats == null) {
+            stats = new CacheStats(NAME);
+        }
+        return stats;
+    }
+
+    /**
+     * @return the statistics of the cache, or null if statistics have not been
+     * {@link #enableStats(String) enabled}.
+     */
+    public final CacheStats getStats() {
+        return stats;
     }
 
     public final Key put(final Key KEY, final Value VALUE) {
-        update();
+        cleanup();
         Reference<Value> last;
         if ((last = CACHE.put(KEY, createReference(KEY, VALUE))) != null) {
             ((CacheReference<Key>) last).clear();
         }
+        final CacheStats recorder = stats;
+        if (recorder != null) {
+            recorder.put();
+        }
         return KEY;
     }
 
     public final Value get(final Key KEY) {
-        update();
+        cleanup();
+        Reference<Value> ref = CACHE.get(KEY);
+        final Value value = (ref != null) ? ref.get() : null;
+        final CacheStats recorder = stats;
+        if (recorder != null) {
+            if (value != null) {
+                recorder.hit();
+            } else {
+                recorder.miss();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value cached for the specified key, loading and caching it
+     * if it is absent or its referent has been reclaimed. For
+     * {@link CacheType#Concurrent concurrent} caches the load is atomic - the
+     * loader is invoked at most once per missing value, and concurrent callers
+     * requesting the same key block until it completes. A cached value is
+     * returned without locking. The loader should be short and must not modify
+     * this cache.
+     *
+     * @param KEY the key of the value.
+     * @param LOADER computes the value for a missing key. May return null, in
+     * which case nothing is cached.
+     * @return the cached or loaded value, or null if the loader returned null.
+     */
+    public final Value getOrLoad(final Key KEY, final Function<? super Key, ? extends Value> LOADER) {
+        final CacheStats recorder = stats;
         Reference<Value> ref = CACHE.get(KEY);
-        return (ref != null) ? ref.get() : null;
+        Value value = (ref != null) ? ref.get() : null;
+        if (value != null) {
+            if (recorder != null) {
+                recorder.hit();
+            }
+            return value;
+        }
+
+        cleanup();
+        final Object[] loaded = new Object[1];
+        CACHE.compute(KEY, (key, current) -> {
+            Value result = (current != null) ? current.get() : null;
+            if (result != null) {
+                if (recorder != null) {
+                    recorder.hit();
+                }
+                loaded[0] = result;
+                return current;
+            }
+            if (recorder != null) {
+                recorder.miss();
+            }
+            if ((result = LOADER.apply(key)) == null) {
+                return null;
+            }
+            if (recorder != null) {
+                recorder.put();
+            }
+            loaded[0] = result;
+            return createReference(key, result);
+        });
+        return (Value) loaded[0];
     }
 
     public void remove(final Key KEY) {
         Reference<Value> ref = CACHE.remove(KEY);
         if (ref != null) {
             ((CacheReference<Key>) ref).clear();
+            final CacheStats recorder = stats;
+            if (recorder != null) {
+                recorder.removed(1);
+            }
         }
-        update();
+        cleanup();
     }
 
     public final void clear() {
+        int count = 0;
         for (Reference<Value> ref : CACHE.values()) {
             ((CacheReference<Key>) ref).clear();
+            count++;
         }
         CACHE.clear();
-        update();
+        final CacheStats recorder = stats;
+        if (recorder != null) {
+            recorder.removed(count);
+        }
+        cleanup();
     }
     
     public final boolean contains(final Key KEY) {
-        update();
+        cleanup();
         return CACHE.containsKey(KEY);
     }
     
     public final int size() {
-        update();
+        cleanup();
         return CACHE.size();
     }
 
+    /**
+     * Removes the entries of reclaimed and replaced references. An entry is
+     * only removed while it still maps to the reclaimed reference, so an entry
+     * that has concurrently been replaced is never lost. Safe to invoke from
+     * multiple threads for {@link CacheType#Concurrent concurrent} caches.
+     * Every pending entry is removed regardless of the
+     * {@link CacheCleanup cleanup mode}, except in
+     * {@link CacheCleanup#Background background} mode where removal is left
+     * to the cleaner thread.
+     */
     public final void update() {
-        Key key;
-        for (Reference<? extends Value> ref = QUEUE.poll(); ref != null; ref = QUEUE.poll()) {
-            if ((key = ((CacheReference<Key>) ref).getKey()) != null) {
-                CACHE.remove(key);
+        if (CLEANUP != CacheCleanup.Background) {
+            drain(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Performs the cleanup work of a single cache operation.
+     */
+    private void cleanup() {
+        switch (CLEANUP) {
+            case Inline: {
+                drain(Integer.MAX_VALUE);
+                break;
             }
+            case Bounded: {
+                drain(CLEANUP_BATCH);
+                break;
+            }
+            default: {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of up to LIMIT pending references.
+     *
+     * @return the number of references processed.
+     */
+    private int drain(final int LIMIT) {
+        int count = 0, removed = 0;
+        long start = 0;
+        for (Reference<? extends Value> ref; count < LIMIT && (ref = QUEUE.poll()) != null; count++) {
+            if (count == 0 && stats != null) {
+                start = System.nanoTime();
+            }
+            if (((CacheReference<Key>) ref).expunge()) {
+                removed++;
+            }
+        }
+        reclaimed(removed, start);
+        return count;
+    }
+
+    /**
+     * Records a cleanup pass that removed COUNT reclaimed entries, starting at
+     * START nanoseconds.
+     */
+    private void reclaimed(final int COUNT, final long START) {
+        final CacheStats recorder = stats;
+        if (recorder != null && COUNT > 0) {
+            recorder.reclaimed(COUNT, System.nanoTime() - START);
         }
     }
 
@@ -211,13 +419,27 @@ public class CacheMap<Key, Value> {
         public Key getKey();
 
         /**
-         * Clears the referent and its associated key. This should be called
-         * when a object in the cache has been replaced by a new object that
-         * shares the same key. This prevents overwritten objects from
-         * triggering the removal of an object that has replaced it.
+         * Clears the referent and enqueues the reference. This should be
+         * called when a object in the cache has been replaced or removed. The
+         * map entry is only removed while it still maps to this reference, so
+         * overwritten objects never trigger the removal of an object that has
+         * replaced them.
          */
         public void clear();
 
+        /**
+         * Removes the map entry of this reference if the entry still maps to
+         * it. Invoked once the reference has been dequeued.
+         *
+         * @return true if the entry was removed.
+         */
+        public boolean expunge();
+
+        /**
+         * @return the cache map that created the reference.
+         */
+        public CacheMap<Key, ?> getOwner();
+
     }
 
     private class SoftCacheReference extends SoftReference<Value> implements CacheReference<Key> {
@@ -225,24 +447,40 @@ public class CacheMap<Key, Value> {
         /**
          * The key associated with the cached referent.
          */
-        private Key key;
+        private final Key KEY;
 
         public SoftCacheReference(final Key KEY, final Value REFERENT, final ReferenceQueue QUEUE) {
             super(REFERENT, QUEUE);
-            key = KEY;
+            this.KEY = KEY;
         }
 
         @Override
         public final Key getKey() {
-            return key;
+            return KEY;
         }
 
         @Override
         public final void clear() {
             super.clear();
-            key = null;
             super.enqueue();
         }
+
+        @Override
+        public final boolean expunge() {
+            if (CACHE.remove(KEY, this)) {
+                final CacheStats recorder = stats;
+                if (recorder != null) {
+                    recorder.evicted();
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public final CacheMap<Key, ?> getOwner() {
+            return CacheMap.this;
+        }
     }
 
     private class WeakCacheReference extends WeakReference<Value> implements CacheReference<Key> {
@@ -250,23 +488,111 @@ public class CacheMap<Key, Value> {
         /**
          * The key associated with the cached referent.
          */
-        private Key key;
+        private final Key KEY;
 
         public WeakCacheReference(final Key KEY, final Value REFERENT, final ReferenceQueue QUEUE) {
             super(REFERENT, QUEUE);
-            key = KEY;
+            this.KEY = KEY;
         }
 
         @Override
         public final Key getKey() {
-            return key;
+            return KEY;
         }
 
         @Override
         public final void clear() {
             super.clear();
-            key = null;
             super.enqueue();
         }
+
+        @Override
+        public final boolean expunge() {
+            if (CACHE.remove(KEY, this)) {
+                final CacheStats recorder = stats;
+                if (recorder != null) {
+                    recorder.evicted();
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public final CacheMap<Key, ?> getOwner() {
+            return CacheMap.this;
+        }
+    }
+
+    /**
+     * Shared daemon thread that removes the reclaimed entries of every
+     * {@link CacheCleanup#Background background} cache map. Started when the
+     * first background cache map is constructed.
+     */
+    private static final class Cleaner implements Runnable {
+
+        /**
+         * Reference queue shared by every background cache map.
+         */
+        private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+        static {
+            final Thread thread = new Thread(new Cleaner(), "CacheMap-Cleaner");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public final void run() {
+            try {
+                while (true) {
+                    // Block Until A Reference Is Enqueued, Then Drain A Batch \\
+                    Reference<?> ref = QUEUE.remove();
+                    CacheMap<?, ?> owner = null;
+                    int removed = 0;
+                    long start = System.nanoTime();
+                    for (int count = 0; ref != null; ref = (++count < CLEANUP_BATCH) ? QUEUE.poll() : null) {
+                        final CacheReference<?> reference = (CacheReference<?>) ref;
+                        if (reference.getOwner() != owner) {
+                            // Record The Batch Per Cache Map \\
+                            if (owner != null) {
+                                reclaimed(owner, removed, start);
+                            }
+                            owner = reference.getOwner();
+                            removed = 0;
+                            start = System.nanoTime();
+                        }
+                        // A Failing Map Must Not Stop Cleanup For Every Other Map \
+                        try {
+                            if (reference.expunge()) {
+                                removed++;
+                            }
+                        } catch (RuntimeException e) {
+                            LOG.error("Cache map cleanup failed", e);
+                        }
+                    }
+                    reclaimed(owner, removed, start);
+                    Thread.yield();
+                }
+            } catch (InterruptedException e) {
+                LOG.debug("Cache map cleaner stopped");
+            }
+        }
+
+        /**
+         * Records a drained batch with its cache map, logging rather than
+         * propagating any failure so the shared cleaner thread survives.
+         *
+         * @param OWNER the cache map the batch was drained from.
+         * @param COUNT the number of entries removed in the batch.
+         * @param START the nano time at which the batch started.
+         */
+        private static void reclaimed(final CacheMap<?, ?> OWNER, final int COUNT, final long START) {
+            try {
+                OWNER.reclaimed(COUNT, START);
+            } catch (RuntimeException e) {
+                LOG.error("Cache map reclaim listener failed", e);
+            }
+        }
     }
 }
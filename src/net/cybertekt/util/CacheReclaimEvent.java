@@ -0,0 +1,46 @@
+package net.cybertekt.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Cache Reclaim Event - (C) Cybertekt Software
+ *
+ * Flight recorder event committed when a single cleanup pass of a
+ * {@link CacheMap cache map} with {@link CacheStats statistics} enabled
+ * removes at least {@link CacheStats#BURST_THRESHOLD} reclaimed entries. Only
+ * loaded if the flight recorder API is available.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+@Name("net.cybertekt.CacheReclaim")
+@Label("Cache Reclaim Burst")
+@Category({"Cybertekt", "Cache"})
+@Description("Large number of garbage collected cache entries removed in a single cleanup pass")
+final class CacheReclaimEvent extends Event {
+
+    @Label("Cache")
+    private String cache;
+
+    @Label("Entries")
+    private int entries;
+
+    @Label("Cleanup Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long cleanupTime;
+
+    static void commit(final String CACHE, final int ENTRIES, final long NANOS) {
+        final CacheReclaimEvent event = new CacheReclaimEvent();
+        if (event.isEnabled()) {
+            event.cache = CACHE;
+            event.entries = ENTRIES;
+            event.cleanupTime = NANOS;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package net.cybertekt.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache Stats - (C) Cybertekt Software
+ *
+ * Statistics of a single {@link CacheMap cache map}, recorded once enabled
+ * through {@link CacheMap#enableStats(String)}. Counters are
+ * {@link LongAdder long adders}, so recording from many threads does not
+ * contend. Statistics are read as a {@link Snapshot snapshot}, and may be
+ * exported over JMX under the object name
+ * net.cybertekt:type=CacheMap,name=&lt;name&gt; by {@link #register()}. A
+ * cache whose name is already registered is given an additional instance key
+ * rather than replacing the existing registration.
+ *
+ * Cleanup passes that remove at least {@link #BURST_THRESHOLD} reclaimed
+ * entries are additionally reported as flight recorder events when running on
+ * a JVM that provides the flight recorder API.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class CacheStats implements CacheStatsMXBean {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(CacheStats.class);
+
+    /**
+     * System property that enables and registers the statistics of the
+     * engine's internal caches when set to true.
+     */
+    public static final String PROPERTY = "net.cybertekt.cacheStats";
+
+    /**
+     * Minimum number of entries removed by a single cleanup pass for the pass
+     * to be reported as a flight recorder event.
+     */
+    public static final int BURST_THRESHOLD = 1024;
+
+    /**
+     * True if the flight recorder API is available.
+     */
+    private static final boolean JFR = ClassUtil.isAvailable("jdk.jfr.Event");
+
+    /**
+     * Counter used to disambiguate caches registered under the same name.
+     */
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    /**
+     * Name of the cache, used in the JMX object name and flight recorder
+     * events.
+     */
+    private final String NAME;
+
+    private final LongAdder HITS = new LongAdder(), MISSES = new LongAdder(), PUTS = new LongAdder();
+
+    private final LongAdder EVICTIONS = new LongAdder(), REMOVALS = new LongAdder();
+
+    private final LongAdder RECLAIMS = new LongAdder(), RECLAIMED = new LongAdder();
+
+    private final LongAccumulator LARGEST_RECLAIM = new LongAccumulator(Math::max, 0);
+
+    /**
+     * JMX object name once registered, otherwise null.
+     */
+    private ObjectName objectName;
+
+    CacheStats(final String NAME) {
+        this.NAME = NAME;
+    }
+
+    /**
+     * @return true if the statistics of the engine's internal caches have been
+     * requested through the {@link #PROPERTY system property}.
+     */
+    public static boolean isRequested() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    @Override
+    public final String getName() {
+        return NAME;
+    }
+
+    @Override
+    public final long getHits() {
+        return HITS.sum();
+    }
+
+    @Override
+    public final long getMisses() {
+        return MISSES.sum();
+    }
+
+    @Override
+    public final double getHitRatio() {
+        return snapshot().getHitRatio();
+    }
+
+    @Override
+    public final long getPuts() {
+        return PUTS.sum();
+    }
+
+    @Override
+    public final long getEvictions() {
+        return EVICTIONS.sum();
+    }
+
+    @Override
+    public final long getRemovals() {
+        return REMOVALS.sum();
+    }
+
+    @Override
+    public final long getReclaims() {
+        return RECLAIMS.sum();
+    }
+
+    @Override
+    public final long getReclaimed() {
+        return RECLAIMED.sum();
+    }
+
+    @Override
+    public final long getLargestReclaim() {
+        return LARGEST_RECLAIM.get();
+    }
+
+    /**
+     * @return a point in time copy of the statistics. Counters are read
+     * individually, so a snapshot taken while the cache is in use is not
+     * atomic.
+     */
+    public final Snapshot snapshot() {
+        return new Snapshot(NAME, HITS.sum(), MISSES.sum(), PUTS.sum(), EVICTIONS.sum(), REMOVALS.sum(), RECLAIMS.sum(), RECLAIMED.sum(), LARGEST_RECLAIM.get());
+    }
+
+    @Override
+    public final void reset() {
+        HITS.reset();
+        MISSES.reset();
+        PUTS.reset();
+        EVICTIONS.reset();
+        REMOVALS.reset();
+        RECLAIMS.reset();
+        RECLAIMED.reset();
+        LARGEST_RECLAIM.reset();
+    }
+
+    /**
+     * Exports the statistics over JMX. Registration failures are logged and
+     * otherwise ignored.
+     *
+     * @return these statistics.
+     */
+    public final synchronized CacheStats register() {
+        if (objectName == null) {
+            try {
+                final String base = "net.cybertekt:type=CacheMap,name=" + ObjectName.quote(NAME);
+                final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = new ObjectName(base);
+                while (objectName == null) {
+                    try {
+                        server.registerMBean(this, name);
+                        objectName = name;
+                    } catch (InstanceAlreadyExistsException e) {
+                        // Keep The Existing Registration, Disambiguating This Cache \\
+                        name = new ObjectName(base + ",instance=" + INSTANCES.incrementAndGet());
+                    }
+                }
+            } catch (JMException e) {
+                LOG.warn("Unable to register cache statistics {}", NAME, e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Removes the statistics from JMX if registered by these statistics.
+     */
+    public final synchronized void unregister() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOG.warn("Unable to unregister cache statistics {}", NAME, e);
+            }
+            objectName = null;
+        }
+    }
+
+    final void hit() {
+        HITS.increment();
+    }
+
+    final void miss() {
+        MISSES.increment();
+    }
+
+    final void put() {
+        PUTS.increment();
+    }
+
+    final void evicted() {
+        EVICTIONS.increment();
+    }
+
+    final void removed(final int COUNT) {
+        REMOVALS.add(COUNT);
+    }
+
+    /**
+     * Records a cleanup pass that removed COUNT reclaimed entries.
+     */
+    final void reclaimed(final int COUNT, final long NANOS) {
+        RECLAIMS.increment();
+        RECLAIMED.add(COUNT);
+        LARGEST_RECLAIM.accumulate(COUNT);
+        if (JFR && COUNT >= BURST_THRESHOLD) {
+            CacheReclaimEvent.commit(NAME, COUNT, NANOS);
+        }
+    }
+
+    /**
+     * Immutable point in time copy of cache statistics.
+     */
+    public static final class Snapshot {
+
+        private final String NAME;
+
+        private final long HITS, MISSES, PUTS, EVICTIONS, REMOVALS, RECLAIMS, RECLAIMED, LARGEST_RECLAIM;
+
+        private Snapshot(final String NAME, final long HITS, final long MISSES, final long PUTS, final long EVICTIONS, final long REMOVALS, final long RECLAIMS, final long RECLAIMED, final long LARGEST_RECLAIM) {
+            this.NAME = NAME;
+            this.HITS = HITS;
+            this.MISSES = MISSES;
+            this.PUTS = PUTS;
+            this.EVICTIONS = EVICTIONS;
+            this.REMOVALS = REMOVALS;
+            this.RECLAIMS = RECLAIMS;
+            this.RECLAIMED = RECLAIMED;
+            this.LARGEST_RECLAIM = LARGEST_RECLAIM;
+        }
+
+        /**
+         * @return the name of the cache.
+         */
+        public final String getName() {
+            return NAME;
+        }
+
+        /**
+         * @return the number of lookups that found a live value.
+         */
+        public final long getHits() {
+            return HITS;
+        }
+
+        /**
+         * @return the number of lookups that found no live value.
+         */
+        public final long getMisses() {
+            return MISSES;
+        }
+
+        /**
+         * @return the ratio of hits to lookups, or zero if there have been no
+         * lookups.
+         */
+        public final double getHitRatio() {
+            final long lookups = HITS + MISSES;
+            return (lookups > 0) ? HITS / (double) lookups : 0;
+        }
+
+        /**
+         * @return the number of values stored, including values stored by
+         * loads.
+         */
+        public final long getPuts() {
+            return PUTS;
+        }
+
+        /**
+         * @return the number of entries evicted from the cache, counted once
+         * per entry as it is removed after the garbage collector cleared its
+         * value. See {@link #getReclaims()} for the number of cleanup passes
+         * that performed the evictions.
+         */
+        public final long getEvictions() {
+            return EVICTIONS;
+        }
+
+        /**
+         * @return the number of entries removed explicitly.
+         */
+        public final long getRemovals() {
+            return REMOVALS;
+        }
+
+        /**
+         * @return the number of cleanup passes that evicted at least one
+         * entry, regardless of how many entries each pass evicted.
+         */
+        public final long getReclaims() {
+            return RECLAIMS;
+        }
+
+        /**
+         * @return the total number of entries removed by cleanup passes.
+         */
+        public final long getReclaimed() {
+            return RECLAIMED;
+        }
+
+        /**
+         * @return the largest number of entries removed by a single cleanup
+         * pass.
+         */
+        public final long getLargestReclaim() {
+            return LARGEST_RECLAIM;
+        }
+
+        @Override
+        public final String toString() {
+            return String.format("%s: hits %d, misses %d (%.1f%%), puts %d, evictions %d, removals %d, reclaims %d (%d entries, largest %d)",
+                    NAME, HITS, MISSES, getHitRatio() * 100, PUTS, EVICTIONS, REMOVALS, RECLAIMS, RECLAIMED, LARGEST_RECLAIM);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package net.cybertekt.util;
+
+/**
+ * Cache Stats MXBean - (C) Cybertekt Software
+ *
+ * Management interface through which {@link CacheStats cache statistics} are
+ * exported over JMX once {@link CacheStats#register() registered}.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public interface CacheStatsMXBean {
+
+    public String getName();
+
+    public long getHits();
+
+    public long getMisses();
+
+    public double getHitRatio();
+
+    public long getPuts();
+
+    public long getEvictions();
+
+    public long getRemovals();
+
+    public long getReclaims();
+
+    public long getReclaimed();
+
+    public long getLargestReclaim();
+
+    public void reset();
+}
@@ -0,0 +1,32 @@
+package net.cybertekt.util;
+
+/**
+ * Class Utility - (C) Cybertekt Software
+ *
+ * Static utility methods for probing optional runtime APIs, such as the Java
+ * Flight Recorder, that are not present on every supported Java version.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class ClassUtil {
+
+    private ClassUtil() {
+    }
+
+    /**
+     * Determines if a class can be located without initializing it.
+     *
+     * @param CLASS the fully qualified name of the class.
+     * @return true if the class is available to the class loader of the
+     * engine.
+     */
+    public static boolean isAvailable(final String CLASS) {
+        try {
+            Class.forName(CLASS, false, ClassUtil.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.cybertekt.util;
+
+import net.cybertekt.util.CacheMap.CacheMode;
+
+/**
+ * IntCacheMap - (C) Cybertekt Software
+ *
+ * {@link CacheMap Cache map} specialized for primitive int keys such as
+ * identifiers and indices. Keys are stored unboxed in an open addressing
+ * table with linear probing, so lookups and insertions of existing keys
+ * allocate nothing. Values are held with the same
+ * {@link CacheMode soft or weak} reference semantics as a cache map.
+ *
+ * -Not synchronized for performance reasons.
+ * -Cache is updated automatically during method calls, but may be updated manually by calling update().
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ *
+ * @param <Value>
+ */
+public class IntCacheMap<Value> extends PrimitiveCacheMap<Value> {
+
+    public IntCacheMap() {
+        this(CacheMode.Weak);
+    }
+
+    public IntCacheMap(final CacheMode cacheMode) {
+        super(cacheMode);
+    }
+
+    public final int put(final int KEY, final Value VALUE) {
+        putEntry(KEY, VALUE);
+        return KEY;
+    }
+
+    public final Value get(final int KEY) {
+        return getEntry(KEY);
+    }
+
+    public final void remove(final int KEY) {
+        removeEntry(KEY);
+    }
+
+    public final boolean contains(final int KEY) {
+        return containsEntry(KEY);
+    }
+
+    /**
+     * MurmurHash3 32-bit finalizer. Sequential and aligned identifiers would
+     * otherwise cluster in the table.
+     */
+    @Override
+    final int hash(final long KEY) {
+        int h = (int) KEY;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,206 @@
+package net.cybertekt.util;
+
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * LZ4 - (C) Cybertekt Software
+ *
+ * Minimal implementation of the LZ4 block format. Compression operates on heap
+ * arrays and is intended for offline tools. Decompression operates directly on
+ * native memory so that compressed data can be expanded from a memory mapped
+ * file into a native buffer without touching the Java heap.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class LZ4 {
+
+    /**
+     * Minimum length of a match.
+     */
+    private static final int MIN_MATCH = 4;
+
+    /**
+     * The last five bytes of a block are always encoded as literals.
+     */
+    private static final int LAST_LITERALS = 5;
+
+    /**
+     * The last match must start at least twelve bytes before the end of the
+     * block.
+     */
+    private static final int MF_LIMIT = 12;
+
+    /**
+     * Maximum distance between a match and its reference.
+     */
+    private static final int MAX_DISTANCE = 65535;
+
+    /**
+     * Number of bits in the hash table index.
+     */
+    private static final int HASH_LOG = 16;
+
+    private LZ4() {
+    }
+
+    /**
+     * Returns the maximum size of the compressed form of a block.
+     *
+     * @param LENGTH the length of the uncompressed block.
+     * @return the worst case compressed length.
+     */
+    public static int maxCompressedLength(final int LENGTH) {
+        return LENGTH + (LENGTH / 255) + 16;
+    }
+
+    /**
+     * Compresses a block of data.
+     *
+     * @param SRC the uncompressed data.
+     * @param SRC_OFF the offset of the first byte to compress.
+     * @param SRC_LEN the number of bytes to compress.
+     * @param DST the destination array. Must have at least
+     * {@link #maxCompressedLength(int)} bytes remaining after DST_OFF.
+     * @param DST_OFF the offset at which to write the compressed data.
+     * @return the length of the compressed data.
+     */
+    public static int compress(final byte[] SRC, final int SRC_OFF, final int SRC_LEN, final byte[] DST, final int DST_OFF) {
+        final int end = SRC_OFF + SRC_LEN;
+        final int matchLimit = end - MF_LIMIT;
+        final int literalLimit = end - LAST_LITERALS;
+        int ip = SRC_OFF, anchor = SRC_OFF, op = DST_OFF;
+
+        if (SRC_LEN > MF_LIMIT) {
+            // Positions Are Stored Offset By One So Zero Marks An Empty Slot \\
+            final int[] table = new int[1 << HASH_LOG];
+            while (ip < matchLimit) {
+                final int sequence = readInt(SRC, ip);
+                final int hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+                final int ref = table[hash] - 1;
+                table[hash] = ip + 1;
+
+                if (ref < SRC_OFF || ip - ref > MAX_DISTANCE || readInt(SRC, ref) != sequence) {
+                    ip++;
+                    continue;
+                }
+
+                int length = MIN_MATCH;
+                while (ip + length < literalLimit && SRC[ref + length] == SRC[ip + length]) {
+                    length++;
+                }
+
+                op = writeSequence(SRC, anchor, ip - anchor, ip - ref, length, DST, op);
+                ip += length;
+                anchor = ip;
+            }
+        }
+
+        // Final Literal Run \\
+        op = writeLiterals(SRC, anchor, end - anchor, DST, op, 0);
+        return op - DST_OFF;
+    }
+
+    /**
+     * Decompresses a block of data from native memory into native memory.
+     *
+     * @param SRC the native address of the compressed data.
+     * @param SRC_LEN the length of the compressed data.
+     * @param DST the native address of the destination.
+     * @param DST_LEN the exact length of the uncompressed data.
+     * @throws IllegalArgumentException if the compressed data is malformed.
+     */
+    public static void decompress(final long SRC, final int SRC_LEN, final long DST, final int DST_LEN) {
+        final long srcEnd = SRC + SRC_LEN;
+        final long dstEnd = DST + DST_LEN;
+        long ip = SRC, op = DST;
+
+        while (ip < srcEnd) {
+            final int token = MemoryUtil.memGetByte(ip++) & 0xFF;
+
+            // Literals \\
+            int literals = token >>> 4;
+            if (literals == 15) {
+                int b;
+                do {
+                    checkBounds(ip < srcEnd);
+                    literals += (b = MemoryUtil.memGetByte(ip++) & 0xFF);
+                } while (b == 255);
+            }
+            checkBounds(ip + literals <= srcEnd && op + literals <= dstEnd);
+            MemoryUtil.memCopy(ip, op, literals);
+            ip += literals;
+            op += literals;
+
+            if (ip == srcEnd) {
+                break;
+            }
+
+            // Match \\
+            checkBounds(ip + 2 <= srcEnd);
+            final int offset = (MemoryUtil.memGetByte(ip) & 0xFF) | ((MemoryUtil.memGetByte(ip + 1) & 0xFF) << 8);
+            ip += 2;
+            int length = token & 0x0F;
+            if (length == 15) {
+                int b;
+                do {
+                    checkBounds(ip < srcEnd);
+                    length += (b = MemoryUtil.memGetByte(ip++) & 0xFF);
+                } while (b == 255);
+            }
+            length += MIN_MATCH;
+
+            final long ref = op - offset;
+            checkBounds(offset != 0 && ref >= DST && op + length <= dstEnd);
+            if (offset >= length) {
+                MemoryUtil.memCopy(ref, op, length);
+            } else {
+                // Overlapping Match - Copy Byte By Byte To Replicate The Pattern \\
+                for (int i = 0; i < length; i++) {
+                    MemoryUtil.memPutByte(op + i, MemoryUtil.memGetByte(ref + i));
+                }
+            }
+            op += length;
+        }
+
+        checkBounds(op == dstEnd);
+    }
+
+    private static int writeSequence(final byte[] SRC, final int ANCHOR, final int LITERALS, final int OFFSET, final int LENGTH, final byte[] DST, int op) {
+        final int matchCode = LENGTH - MIN_MATCH;
+        op = writeLiterals(SRC, ANCHOR, LITERALS, DST, op, Math.min(matchCode, 15));
+        DST[op++] = (byte) OFFSET;
+        DST[op++] = (byte) (OFFSET >>> 8);
+        if (matchCode >= 15) {
+            op = writeLength(matchCode - 15, DST, op);
+        }
+        return op;
+    }
+
+    private static int writeLiterals(final byte[] SRC, final int ANCHOR, final int LITERALS, final byte[] DST, int op, final int MATCH_TOKEN) {
+        DST[op++] = (byte) ((Math.min(LITERALS, 15) << 4) | MATCH_TOKEN);
+        if (LITERALS >= 15) {
+            op = writeLength(LITERALS - 15, DST, op);
+        }
+        System.arraycopy(SRC, ANCHOR, DST, op, LITERALS);
+        return op + LITERALS;
+    }
+
+    private static int writeLength(int length, final byte[] DST, int op) {
+        for (; length >= 255; length -= 255) {
+            DST[op++] = (byte) 255;
+        }
+        DST[op++] = (byte) length;
+        return op;
+    }
+
+    private static int readInt(final byte[] SRC, final int OFF) {
+        return (SRC[OFF] & 0xFF) | ((SRC[OFF + 1] & 0xFF) << 8) | ((SRC[OFF + 2] & 0xFF) << 16) | ((SRC[OFF + 3] & 0xFF) << 24);
+    }
+
+    private static void checkBounds(final boolean VALID) {
+        if (!VALID) {
+            throw new IllegalArgumentException("Malformed LZ4 block");
+        }
+    }
+}
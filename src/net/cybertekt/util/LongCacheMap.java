@@ -0,0 +1,63 @@
+package net.cybertekt.util;
+
+import net.cybertekt.util.CacheMap.CacheMode;
+
+/**
+ * LongCacheMap - (C) Cybertekt Software
+ *
+ * {@link CacheMap Cache map} specialized for primitive long keys such as
+ * Vulkan handles and native pointers. Keys are stored unboxed in an open
+ * addressing table with linear probing, so lookups and insertions of existing
+ * keys allocate nothing. Values are held with the same
+ * {@link CacheMode soft or weak} reference semantics as a cache map.
+ *
+ * -Not synchronized for performance reasons.
+ * -Cache is updated automatically during method calls, but may be updated manually by calling update().
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ *
+ * @param <Value>
+ */
+public class LongCacheMap<Value> extends PrimitiveCacheMap<Value> {
+
+    public LongCacheMap() {
+        this(CacheMode.Weak);
+    }
+
+    public LongCacheMap(final CacheMode cacheMode) {
+        super(cacheMode);
+    }
+
+    public final long put(final long KEY, final Value VALUE) {
+        putEntry(KEY, VALUE);
+        return KEY;
+    }
+
+    public final Value get(final long KEY) {
+        return getEntry(KEY);
+    }
+
+    public final void remove(final long KEY) {
+        removeEntry(KEY);
+    }
+
+    public final boolean contains(final long KEY) {
+        return containsEntry(KEY);
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer. Native handles and pointers are aligned
+     * and clustered, so their low bits alone would probe poorly.
+     */
+    @Override
+    final int hash(final long KEY) {
+        long h = KEY;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
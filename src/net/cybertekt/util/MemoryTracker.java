@@ -0,0 +1,573 @@
+package net.cybertekt.util;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.lwjgl.system.Configuration;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.system.MemoryUtil.MemoryAllocationReport;
+import org.lwjgl.system.MemoryUtil.MemoryAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Memory Tracker - (C) Cybertekt Software
+ *
+ * Configurable instrumentation of the native memory allocated through the
+ * LWJGL {@link MemoryUtil memory allocator}. The tracker must be
+ * {@link #install(Mode, int) installed} before LWJGL allocates any native
+ * memory, since LWJGL selects its allocator exactly once.
+ *
+ * In the {@link Mode#Counters counters} and {@link Mode#Sampled sampled}
+ * modes every allocation is prefixed with a small header recording its size
+ * and the {@link Tag subsystem tag} that was active on the allocating thread,
+ * so that freeing an allocation never requires a lookup. Counters are kept per
+ * tag in striped adders. The sampled mode additionally captures the stack
+ * trace of one in every N allocations so that leak sites can be reported at a
+ * fraction of the cost of the full {@link Mode#Debug debug} mode, which
+ * enables the LWJGL debug allocator and records every allocation.
+ *
+ * Memory allocated through the allocator must be freed through it. Function
+ * pointers handed to native libraries refer to the untracked system
+ * allocator, so memory allocated natively is neither tracked nor affected.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class MemoryTracker {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(MemoryTracker.class);
+
+    /**
+     * Native memory instrumentation modes.
+     */
+    public static enum Mode {
+        /**
+         * No instrumentation. LWJGL uses its default allocator.
+         */
+        Off,
+        /**
+         * Bytes and allocations are counted per subsystem tag.
+         */
+        Counters,
+        /**
+         * Counters plus stack capture of sampled allocations.
+         */
+        Sampled,
+        /**
+         * LWJGL debug allocator and memory stack, recording every
+         * allocation.
+         */
+        Debug;
+    }
+
+    /**
+     * Size in bytes of the header preceding every tracked allocation. Keeps
+     * the default 16 byte alignment of the system allocator.
+     */
+    private static final int HEADER = 16;
+
+    /**
+     * Bit of the header tag word marking a sampled allocation.
+     */
+    private static final int SAMPLED = 1 << 31;
+
+    /**
+     * Maximum number of leak sites listed by a report.
+     */
+    private static final int REPORT_SITES = 10;
+
+    /**
+     * Size in bytes of the probe allocation used to detect the LWJGL debug
+     * allocator.
+     */
+    private static final int PROBE = 0x1CB7;
+
+    /**
+     * Tag of allocations made outside any tagged scope.
+     */
+    public static final Tag UNTAGGED;
+
+    /**
+     * Registered tags by name.
+     */
+    private static final Map<String, Tag> NAMES = new HashMap<>();
+
+    /**
+     * Registered tags by id. Replaced when a tag is registered.
+     */
+    private static volatile Tag[] tags = new Tag[0];
+
+    /**
+     * Current tag and sample countdown of each thread.
+     */
+    private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+    /**
+     * Live sampled allocations by address.
+     */
+    private static final Map<Long, Sample> SAMPLES = new ConcurrentHashMap<>();
+
+    /**
+     * Installed mode.
+     */
+    private static volatile Mode mode = Mode.Off;
+
+    /**
+     * One in this many allocations is sampled in the sampled mode.
+     */
+    private static int sampleRate;
+
+    static {
+        UNTAGGED = tag("Untagged");
+    }
+
+    private MemoryTracker() {
+    }
+
+    /**
+     * Installs the native memory instrumentation. Must be invoked before LWJGL
+     * allocates any native memory; later invocations only log a warning.
+     *
+     * @param MODE the instrumentation mode.
+     * @param SAMPLE_RATE one in this many allocations is sampled in the
+     * {@link Mode#Sampled sampled} mode.
+     * @throws IllegalArgumentException if the sample rate is not positive.
+     */
+    public static synchronized void install(final Mode MODE, final int SAMPLE_RATE) {
+        if (SAMPLE_RATE < 1) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + SAMPLE_RATE);
+        }
+        if (mode != Mode.Off) {
+            if (mode != MODE) {
+                LOG.warn("Native memory tracking already installed as {}, ignoring {}", mode, MODE);
+            }
+            return;
+        }
+        switch (MODE) {
+            case Off: {
+                return;
+            }
+            case Debug: {
+                Configuration.DEBUG_MEMORY_ALLOCATOR.set(true);
+                Configuration.DEBUG_STACK.set(true);
+                break;
+            }
+            default: {
+                final MemoryAllocator system = systemAllocator();
+                if (system == null) {
+                    return;
+                }
+                sampleRate = SAMPLE_RATE;
+                Configuration.MEMORY_ALLOCATOR.set(new TrackingAllocator(system, MODE == Mode.Sampled));
+                break;
+            }
+        }
+
+        // Verify LWJGL Has Not Already Selected Its Allocator \\
+        if (!((MODE == Mode.Debug) ? isDebugActive() : MemoryUtil.getAllocator() instanceof TrackingAllocator)) {
+            LOG.warn("Native memory tracking not installed - LWJGL allocator already in use");
+            return;
+        }
+        mode = MODE;
+        LOG.info("Native memory tracking: {}", MODE);
+    }
+
+    /**
+     * @return the installed instrumentation mode.
+     */
+    public static Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the tag with the given name, registering it if necessary. Tags
+     * should be obtained once and kept in a constant.
+     *
+     * @param NAME the name of the subsystem.
+     * @return the tag of the subsystem.
+     */
+    public static synchronized Tag tag(final String NAME) {
+        Tag tag = NAMES.get(NAME);
+        if (tag == null) {
+            tag = new Tag(NAME, tags.length);
+            final Tag[] grown = Arrays.copyOf(tags, tags.length + 1);
+            grown[tag.ID] = tag;
+            NAMES.put(NAME, tag);
+            tags = grown;
+        }
+        return tag;
+    }
+
+    /**
+     * Restores the tag that was active before {@link Tag#enter()}.
+     *
+     * @param PREVIOUS the tag returned by {@link Tag#enter()}.
+     */
+    public static void restore(final Tag PREVIOUS) {
+        CONTEXT.get().tag = PREVIOUS;
+    }
+
+    /**
+     * Logs a report of the native memory that is still allocated. Invoked at
+     * shutdown, after every subsystem has released its memory, so that any
+     * remaining allocation is a leak.
+     *
+     * @return the number of bytes still allocated, or -1 if unknown.
+     */
+    public static long report() {
+        switch (mode) {
+            case Counters:
+            case Sampled: {
+                return reportCounters();
+            }
+            case Debug: {
+                final long[] leaked = new long[1];
+                MemoryUtil.memReport((final long MEMORY, final long THREAD_ID, final String THREAD, final StackTraceElement... STACK) -> {
+                    leaked[0] += MEMORY;
+                    LOG.warn("Native memory leak: {} bytes allocated at{}", MEMORY, format(STACK));
+                }, MemoryAllocationReport.Aggregate.GROUP_BY_STACKTRACE, false);
+                if (leaked[0] == 0) {
+                    LOG.info("Native memory report: no leaks");
+                }
+                return leaked[0];
+            }
+            default: {
+                return -1;
+            }
+        }
+    }
+
+    private static long reportCounters() {
+        long leaked = 0;
+        for (Tag tag : tags) {
+            final long bytes = tag.getBytes(), count = tag.getAllocations();
+            if (count != 0) {
+                LOG.warn("Native memory leak: {} bytes in {} allocations tagged {}", bytes, count, tag.NAME);
+            } else if (tag.TOTAL.sum() > 0) {
+                LOG.debug("Native memory tagged {}: {} allocations, none leaked", tag.NAME, tag.TOTAL.sum());
+            }
+            leaked += bytes;
+        }
+        if (leaked == 0) {
+            LOG.info("Native memory report: no leaks");
+        }
+
+        // Group Sampled Leaks By Allocation Site \\
+        if (!SAMPLES.isEmpty()) {
+            final Map<String, long[]> sites = new HashMap<>();
+            for (Sample sample : SAMPLES.values()) {
+                final long[] site = sites.computeIfAbsent(sample.TAG.NAME + " at" + format(sample.TRACE.getStackTrace()), key -> new long[2]);
+                site[0] += sample.size;
+                site[1]++;
+            }
+            final List<Map.Entry<String, long[]>> sorted = new ArrayList<>(sites.entrySet());
+            Collections.sort(sorted, (a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+            for (Map.Entry<String, long[]> site : sorted.subList(0, Math.min(REPORT_SITES, sorted.size()))) {
+                LOG.warn("Sampled native memory leak: {} bytes in {} sampled allocations tagged {}", site.getValue()[0], site.getValue()[1], site.getKey());
+            }
+        }
+        return leaked;
+    }
+
+    /**
+     * Formats a stack trace, omitting the allocator frames.
+     */
+    private static String format(final StackTraceElement[] STACK) {
+        final StringBuilder builder = new StringBuilder();
+        for (StackTraceElement element : STACK) {
+            final String owner = element.getClassName();
+            if (owner.startsWith("org.lwjgl.system.") || owner.startsWith(MemoryTracker.class.getName())) {
+                continue;
+            }
+            builder.append("\n\tat ").append(element);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Determines whether the LWJGL debug allocator is active by reporting a
+     * probe allocation of a distinctive size.
+     */
+    private static boolean isDebugActive() {
+        final long probe = MemoryUtil.nmemAlloc(PROBE);
+        final boolean[] found = new boolean[1];
+        MemoryUtil.memReport((final long MEMORY, final long THREAD_ID, final String THREAD, final StackTraceElement... STACK) -> {
+            found[0] |= (MEMORY == PROBE && THREAD_ID == Thread.currentThread().getId());
+        });
+        MemoryUtil.nmemFree(probe);
+        return found[0];
+    }
+
+    /**
+     * Returns the default LWJGL system allocator to which tracked allocations
+     * are delegated.
+     */
+    private static MemoryAllocator systemAllocator() {
+        try {
+            final Constructor<?> constructor = Class.forName("org.lwjgl.system.MemoryManage$StdlibAllocator").getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return (MemoryAllocator) constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.warn("Native memory tracking unavailable - system allocator not accessible", e);
+            return null;
+        }
+    }
+
+    /**
+     * Subsystem tag attributed to the native memory allocated by a thread
+     * while the tag is {@link #enter() entered}.
+     */
+    public static final class Tag {
+
+        /**
+         * Name of the subsystem.
+         */
+        private final String NAME;
+
+        /**
+         * Index of the tag, recorded in the allocation header.
+         */
+        private final int ID;
+
+        /**
+         * Bytes allocated and freed.
+         */
+        private final LongAdder ALLOCATED = new LongAdder(), FREED = new LongAdder();
+
+        /**
+         * Allocations made and freed.
+         */
+        private final LongAdder TOTAL = new LongAdder(), RELEASED = new LongAdder();
+
+        private Tag(final String NAME, final int ID) {
+            this.NAME = NAME;
+            this.ID = ID;
+        }
+
+        /**
+         * Attributes subsequent allocations of the current thread to this tag.
+         * Usage: {@code Tag previous = TAG.enter(); try {...} finally {
+         * MemoryTracker.restore(previous); }}
+         *
+         * @return the previously active tag.
+         */
+        public final Tag enter() {
+            final Context context = CONTEXT.get();
+            final Tag previous = context.tag;
+            context.tag = this;
+            return previous;
+        }
+
+        /**
+         * @return the name of the subsystem.
+         */
+        public final String getName() {
+            return NAME;
+        }
+
+        /**
+         * @return the number of bytes currently allocated under this tag.
+         */
+        public final long getBytes() {
+            return ALLOCATED.sum() - FREED.sum();
+        }
+
+        /**
+         * @return the number of allocations currently live under this tag.
+         */
+        public final long getAllocations() {
+            return TOTAL.sum() - RELEASED.sum();
+        }
+
+        @Override
+        public final String toString() {
+            return NAME;
+        }
+    }
+
+    /**
+     * Per-thread tracking state.
+     */
+    private static final class Context {
+
+        private Tag tag = UNTAGGED;
+
+        private int countdown = sampleRate;
+    }
+
+    /**
+     * Live sampled allocation.
+     */
+    private static final class Sample {
+
+        private final Tag TAG;
+
+        private final Throwable TRACE;
+
+        private long size;
+
+        private Sample(final Tag TAG, final long SIZE) {
+            this.TAG = TAG;
+            this.TRACE = new Throwable();
+            this.size = SIZE;
+        }
+    }
+
+    /**
+     * Allocator installed into LWJGL that prefixes every allocation with a
+     * tracking header and delegates to the system allocator. The header holds
+     * the size of the allocation, the tag id with the sampled bit, and the
+     * offset of the header from the start of the underlying block.
+     */
+    private static final class TrackingAllocator implements MemoryAllocator {
+
+        private final MemoryAllocator SYSTEM;
+
+        private final boolean SAMPLING;
+
+        private TrackingAllocator(final MemoryAllocator SYSTEM, final boolean SAMPLING) {
+            this.SYSTEM = SYSTEM;
+            this.SAMPLING = SAMPLING;
+        }
+
+        @Override
+        public long getMalloc() {
+            return SYSTEM.getMalloc();
+        }
+
+        @Override
+        public long getCalloc() {
+            return SYSTEM.getCalloc();
+        }
+
+        @Override
+        public long getRealloc() {
+            return SYSTEM.getRealloc();
+        }
+
+        @Override
+        public long getFree() {
+            return SYSTEM.getFree();
+        }
+
+        @Override
+        public long getAlignedAlloc() {
+            return SYSTEM.getAlignedAlloc();
+        }
+
+        @Override
+        public long getAlignedFree() {
+            return SYSTEM.getAlignedFree();
+        }
+
+        @Override
+        public long malloc(final long SIZE) {
+            final long block = SYSTEM.malloc(SIZE + HEADER);
+            return (block == MemoryUtil.NULL) ? MemoryUtil.NULL : track(block + HEADER, SIZE, HEADER);
+        }
+
+        @Override
+        public long calloc(final long NUM, final long SIZE) {
+            final long block = SYSTEM.calloc(1, NUM * SIZE + HEADER);
+            return (block == MemoryUtil.NULL) ? MemoryUtil.NULL : track(block + HEADER, NUM * SIZE, HEADER);
+        }
+
+        @Override
+        public long realloc(final long PTR, final long SIZE) {
+            if (PTR == MemoryUtil.NULL) {
+                return malloc(SIZE);
+            }
+            final long previous = MemoryUtil.memGetLong(PTR - HEADER);
+            final int word = MemoryUtil.memGetInt(PTR - HEADER + 8);
+            final long block = SYSTEM.realloc(PTR - HEADER, SIZE + HEADER);
+            if (block == MemoryUtil.NULL) {
+                return MemoryUtil.NULL;
+            }
+
+            // The Allocation Keeps The Tag Under Which It Was Made \\
+            final long address = block + HEADER;
+            final Tag tag = tags[word & ~SAMPLED];
+            MemoryUtil.memPutLong(block, SIZE);
+            tag.ALLOCATED.add(SIZE);
+            tag.FREED.add(previous);
+            if ((word & SAMPLED) != 0) {
+                final Sample sample = SAMPLES.remove(PTR);
+                if (sample != null) {
+                    sample.size = SIZE;
+                    SAMPLES.put(address, sample);
+                }
+            }
+            return address;
+        }
+
+        @Override
+        public void free(final long PTR) {
+            if (PTR != MemoryUtil.NULL) {
+                SYSTEM.free(untrack(PTR));
+            }
+        }
+
+        @Override
+        public long aligned_alloc(final long ALIGNMENT, final long SIZE) {
+            final long offset = Math.max(HEADER, ALIGNMENT);
+            final long block = SYSTEM.aligned_alloc(ALIGNMENT, SIZE + offset);
+            return (block == MemoryUtil.NULL) ? MemoryUtil.NULL : track(block + offset, SIZE, (int) offset);
+        }
+
+        @Override
+        public void aligned_free(final long PTR) {
+            if (PTR != MemoryUtil.NULL) {
+                SYSTEM.aligned_free(untrack(PTR));
+            }
+        }
+
+        /**
+         * Writes the header of a new allocation and counts it.
+         *
+         * @return the address of the allocation.
+         */
+        private long track(final long ADDRESS, final long SIZE, final int OFFSET) {
+            final Context context = CONTEXT.get();
+            final Tag tag = context.tag;
+            int word = tag.ID;
+            if (SAMPLING && --context.countdown <= 0) {
+                context.countdown = sampleRate;
+                word |= SAMPLED;
+                SAMPLES.put(ADDRESS, new Sample(tag, SIZE));
+            }
+            MemoryUtil.memPutLong(ADDRESS - HEADER, SIZE);
+            MemoryUtil.memPutInt(ADDRESS - HEADER + 8, word);
+            MemoryUtil.memPutInt(ADDRESS - HEADER + 12, OFFSET);
+            tag.ALLOCATED.add(SIZE);
+            tag.TOTAL.increment();
+            return ADDRESS;
+        }
+
+        /**
+         * Counts the release of an allocation.
+         *
+         * @return the address of the underlying block.
+         */
+        private long untrack(final long ADDRESS) {
+            final long size = MemoryUtil.memGetLong(ADDRESS - HEADER);
+            final int word = MemoryUtil.memGetInt(ADDRESS - HEADER + 8);
+            final Tag tag = tags[word & ~SAMPLED];
+            tag.FREED.add(size);
+            tag.RELEASED.increment();
+            if ((word & SAMPLED) != 0) {
+                SAMPLES.remove(ADDRESS);
+            }
+            return ADDRESS - MemoryUtil.memGetInt(ADDRESS - HEADER + 12);
+        }
+    }
+}
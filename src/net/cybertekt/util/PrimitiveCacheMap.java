@@ -0,0 +1,259 @@
+package net.cybertekt.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import net.cybertekt.util.CacheMap.CacheMode;
+
+/**
+ * PrimitiveCacheMap - (C) Cybertekt Software
+ *
+ * Open addressing table with linear probing shared by the
+ * {@link CacheMap cache maps} specialized for primitive keys. Keys are stored
+ * unboxed, widened to long, and deleted entries are removed by shifting the
+ * rest of their probe sequence back, so no tombstones are required. Values are
+ * held with the same {@link CacheMode soft or weak} reference semantics as a
+ * cache map. Subclasses provide the typed public interface and the hash
+ * function suited to their keys.
+ *
+ * -Not synchronized for performance reasons.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ *
+ * @param <Value>
+ */
+abstract class PrimitiveCacheMap<Value> {
+
+    /**
+     * Initial capacity of the table.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Maximum ratio of entries to table capacity before the table grows.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Determines when a cached key-value pairs will be considered obsolete and
+     * enqueued for removal from the cache map.
+     */
+    private final CacheMode MODE;
+
+    private final ReferenceQueue<Value> QUEUE = new ReferenceQueue<>();
+
+    /**
+     * Keys of the table. A slot is occupied if its value is not null.
+     */
+    private long[] keys;
+
+    /**
+     * Value references of the table.
+     */
+    private Reference<Value>[] values;
+
+    /**
+     * Number of occupied slots.
+     */
+    private int size;
+
+    PrimitiveCacheMap(final CacheMode MODE) {
+        this.MODE = MODE;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns the hash code of a key. Keys are spread over every bit of the
+     * hash, since the table is indexed by its low bits.
+     */
+    abstract int hash(final long KEY);
+
+    final void putEntry(final long KEY, final Value VALUE) {
+        update();
+        int slot = find(KEY);
+        if (slot >= 0) {
+            values[slot].clear();
+        } else {
+            if (size + 1 > keys.length * LOAD_FACTOR) {
+                resize(keys.length << 1);
+            }
+            slot = ~find(KEY);
+            keys[slot] = KEY;
+            size++;
+        }
+        values[slot] = createReference(KEY, VALUE);
+    }
+
+    final Value getEntry(final long KEY) {
+        update();
+        final int slot = find(KEY);
+        return (slot >= 0) ? values[slot].get() : null;
+    }
+
+    final void removeEntry(final long KEY) {
+        final int slot = find(KEY);
+        if (slot >= 0) {
+            values[slot].clear();
+            delete(slot);
+        }
+        update();
+    }
+
+    final boolean containsEntry(final long KEY) {
+        update();
+        return find(KEY) >= 0;
+    }
+
+    public final void clear() {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                values[i].clear();
+                values[i] = null;
+            }
+        }
+        size = 0;
+        update();
+    }
+
+    public final int size() {
+        update();
+        return size;
+    }
+
+    /**
+     * Removes the entries of reclaimed references. An entry is only removed
+     * while it still maps to the reclaimed reference.
+     */
+    public final void update() {
+        for (Reference<? extends Value> ref = QUEUE.poll(); ref != null; ref = QUEUE.poll()) {
+            final int slot = find(((CacheReference) ref).getKey());
+            if (slot >= 0 && values[slot] == ref) {
+                delete(slot);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of a key, or the bitwise complement of the empty slot
+     * at which it would be inserted.
+     */
+    private int find(final long KEY) {
+        final int mask = keys.length - 1;
+        for (int slot = hash(KEY) & mask;; slot = (slot + 1) & mask) {
+            if (values[slot] == null) {
+                return ~slot;
+            } else if (keys[slot] == KEY) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Empties a slot, shifting subsequent entries of the probe sequence back so
+     * that no tombstones are required.
+     */
+    private void delete(int slot) {
+        final int mask = keys.length - 1;
+        for (int next = (slot + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            final int home = hash(keys[next]) & mask;
+            // Move The Entry If Its Home Slot Is Not Between The Gap And Its Slot \\
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        values[slot] = null;
+        size--;
+    }
+
+    private void resize(final int CAPACITY) {
+        final long[] oldKeys = keys;
+        final Reference<Value>[] oldValues = values;
+        allocate(CAPACITY);
+        final int mask = CAPACITY - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private void allocate(final int CAPACITY) {
+        keys = new long[CAPACITY];
+        values = new Reference[CAPACITY];
+    }
+
+    /**
+     * Constructs a cache reference for the specified key-value pair. The type
+     * of cache reference returned is determined by the {@link CacheMode cache
+     * mode} specified during construction.
+     */
+    private Reference<Value> createReference(final long KEY, final Value VALUE) {
+        switch (MODE) {
+            case Soft: {
+                return new SoftCacheReference<>(KEY, VALUE, QUEUE);
+            }
+            case Weak: {
+                return new WeakCacheReference<>(KEY, VALUE, QUEUE);
+            }
+            default: {
+                throw new IllegalArgumentException("Unable to create cache reference - unrecognized cache mode.");
+            }
+        }
+    }
+
+    private interface CacheReference {
+
+        /**
+         * Returns the key associated with the cached value/referent.
+         *
+         * @return the key for the cached value/referent.
+         */
+        public long getKey();
+    }
+
+    private static final class SoftCacheReference<Value> extends SoftReference<Value> implements CacheReference {
+
+        /**
+         * The key associated with the cached referent.
+         */
+        private final long KEY;
+
+        private SoftCacheReference(final long KEY, final Value REFERENT, final ReferenceQueue<Value> QUEUE) {
+            super(REFERENT, QUEUE);
+            this.KEY = KEY;
+        }
+
+        @Override
+        public final long getKey() {
+            return KEY;
+        }
+    }
+
+    private static final class WeakCacheReference<Value> extends WeakReference<Value> implements CacheReference {
+
+        /**
+         * The key associated with the cached referent.
+         */
+        private final long KEY;
+
+        private WeakCacheReference(final long KEY, final Value REFERENT, final ReferenceQueue<Value> QUEUE) {
+            super(REFERENT, QUEUE);
+            this.KEY = KEY;
+        }
+
+        @Override
+        public final long getKey() {
+            return KEY;
+        }
+    }
+}
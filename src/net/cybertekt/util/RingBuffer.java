@@ -0,0 +1,209 @@
+package net.cybertekt.util;
+
+import java.nio.Buffer;
+import java.util.concurrent.atomic.AtomicLong;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Ring Buffer - (C) Cybertekt Software
+ *
+ * Fixed-size, lock-free, single-producer single-consumer byte ring buffer in
+ * native memory. Exactly one thread may {@link #offer(long, int) write} and
+ * exactly one other thread may {@link #poll(long, int) read} concurrently.
+ * Neither side ever blocks: writes and reads transfer as many bytes as
+ * currently fit or are available.
+ *
+ * The read and write positions are published with ordered stores, and each
+ * side keeps a cached copy of the position of the other side so that the
+ * shared positions are only re-read when the cached copy suggests the buffer
+ * is full or empty.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class RingBuffer {
+
+    /**
+     * Native memory of the ring buffer.
+     */
+    private final long ADDRESS;
+
+    /**
+     * Capacity in bytes, a power of two.
+     */
+    private final int CAPACITY;
+
+    /**
+     * Mask applied to positions to obtain offsets.
+     */
+    private final int MASK;
+
+    /**
+     * Total number of bytes read. Written only by the consumer.
+     */
+    private final AtomicLong HEAD = new AtomicLong();
+
+    /**
+     * Total number of bytes written. Written only by the producer.
+     */
+    private final AtomicLong TAIL = new AtomicLong();
+
+    /**
+     * Producer's cached copy of the head.
+     */
+    private long headCache;
+
+    /**
+     * Consumer's cached copy of the tail.
+     */
+    private long tailCache;
+
+    /**
+     * Allocates a ring buffer.
+     *
+     * @param CAPACITY the minimum capacity in bytes, rounded up to a power of
+     * two.
+     */
+    public RingBuffer(final int CAPACITY) {
+        if (CAPACITY <= 0 || CAPACITY > 1 << 30) {
+            throw new IllegalArgumentException("Invalid ring buffer capacity: " + CAPACITY);
+        }
+        this.CAPACITY = (CAPACITY == 1) ? 1 : Integer.highestOneBit(CAPACITY - 1) << 1;
+        this.MASK = this.CAPACITY - 1;
+        this.ADDRESS = MemoryUtil.nmemAlloc(this.CAPACITY);
+        if (ADDRESS == MemoryUtil.NULL) {
+            throw new OutOfMemoryError("Unable to allocate ring buffer of " + this.CAPACITY + " bytes");
+        }
+    }
+
+    /**
+     * @return the capacity in bytes.
+     */
+    public final int capacity() {
+        return CAPACITY;
+    }
+
+    /**
+     * Returns the number of bytes that can currently be written. Invoked by
+     * the producer only.
+     *
+     * @return the free space in bytes.
+     */
+    public final int writable() {
+        final long tail = TAIL.get();
+        if (tail - headCache == CAPACITY) {
+            headCache = HEAD.get();
+        }
+        return CAPACITY - (int) (tail - headCache);
+    }
+
+    /**
+     * Returns the number of bytes that can currently be read. Invoked by the
+     * consumer only.
+     *
+     * @return the buffered data in bytes.
+     */
+    public final int readable() {
+        final long head = HEAD.get();
+        if (tailCache == head) {
+            tailCache = TAIL.get();
+        }
+        return (int) (tailCache - head);
+    }
+
+    /**
+     * Writes up to LENGTH bytes from native memory. Invoked by the producer
+     * only.
+     *
+     * @param SRC the address of the data.
+     * @param LENGTH the number of bytes to write.
+     * @return the number of bytes written.
+     */
+    public final int offer(final long SRC, final int LENGTH) {
+        final long tail = TAIL.get();
+        if (CAPACITY - (tail - headCache) < LENGTH) {
+            headCache = HEAD.get();
+        }
+        final int count = Math.min(LENGTH, CAPACITY - (int) (tail - headCache));
+        if (count > 0) {
+            final int offset = (int) tail & MASK;
+            final int first = Math.min(count, CAPACITY - offset);
+            MemoryUtil.memCopy(SRC, ADDRESS + offset, first);
+            if (first < count) {
+                MemoryUtil.memCopy(SRC + first, ADDRESS, count - first);
+            }
+            TAIL.lazySet(tail + count);
+        }
+        return count;
+    }
+
+    /**
+     * Reads up to LENGTH bytes into native memory. Invoked by the consumer
+     * only.
+     *
+     * @param DST the address to read into.
+     * @param LENGTH the maximum number of bytes to read.
+     * @return the number of bytes read.
+     */
+    public final int poll(final long DST, final int LENGTH) {
+        final long head = HEAD.get();
+        if (tailCache - head < LENGTH) {
+            tailCache = TAIL.get();
+        }
+        final int count = Math.min(LENGTH, (int) (tailCache - head));
+        if (count > 0) {
+            final int offset = (int) head & MASK;
+            final int first = Math.min(count, CAPACITY - offset);
+            MemoryUtil.memCopy(ADDRESS + offset, DST, first);
+            if (first < count) {
+                MemoryUtil.memCopy(ADDRESS, DST + first, count - first);
+            }
+            HEAD.lazySet(head + count);
+        }
+        return count;
+    }
+
+    /**
+     * Writes the remaining bytes of a direct buffer, advancing its position by
+     * the number of bytes written. Invoked by the producer only.
+     *
+     * @param SRC the direct buffer to write.
+     * @param UNIT the size in bytes of an element of the buffer.
+     * @return the number of elements written.
+     */
+    public final int offer(final Buffer SRC, final int UNIT) {
+        final int count = offer(MemoryUtil.memAddress0(SRC) + (long) SRC.position() * UNIT, Math.min(SRC.remaining() * UNIT, writable() / UNIT * UNIT)) / UNIT;
+        SRC.position(SRC.position() + count);
+        return count;
+    }
+
+    /**
+     * Reads into the remaining space of a direct buffer, advancing its
+     * position by the number of elements read. Only whole elements are read.
+     * Invoked by the consumer only.
+     *
+     * @param DST the direct buffer to read into.
+     * @param UNIT the size in bytes of an element of the buffer.
+     * @return the number of elements read.
+     */
+    public final int poll(final Buffer DST, final int UNIT) {
+        final int count = poll(MemoryUtil.memAddress0(DST) + (long) DST.position() * UNIT, Math.min(DST.remaining() * UNIT, readable() / UNIT * UNIT)) / UNIT;
+        DST.position(DST.position() + count);
+        return count;
+    }
+
+    /**
+     * Discards all buffered data. Invoked by the consumer only.
+     */
+    public final void clear() {
+        HEAD.lazySet(tailCache = TAIL.get());
+    }
+
+    /**
+     * Frees the native memory of the ring buffer. Neither the producer nor
+     * the consumer may use the ring buffer afterwards.
+     */
+    public final void free() {
+        MemoryUtil.nmemFree(ADDRESS);
+    }
+}
@@ -0,0 +1,30 @@
+package net.cybertekt.vulkan;
+
+import java.util.Map;
+
+/**
+ * Debug Report MXBean - (C) Cybertekt Software
+ *
+ * Management interface through which the metrics of a
+ * {@link DebugReportSink debug report sink} are exported over JMX once
+ * {@link DebugReportSink#register() registered}.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public interface DebugReportMXBean {
+
+    public long getMessages();
+
+    public long getErrors();
+
+    public long getWarnings();
+
+    public long getDuplicates();
+
+    public long getSuppressed();
+
+    public long getDropped();
+
+    public Map<Integer, Long> getMessageCounts();
+}
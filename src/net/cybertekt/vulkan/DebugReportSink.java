@@ -0,0 +1,548 @@
+package net.cybertekt.vulkan;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.vulkan.EXTDebugReport;
+import org.lwjgl.vulkan.VK10;
+import org.lwjgl.vulkan.VkDebugReportCallbackEXT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Debug Report Sink - (C) Cybertekt Software
+ *
+ * Vulkan debug report callback that does no logging from inside the driver.
+ * The callback only copies the flags, object type, message code and message
+ * of a report into a preallocated ring of slots and returns; no memory is
+ * allocated and no lock is taken, so reports may arrive from any number of
+ * driver threads. A report that finds the ring full is dropped and counted.
+ *
+ * A daemon consumer thread decodes the queued reports, counts them per
+ * message code, and logs them at the level of their severity. Identical
+ * reports are logged once per {@link #DEDUPLICATION_NANOS deduplication
+ * interval}, with the number of repeats appended to the next occurrence or,
+ * if none arrives, logged once the interval ends or the sink is freed, and
+ * at most {@link #RATE_LIMIT} reports per message code are logged each second.
+ * Metrics are exported over JMX under the object name
+ * net.cybertekt:type=VulkanDebugReport by {@link #register()}.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class DebugReportSink extends VkDebugReportCallbackEXT implements DebugReportMXBean {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(DebugReportSink.class);
+
+    /**
+     * Default number of slots in the ring.
+     */
+    public static final int DEFAULT_CAPACITY = 512;
+
+    /**
+     * Default maximum message length in bytes. Longer messages are truncated.
+     */
+    public static final int DEFAULT_MESSAGE_SIZE = 1024;
+
+    /**
+     * Maximum number of reports logged per message code each second.
+     */
+    public static final int RATE_LIMIT = 10;
+
+    /**
+     * Interval during which repeats of a logged report are only counted.
+     */
+    public static final long DEDUPLICATION_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Maximum number of distinct reports remembered for deduplication.
+     */
+    private static final int MAX_DISTINCT = 4096;
+
+    /**
+     * Length of a rate limit window.
+     */
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Time for the consumer to park when the ring is empty.
+     */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final int MASK, MESSAGE_SIZE;
+
+    /**
+     * Sequence of each slot. A slot may be written by the producer that
+     * claimed position p once its sequence equals p, and read by the consumer
+     * once its sequence equals p + 1.
+     */
+    private final AtomicLongArray SEQUENCES;
+
+    /**
+     * Next position to be claimed by a producer.
+     */
+    private final AtomicLong TAIL = new AtomicLong();
+
+    private final int[] FLAGS, OBJECT_TYPES, CODES, LENGTHS;
+
+    /**
+     * Preallocated message bytes, {@link #MESSAGE_SIZE} per slot.
+     */
+    private final ByteBuffer MESSAGES;
+
+    private final long MESSAGES_ADDRESS;
+
+    private final Thread CONSUMER;
+
+    // Metrics \\
+    private final AtomicLong RECEIVED = new AtomicLong(), DROPPED = new AtomicLong();
+
+    private final AtomicLong ERRORS = new AtomicLong(), WARNINGS = new AtomicLong();
+
+    private final AtomicLong DUPLICATES = new AtomicLong(), SUPPRESSED = new AtomicLong();
+
+    private final ConcurrentHashMap<Integer, AtomicLong> COUNTS = new ConcurrentHashMap<>();
+
+    // Consumer State \\
+    private final Map<String, Repeat> REPEATS = new HashMap<>();
+
+    private final Map<Integer, Window> WINDOWS = new HashMap<>();
+
+    /**
+     * Next position to be read by the consumer.
+     */
+    private volatile long head;
+
+    private volatile boolean running = true;
+
+    /**
+     * JMX object name once registered, otherwise null.
+     */
+    private ObjectName objectName;
+
+    /**
+     * Constructs a sink with the {@link #DEFAULT_CAPACITY default capacity}
+     * and {@link #DEFAULT_MESSAGE_SIZE message size}, and starts its consumer.
+     */
+    public DebugReportSink() {
+        this(DEFAULT_CAPACITY, DEFAULT_MESSAGE_SIZE);
+    }
+
+    /**
+     * Constructs a sink and starts its consumer.
+     *
+     * @param CAPACITY the number of slots in the ring, a power of two.
+     * @param MESSAGE_SIZE the maximum message length in bytes.
+     */
+    public DebugReportSink(final int CAPACITY, final int MESSAGE_SIZE) {
+        if (CAPACITY <= 0 || (CAPACITY & (CAPACITY - 1)) != 0) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + CAPACITY);
+        }
+        if (MESSAGE_SIZE <= 0) {
+            throw new IllegalArgumentException("Message size must be positive: " + MESSAGE_SIZE);
+        }
+        this.MASK = CAPACITY - 1;
+        this.MESSAGE_SIZE = MESSAGE_SIZE;
+        SEQUENCES = new AtomicLongArray(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            SEQUENCES.set(i, i);
+        }
+        FLAGS = new int[CAPACITY];
+        OBJECT_TYPES = new int[CAPACITY];
+        CODES = new int[CAPACITY];
+        LENGTHS = new int[CAPACITY];
+        MESSAGES = MemoryUtil.memAlloc(CAPACITY * MESSAGE_SIZE);
+        MESSAGES_ADDRESS = MemoryUtil.memAddress(MESSAGES);
+
+        CONSUMER = new Thread(this::run, "Vulkan-Debug-Report");
+        CONSUMER.setDaemon(true);
+        CONSUMER.start();
+    }
+
+    /**
+     * Queues a report for the consumer. Called by the driver, or directly to
+     * inject reports.
+     *
+     * @return VK_FALSE, so that the call that triggered the report is not
+     * aborted.
+     */
+    @Override
+    public final int invoke(final int flags, final int objectType, final long object, final long location, final int messageCode, final long layerPrefix, final long message, final long userData) {
+        RECEIVED.incrementAndGet();
+
+        // Claim A Slot - Drop The Report If The Ring Is Full \\
+        long position = TAIL.get();
+        while (true) {
+            final long sequence = SEQUENCES.get((int) position & MASK);
+            if (sequence == position) {
+                if (TAIL.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = TAIL.get();
+            } else if (sequence < position) {
+                DROPPED.incrementAndGet();
+                return VK10.VK_FALSE;
+            } else {
+                position = TAIL.get();
+            }
+        }
+
+        // Copy The Report Into The Slot \\
+        final int slot = (int) position & MASK;
+        int length = 0;
+        if (message != MemoryUtil.NULL) {
+            while (length < MESSAGE_SIZE && MemoryUtil.memGetByte(message + length) != 0) {
+                length++;
+            }
+            MemoryUtil.memCopy(message, MESSAGES_ADDRESS + (long) slot * MESSAGE_SIZE, length);
+        }
+        FLAGS[slot] = flags;
+        OBJECT_TYPES[slot] = objectType;
+        CODES[slot] = messageCode;
+        LENGTHS[slot] = length;
+
+        // Publish The Slot \\
+        SEQUENCES.lazySet(slot, position + 1);
+        return VK10.VK_FALSE;
+    }
+
+    /**
+     * @return the number of reports queued and not yet processed. Metrics
+     * include every report received before this returns 0.
+     */
+    public final int getPending() {
+        return (int) Math.max(0, TAIL.get() - head);
+    }
+
+    /**
+     * @param CODE a message code.
+     * @return the number of reports processed with the message code.
+     */
+    public final long getCount(final int CODE) {
+        final AtomicLong count = COUNTS.get(CODE);
+        return (count == null) ? 0 : count.get();
+    }
+
+    /**
+     * @return the number of reports received by the callback, including
+     * dropped reports.
+     */
+    public final long getReceived() {
+        return RECEIVED.get();
+    }
+
+    @Override
+    public final long getMessages() {
+        long messages = 0;
+        for (AtomicLong count : COUNTS.values()) {
+            messages += count.get();
+        }
+        return messages;
+    }
+
+    @Override
+    public final long getErrors() {
+        return ERRORS.get();
+    }
+
+    @Override
+    public final long getWarnings() {
+        return WARNINGS.get();
+    }
+
+    @Override
+    public final long getDuplicates() {
+        return DUPLICATES.get();
+    }
+
+    @Override
+    public final long getSuppressed() {
+        return SUPPRESSED.get();
+    }
+
+    @Override
+    public final long getDropped() {
+        return DROPPED.get();
+    }
+
+    @Override
+    public final Map<Integer, Long> getMessageCounts() {
+        final Map<Integer, Long> counts = new TreeMap<>();
+        for (Map.Entry<Integer, AtomicLong> entry : COUNTS.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    /**
+     * Exports the metrics over JMX. Registration failures are logged and
+     * otherwise ignored.
+     *
+     * @return this sink.
+     */
+    public final synchronized DebugReportSink register() {
+        if (objectName == null) {
+            try {
+                final ObjectName name = new ObjectName("net.cybertekt:type=VulkanDebugReport");
+                final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+                server.registerMBean(this, name);
+                objectName = name;
+            } catch (JMException e) {
+                LOG.warn("Unable to register debug report metrics", e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Removes the metrics from JMX if registered.
+     */
+    public final synchronized void unregister() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOG.warn("Unable to unregister debug report metrics", e);
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * Stops the consumer once every queued report has been processed, logs
+     * the reports still being suppressed or deduplicated, and releases the ring and the
+     * callback. The debug report callback object created with this sink must
+     * have been destroyed first.
+     */
+    @Override
+    public final void free() {
+        if (running) {
+            running = false;
+            LockSupport.unpark(CONSUMER);
+            boolean interrupted = false;
+            while (CONSUMER.isAlive()) {
+                try {
+                    CONSUMER.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            unregister();
+            MemoryUtil.memFree(MESSAGES);
+            super.free();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        long sweep = System.nanoTime();
+        while (running) {
+            final int processed = drain();
+            final long now = System.nanoTime();
+            if (now - sweep >= WINDOW_NANOS) {
+                sweep(now, false);
+                sweep = now;
+            }
+            if (processed == 0) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+        drain();
+        sweep(System.nanoTime(), true);
+    }
+
+    /**
+     * Processes every published report.
+     *
+     * @return the number of reports processed.
+     */
+    private int drain() {
+        int processed = 0;
+        long position = head;
+        while (true) {
+            final int slot = (int) position & MASK;
+            if (SEQUENCES.get(slot) != position + 1) {
+                break;
+            }
+            final int length = LENGTHS[slot];
+            final String message = (length == 0) ? "" : MemoryUtil.memUTF8(MESSAGES, length, slot * MESSAGE_SIZE);
+            final int flags = FLAGS[slot], objectType = OBJECT_TYPES[slot], code = CODES[slot];
+            SEQUENCES.lazySet(slot, position + MASK + 1);
+            process(flags, objectType, code, (length == MESSAGE_SIZE) ? message + "..." : message);
+            head = ++position;
+            processed++;
+        }
+        return processed;
+    }
+
+    private void process(final int FLAGS, final int OBJECT_TYPE, final int CODE, final String MESSAGE) {
+        final long now = System.nanoTime();
+
+        // Count \\
+        AtomicLong count = COUNTS.get(CODE);
+        if (count == null) {
+            count = new AtomicLong();
+            COUNTS.put(CODE, count);
+        }
+        count.incrementAndGet();
+        if ((FLAGS & EXTDebugReport.VK_DEBUG_REPORT_ERROR_BIT_EXT) != 0) {
+            ERRORS.incrementAndGet();
+        } else if ((FLAGS & (EXTDebugReport.VK_DEBUG_REPORT_WARNING_BIT_EXT | EXTDebugReport.VK_DEBUG_REPORT_PERFORMANCE_WARNING_BIT_EXT)) != 0) {
+            WARNINGS.incrementAndGet();
+        }
+
+        // Deduplicate \\
+        final String key = CODE + ":" + MESSAGE;
+        Repeat repeat = REPEATS.get(key);
+        if (repeat != null && now - repeat.logged < DEDUPLICATION_NANOS) {
+            repeat.count++;
+            DUPLICATES.incrementAndGet();
+            return;
+        }
+
+        // Rate Limit \\
+        Window window = WINDOWS.get(CODE);
+        if (window == null) {
+            window = new Window(now);
+            WINDOWS.put(CODE, window);
+        } else if (now - window.start >= WINDOW_NANOS) {
+            window.roll(CODE, now);
+        }
+        if (window.logged >= RATE_LIMIT) {
+            window.suppressed++;
+            SUPPRESSED.incrementAndGet();
+            return;
+        }
+        window.logged++;
+
+        // Log \\
+        long repeats = 0;
+        if (repeat == null) {
+            if (REPEATS.size() >= MAX_DISTINCT) {
+                for (Repeat pending : REPEATS.values()) {
+                    pending.flush();
+                }
+                REPEATS.clear();
+            }
+            repeat = new Repeat(FLAGS, OBJECT_TYPE, CODE, MESSAGE);
+            REPEATS.put(key, repeat);
+        } else {
+            repeats = repeat.count;
+            repeat.count = 0;
+        }
+        repeat.logged = now;
+        log(FLAGS, OBJECT_TYPE, CODE, MESSAGE, repeats);
+    }
+
+    /**
+     * Logs the reports suppressed in rate limit windows that have ended and
+     * the repeats counted in deduplication intervals that have ended, or in
+     * every window and interval if FINAL, and forgets idle windows and
+     * reports.
+     */
+    private void sweep(final long NOW, final boolean FINAL) {
+        for (Iterator<Map.Entry<Integer, Window>> i = WINDOWS.entrySet().iterator(); i.hasNext();) {
+            final Map.Entry<Integer, Window> entry = i.next();
+            final Window window = entry.getValue();
+            if (FINAL || NOW - window.start >= WINDOW_NANOS) {
+                if (window.suppressed == 0) {
+                    i.remove();
+                } else {
+                    window.roll(entry.getKey(), NOW);
+                }
+            }
+        }
+        for (Iterator<Repeat> i = REPEATS.values().iterator(); i.hasNext();) {
+            final Repeat repeat = i.next();
+            if (FINAL || NOW - repeat.logged >= DEDUPLICATION_NANOS) {
+                repeat.flush();
+                i.remove();
+            }
+        }
+    }
+
+    private static void log(final int FLAGS, final int OBJECT_TYPE, final int CODE, final String MESSAGE, final long REPEATS) {
+        final String format = (REPEATS == 0) ? "[code {}, object type {}] {}" : "[code {}, object type {}] {} (repeated " + REPEATS + " times)";
+        if ((FLAGS & EXTDebugReport.VK_DEBUG_REPORT_ERROR_BIT_EXT) != 0) {
+            LOG.error(format, CODE, OBJECT_TYPE, MESSAGE);
+        } else if ((FLAGS & (EXTDebugReport.VK_DEBUG_REPORT_WARNING_BIT_EXT | EXTDebugReport.VK_DEBUG_REPORT_PERFORMANCE_WARNING_BIT_EXT)) != 0) {
+            LOG.warn(format, CODE, OBJECT_TYPE, MESSAGE);
+        } else if ((FLAGS & EXTDebugReport.VK_DEBUG_REPORT_INFORMATION_BIT_EXT) != 0) {
+            LOG.info(format, CODE, OBJECT_TYPE, MESSAGE);
+        } else {
+            LOG.debug(format, CODE, OBJECT_TYPE, MESSAGE);
+        }
+    }
+
+    /**
+     * Occurrences of a distinct report since it was last logged.
+     */
+    private static final class Repeat {
+
+        private final int FLAGS, OBJECT_TYPE, CODE;
+
+        private final String MESSAGE;
+
+        private long logged, count;
+
+        private Repeat(final int FLAGS, final int OBJECT_TYPE, final int CODE, final String MESSAGE) {
+            this.FLAGS = FLAGS;
+            this.OBJECT_TYPE = OBJECT_TYPE;
+            this.CODE = CODE;
+            this.MESSAGE = MESSAGE;
+        }
+
+        /**
+         * Logs the occurrences counted since the report was last logged.
+         */
+        private void flush() {
+            if (count > 0) {
+                log(FLAGS, OBJECT_TYPE, CODE, MESSAGE, count);
+                count = 0;
+            }
+        }
+    }
+
+    /**
+     * Rate limit window of a message code.
+     */
+    private static final class Window {
+
+        private long start, suppressed;
+
+        private int logged;
+
+        private Window(final long START) {
+            this.start = START;
+        }
+
+        private void roll(final int CODE, final long NOW) {
+            if (suppressed > 0) {
+                LOG.warn("Suppressed {} debug reports with code {}", suppressed, CODE);
+            }
+            start = NOW;
+            logged = 0;
+            suppressed = 0;
+        }
+    }
+}
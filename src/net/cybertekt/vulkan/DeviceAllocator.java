@@ -0,0 +1,638 @@
+package net.cybertekt.vulkan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static org.lwjgl.vulkan.VK10.VK_NULL_HANDLE;
+
+/**
+ * Device Allocator - (C) Cybertekt Software
+ *
+ * Sub-allocates buffers and images out of large blocks of {@link DeviceMemory
+ * device memory}, since Vulkan devices only support a few thousand
+ * simultaneous memory allocations. Each memory type has its own pool of
+ * blocks, and each block is managed by a {@link Tlsf two-level segregated fit}
+ * allocator, giving constant time allocation and freeing with bounded
+ * fragmentation. Requests larger than half a block receive a dedicated
+ * allocation.
+ *
+ * Linear resources (buffers and linearly tiled images) and optimal resources
+ * (optimally tiled images) are never placed on the same page of the device's
+ * bufferImageGranularity. Blocks that become empty are returned to the device,
+ * except for one spare block per memory type that absorbs allocation churn.
+ *
+ * {@link #getDefragmentationHints(int) Defragmentation hints} identify the
+ * allocations of sparsely used blocks which, once moved by the caller, allow
+ * those blocks to be released. Per-heap {@link HeapStats statistics} report
+ * usage and fragmentation.
+ *
+ * -Thread safe. Each memory type is guarded by its own lock.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class DeviceAllocator implements AutoCloseable {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(DeviceAllocator.class);
+
+    /**
+     * Kind of resource bound to an allocation, which determines whether the
+     * bufferImageGranularity applies between neighboring allocations.
+     */
+    public static enum Resource {
+        /**
+         * Buffers and linearly tiled images.
+         */
+        Linear,
+        /**
+         * Optimally tiled images.
+         */
+        Optimal;
+    }
+
+    /**
+     * Default size of a block of device memory in bytes.
+     */
+    public static final long DEFAULT_BLOCK_SIZE = 64L << 20;
+
+    /**
+     * Heaps no larger than this many bytes use blocks of an eighth of the
+     * heap size.
+     */
+    private static final long SMALL_HEAP = 1L << 30;
+
+    /**
+     * Blocks with a smaller fraction of their capacity in use are candidates
+     * for evacuation by defragmentation.
+     */
+    private static final double SPARSE_RATIO = 0.5;
+
+    /**
+     * Source of the blocks.
+     */
+    private final DeviceMemory MEMORY;
+
+    /**
+     * Buffer-image granularity of the device.
+     */
+    private final long GRANULARITY;
+
+    /**
+     * Block size of each heap.
+     */
+    private final long[] BLOCK_SIZES;
+
+    /**
+     * Pool of each memory type.
+     */
+    private final Pool[] POOLS;
+
+    /**
+     * Number of live device allocations, including dedicated allocations.
+     */
+    private final AtomicInteger DEVICE_ALLOCATIONS = new AtomicInteger();
+
+    /**
+     * Constructs an allocator with the {@link #DEFAULT_BLOCK_SIZE default
+     * block size}.
+     *
+     * @param MEMORY the source of the blocks.
+     */
+    public DeviceAllocator(final DeviceMemory MEMORY) {
+        this(MEMORY, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs an allocator.
+     *
+     * @param MEMORY the source of the blocks.
+     * @param BLOCK_SIZE the preferred size of a block in bytes. Small heaps
+     * use smaller blocks.
+     */
+    public DeviceAllocator(final DeviceMemory MEMORY, final long BLOCK_SIZE) {
+        if (BLOCK_SIZE < Tlsf.GRANULE) {
+            throw new IllegalArgumentException("Invalid block size: " + BLOCK_SIZE);
+        }
+        this.MEMORY = MEMORY;
+        this.GRANULARITY = MEMORY.getBufferImageGranularity();
+        this.BLOCK_SIZES = new long[MEMORY.getHeapCount()];
+        for (int heap = 0; heap < BLOCK_SIZES.length; heap++) {
+            final long heapSize = MEMORY.getHeapSize(heap);
+            BLOCK_SIZES[heap] = alignUp((heapSize <= SMALL_HEAP) ? Math.min(BLOCK_SIZE, heapSize / 8) : BLOCK_SIZE, Tlsf.GRANULE);
+        }
+        this.POOLS = new Pool[MEMORY.getMemoryTypeCount()];
+        for (int type = 0; type < POOLS.length; type++) {
+            POOLS[type] = new Pool(type, MEMORY.getHeapIndex(type));
+        }
+    }
+
+    /**
+     * Allocates device memory for a resource.
+     *
+     * @param TYPE the index of the memory type, chosen from the resource's
+     * memory requirements.
+     * @param SIZE the size of the resource in bytes.
+     * @param ALIGNMENT the power of two alignment of the resource.
+     * @param RESOURCE the kind of the resource.
+     * @return the allocation.
+     * @throws OutOfDeviceMemoryException if the heap or the device's
+     * allocation count is exhausted.
+     * @throws IllegalStateException if the allocator has been closed.
+     */
+    public final Allocation allocate(final int TYPE, final long SIZE, final long ALIGNMENT, final Resource RESOURCE) {
+        if (SIZE <= 0) {
+            throw new IllegalArgumentException("Invalid allocation size: " + SIZE);
+        }
+        if (ALIGNMENT <= 0 || (ALIGNMENT & (ALIGNMENT - 1)) != 0) {
+            throw new IllegalArgumentException("Alignment is not a power of two: " + ALIGNMENT);
+        }
+        return POOLS[TYPE].allocate(SIZE, ALIGNMENT, RESOURCE);
+    }
+
+    /**
+     * Frees an allocation. Freeing an allocation after the allocator has been
+     * closed does nothing, as its device memory has already been returned.
+     *
+     * @param ALLOCATION the allocation to free.
+     * @throws IllegalStateException if the allocation has already been freed.
+     */
+    public final void free(final Allocation ALLOCATION) {
+        ALLOCATION.POOL.free(ALLOCATION);
+    }
+
+    /**
+     * Identifies allocations worth moving to reduce the number of blocks of a
+     * memory type. The sparsest blocks whose contents fit into the free space
+     * of the remaining blocks are marked for evacuation, so that new
+     * allocations avoid them while other blocks have room. The caller moves
+     * each returned allocation by allocating a replacement, copying the
+     * resource and freeing the original, after which the evacuated blocks are
+     * returned to the device.
+     *
+     * @param TYPE the index of the memory type.
+     * @return the allocations to move, or an empty list if the memory type is
+     * not fragmented across blocks.
+     */
+    public final List<Allocation> getDefragmentationHints(final int TYPE) {
+        return POOLS[TYPE].hints();
+    }
+
+    /**
+     * @param HEAP the index of a memory heap.
+     * @return a snapshot of the usage of the heap.
+     */
+    public final HeapStats getStats(final int HEAP) {
+        final HeapStats stats = new HeapStats(HEAP, MEMORY.getHeapSize(HEAP));
+        for (Pool pool : POOLS) {
+            if (pool.HEAP == HEAP) {
+                pool.collect(stats);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return the number of live device allocations made by the allocator.
+     */
+    public final int getDeviceAllocationCount() {
+        return DEVICE_ALLOCATIONS.get();
+    }
+
+    /**
+     * Returns every block and dedicated allocation to the device. Outstanding
+     * allocations become invalid, and freeing them afterwards does nothing.
+     */
+    @Override
+    public final void close() {
+        for (Pool pool : POOLS) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Allocates a block from the device, respecting its allocation count.
+     *
+     * @return the handle of the block, or VK_NULL_HANDLE if the heap or the
+     * allocation count is exhausted.
+     */
+    private long allocateDevice(final int TYPE, final long SIZE) {
+        if (DEVICE_ALLOCATIONS.incrementAndGet() > MEMORY.getMaxAllocationCount()) {
+            DEVICE_ALLOCATIONS.decrementAndGet();
+            return VK_NULL_HANDLE;
+        }
+        final long memory = MEMORY.allocate(TYPE, SIZE);
+        if (memory == VK_NULL_HANDLE) {
+            DEVICE_ALLOCATIONS.decrementAndGet();
+        }
+        return memory;
+    }
+
+    private void freeDevice(final long MEMORY_HANDLE) {
+        MEMORY.free(MEMORY_HANDLE);
+        DEVICE_ALLOCATIONS.decrementAndGet();
+    }
+
+    private static long alignUp(final long VALUE, final long ALIGNMENT) {
+        return (VALUE + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * Blocks and dedicated allocations of a single memory type.
+     */
+    private final class Pool {
+
+        private final int TYPE, HEAP;
+
+        private final List<Block> BLOCKS = new ArrayList<>();
+
+        private final Set<Allocation> DEDICATED = new HashSet<>();
+
+        private long dedicatedBytes;
+
+        /**
+         * True once the pool has returned its memory to the device.
+         */
+        private boolean closed;
+
+        private Pool(final int TYPE, final int HEAP) {
+            this.TYPE = TYPE;
+            this.HEAP = HEAP;
+        }
+
+        private synchronized Allocation allocate(final long SIZE, final long ALIGNMENT, final Resource RESOURCE) {
+            if (closed) {
+                throw new IllegalStateException("Device allocator closed");
+            }
+            final long blockSize = BLOCK_SIZES[HEAP];
+            if (SIZE > blockSize / 2) {
+                return allocateDedicated(SIZE, RESOURCE);
+            }
+            final byte kind = (byte) (RESOURCE.ordinal() + 1);
+
+            // Fill The Oldest Blocks First, Avoiding Blocks Being Evacuated \\
+            for (int pass = 0; pass < 2; pass++) {
+                for (Block block : BLOCKS) {
+                    if (block.evacuating == (pass == 1)) {
+                        final int node = block.TLSF.allocate(SIZE, ALIGNMENT, kind, GRANULARITY);
+                        if (node >= 0) {
+                            return block.track(node, RESOURCE);
+                        }
+                    }
+                }
+            }
+
+            // Create A New Block, Halving Its Size While The Heap Refuses \\
+            final long minimum = alignUp(SIZE, Tlsf.GRANULE) + ALIGNMENT;
+            for (long size = blockSize; size >= minimum; size = alignUp(size / 2, Tlsf.GRANULE)) {
+                final long memory = allocateDevice(TYPE, size);
+                if (memory != VK_NULL_HANDLE) {
+                    final Block block = new Block(memory, size);
+                    BLOCKS.add(block);
+                    LOG.debug("Allocated {} byte block of memory type {}", size, TYPE);
+                    return block.track(block.TLSF.allocate(SIZE, ALIGNMENT, kind, GRANULARITY), RESOURCE);
+                }
+            }
+            throw new OutOfDeviceMemoryException(TYPE, SIZE);
+        }
+
+        private Allocation allocateDedicated(final long SIZE, final Resource RESOURCE) {
+            final long memory = allocateDevice(TYPE, SIZE);
+            if (memory == VK_NULL_HANDLE) {
+                throw new OutOfDeviceMemoryException(TYPE, SIZE);
+            }
+            final Allocation allocation = new Allocation(this, null, -1, memory, 0, SIZE, RESOURCE);
+            DEDICATED.add(allocation);
+            dedicatedBytes += SIZE;
+            return allocation;
+        }
+
+        private synchronized void free(final Allocation ALLOCATION) {
+            if (ALLOCATION.freed) {
+                throw new IllegalStateException("Allocation already freed");
+            }
+            ALLOCATION.freed = true;
+            if (closed) {
+                // The Device Memory Was Returned When The Pool Was Closed \\
+                return;
+            }
+
+            final Block block = ALLOCATION.BLOCK;
+            if (block == null) {
+                DEDICATED.remove(ALLOCATION);
+                dedicatedBytes -= ALLOCATION.SIZE;
+                freeDevice(ALLOCATION.MEMORY);
+                return;
+            }
+            block.TLSF.free(ALLOCATION.NODE);
+            block.owners[ALLOCATION.NODE] = null;
+
+            // Release Empty Blocks, Keeping One Spare \\
+            if (block.TLSF.allocations() == 0) {
+                boolean spare = false;
+                for (Block other : BLOCKS) {
+                    spare |= (other != block && other.TLSF.allocations() == 0);
+                }
+                if (spare || block.evacuating) {
+                    BLOCKS.remove(block);
+                    freeDevice(block.MEMORY);
+                    LOG.debug("Released {} byte block of memory type {}", block.TLSF.capacity(), TYPE);
+                }
+            }
+        }
+
+        private synchronized List<Allocation> hints() {
+            if (BLOCKS.size() < 2) {
+                return Collections.emptyList();
+            }
+            final List<Block> sparse = new ArrayList<>(BLOCKS);
+            Collections.sort(sparse, (a, b) -> Long.compare(a.TLSF.used(), b.TLSF.used()));
+
+            // Evacuate The Sparsest Blocks While The Others Can Absorb Them \\
+            long room = 0;
+            for (Block block : BLOCKS) {
+                room += block.TLSF.capacity() - block.TLSF.used();
+            }
+            final List<Allocation> moves = new ArrayList<>();
+            for (int i = 0; i < sparse.size() - 1; i++) {
+                final Block block = sparse.get(i);
+                final long used = block.TLSF.used();
+                room -= block.TLSF.capacity() - used;
+                if (used >= block.TLSF.capacity() * SPARSE_RATIO || used > room) {
+                    break;
+                }
+                room -= used;
+                block.evacuating = true;
+                block.TLSF.forEachUsed(node -> moves.add(block.owners[node]));
+            }
+            return moves;
+        }
+
+        private synchronized void collect(final HeapStats STATS) {
+            for (Block block : BLOCKS) {
+                STATS.blocks++;
+                STATS.blockBytes += block.TLSF.capacity();
+                STATS.usedBytes += block.TLSF.used();
+                STATS.allocations += block.TLSF.allocations();
+                STATS.freeRegions += block.TLSF.freeRegions();
+                final long largest = block.TLSF.largestFree();
+                STATS.largestFree = Math.max(STATS.largestFree, largest);
+                STATS.contiguousBytes += largest;
+            }
+            STATS.dedicated += DEDICATED.size();
+            STATS.dedicatedBytes += dedicatedBytes;
+        }
+
+        private synchronized void close() {
+            closed = true;
+            for (Block block : BLOCKS) {
+                freeDevice(block.MEMORY);
+            }
+            BLOCKS.clear();
+            for (Allocation allocation : DEDICATED) {
+                freeDevice(allocation.MEMORY);
+            }
+            DEDICATED.clear();
+            dedicatedBytes = 0;
+        }
+
+        /**
+         * Block of device memory managed by a TLSF allocator.
+         */
+        private final class Block {
+
+            private final long MEMORY;
+
+            private final Tlsf TLSF;
+
+            /**
+             * Allocation of each used TLSF node.
+             */
+            private Allocation[] owners = new Allocation[64];
+
+            /**
+             * True once the block has been marked for evacuation.
+             */
+            private boolean evacuating;
+
+            private Block(final long MEMORY, final long SIZE) {
+                this.MEMORY = MEMORY;
+                this.TLSF = new Tlsf(SIZE);
+            }
+
+            private Allocation track(final int NODE, final Resource RESOURCE) {
+                if (NODE >= owners.length) {
+                    owners = Arrays.copyOf(owners, Math.max(owners.length << 1, NODE + 1));
+                }
+                final Allocation allocation = new Allocation(Pool.this, this, NODE, MEMORY, TLSF.offset(NODE), TLSF.size(NODE), RESOURCE);
+                owners[NODE] = allocation;
+                return allocation;
+            }
+        }
+    }
+
+    /**
+     * Range of device memory bound to a single resource.
+     */
+    public static final class Allocation {
+
+        private final Pool POOL;
+
+        private final Pool.Block BLOCK;
+
+        private final int NODE;
+
+        private final long MEMORY, OFFSET, SIZE;
+
+        private final Resource RESOURCE;
+
+        /**
+         * Guarded by the lock of the pool.
+         */
+        private boolean freed;
+
+        private Allocation(final Pool POOL, final Pool.Block BLOCK, final int NODE, final long MEMORY, final long OFFSET, final long SIZE, final Resource RESOURCE) {
+            this.POOL = POOL;
+            this.BLOCK = BLOCK;
+            this.NODE = NODE;
+            this.MEMORY = MEMORY;
+            this.OFFSET = OFFSET;
+            this.SIZE = SIZE;
+            this.RESOURCE = RESOURCE;
+        }
+
+        /**
+         * @return the handle of the VkDeviceMemory containing the allocation.
+         */
+        public final long getMemory() {
+            return MEMORY;
+        }
+
+        /**
+         * @return the offset of the allocation within its device memory.
+         */
+        public final long getOffset() {
+            return OFFSET;
+        }
+
+        /**
+         * @return the size of the allocation in bytes, which may exceed the
+         * requested size.
+         */
+        public final long getSize() {
+            return SIZE;
+        }
+
+        /**
+         * @return the index of the memory type of the allocation.
+         */
+        public final int getMemoryType() {
+            return POOL.TYPE;
+        }
+
+        /**
+         * @return the kind of resource bound to the allocation.
+         */
+        public final Resource getResource() {
+            return RESOURCE;
+        }
+
+        /**
+         * @return true if the allocation owns its device memory.
+         */
+        public final boolean isDedicated() {
+            return BLOCK == null;
+        }
+    }
+
+    /**
+     * Snapshot of the usage of a memory heap.
+     */
+    public static final class HeapStats {
+
+        private final int HEAP;
+
+        private final long HEAP_SIZE;
+
+        private int blocks, allocations, freeRegions, dedicated;
+
+        private long blockBytes, usedBytes, largestFree, dedicatedBytes;
+
+        /**
+         * Sum of the largest free region of each block.
+         */
+        private long contiguousBytes;
+
+        private HeapStats(final int HEAP, final long HEAP_SIZE) {
+            this.HEAP = HEAP;
+            this.HEAP_SIZE = HEAP_SIZE;
+        }
+
+        /**
+         * @return the index of the heap.
+         */
+        public final int getHeap() {
+            return HEAP;
+        }
+
+        /**
+         * @return the size of the heap in bytes.
+         */
+        public final long getHeapSize() {
+            return HEAP_SIZE;
+        }
+
+        /**
+         * @return the number of blocks allocated from the heap.
+         */
+        public final int getBlocks() {
+            return blocks;
+        }
+
+        /**
+         * @return the total size of the blocks in bytes.
+         */
+        public final long getBlockBytes() {
+            return blockBytes;
+        }
+
+        /**
+         * @return the number of bytes sub-allocated from the blocks.
+         */
+        public final long getUsedBytes() {
+            return usedBytes;
+        }
+
+        /**
+         * @return the number of sub-allocations in the blocks.
+         */
+        public final int getAllocations() {
+            return allocations;
+        }
+
+        /**
+         * @return the number of free regions in the blocks.
+         */
+        public final int getFreeRegions() {
+            return freeRegions;
+        }
+
+        /**
+         * @return the size in bytes of the largest free region of any block.
+         */
+        public final long getLargestFree() {
+            return largestFree;
+        }
+
+        /**
+         * @return the number of dedicated allocations.
+         */
+        public final int getDedicated() {
+            return dedicated;
+        }
+
+        /**
+         * @return the total size of the dedicated allocations in bytes.
+         */
+        public final long getDedicatedBytes() {
+            return dedicatedBytes;
+        }
+
+        /**
+         * @return the fraction of free block memory outside the largest free
+         * region of its block, between zero when the free memory of every
+         * block is contiguous and one for free memory scattered in tiny
+         * regions.
+         */
+        public final double getFragmentation() {
+            final long free = blockBytes - usedBytes;
+            return (free > 0) ? 1 - contiguousBytes / (double) free : 0;
+        }
+
+        @Override
+        public final String toString() {
+            return String.format("Heap %d: %d blocks, %d of %d bytes used in %d allocations, %d free regions, %.1f%% fragmented, %d dedicated (%d bytes)",
+                    HEAP, blocks, usedBytes, blockBytes, allocations, freeRegions, getFragmentation() * 100, dedicated, dedicatedBytes);
+        }
+    }
+
+    /**
+     * {@link RuntimeException Runtime Exception} thrown when device memory
+     * cannot be allocated because the heap or the device's allocation count
+     * is exhausted.
+     */
+    public static class OutOfDeviceMemoryException extends RuntimeException {
+
+        public OutOfDeviceMemoryException(final int TYPE, final long SIZE) {
+            super("Out of device memory allocating " + SIZE + " bytes of memory type " + TYPE);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package net.cybertekt.vulkan;
+
+/**
+ * Device Memory - (C) Cybertekt Software
+ *
+ * Source of the large blocks of device memory that the
+ * {@link DeviceAllocator device allocator} sub-allocates. Implemented on top
+ * of a Vulkan device by {@link VulkanDeviceMemory}, and by
+ * {@link SimulatedDeviceMemory} so that the allocator can be driven and
+ * measured without a GPU.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public interface DeviceMemory {
+
+    /**
+     * @return the number of memory types of the device.
+     */
+    public int getMemoryTypeCount();
+
+    /**
+     * @param TYPE the index of a memory type.
+     * @return the index of the heap from which the memory type allocates.
+     */
+    public int getHeapIndex(final int TYPE);
+
+    /**
+     * @return the number of memory heaps of the device.
+     */
+    public int getHeapCount();
+
+    /**
+     * @param HEAP the index of a memory heap.
+     * @return the size of the heap in bytes.
+     */
+    public long getHeapSize(final int HEAP);
+
+    /**
+     * @return the granularity in bytes at which linear and optimal resources
+     * bound to the same memory must not share a page.
+     */
+    public long getBufferImageGranularity();
+
+    /**
+     * @return the maximum number of simultaneously existing allocations.
+     */
+    public int getMaxAllocationCount();
+
+    /**
+     * Allocates a block of device memory.
+     *
+     * @param TYPE the index of the memory type.
+     * @param SIZE the size of the block in bytes.
+     * @return the handle of the block, or VK_NULL_HANDLE if the heap is
+     * exhausted.
+     */
+    public long allocate(final int TYPE, final long SIZE);
+
+    /**
+     * Frees a block of device memory.
+     *
+     * @param MEMORY the handle returned by {@link #allocate(int, long)}.
+     */
+    public void free(final long MEMORY);
+}
@@ -0,0 +1,78 @@
+package net.cybertekt.vulkan;
+
+/**
+ * Frame Arena - (C) Cybertekt Software
+ *
+ * Ring of {@link NativeArena native arenas}, one per frame in flight. Native
+ * memory allocated while recording a frame, such as submit and present info
+ * structs, stays valid until the same ring slot is reused, by which time the
+ * GPU has finished with the frame. Advancing to the next frame resets its
+ * arena in constant time without freeing any native memory.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class FrameArena implements AutoCloseable {
+
+    /**
+     * Arena of each frame in flight.
+     */
+    private final NativeArena[] ARENAS;
+
+    /**
+     * Index of the current frame's arena.
+     */
+    private int current;
+
+    /**
+     * Constructs a frame arena ring.
+     *
+     * @param FRAMES the number of frames in flight.
+     * @param BLOCK_SIZE the block size of each arena in bytes.
+     */
+    public FrameArena(final int FRAMES, final int BLOCK_SIZE) {
+        if (FRAMES <= 0) {
+            throw new IllegalArgumentException("Invalid frame count: " + FRAMES);
+        }
+        ARENAS = new NativeArena[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            ARENAS[i] = new NativeArena(BLOCK_SIZE);
+        }
+    }
+
+    /**
+     * Advances to the next frame and resets its arena. Must only be invoked
+     * once the frame previously recorded into that arena has completed.
+     *
+     * @return the arena of the new frame.
+     */
+    public final NativeArena next() {
+        current = (current + 1) % ARENAS.length;
+        ARENAS[current].reset();
+        return ARENAS[current];
+    }
+
+    /**
+     * @return the arena of the current frame.
+     */
+    public final NativeArena current() {
+        return ARENAS[current];
+    }
+
+    /**
+     * @return the number of frames in flight.
+     */
+    public final int frames() {
+        return ARENAS.length;
+    }
+
+    /**
+     * Frees the native memory of every frame's arena.
+     */
+    @Override
+    public final void close() {
+        for (NativeArena arena : ARENAS) {
+            arena.close();
+        }
+    }
+}
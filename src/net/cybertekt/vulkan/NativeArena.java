@@ -0,0 +1,406 @@
+package net.cybertekt.vulkan;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.function.LongFunction;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.system.Pointer;
+import org.lwjgl.system.Struct;
+
+/**
+ * Native Arena - (C) Cybertekt Software
+ *
+ * Bump allocator for short-lived native memory such as Vulkan create info
+ * structs, name strings and output handles. Memory is allocated from a chain
+ * of large native blocks by advancing an offset, and is never freed
+ * individually. Instead, every allocation made after {@link #push()} is
+ * released at once when the returned {@link Scope scope} is closed, which
+ * makes try-with-resources the only cleanup required on both the normal and
+ * the exception paths:
+ *
+ * <pre>
+ * try (NativeArena.Scope scope = NativeArena.scratch().push()) {
+ *     final NativeArena arena = scope.arena();
+ *     VkApplicationInfo info = arena.struct(VkApplicationInfo.SIZEOF, VkApplicationInfo.ALIGNOF, VkApplicationInfo::create);
+ *     info.pApplicationName(arena.utf8("Name"));
+ *     ...
+ * }
+ * </pre>
+ *
+ * Blocks are retained when a scope is closed or the arena is
+ * {@link #reset() reset}, so an arena that has warmed up allocates no further
+ * native memory. Pushing and closing scopes allocates no Java objects. An
+ * arena is confined to a single thread; {@link #scratch()} returns an arena
+ * per thread.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class NativeArena implements AutoCloseable {
+
+    /**
+     * Default size of a native block in bytes.
+     */
+    public static final int BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Default alignment of allocations in bytes, sufficient for any primitive
+     * type and pointer.
+     */
+    public static final int ALIGNMENT = 8;
+
+    /**
+     * Per-thread scratch arenas.
+     */
+    private static final ThreadLocal<NativeArena> SCRATCH = ThreadLocal.withInitial(NativeArena::new);
+
+    /**
+     * Size of newly chained blocks in bytes, unless a larger allocation
+     * requires a larger block.
+     */
+    private final int SIZE;
+
+    /**
+     * Addresses of the chained blocks.
+     */
+    private long[] blocks = new long[4];
+
+    /**
+     * Sizes of the chained blocks.
+     */
+    private int[] sizes = new int[4];
+
+    /**
+     * Number of chained blocks.
+     */
+    private int count;
+
+    /**
+     * Index of the block allocations are currently made from.
+     */
+    private int block;
+
+    /**
+     * Offset of the next allocation within the current block.
+     */
+    private int offset;
+
+    /**
+     * Scopes by nesting depth, created on first use and reused.
+     */
+    private Scope[] scopes = new Scope[8];
+
+    /**
+     * Number of open scopes.
+     */
+    private int depth;
+
+    /**
+     * True once the arena has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Constructs an arena with the {@link #BLOCK_SIZE default block size}.
+     */
+    public NativeArena() {
+        this(BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs an arena. No native memory is allocated until the first
+     * allocation.
+     *
+     * @param BLOCK_SIZE the size of each native block in bytes.
+     */
+    public NativeArena(final int BLOCK_SIZE) {
+        if (BLOCK_SIZE <= 0) {
+            throw new IllegalArgumentException("Invalid arena block size: " + BLOCK_SIZE);
+        }
+        this.SIZE = BLOCK_SIZE;
+    }
+
+    /**
+     * Returns the scratch arena of the calling thread. Scratch allocations
+     * must always be made within a {@link #push() scope}.
+     *
+     * @return the scratch arena of the calling thread.
+     */
+    public static NativeArena scratch() {
+        return SCRATCH.get();
+    }
+
+    /**
+     * Frees the native memory of the scratch arena of the calling thread.
+     * Threads that used their scratch arena should invoke this before they
+     * terminate.
+     */
+    public static void freeScratch() {
+        SCRATCH.get().close();
+        SCRATCH.remove();
+    }
+
+    /**
+     * Opens a scope. Every allocation made while the scope is open is
+     * released when it is closed. Scopes must be closed in the reverse order
+     * in which they were opened.
+     *
+     * @return the opened scope.
+     */
+    public final Scope push() {
+        checkOpen();
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        Scope scope = scopes[depth];
+        if (scope == null) {
+            scope = scopes[depth] = new Scope(depth);
+        }
+        scope.block = block;
+        scope.offset = offset;
+        depth++;
+        return scope;
+    }
+
+    /**
+     * Allocates uninitialized native memory.
+     *
+     * @param BYTES the size of the allocation in bytes.
+     * @param ALIGN the alignment of the allocation, a power of two.
+     * @return the address of the allocation.
+     */
+    public final long malloc(final int BYTES, final int ALIGN) {
+        checkOpen();
+        if (BYTES < 0 || Integer.bitCount(ALIGN) != 1) {
+            throw new IllegalArgumentException("Invalid arena allocation of " + BYTES + " bytes aligned to " + ALIGN);
+        }
+        while (true) {
+            if (block < count) {
+                final long base = blocks[block];
+                final long address = (base + offset + ALIGN - 1) & -ALIGN;
+                if (address + BYTES <= base + sizes[block]) {
+                    offset = (int) (address + BYTES - base);
+                    return address;
+                }
+                if (block + 1 < count && BYTES + ALIGN <= sizes[block + 1]) {
+                    block++;
+                    offset = 0;
+                    continue;
+                }
+            }
+            chain(Math.max(SIZE, BYTES + ALIGN));
+        }
+    }
+
+    /**
+     * Allocates zero-initialized native memory.
+     *
+     * @param BYTES the size of the allocation in bytes.
+     * @param ALIGN the alignment of the allocation, a power of two.
+     * @return the address of the allocation.
+     */
+    public final long calloc(final int BYTES, final int ALIGN) {
+        final long address = malloc(BYTES, ALIGN);
+        MemoryUtil.memSet(address, 0, BYTES);
+        return address;
+    }
+
+    /**
+     * Allocates a zero-initialized buffer.
+     *
+     * @param BYTES the size of the buffer in bytes.
+     * @return the buffer.
+     */
+    public final ByteBuffer bytes(final int BYTES) {
+        return MemoryUtil.memByteBuffer(calloc(BYTES, ALIGNMENT), BYTES);
+    }
+
+    /**
+     * Allocates a zero-initialized int buffer.
+     *
+     * @param COUNT the number of ints.
+     * @return the buffer.
+     */
+    public final IntBuffer ints(final int COUNT) {
+        return MemoryUtil.memIntBuffer(calloc(bytes(COUNT, Integer.BYTES), Integer.BYTES), COUNT);
+    }
+
+    /**
+     * Allocates a zero-initialized long buffer, for example to receive
+     * non-dispatchable Vulkan handles.
+     *
+     * @param COUNT the number of longs.
+     * @return the buffer.
+     */
+    public final LongBuffer longs(final int COUNT) {
+        return MemoryUtil.memLongBuffer(calloc(bytes(COUNT, Long.BYTES), Long.BYTES), COUNT);
+    }
+
+    /**
+     * Allocates a zero-initialized pointer buffer.
+     *
+     * @param COUNT the number of pointers.
+     * @return the buffer.
+     */
+    public final PointerBuffer pointers(final int COUNT) {
+        return PointerBuffer.create(calloc(bytes(COUNT, Pointer.POINTER_SIZE), Pointer.POINTER_SIZE), COUNT);
+    }
+
+    /**
+     * Encodes text as a null-terminated UTF-8 string.
+     *
+     * @param TEXT the text to encode.
+     * @return a buffer containing the encoded text, including the null
+     * terminator.
+     */
+    public final ByteBuffer utf8(final CharSequence TEXT) {
+        final int length = MemoryUtil.memLengthUTF8(TEXT, true);
+        final ByteBuffer buffer = MemoryUtil.memByteBuffer(malloc(length, 1), length);
+        MemoryUtil.memUTF8(TEXT, true, buffer);
+        return buffer;
+    }
+
+    /**
+     * Allocates a zero-initialized struct.
+     *
+     * @param <T> the type of struct.
+     * @param SIZEOF the size of the struct, the SIZEOF constant of the struct
+     * class.
+     * @param ALIGNOF the alignment of the struct, the ALIGNOF constant of the
+     * struct class.
+     * @param FACTORY creates a struct instance at an address, the create(long)
+     * method of the struct class.
+     * @return the struct.
+     */
+    public final <T extends Struct> T struct(final int SIZEOF, final int ALIGNOF, final LongFunction<T> FACTORY) {
+        return FACTORY.apply(calloc(SIZEOF, ALIGNOF));
+    }
+
+    /**
+     * Releases every allocation, retaining the native blocks for reuse. Any
+     * open scopes are discarded.
+     */
+    public final void reset() {
+        checkOpen();
+        block = 0;
+        offset = 0;
+        depth = 0;
+    }
+
+    /**
+     * @return the total size of the native blocks in bytes.
+     */
+    public final long capacity() {
+        long capacity = 0;
+        for (int i = 0; i < count; i++) {
+            capacity += sizes[i];
+        }
+        return capacity;
+    }
+
+    /**
+     * @return the number of bytes currently allocated, including alignment
+     * padding and the unused tails of filled blocks.
+     */
+    public final long used() {
+        long used = offset;
+        for (int i = 0; i < block && i < count; i++) {
+            used += sizes[i];
+        }
+        return used;
+    }
+
+    /**
+     * Frees every native block. The arena must not be used afterwards.
+     */
+    @Override
+    public final void close() {
+        if (!closed) {
+            closed = true;
+            for (int i = 0; i < count; i++) {
+                MemoryUtil.nmemFree(blocks[i]);
+            }
+            count = 0;
+        }
+    }
+
+    /**
+     * Inserts a new block after the current block and makes it current.
+     */
+    private void chain(final int BYTES) {
+        final long address = MemoryUtil.nmemAlloc(BYTES);
+        if (address == MemoryUtil.NULL) {
+            throw new OutOfMemoryError("Unable to allocate native arena block of " + BYTES + " bytes");
+        }
+        if (count == blocks.length) {
+            blocks = Arrays.copyOf(blocks, count * 2);
+            sizes = Arrays.copyOf(sizes, count * 2);
+        }
+        final int index = (count == 0) ? 0 : block + 1;
+        System.arraycopy(blocks, index, blocks, index + 1, count - index);
+        System.arraycopy(sizes, index, sizes, index + 1, count - index);
+        blocks[index] = address;
+        sizes[index] = BYTES;
+        count++;
+        block = index;
+        offset = 0;
+    }
+
+    /**
+     * Computes the size of an array allocation, rejecting counts whose size
+     * would overflow an int.
+     */
+    private static int bytes(final int COUNT, final int SIZE) {
+        if (COUNT < 0 || COUNT > Integer.MAX_VALUE / SIZE) {
+            throw new IllegalArgumentException("Invalid arena allocation of " + COUNT + " elements of " + SIZE + " bytes");
+        }
+        return COUNT * SIZE;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Native arena has been closed");
+        }
+    }
+
+    /**
+     * Open scope of a {@link NativeArena native arena}. Closing the scope
+     * releases every allocation made since it was opened.
+     */
+    public final class Scope implements AutoCloseable {
+
+        /**
+         * Nesting depth of the scope.
+         */
+        private final int DEPTH;
+
+        /**
+         * Position of the arena when the scope was opened.
+         */
+        private int block, offset;
+
+        private Scope(final int DEPTH) {
+            this.DEPTH = DEPTH;
+        }
+
+        /**
+         * @return the arena of the scope.
+         */
+        public final NativeArena arena() {
+            return NativeArena.this;
+        }
+
+        @Override
+        public final void close() {
+            if (depth != DEPTH + 1) {
+                throw new IllegalStateException("Native arena scopes must be closed in reverse order");
+            }
+            depth--;
+            NativeArena.this.block = block;
+            NativeArena.this.offset = offset;
+        }
+    }
+}
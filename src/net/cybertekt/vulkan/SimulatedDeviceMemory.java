@@ -0,0 +1,154 @@
+package net.cybertekt.vulkan;
+
+import java.util.HashMap;
+import java.util.Map;
+import static org.lwjgl.vulkan.VK10.VK_NULL_HANDLE;
+
+/**
+ * Simulated Device Memory - (C) Cybertekt Software
+ *
+ * {@link DeviceMemory Device memory} backed by nothing but bookkeeping. Heaps
+ * have a fixed capacity, the number of simultaneous allocations is capped like
+ * on a real device, and handles are opaque non-zero values, so that the
+ * {@link DeviceAllocator device allocator} can be stress tested and
+ * benchmarked without a GPU.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class SimulatedDeviceMemory implements DeviceMemory {
+
+    /**
+     * Allocation cap commonly reported by desktop drivers.
+     */
+    public static final int DEFAULT_MAX_ALLOCATIONS = 4096;
+
+    /**
+     * Capacity of each heap in bytes.
+     */
+    private final long[] HEAP_SIZES;
+
+    /**
+     * Heap of each memory type.
+     */
+    private final int[] TYPE_HEAPS;
+
+    private final long GRANULARITY;
+
+    private final int MAX_ALLOCATIONS;
+
+    /**
+     * Heap and size of each live allocation by handle.
+     */
+    private final Map<Long, long[]> ALLOCATIONS = new HashMap<>();
+
+    /**
+     * Bytes allocated from each heap.
+     */
+    private final long[] USED;
+
+    /**
+     * Next handle.
+     */
+    private long handle = 0x1000;
+
+    /**
+     * Constructs a device with a single memory type backed by a single heap.
+     *
+     * @param HEAP_SIZE the capacity of the heap in bytes.
+     * @param GRANULARITY the buffer-image granularity in bytes.
+     */
+    public SimulatedDeviceMemory(final long HEAP_SIZE, final long GRANULARITY) {
+        this(new long[]{HEAP_SIZE}, new int[]{0}, GRANULARITY, DEFAULT_MAX_ALLOCATIONS);
+    }
+
+    /**
+     * Constructs a device.
+     *
+     * @param HEAP_SIZES the capacity of each heap in bytes.
+     * @param TYPE_HEAPS the heap index of each memory type.
+     * @param GRANULARITY the buffer-image granularity in bytes.
+     * @param MAX_ALLOCATIONS the maximum number of simultaneous allocations.
+     */
+    public SimulatedDeviceMemory(final long[] HEAP_SIZES, final int[] TYPE_HEAPS, final long GRANULARITY, final int MAX_ALLOCATIONS) {
+        for (int heap : TYPE_HEAPS) {
+            if (heap < 0 || heap >= HEAP_SIZES.length) {
+                throw new IllegalArgumentException("Invalid heap index: " + heap);
+            }
+        }
+        this.HEAP_SIZES = HEAP_SIZES.clone();
+        this.TYPE_HEAPS = TYPE_HEAPS.clone();
+        this.GRANULARITY = GRANULARITY;
+        this.MAX_ALLOCATIONS = MAX_ALLOCATIONS;
+        this.USED = new long[HEAP_SIZES.length];
+    }
+
+    @Override
+    public final int getMemoryTypeCount() {
+        return TYPE_HEAPS.length;
+    }
+
+    @Override
+    public final int getHeapIndex(final int TYPE) {
+        return TYPE_HEAPS[TYPE];
+    }
+
+    @Override
+    public final int getHeapCount() {
+        return HEAP_SIZES.length;
+    }
+
+    @Override
+    public final long getHeapSize(final int HEAP) {
+        return HEAP_SIZES[HEAP];
+    }
+
+    @Override
+    public final long getBufferImageGranularity() {
+        return GRANULARITY;
+    }
+
+    @Override
+    public final int getMaxAllocationCount() {
+        return MAX_ALLOCATIONS;
+    }
+
+    @Override
+    public final synchronized long allocate(final int TYPE, final long SIZE) {
+        final int heap = TYPE_HEAPS[TYPE];
+        if (ALLOCATIONS.size() >= MAX_ALLOCATIONS) {
+            throw new IllegalStateException("Device allocation count exceeded: " + MAX_ALLOCATIONS);
+        }
+        if (USED[heap] + SIZE > HEAP_SIZES[heap]) {
+            return VK_NULL_HANDLE;
+        }
+        USED[heap] += SIZE;
+        final long memory = handle++;
+        ALLOCATIONS.put(memory, new long[]{heap, SIZE});
+        return memory;
+    }
+
+    @Override
+    public final synchronized void free(final long MEMORY) {
+        final long[] allocation = ALLOCATIONS.remove(MEMORY);
+        if (allocation == null) {
+            throw new IllegalArgumentException("Unknown device memory: " + MEMORY);
+        }
+        USED[(int) allocation[0]] -= allocation[1];
+    }
+
+    /**
+     * @return the number of live device allocations.
+     */
+    public final synchronized int getAllocationCount() {
+        return ALLOCATIONS.size();
+    }
+
+    /**
+     * @param HEAP the index of a memory heap.
+     * @return the number of bytes allocated from the heap.
+     */
+    public final synchronized long getHeapUsage(final int HEAP) {
+        return USED[HEAP];
+    }
+}
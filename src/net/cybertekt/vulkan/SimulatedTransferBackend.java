@@ -0,0 +1,250 @@
+package net.cybertekt.vulkan;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Simulated Transfer Backend - (C) Cybertekt Software
+ *
+ * {@link TransferBackend Transfer backend} that executes copies on the CPU
+ * into simulated buffers and images. Copies read the staging memory only when
+ * their submission completes, as a GPU would, so that a staging region
+ * recycled before its fence was signaled corrupts the destination and is
+ * detected. Submissions complete after a configurable number of later
+ * submissions, when explicitly {@link #complete(int) completed}, or when
+ * awaited.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class SimulatedTransferBackend implements TransferBackend {
+
+    /**
+     * Number of later submissions after which a submission completes, or -1
+     * to complete submissions only explicitly.
+     */
+    private final int LATENCY;
+
+    /**
+     * Contents of the simulated buffers by handle.
+     */
+    private final Map<Long, ByteBuffer> BUFFERS = new HashMap<>();
+
+    /**
+     * Contents of the simulated image subresources by image, mip level and
+     * array layer.
+     */
+    private final Map<Long, byte[]> IMAGES = new HashMap<>();
+
+    /**
+     * Copies recorded since the last submission. Each command holds its kind,
+     * destination, region count and regions.
+     */
+    private final List<long[]> RECORDED = new ArrayList<>();
+
+    /**
+     * Submitted copies awaiting completion, in submission order.
+     */
+    private final ArrayDeque<List<long[]>> SUBMITTED = new ArrayDeque<>();
+
+    private ByteBuffer staging;
+
+    private long handle = 1, submitted, completed;
+
+    // Statistics \\
+    private long bufferCommands, bufferRegions, imageCommands, imageRegions;
+
+    /**
+     * Constructs a backend whose submissions complete only explicitly.
+     */
+    public SimulatedTransferBackend() {
+        this(-1);
+    }
+
+    /**
+     * Constructs a backend whose submissions complete automatically.
+     *
+     * @param LATENCY the number of later submissions after which a submission
+     * completes, or -1 to complete submissions only explicitly.
+     */
+    public SimulatedTransferBackend(final int LATENCY) {
+        this.LATENCY = LATENCY;
+    }
+
+    /**
+     * Creates a simulated buffer.
+     *
+     * @param SIZE the size of the buffer in bytes.
+     * @return the handle of the buffer.
+     */
+    public final long createBuffer(final int SIZE) {
+        final long buffer = handle++;
+        BUFFERS.put(buffer, ByteBuffer.allocate(SIZE));
+        return buffer;
+    }
+
+    /**
+     * @param BUFFER the handle of a simulated buffer.
+     * @return the contents of the buffer.
+     */
+    public final ByteBuffer getBuffer(final long BUFFER) {
+        return BUFFERS.get(BUFFER);
+    }
+
+    /**
+     * Creates a simulated image.
+     *
+     * @return the handle of the image.
+     */
+    public final long createImage() {
+        return handle++;
+    }
+
+    /**
+     * @param IMAGE the handle of a simulated image.
+     * @param MIP the mip level.
+     * @param LAYER the array layer.
+     * @return the contents of the subresource, or null if it was never
+     * written.
+     */
+    public final byte[] getImage(final long IMAGE, final int MIP, final int LAYER) {
+        return IMAGES.get(subresource(IMAGE, MIP, LAYER));
+    }
+
+    @Override
+    public final ByteBuffer createStaging(final int SIZE) {
+        staging = MemoryUtil.memAlloc(SIZE);
+        return staging;
+    }
+
+    @Override
+    public final void destroyStaging() {
+        if (!SUBMITTED.isEmpty()) {
+            throw new IllegalStateException("Staging buffer destroyed with " + SUBMITTED.size() + " submissions in flight");
+        }
+        MemoryUtil.memFree(staging);
+        staging = null;
+    }
+
+    @Override
+    public final void copyBuffer(final long DST, final long[] REGIONS, final int COUNT) {
+        record(0, DST, REGIONS, COUNT * BUFFER_REGION);
+        bufferCommands++;
+        bufferRegions += COUNT;
+    }
+
+    @Override
+    public final void copyImage(final long DST, final long[] REGIONS, final int COUNT) {
+        record(1, DST, REGIONS, COUNT * IMAGE_REGION);
+        imageCommands++;
+        imageRegions += COUNT;
+    }
+
+    @Override
+    public final long submit() {
+        SUBMITTED.add(new ArrayList<>(RECORDED));
+        RECORDED.clear();
+        submitted++;
+        if (LATENCY >= 0) {
+            complete((int) (submitted - completed - LATENCY));
+        }
+        return submitted;
+    }
+
+    @Override
+    public final boolean isComplete(final long FENCE) {
+        return FENCE <= completed;
+    }
+
+    @Override
+    public final void await(final long FENCE) {
+        complete((int) (FENCE - completed));
+    }
+
+    /**
+     * Completes the oldest submissions, executing their copies.
+     *
+     * @param COUNT the number of submissions to complete.
+     */
+    public final void complete(final int COUNT) {
+        for (int i = 0; i < COUNT && !SUBMITTED.isEmpty(); i++) {
+            for (long[] command : SUBMITTED.poll()) {
+                execute(command);
+            }
+            completed++;
+        }
+    }
+
+    /**
+     * @return the number of submissions that have not completed.
+     */
+    public final int getInFlight() {
+        return SUBMITTED.size();
+    }
+
+    /**
+     * @return the number of buffer copy commands recorded.
+     */
+    public final long getBufferCommands() {
+        return bufferCommands;
+    }
+
+    /**
+     * @return the number of buffer copy regions recorded.
+     */
+    public final long getBufferRegions() {
+        return bufferRegions;
+    }
+
+    /**
+     * @return the number of image copy commands recorded.
+     */
+    public final long getImageCommands() {
+        return imageCommands;
+    }
+
+    /**
+     * @return the number of image copy regions recorded.
+     */
+    public final long getImageRegions() {
+        return imageRegions;
+    }
+
+    private void record(final int KIND, final long DST, final long[] REGIONS, final int VALUES) {
+        final long[] command = new long[2 + VALUES];
+        command[0] = KIND;
+        command[1] = DST;
+        System.arraycopy(REGIONS, 0, command, 2, VALUES);
+        RECORDED.add(command);
+    }
+
+    private void execute(final long[] COMMAND) {
+        if (COMMAND[0] == 0) {
+            final ByteBuffer dst = BUFFERS.get(COMMAND[1]);
+            for (int i = 2; i < COMMAND.length; i += BUFFER_REGION) {
+                final ByteBuffer src = staging.duplicate();
+                src.limit((int) (COMMAND[i] + COMMAND[i + 2])).position((int) COMMAND[i]);
+                final ByteBuffer target = dst.duplicate();
+                target.position((int) COMMAND[i + 1]);
+                target.put(src);
+            }
+        } else {
+            for (int i = 2; i < COMMAND.length; i += IMAGE_REGION) {
+                final byte[] texels = new byte[(int) COMMAND[i + 1]];
+                final ByteBuffer src = staging.duplicate();
+                src.position((int) COMMAND[i]);
+                src.get(texels);
+                IMAGES.put(subresource(COMMAND[1], (int) COMMAND[i + 2], (int) COMMAND[i + 3]), texels);
+            }
+        }
+    }
+
+    private static long subresource(final long IMAGE, final int MIP, final int LAYER) {
+        return (IMAGE << 24) | ((long) MIP << 16) | LAYER;
+    }
+}
@@ -0,0 +1,471 @@
+package net.cybertekt.vulkan;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Staging Ring - (C) Cybertekt Software
+ *
+ * Persistent ring allocator over a single host-visible staging buffer through
+ * which asset data is uploaded to the GPU. Uploads are packed back to back into
+ * the ring and recorded as copy regions. {@link #flush() Flushing}, typically
+ * once per frame, coalesces the recorded regions into one copy command per
+ * destination, merging regions that are contiguous in both the staging buffer
+ * and the destination, and submits them with a fence.
+ *
+ * Each submission owns the span of the ring written since the previous
+ * submission. A span is recycled only once its fence has been signaled, so
+ * data is never overwritten while the GPU may still read it. When the ring is
+ * full the oldest submission is awaited; the {@link #getStalls() stall count}
+ * indicates that the ring is too small for the upload rate.
+ *
+ * -Not synchronized. The ring is owned by the thread that records transfers.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class StagingRing implements AutoCloseable {
+
+    /**
+     * Alignment of buffer uploads in the staging buffer.
+     */
+    public static final int BUFFER_ALIGNMENT = 4;
+
+    /**
+     * Default alignment of image uploads in the staging buffer, a multiple of
+     * 4 and of every power of two texel or compressed block size. Formats
+     * with 3, 6 or 12 byte texels are reserved with the alignment given by
+     * {@link #getImageAlignment(int)} instead.
+     */
+    public static final int IMAGE_ALIGNMENT = 16;
+
+    /**
+     * Largest supported alignment. The ring size must be a multiple of it.
+     */
+    public static final int MAX_ALIGNMENT = 256;
+
+    /**
+     * Values per recorded buffer copy: destination, source offset, destination
+     * offset and size.
+     */
+    private static final int BUFFER_RECORD = 4;
+
+    /**
+     * Values per recorded image copy: destination followed by the
+     * {@link TransferBackend#IMAGE_REGION image region}.
+     */
+    private static final int IMAGE_RECORD = 1 + TransferBackend.IMAGE_REGION;
+
+    private final TransferBackend BACKEND;
+
+    /**
+     * Mapped staging memory.
+     */
+    private final ByteBuffer STAGING;
+
+    /**
+     * Address of the mapped staging memory.
+     */
+    private final long ADDRESS;
+
+    /**
+     * Size of the ring in bytes.
+     */
+    private final int SIZE;
+
+    /**
+     * Monotonic byte positions of the next write and of the oldest byte that
+     * may still be read by the GPU. The ring offset of a position is the
+     * position modulo the ring size.
+     */
+    private long head, tail;
+
+    /**
+     * In flight submissions in order: fence and ring position at which the
+     * span of the submission ends.
+     */
+    private long[] fences = new long[8], ends = new long[8];
+
+    private int first, inFlight;
+
+    /**
+     * Fence of the most recent submission.
+     */
+    private long lastFence;
+
+    /**
+     * Recorded copies awaiting the next flush.
+     */
+    private long[] bufferCopies = new long[BUFFER_RECORD * 64], imageCopies = new long[IMAGE_RECORD * 16];
+
+    private int bufferCount, imageCount;
+
+    /**
+     * Scratch state used to group copies by destination when flushing.
+     */
+    private final Map<Long, Integer> DESTINATIONS = new HashMap<>();
+
+    private long[] keys = new long[64], regions = new long[TransferBackend.IMAGE_REGION * 64];
+
+    // Statistics \\
+    private long uploads, bytes, submissions, commands, stalls;
+
+    /**
+     * Constructs a staging ring.
+     *
+     * @param BACKEND the backend providing the staging buffer and executing
+     * the copies.
+     * @param SIZE the size of the ring in bytes, a multiple of
+     * {@link #MAX_ALIGNMENT}.
+     */
+    public StagingRing(final TransferBackend BACKEND, final int SIZE) {
+        if (SIZE <= 0 || SIZE % MAX_ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Invalid staging ring size: " + SIZE);
+        }
+        this.BACKEND = BACKEND;
+        this.SIZE = SIZE;
+        this.STAGING = BACKEND.createStaging(SIZE);
+        this.ADDRESS = MemoryUtil.memAddress(STAGING, 0);
+    }
+
+    /**
+     * Uploads data into a buffer. Data larger than a quarter of the ring is
+     * split into several regions so that it streams through the ring.
+     *
+     * @param DST the destination buffer.
+     * @param DST_OFFSET the offset in the destination buffer.
+     * @param DATA the data between its position and limit. The position is
+     * not modified.
+     */
+    public final void upload(final long DST, final long DST_OFFSET, final ByteBuffer DATA) {
+        final long source = MemoryUtil.memAddress(DATA);
+        final int total = DATA.remaining(), chunk = Math.max(SIZE / 4, BUFFER_ALIGNMENT);
+        for (int done = 0; done < total; done += chunk) {
+            final int size = Math.min(chunk, total - done);
+            final int offset = reserve(size, BUFFER_ALIGNMENT);
+            MemoryUtil.memCopy(source + done, ADDRESS + offset, size);
+            recordBuffer(DST, offset, DST_OFFSET + done, size);
+        }
+    }
+
+    /**
+     * Reserves staging memory for a buffer upload that the caller writes
+     * directly, for example by decoding into it. The memory must be written
+     * before the next reservation or {@link #flush()}, either of which may
+     * submit the upload.
+     *
+     * @param DST the destination buffer.
+     * @param DST_OFFSET the offset in the destination buffer.
+     * @param SIZE the size of the upload in bytes, at most the ring size.
+     * @return a view of the reserved staging memory.
+     */
+    public final ByteBuffer reserveBuffer(final long DST, final long DST_OFFSET, final int SIZE) {
+        final int offset = reserve(SIZE, BUFFER_ALIGNMENT);
+        recordBuffer(DST, offset, DST_OFFSET, SIZE);
+        return MemoryUtil.memByteBuffer(ADDRESS + offset, SIZE);
+    }
+
+    /**
+     * Uploads an entire subresource of an image, aligned to
+     * {@link #IMAGE_ALIGNMENT}.
+     *
+     * @param DST the destination image.
+     * @param MIP the mip level.
+     * @param LAYER the array layer.
+     * @param WIDTH the width of the mip level in texels.
+     * @param HEIGHT the height of the mip level in texels.
+     * @param DATA the texel data between its position and limit, at most the
+     * ring size. The position is not modified.
+     */
+    public final void upload(final long DST, final int MIP, final int LAYER, final int WIDTH, final int HEIGHT, final ByteBuffer DATA) {
+        final int size = DATA.remaining();
+        final int offset = reserve(size, IMAGE_ALIGNMENT);
+        MemoryUtil.memCopy(MemoryUtil.memAddress(DATA), ADDRESS + offset, size);
+        recordImage(DST, offset, size, MIP, LAYER, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Reserves staging memory for an image subresource upload that the caller
+     * writes directly. The memory must be written before the next
+     * reservation or {@link #flush()}, either of which may submit the upload.
+     *
+     * @param DST the destination image.
+     * @param MIP the mip level.
+     * @param LAYER the array layer.
+     * @param WIDTH the width of the mip level in texels.
+     * @param HEIGHT the height of the mip level in texels.
+     * @param SIZE the size of the texel data in bytes, at most the ring size.
+     * @param ALIGNMENT the alignment of the texel data given by
+     * {@link #getImageAlignment(int)}, at most {@link #MAX_ALIGNMENT}.
+     * @return a view of the reserved staging memory.
+     */
+    public final ByteBuffer reserveImage(final long DST, final int MIP, final int LAYER, final int WIDTH, final int HEIGHT, final int SIZE, final int ALIGNMENT) {
+        final int offset = reserve(SIZE, ALIGNMENT);
+        recordImage(DST, offset, SIZE, MIP, LAYER, WIDTH, HEIGHT);
+        return MemoryUtil.memByteBuffer(ADDRESS + offset, SIZE);
+    }
+
+    /**
+     * Computes the alignment of image data in the staging buffer, which must
+     * be a multiple of both the texel size and 4.
+     *
+     * @param TEXEL_SIZE the size of a texel, or of a block of a block
+     * compressed format, in bytes.
+     * @return the least common multiple of the texel size and 4.
+     */
+    public static int getImageAlignment(final int TEXEL_SIZE) {
+        if (TEXEL_SIZE <= 0 || TEXEL_SIZE > MAX_ALIGNMENT) {
+            throw new IllegalArgumentException("Invalid texel size: " + TEXEL_SIZE);
+        }
+        return TEXEL_SIZE * 4 / Math.min(Integer.lowestOneBit(TEXEL_SIZE), 4);
+    }
+
+    /**
+     * Records the batched copy commands of every upload since the previous
+     * flush and submits them.
+     *
+     * @return the fence signaled once the uploads have completed, or the
+     * fence of the previous submission if there was nothing to upload.
+     */
+    public final long flush() {
+        if (bufferCount == 0 && imageCount == 0) {
+            return lastFence;
+        }
+        emit(bufferCopies, bufferCount, BUFFER_RECORD, true);
+        emit(imageCopies, imageCount, IMAGE_RECORD, false);
+        bufferCount = imageCount = 0;
+
+        lastFence = BACKEND.submit();
+        submissions++;
+        if (inFlight == fences.length) {
+            fences = unwrap(fences);
+            ends = unwrap(ends);
+            first = 0;
+        }
+        final int slot = (first + inFlight++) % fences.length;
+        fences[slot] = lastFence;
+        ends[slot] = head;
+        return lastFence;
+    }
+
+    /**
+     * Recycles the ring spans of every completed submission. Invoked
+     * automatically when the ring is full.
+     *
+     * @return the number of submissions retired.
+     */
+    public final int retire() {
+        int retired = 0;
+        while (inFlight > 0 && BACKEND.isComplete(fences[first])) {
+            tail = ends[first];
+            first = (first + 1) % fences.length;
+            inFlight--;
+            retired++;
+        }
+        return retired;
+    }
+
+    /**
+     * @return the number of bytes of the ring in use by recorded or in flight
+     * uploads.
+     */
+    public final long getBytesInUse() {
+        return head - tail;
+    }
+
+    /**
+     * @return the size of the ring in bytes.
+     */
+    public final int getSize() {
+        return SIZE;
+    }
+
+    /**
+     * @return the number of uploads recorded.
+     */
+    public final long getUploads() {
+        return uploads;
+    }
+
+    /**
+     * @return the number of bytes uploaded.
+     */
+    public final long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of submissions.
+     */
+    public final long getSubmissions() {
+        return submissions;
+    }
+
+    /**
+     * @return the number of copy commands recorded after coalescing.
+     */
+    public final long getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return the number of times an upload had to wait for the GPU because
+     * the ring was full.
+     */
+    public final long getStalls() {
+        return stalls;
+    }
+
+    /**
+     * Submits any remaining uploads, waits for every submission to complete
+     * and destroys the staging buffer.
+     */
+    @Override
+    public final void close() {
+        flush();
+        if (inFlight > 0) {
+            BACKEND.await(lastFence);
+        }
+        inFlight = 0;
+        tail = head;
+        BACKEND.destroyStaging();
+    }
+
+    /**
+     * Reserves a span of the ring, wrapping to its start if the span does not
+     * fit before its end, and waiting for the oldest submission while the
+     * ring is full.
+     *
+     * @return the ring offset of the span.
+     */
+    private int reserve(final int BYTES, final int ALIGNMENT) {
+        if (BYTES <= 0 || BYTES > SIZE) {
+            throw new IllegalArgumentException("Invalid upload size: " + BYTES + " (ring size " + SIZE + ")");
+        }
+        if (ALIGNMENT <= 0 || ALIGNMENT > MAX_ALIGNMENT) {
+            throw new IllegalArgumentException("Invalid upload alignment: " + ALIGNMENT);
+        }
+        while (true) {
+            // Align The Ring Offset - 3, 6 And 12 Byte Texels Align To 12 Bytes \\
+            final int start = (int) (head % SIZE);
+            final int aligned = (start + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+            final long position = head - start + ((aligned + BYTES > SIZE) ? SIZE : aligned);
+            if (position + BYTES - tail <= SIZE) {
+                head = position + BYTES;
+                uploads++;
+                bytes += BYTES;
+                return (int) (position % SIZE);
+            }
+
+            // Ring Full - Submit The Current Batch And Wait For The Oldest \\
+            if (retire() > 0) {
+                continue;
+            }
+            if (inFlight == 0) {
+                flush();
+            }
+            if (inFlight == 0) {
+                // Ring Is Empty But The Span Straddles Its End - Restart At Zero \\
+                head = tail = head - (head % SIZE) + SIZE;
+                continue;
+            }
+            stalls++;
+            BACKEND.await(fences[first]);
+            retire();
+        }
+    }
+
+    private void recordBuffer(final long DST, final int SRC_OFFSET, final long DST_OFFSET, final int SIZE) {
+        // Extend The Previous Copy When Both Ranges Are Contiguous \\
+        if (bufferCount > 0) {
+            final int last = (bufferCount - 1) * BUFFER_RECORD;
+            if (bufferCopies[last] == DST && bufferCopies[last + 1] + bufferCopies[last + 3] == SRC_OFFSET && bufferCopies[last + 2] + bufferCopies[last + 3] == DST_OFFSET) {
+                bufferCopies[last + 3] += SIZE;
+                return;
+            }
+        }
+        if ((bufferCount + 1) * BUFFER_RECORD > bufferCopies.length) {
+            bufferCopies = Arrays.copyOf(bufferCopies, bufferCopies.length << 1);
+        }
+        final int record = bufferCount++ * BUFFER_RECORD;
+        bufferCopies[record] = DST;
+        bufferCopies[record + 1] = SRC_OFFSET;
+        bufferCopies[record + 2] = DST_OFFSET;
+        bufferCopies[record + 3] = SIZE;
+    }
+
+    private void recordImage(final long DST, final int SRC_OFFSET, final int SIZE, final int MIP, final int LAYER, final int WIDTH, final int HEIGHT) {
+        if ((imageCount + 1) * IMAGE_RECORD > imageCopies.length) {
+            imageCopies = Arrays.copyOf(imageCopies, imageCopies.length << 1);
+        }
+        final int record = imageCount++ * IMAGE_RECORD;
+        imageCopies[record] = DST;
+        imageCopies[record + 1] = SRC_OFFSET;
+        imageCopies[record + 2] = SIZE;
+        imageCopies[record + 3] = MIP;
+        imageCopies[record + 4] = LAYER;
+        imageCopies[record + 5] = WIDTH;
+        imageCopies[record + 6] = HEIGHT;
+    }
+
+    /**
+     * Emits one copy command per destination, in order of first use. Buffer
+     * regions that are contiguous in the staging buffer and the destination
+     * are merged.
+     */
+    private void emit(final long[] RECORDS, final int COUNT, final int STRIDE, final boolean BUFFER) {
+        if (COUNT == 0) {
+            return;
+        }
+
+        // Sort Records By Destination, Preserving Their Order Within Each \\
+        if (keys.length < COUNT) {
+            keys = new long[Math.max(COUNT, keys.length << 1)];
+        }
+        for (int i = 0; i < COUNT; i++) {
+            Integer id = DESTINATIONS.get(RECORDS[i * STRIDE]);
+            if (id == null) {
+                DESTINATIONS.put(RECORDS[i * STRIDE], id = DESTINATIONS.size());
+            }
+            keys[i] = ((long) id << 32) | i;
+        }
+        DESTINATIONS.clear();
+        Arrays.sort(keys, 0, COUNT);
+
+        final int values = STRIDE - 1;
+        if (regions.length < COUNT * values) {
+            regions = new long[Math.max(COUNT * values, regions.length << 1)];
+        }
+        int count = 0;
+        for (int k = 0; k < COUNT; k++) {
+            final int record = (int) keys[k] * STRIDE;
+            final int region = count * values;
+            if (BUFFER && count > 0 && regions[region - 3] + regions[region - 1] == RECORDS[record + 1] && regions[region - 2] + regions[region - 1] == RECORDS[record + 2]) {
+                regions[region - 1] += RECORDS[record + 3];
+            } else {
+                System.arraycopy(RECORDS, record + 1, regions, region, values);
+                count++;
+            }
+            if (k + 1 == COUNT || (keys[k + 1] >>> 32) != (keys[k] >>> 32)) {
+                if (BUFFER) {
+                    BACKEND.copyBuffer(RECORDS[record], regions, count);
+                } else {
+                    BACKEND.copyImage(RECORDS[record], regions, count);
+                }
+                commands++;
+                count = 0;
+            }
+        }
+    }
+
+    private long[] unwrap(final long[] QUEUE) {
+        final long[] grown = new long[QUEUE.length << 1];
+        for (int i = 0; i < inFlight; i++) {
+            grown[i] = QUEUE[(first + i) % QUEUE.length];
+        }
+        return grown;
+    }
+}
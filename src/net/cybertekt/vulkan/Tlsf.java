@@ -0,0 +1,429 @@
+package net.cybertekt.vulkan;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Tlsf - (C) Cybertekt Software
+ *
+ * Two-level segregated fit allocator over an abstract range of offsets, used
+ * to sub-allocate a single block of device memory. Free regions are kept in
+ * segregated lists indexed by a first level power of two and a second level
+ * linear subdivision, with a bitmap per level, so that finding a region that
+ * is guaranteed to fit and freeing a region with coalescing are both constant
+ * time.
+ *
+ * Regions are stored in parallel primitive arrays indexed by node, linked in
+ * physical order and, when free, in the list of their size class. No objects
+ * are allocated except when the node arrays grow.
+ *
+ * Offsets and sizes are multiples of {@link #GRANULE}. Used regions are tagged
+ * with a resource kind, and when a granularity is given regions of different
+ * kinds are never placed on the same granularity page, as required for linear
+ * and optimal resources by Vulkan's bufferImageGranularity.
+ *
+ * -Not synchronized.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+final class Tlsf {
+
+    /**
+     * Minimum alignment and size unit of every region in bytes.
+     */
+    static final long GRANULE = 16;
+
+    /**
+     * Resource kind of a free region.
+     */
+    static final byte FREE = 0;
+
+    /**
+     * Log2 of the number of second level classes per first level class.
+     */
+    private static final int SL_LOG2 = 4;
+
+    private static final int SL_COUNT = 1 << SL_LOG2;
+
+    /**
+     * Number of first level classes. Supports ranges up to 2^55 bytes.
+     */
+    private static final int FL_COUNT = 48;
+
+    /**
+     * Maximum number of regions examined for an exact fit when no size class
+     * guarantees a fit.
+     */
+    private static final int FIT_SEARCH = 8;
+
+    /**
+     * Total size of the range in bytes.
+     */
+    private final long SIZE;
+
+    /**
+     * Bitmap of the first level classes containing at least one free region.
+     */
+    private long flBitmap;
+
+    /**
+     * Bitmaps of the second level classes containing at least one free
+     * region, per first level class.
+     */
+    private final int[] SL_BITMAP = new int[FL_COUNT];
+
+    /**
+     * First free region of each size class, or -1.
+     */
+    private final int[] HEADS = new int[FL_COUNT * SL_COUNT];
+
+    /**
+     * Number of used regions of each resource kind.
+     */
+    private final int[] KINDS = new int[Byte.MAX_VALUE + 1];
+
+    // Node Storage \\
+    private long[] offset, size;
+
+    private int[] prevPhys, nextPhys, prevFree, nextFree;
+
+    private byte[] kind;
+
+    /**
+     * Node of the region at offset zero.
+     */
+    private int first;
+
+    /**
+     * Head of the list of recycled nodes, linked through nextFree.
+     */
+    private int recycled = -1;
+
+    /**
+     * Number of nodes ever created.
+     */
+    private int nodes;
+
+    /**
+     * Bytes and number of used regions.
+     */
+    private long used;
+
+    private int allocations;
+
+    /**
+     * Number of free regions.
+     */
+    private int freeRegions;
+
+    /**
+     * Constructs an allocator over a range of offsets that is entirely free.
+     *
+     * @param SIZE the size of the range in bytes.
+     */
+    Tlsf(final long SIZE) {
+        if (SIZE < GRANULE || SIZE >= (1L << (FL_COUNT + SL_LOG2 - 1)) * GRANULE) {
+            throw new IllegalArgumentException("Invalid range size: " + SIZE);
+        }
+        this.SIZE = SIZE & -GRANULE;
+        Arrays.fill(HEADS, -1);
+        grow(64);
+        first = node(0, this.SIZE, -1, -1);
+        insert(first);
+    }
+
+    /**
+     * Allocates a region.
+     *
+     * @param BYTES the size of the region in bytes.
+     * @param ALIGNMENT the power of two alignment of the region offset.
+     * @param KIND the resource kind of the region, greater than zero.
+     * @param GRANULARITY the page size on which regions of different kinds
+     * must not meet, or zero if kinds may be mixed freely.
+     * @return the node of the allocated region, or -1 if no free region fits.
+     */
+    final int allocate(final long BYTES, final long ALIGNMENT, final byte KIND, final long GRANULARITY) {
+        final long bytes = alignUp(Math.max(BYTES, 1), GRANULE);
+        final long alignment = Math.max(ALIGNMENT, GRANULE);
+        final boolean conflict = GRANULARITY > GRANULE && allocations > KINDS[KIND];
+
+        // Search A Size Class In Which Every Region Fits The Worst Case Padding \\
+        final long search = bytes + alignment - GRANULE + (conflict ? 2 * GRANULARITY : 0);
+        if (bytes > SIZE - used) {
+            return -1;
+        }
+        int node = find(searchIndex(search / GRANULE));
+        if (node < 0 && !conflict) {
+            node = fit(index(search / GRANULE), bytes, alignment);
+        }
+        if (node < 0) {
+            return -1;
+        }
+        remove(node);
+
+        final long begin = offset[node], end = begin + size[node];
+        long start = alignUp(begin, alignment);
+        if (conflict) {
+            final int prev = prevPhys[node];
+            if (prev >= 0 && kind[prev] != KIND && (offset[prev] + size[prev] - 1) / GRANULARITY == start / GRANULARITY) {
+                start = alignUp(start, GRANULARITY);
+            }
+        }
+
+        // Split Off Leading Padding And Trailing Remainder As Free Regions \\
+        if (start > begin) {
+            final int pad = node(begin, start - begin, prevPhys[node], node);
+            if (prevPhys[node] >= 0) {
+                nextPhys[prevPhys[node]] = pad;
+            } else {
+                first = pad;
+            }
+            prevPhys[node] = pad;
+            insert(pad);
+        }
+        if (start + bytes < end) {
+            final int rest = node(start + bytes, end - start - bytes, node, nextPhys[node]);
+            if (nextPhys[node] >= 0) {
+                prevPhys[nextPhys[node]] = rest;
+            }
+            nextPhys[node] = rest;
+            insert(rest);
+        }
+        offset[node] = start;
+        size[node] = bytes;
+        kind[node] = KIND;
+        KINDS[KIND]++;
+        allocations++;
+        used += bytes;
+        return node;
+    }
+
+    /**
+     * Frees a region, coalescing it with adjacent free regions.
+     *
+     * @param NODE the node returned by {@link #allocate}.
+     */
+    final void free(final int NODE) {
+        if (kind[NODE] == FREE) {
+            throw new IllegalStateException("Region already free");
+        }
+        KINDS[kind[NODE]]--;
+        allocations--;
+        used -= size[NODE];
+        kind[NODE] = FREE;
+
+        final int prev = prevPhys[NODE], next = nextPhys[NODE];
+        if (prev >= 0 && kind[prev] == FREE) {
+            remove(prev);
+            offset[NODE] = offset[prev];
+            size[NODE] += size[prev];
+            prevPhys[NODE] = prevPhys[prev];
+            if (prevPhys[prev] >= 0) {
+                nextPhys[prevPhys[prev]] = NODE;
+            } else {
+                first = NODE;
+            }
+            recycle(prev);
+        }
+        if (next >= 0 && kind[next] == FREE) {
+            remove(next);
+            size[NODE] += size[next];
+            nextPhys[NODE] = nextPhys[next];
+            if (nextPhys[next] >= 0) {
+                prevPhys[nextPhys[next]] = NODE;
+            }
+            recycle(next);
+        }
+        insert(NODE);
+    }
+
+    final long offset(final int NODE) {
+        return offset[NODE];
+    }
+
+    final long size(final int NODE) {
+        return size[NODE];
+    }
+
+    /**
+     * @return the size of the range in bytes.
+     */
+    final long capacity() {
+        return SIZE;
+    }
+
+    /**
+     * @return the number of bytes in used regions.
+     */
+    final long used() {
+        return used;
+    }
+
+    /**
+     * @return the number of used regions.
+     */
+    final int allocations() {
+        return allocations;
+    }
+
+    /**
+     * @return the number of free regions.
+     */
+    final int freeRegions() {
+        return freeRegions;
+    }
+
+    /**
+     * @return the size in bytes of the largest free region.
+     */
+    final long largestFree() {
+        if (flBitmap == 0) {
+            return 0;
+        }
+        final int fl = 63 - Long.numberOfLeadingZeros(flBitmap);
+        final int sl = 31 - Integer.numberOfLeadingZeros(SL_BITMAP[fl]);
+        long largest = 0;
+        for (int node = HEADS[fl * SL_COUNT + sl]; node >= 0; node = nextFree[node]) {
+            largest = Math.max(largest, size[node]);
+        }
+        return largest;
+    }
+
+    /**
+     * Visits every used region in physical order.
+     *
+     * @param VISITOR receives the node of each used region.
+     */
+    final void forEachUsed(final IntConsumer VISITOR) {
+        for (int node = first; node >= 0; node = nextPhys[node]) {
+            if (kind[node] != FREE) {
+                VISITOR.accept(node);
+            }
+        }
+    }
+
+    // Size Classes \\
+    private static int index(final long UNITS) {
+        final int fl = 63 - Long.numberOfLeadingZeros(UNITS);
+        if (fl < SL_LOG2) {
+            return (int) UNITS;
+        }
+        return (fl - SL_LOG2 + 1) * SL_COUNT + (int) (UNITS >>> (fl - SL_LOG2)) - SL_COUNT;
+    }
+
+    private static int searchIndex(long units) {
+        final int fl = 63 - Long.numberOfLeadingZeros(units);
+        if (fl >= SL_LOG2) {
+            units += (1L << (fl - SL_LOG2)) - 1;
+        }
+        return index(units);
+    }
+
+    private int find(final int INDEX) {
+        int fl = INDEX >>> SL_LOG2;
+        if (fl >= FL_COUNT) {
+            return -1;
+        }
+        int bits = SL_BITMAP[fl] & (-1 << (INDEX & (SL_COUNT - 1)));
+        if (bits == 0) {
+            final long rows = (fl + 1 < 64) ? flBitmap & (-1L << (fl + 1)) : 0;
+            if (rows == 0) {
+                return -1;
+            }
+            fl = Long.numberOfTrailingZeros(rows);
+            bits = SL_BITMAP[fl];
+        }
+        return HEADS[fl * SL_COUNT + Integer.numberOfTrailingZeros(bits)];
+    }
+
+    /**
+     * Walks a bounded prefix of the free list of a size class, whose regions
+     * may or may not fit, for a region that fits the aligned size exactly.
+     * Recovers regions that the guaranteed fit search skips because they are
+     * in the same class as the request.
+     */
+    private int fit(final int INDEX, final long BYTES, final long ALIGNMENT) {
+        int node = HEADS[INDEX];
+        for (int i = 0; node >= 0 && i < FIT_SEARCH; i++, node = nextFree[node]) {
+            if (alignUp(offset[node], ALIGNMENT) + BYTES <= offset[node] + size[node]) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(final int NODE) {
+        final int index = index(size[NODE] / GRANULE);
+        final int head = HEADS[index];
+        prevFree[NODE] = -1;
+        nextFree[NODE] = head;
+        if (head >= 0) {
+            prevFree[head] = NODE;
+        }
+        HEADS[index] = NODE;
+        SL_BITMAP[index >>> SL_LOG2] |= 1 << (index & (SL_COUNT - 1));
+        flBitmap |= 1L << (index >>> SL_LOG2);
+        freeRegions++;
+    }
+
+    private void remove(final int NODE) {
+        final int prev = prevFree[NODE], next = nextFree[NODE];
+        if (next >= 0) {
+            prevFree[next] = prev;
+        }
+        if (prev >= 0) {
+            nextFree[prev] = next;
+        } else {
+            final int index = index(size[NODE] / GRANULE);
+            HEADS[index] = next;
+            if (next < 0) {
+                final int fl = index >>> SL_LOG2;
+                SL_BITMAP[fl] &= ~(1 << (index & (SL_COUNT - 1)));
+                if (SL_BITMAP[fl] == 0) {
+                    flBitmap &= ~(1L << fl);
+                }
+            }
+        }
+        freeRegions--;
+    }
+
+    // Node Storage \\
+    private int node(final long OFFSET, final long SIZE, final int PREV, final int NEXT) {
+        int node = recycled;
+        if (node >= 0) {
+            recycled = nextFree[node];
+        } else {
+            if (nodes == offset.length) {
+                grow(nodes << 1);
+            }
+            node = nodes++;
+        }
+        offset[node] = OFFSET;
+        size[node] = SIZE;
+        prevPhys[node] = PREV;
+        nextPhys[node] = NEXT;
+        kind[node] = FREE;
+        return node;
+    }
+
+    private void recycle(final int NODE) {
+        prevPhys[NODE] = nextPhys[NODE] = -1;
+        nextFree[NODE] = recycled;
+        recycled = NODE;
+    }
+
+    private void grow(final int CAPACITY) {
+        offset = (offset == null) ? new long[CAPACITY] : Arrays.copyOf(offset, CAPACITY);
+        size = (size == null) ? new long[CAPACITY] : Arrays.copyOf(size, CAPACITY);
+        prevPhys = (prevPhys == null) ? new int[CAPACITY] : Arrays.copyOf(prevPhys, CAPACITY);
+        nextPhys = (nextPhys == null) ? new int[CAPACITY] : Arrays.copyOf(nextPhys, CAPACITY);
+        prevFree = (prevFree == null) ? new int[CAPACITY] : Arrays.copyOf(prevFree, CAPACITY);
+        nextFree = (nextFree == null) ? new int[CAPACITY] : Arrays.copyOf(nextFree, CAPACITY);
+        kind = (kind == null) ? new byte[CAPACITY] : Arrays.copyOf(kind, CAPACITY);
+    }
+
+    private static long alignUp(final long VALUE, final long ALIGNMENT) {
+        return (VALUE + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
@@ -0,0 +1,88 @@
+package net.cybertekt.vulkan;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Transfer Backend - (C) Cybertekt Software
+ *
+ * Device operations required by the {@link StagingRing staging ring}: a
+ * persistently mapped host-visible staging buffer, recording of batched copy
+ * commands from the staging buffer, and submission of the recorded copies
+ * with a fence. Implemented against a transfer queue by the renderer, and by
+ * {@link SimulatedTransferBackend} so that the staging logic can be tested
+ * without a GPU.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public interface TransferBackend {
+
+    /**
+     * Number of values per region passed to
+     * {@link #copyBuffer(long, long[], int)}: source offset, destination
+     * offset and size, as in VkBufferCopy.
+     */
+    public static final int BUFFER_REGION = 3;
+
+    /**
+     * Number of values per region passed to
+     * {@link #copyImage(long, long[], int)}: source offset, size in bytes, mip
+     * level, array layer, width and height, describing a VkBufferImageCopy of
+     * an entire subresource.
+     */
+    public static final int IMAGE_REGION = 6;
+
+    /**
+     * Creates and persistently maps the host-visible staging buffer.
+     *
+     * @param SIZE the size of the staging buffer in bytes.
+     * @return the mapped staging memory.
+     */
+    public ByteBuffer createStaging(final int SIZE);
+
+    /**
+     * Unmaps and destroys the staging buffer once every submission has
+     * completed.
+     */
+    public void destroyStaging();
+
+    /**
+     * Records a copy from the staging buffer into a buffer.
+     *
+     * @param DST the destination buffer.
+     * @param REGIONS the {@link #BUFFER_REGION regions} to copy.
+     * @param COUNT the number of regions.
+     */
+    public void copyBuffer(final long DST, final long[] REGIONS, final int COUNT);
+
+    /**
+     * Records a copy from the staging buffer into an image, including the
+     * layout transitions the copy requires.
+     *
+     * @param DST the destination image.
+     * @param REGIONS the {@link #IMAGE_REGION regions} to copy.
+     * @param COUNT the number of regions.
+     */
+    public void copyImage(final long DST, final long[] REGIONS, final int COUNT);
+
+    /**
+     * Submits every copy recorded since the previous submission.
+     *
+     * @return a fence value signaled when the copies have completed. Fence
+     * values increase with every submission.
+     */
+    public long submit();
+
+    /**
+     * @param FENCE a value returned by {@link #submit()}.
+     * @return true if the submission has completed.
+     */
+    public boolean isComplete(final long FENCE);
+
+    /**
+     * Blocks until a submission has completed.
+     *
+     * @param FENCE a value returned by {@link #submit()}.
+     */
+    public void await(final long FENCE);
+}
@@ -1,8 +1,6 @@
 package net.cybertekt.vulkan;
 
-import java.nio.ByteBuffer;
 import java.nio.LongBuffer;
-import java.util.Iterator;
 import net.cybertekt.app.AppSettings;
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.system.MemoryUtil;
@@ -11,7 +9,6 @@ import org.lwjgl.vulkan.KHRSurface;
 import org.lwjgl.vulkan.VK10;
 import org.lwjgl.vulkan.VkApplicationInfo;
 import org.lwjgl.vulkan.VkDebugReportCallbackCreateInfoEXT;
-import org.lwjgl.vulkan.VkDebugReportCallbackEXT;
 import org.lwjgl.vulkan.VkInstance;
 import org.lwjgl.vulkan.VkInstanceCreateInfo;
 import org.slf4j.Logger;
@@ -74,70 +71,50 @@ public class Vulkan {
             throw new VulkanInitializationException("Vulkan loader not found");
         }
 
-        // Initialize Vulkan Application Information \\
-        VkApplicationInfo vkAppInfo = VkApplicationInfo.calloc()
-                .sType(VK10.VK_STRUCTURE_TYPE_APPLICATION_INFO) // Struct Type
-                .pEngineName(MemoryUtil.memUTF8(SETTINGS.ENGINE_NAME)) // Engine Name
-                .engineVersion(SETTINGS.ENGINE_VERSION.hashCode()) // Engine Version
-                .pApplicationName(MemoryUtil.memUTF8(SETTINGS.APP_NAME)) // Application Name
-                .applicationVersion(SETTINGS.APP_VERSION.hashCode()) // Application Version
-                .apiVersion(SETTINGS.VK_API_VERSION.hashCode());            // Vulkan API Target Version
-
-        // Initialize Vulkan Extensions \\
-        PointerBuffer vkExtensions = MemoryUtil.memAllocPointer(SETTINGS.VK_EXTENSIONS.size());
-        ByteBuffer[] vkExt = new ByteBuffer[SETTINGS.VK_EXTENSIONS.size()];
-        Iterator<Extension> vkExtIt = SETTINGS.VK_EXTENSIONS.iterator();
-        for (int i = 0; vkExtIt.hasNext(); i++) {
-            vkExtensions.put(vkExt[i] = MemoryUtil.memUTF8(vkExtIt.next().EXT_NAME));
+        // Marshal Instance Information Into The Scratch Arena \\
+        try (NativeArena.Scope scope = NativeArena.scratch().push()) {
+            final NativeArena arena = scope.arena();
+
+            // Initialize Vulkan Application Information \\
+            VkApplicationInfo vkAppInfo = arena.struct(VkApplicationInfo.SIZEOF, VkApplicationInfo.ALIGNOF, VkApplicationInfo::create)
+                    .sType(VK10.VK_STRUCTURE_TYPE_APPLICATION_INFO) // Struct Type
+                    .pEngineName(arena.utf8(SETTINGS.ENGINE_NAME)) // Engine Name
+                    .engineVersion(SETTINGS.ENGINE_VERSION.hashCode()) // Engine Version
+                    .pApplicationName(arena.utf8(SETTINGS.APP_NAME)) // Application Name
+                    .applicationVersion(SETTINGS.APP_VERSION.hashCode()) // Application Version
+                    .apiVersion(SETTINGS.VK_API_VERSION.hashCode());        // Vulkan API Target Version
+
+            // Initialize Vulkan Extensions \\
+            PointerBuffer vkExtensions = arena.pointers(SETTINGS.VK_EXTENSIONS.size());
+            for (Extension ext : SETTINGS.VK_EXTENSIONS) {
+                vkExtensions.put(arena.utf8(ext.EXT_NAME));
+            }
+            vkExtensions.flip();
+
+            // Initialize Vulkan Layers \\
+            PointerBuffer vkLayers = arena.pointers(SETTINGS.VK_LAYERS.size());
+            for (Layer lyr : SETTINGS.VK_LAYERS) {
+                vkLayers.put(arena.utf8(lyr.LYR_NAME));
+            }
+            vkLayers.flip();
+
+            // Initialize Vulkan Instance Information \\
+            VkInstanceCreateInfo vkInfo = arena.struct(VkInstanceCreateInfo.SIZEOF, VkInstanceCreateInfo.ALIGNOF, VkInstanceCreateInfo::create)
+                    .sType(VK10.VK_STRUCTURE_TYPE_INSTANCE_CREATE_INFO) // Struct Type
+                    .pNext(MemoryUtil.NULL) // Always Null
+                    .pApplicationInfo(vkAppInfo) // Vulkan Application Info
+                    .ppEnabledExtensionNames(vkExtensions) // Vulkan Enabled Extensions
+                    .ppEnabledLayerNames(vkLayers);                         // Vulkan Enabled Layers
+
+            // Create Vulkan Instance \\
+            PointerBuffer vkInstancePointer = arena.pointers(1);
+            if (VK10.vkCreateInstance(vkInfo, null, vkInstancePointer) != VK10.VK_SUCCESS) {
+                throw new VulkanInitializationException("Vulkan instance creation failed");
+            }
+
+            // Return New Vulkan Instance - Arena Memory Is Released With The Scope \\
+            return new VkInstance(vkInstancePointer.get(0), vkInfo);
         }
-        vkExtensions.flip();
-
-        // Initialize Vulkan Layers \\
-        PointerBuffer vkLayers = MemoryUtil.memAllocPointer(SETTINGS.VK_LAYERS.size());
-        ByteBuffer[] vkLyr = new ByteBuffer[SETTINGS.VK_LAYERS.size()];
-        Iterator<Layer> vkLyrIt = SETTINGS.VK_LAYERS.iterator();
-        for (int i = 0; vkLyrIt.hasNext(); i++) {
-            vkLayers.put(vkLyr[i] = MemoryUtil.memUTF8(vkLyrIt.next().LYR_NAME));
-        }
-        vkLayers.flip();
-
-        // Initialize Vulkan Instance Information \\
-        VkInstanceCreateInfo vkInfo = VkInstanceCreateInfo.calloc()
-                .sType(VK10.VK_STRUCTURE_TYPE_INSTANCE_CREATE_INFO) // Struct Type
-                .pNext(MemoryUtil.NULL) // Always Null
-                .pApplicationInfo(vkAppInfo) // Vulkan Application Info
-                .ppEnabledExtensionNames(vkExtensions) // Vulkan Enabled Extensions
-                .ppEnabledLayerNames(vkLayers);                             // Vulkan Enabled Layers
-
-        // Create Vulkan Instance \\
-        PointerBuffer vkInstancePointer = MemoryUtil.memAllocPointer(1);
-        if (VK10.vkCreateInstance(vkInfo, null, vkInstancePointer) != VK10.VK_SUCCESS) {
-            throw new VulkanInitializationException("Vulkan instance creation failed");
-        }
-        VkInstance vkInstance = new VkInstance(vkInstancePointer.get(0), vkInfo);
-
-        // Free Vulkan Application Info Resources \\
-        MemoryUtil.memFree(vkAppInfo.pApplicationName());                   // Free Vulkan Application Name Pointer
-        MemoryUtil.memFree(vkAppInfo.pEngineName());                        // Free Vulkan Engine Name Pointer
-        vkAppInfo.free();                                                   // Free Vulkan Application Info
-
-        // Free Vulkan Extension Resources \\
-        for (ByteBuffer ext : vkExt) {
-            MemoryUtil.memFree(ext);
-        }
-        MemoryUtil.memFree(vkExtensions);                                   // Free Vulkan Extension Info
-
-        // Release Vulkan Layer Resources \\
-        for (ByteBuffer lyr : vkLyr) {
-            MemoryUtil.memFree(lyr);
-        }
-        MemoryUtil.memFree(vkLayers);                                       // Free Vulkan Layer Info
-
-        vkInfo.free();                                                      // Free Vulkan Instance Info
-        vkInstancePointer.free();                                           // Free Vulkan Instance Pointer       
-
-        // Return New Vulkan Instance \\
-        return vkInstance;
     }
 
     /**
@@ -156,42 +133,51 @@ public class Vulkan {
             throw new VulkanExtensionException("Extension is disabled: ", Extension.DEBUG_REPORT.EXT_NAME);
         }
 
-        // Create Vulkan Debug Report Callback Information \\
-        VkDebugReportCallbackCreateInfoEXT vkDebugCallbackInfo = VkDebugReportCallbackCreateInfoEXT.calloc()
-                .sType(EXTDebugReport.VK_STRUCTURE_TYPE_DEBUG_REPORT_CALLBACK_CREATE_INFO_EXT)
-                .pNext(MemoryUtil.NULL)
-                .pfnCallback(VK_DEBUG_CALLBACK)
-                .pUserData(MemoryUtil.NULL)
-                .flags(FLAGS);
-
-        // Create Vulkan Debug Report Callback \\
-        LongBuffer vkCallback = MemoryUtil.memAllocLong(1);
-        if (EXTDebugReport.vkCreateDebugReportCallbackEXT(vkInstance, vkDebugCallbackInfo, null, vkCallback) != VK10.VK_SUCCESS) {
-            throw new VulkanInitializationException("Debug report callback initialization failed");
+        // Create Vulkan Debug Report Sink \\
+        if (debugSink == null) {
+            debugSink = new DebugReportSink().register();
         }
-        long vkDebugCallback = vkCallback.get(0);
 
-        // Release Debug Callback Resources \\
-        MemoryUtil.memFree(vkCallback);
-        vkDebugCallbackInfo.free();
+        try (NativeArena.Scope scope = NativeArena.scratch().push()) {
+            final NativeArena arena = scope.arena();
+
+            // Create Vulkan Debug Report Callback Information \\
+            VkDebugReportCallbackCreateInfoEXT vkDebugCallbackInfo = arena.struct(VkDebugReportCallbackCreateInfoEXT.SIZEOF, VkDebugReportCallbackCreateInfoEXT.ALIGNOF, VkDebugReportCallbackCreateInfoEXT::create)
+                    .sType(EXTDebugReport.VK_STRUCTURE_TYPE_DEBUG_REPORT_CALLBACK_CREATE_INFO_EXT)
+                    .pNext(MemoryUtil.NULL)
+                    .pfnCallback(debugSink)
+                    .pUserData(MemoryUtil.NULL)
+                    .flags(FLAGS);
+
+            // Create Vulkan Debug Report Callback \\
+            LongBuffer vkCallback = arena.longs(1);
+            if (EXTDebugReport.vkCreateDebugReportCallbackEXT(vkInstance, vkDebugCallbackInfo, null, vkCallback) != VK10.VK_SUCCESS) {
+                throw new VulkanInitializationException("Debug report callback initialization failed");
+            }
+            return vkCallback.get(0);
+        }
+    }
 
-        return vkDebugCallback;
+    /**
+     * @return the sink receiving Vulkan debug reports, or null if debugging
+     * has not been enabled.
+     */
+    public static DebugReportSink getDebugReportSink() {
+        return debugSink;
     }
 
     public static final void terminate() {
-        VK_DEBUG_CALLBACK.free();
+        if (debugSink != null) {
+            debugSink.free();
+            debugSink = null;
+        }
     }
 
     /**
-     * Vulkan Debug Report Callback.
+     * Vulkan Debug Report Callback - Reports are queued by the driver and
+     * logged by the sink's consumer thread.
      */
-    private static final VkDebugReportCallbackEXT VK_DEBUG_CALLBACK = new VkDebugReportCallbackEXT() {
-        @Override
-        public int invoke(int flags, int objectType, long object, long location, int messageCode, long layerPrefix, long message, long userData) {
-            LOG.error(VkDebugReportCallbackEXT.getString(message));
-            return 0;
-        }
-    };
+    private static DebugReportSink debugSink;
 
     /**
      * {@link RuntimeException Runtime Exception} thrown when an error occurs
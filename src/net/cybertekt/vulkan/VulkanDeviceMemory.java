@@ -0,0 +1,126 @@
+package net.cybertekt.vulkan;
+
+import java.nio.LongBuffer;
+import org.lwjgl.vulkan.VK10;
+import org.lwjgl.vulkan.VkDevice;
+import org.lwjgl.vulkan.VkMemoryAllocateInfo;
+import org.lwjgl.vulkan.VkPhysicalDevice;
+import org.lwjgl.vulkan.VkPhysicalDeviceMemoryProperties;
+import org.lwjgl.vulkan.VkPhysicalDeviceProperties;
+
+/**
+ * Vulkan Device Memory - (C) Cybertekt Software
+ *
+ * {@link DeviceMemory Device memory} allocated from a Vulkan logical device
+ * with vkAllocateMemory. Memory types, heaps and limits are queried once from
+ * the physical device at construction.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class VulkanDeviceMemory implements DeviceMemory {
+
+    private final VkDevice DEVICE;
+
+    /**
+     * Heap of each memory type.
+     */
+    private final int[] TYPE_HEAPS;
+
+    /**
+     * Size of each heap in bytes.
+     */
+    private final long[] HEAP_SIZES;
+
+    private final long GRANULARITY;
+
+    private final int MAX_ALLOCATIONS;
+
+    /**
+     * Constructs the device memory of a logical device.
+     *
+     * @param PHYSICAL_DEVICE the physical device of the logical device.
+     * @param DEVICE the logical device from which memory is allocated.
+     */
+    public VulkanDeviceMemory(final VkPhysicalDevice PHYSICAL_DEVICE, final VkDevice DEVICE) {
+        this.DEVICE = DEVICE;
+        try (NativeArena.Scope scope = NativeArena.scratch().push()) {
+            final NativeArena arena = scope.arena();
+            final VkPhysicalDeviceMemoryProperties memory = arena.struct(VkPhysicalDeviceMemoryProperties.SIZEOF, VkPhysicalDeviceMemoryProperties.ALIGNOF, VkPhysicalDeviceMemoryProperties::create);
+            VK10.vkGetPhysicalDeviceMemoryProperties(PHYSICAL_DEVICE, memory);
+            TYPE_HEAPS = new int[memory.memoryTypeCount()];
+            for (int i = 0; i < TYPE_HEAPS.length; i++) {
+                TYPE_HEAPS[i] = memory.memoryTypes(i).heapIndex();
+            }
+            HEAP_SIZES = new long[memory.memoryHeapCount()];
+            for (int i = 0; i < HEAP_SIZES.length; i++) {
+                HEAP_SIZES[i] = memory.memoryHeaps(i).size();
+            }
+
+            final VkPhysicalDeviceProperties properties = arena.struct(VkPhysicalDeviceProperties.SIZEOF, VkPhysicalDeviceProperties.ALIGNOF, VkPhysicalDeviceProperties::create);
+            VK10.vkGetPhysicalDeviceProperties(PHYSICAL_DEVICE, properties);
+            GRANULARITY = properties.limits().bufferImageGranularity();
+            MAX_ALLOCATIONS = properties.limits().maxMemoryAllocationCount();
+        }
+    }
+
+    @Override
+    public final int getMemoryTypeCount() {
+        return TYPE_HEAPS.length;
+    }
+
+    @Override
+    public final int getHeapIndex(final int TYPE) {
+        return TYPE_HEAPS[TYPE];
+    }
+
+    @Override
+    public final int getHeapCount() {
+        return HEAP_SIZES.length;
+    }
+
+    @Override
+    public final long getHeapSize(final int HEAP) {
+        return HEAP_SIZES[HEAP];
+    }
+
+    @Override
+    public final long getBufferImageGranularity() {
+        return GRANULARITY;
+    }
+
+    @Override
+    public final int getMaxAllocationCount() {
+        return MAX_ALLOCATIONS;
+    }
+
+    @Override
+    public final long allocate(final int TYPE, final long SIZE) {
+        try (NativeArena.Scope scope = NativeArena.scratch().push()) {
+            final NativeArena arena = scope.arena();
+            final VkMemoryAllocateInfo info = arena.struct(VkMemoryAllocateInfo.SIZEOF, VkMemoryAllocateInfo.ALIGNOF, VkMemoryAllocateInfo::create)
+                    .sType(VK10.VK_STRUCTURE_TYPE_MEMORY_ALLOCATE_INFO)
+                    .allocationSize(SIZE)
+                    .memoryTypeIndex(TYPE);
+            final LongBuffer memory = arena.longs(1);
+            final int result = VK10.vkAllocateMemory(DEVICE, info, null, memory);
+            switch (result) {
+                case VK10.VK_SUCCESS: {
+                    return memory.get(0);
+                }
+                case VK10.VK_ERROR_OUT_OF_DEVICE_MEMORY:
+                case VK10.VK_ERROR_OUT_OF_HOST_MEMORY: {
+                    return VK10.VK_NULL_HANDLE;
+                }
+                default: {
+                    throw new IllegalStateException("vkAllocateMemory failed: " + result);
+                }
+            }
+        }
+    }
+
+    @Override
+    public final void free(final long MEMORY) {
+        VK10.vkFreeMemory(DEVICE, MEMORY, null);
+    }
+}
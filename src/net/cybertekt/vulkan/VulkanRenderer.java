@@ -0,0 +1,148 @@
+package net.cybertekt.vulkan;
+
+import net.cybertekt.app.AppSettings;
+import net.cybertekt.app.Profiler;
+import net.cybertekt.job.FrameGraph;
+import net.cybertekt.render.Renderer;
+import net.cybertekt.util.MemoryTracker;
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.vulkan.EXTDebugReport;
+import org.lwjgl.vulkan.VK10;
+import org.lwjgl.vulkan.VkInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Vulkan Renderer - (C) Cybertekt Software
+ *
+ * {@link Renderer Renderer} backed by GLFW and Vulkan. Initializes GLFW,
+ * creates the Vulkan instance, and enables debug reporting when the
+ * {@link Vulkan.Extension#DEBUG_REPORT debug report extension} is requested.
+ * Until a swapchain exists to block on, the frame rate is
+ * {@link Renderer#limitFrameRate(FrameGraph) limited} like that of the
+ * {@link net.cybertekt.render.NullRenderer null renderer}.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class VulkanRenderer implements Renderer {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(VulkanRenderer.class);
+
+    /**
+     * Native Memory Tag Of The Vulkan Subsystem.
+     */
+    private static final MemoryTracker.Tag VULKAN = MemoryTracker.tag("Vulkan");
+
+    // Startup Profiler Scopes \\
+    private static final int STARTUP_GLFW = Profiler.scope("Startup.Renderer.GLFW");
+
+    private static final int STARTUP_INSTANCE = Profiler.scope("Startup.Renderer.Instance");
+
+    private static final int STARTUP_DEBUG = Profiler.scope("Startup.Renderer.Debug");
+
+    private boolean glfw;
+
+    private VkInstance instance;
+
+    private long debugCallback = VK10.VK_NULL_HANDLE;
+
+    @Override
+    public final void initialize(final AppSettings SETTINGS) {
+
+        // GLFW Initialization \\
+        Profiler.begin(STARTUP_GLFW);
+        try {
+            if (!GLFW.glfwInit()) {
+                LOG.error("GLFW Initialization Failed");
+                throw new RendererInitializationException("GLFW Initialization Failed");
+            }
+            glfw = true;
+        } finally {
+            Profiler.end(STARTUP_GLFW);
+        }
+
+        final MemoryTracker.Tag previous = VULKAN.enter();
+        try {
+            // Create Vulkan Instance \\
+            Profiler.begin(STARTUP_INSTANCE);
+            try {
+                instance = Vulkan.createInstance(SETTINGS);
+            } finally {
+                Profiler.end(STARTUP_INSTANCE);
+            }
+
+            // Enable Vulkan Instance Debugging \\
+            if (SETTINGS.VK_EXTENSIONS.contains(Vulkan.Extension.DEBUG_REPORT)) {
+                Profiler.begin(STARTUP_DEBUG);
+                try {
+                    debugCallback = Vulkan.enableDebug(instance, EXTDebugReport.VK_DEBUG_REPORT_ERROR_BIT_EXT | EXTDebugReport.VK_DEBUG_REPORT_WARNING_BIT_EXT);
+                } finally {
+                    Profiler.end(STARTUP_DEBUG);
+                }
+            }
+
+            // final VkPhysicalDevice physicalDevice = getFirstPhysicalDevice(instance);
+            // final DeviceAndGraphicsQueueFamily deviceAndGraphicsQueueFamily = createDeviceAndGetGraphicsQueueFamily(physicalDevice);
+            // final VkDevice device = deviceAndGraphicsQueueFamily.device;
+            // int queueFamilyIndex = deviceAndGraphicsQueueFamily.queueFamilyIndex;
+        } finally {
+            MemoryTracker.restore(previous);
+        }
+    }
+
+    @Override
+    public final void register(final FrameGraph GRAPH) {
+        // Command Recording And Submission Are Registered Once A Device And Swapchain Exist \\
+        Renderer.limitFrameRate(GRAPH);
+    }
+
+    @Override
+    public final boolean isHeadless() {
+        return false;
+    }
+
+    /**
+     * @return the Vulkan instance, or null before initialization.
+     */
+    public final VkInstance getInstance() {
+        return instance;
+    }
+
+    @Override
+    public final void close() {
+        final MemoryTracker.Tag previous = VULKAN.enter();
+        try {
+            // Destroy The Debug Callback Before The Sink Receiving Its Reports \\
+            if (debugCallback != VK10.VK_NULL_HANDLE) {
+                EXTDebugReport.vkDestroyDebugReportCallbackEXT(instance, debugCallback, null);
+                debugCallback = VK10.VK_NULL_HANDLE;
+            }
+            if (instance != null) {
+                VK10.vkDestroyInstance(instance, null);
+                instance = null;
+            }
+            Vulkan.terminate();
+        } finally {
+            MemoryTracker.restore(previous);
+        }
+        if (glfw) {
+            GLFW.glfwTerminate();
+            glfw = false;
+        }
+    }
+
+    /**
+     * {@link RuntimeException Runtime Exception} thrown when the renderer
+     * cannot be initialized.
+     */
+    public static class RendererInitializationException extends RuntimeException {
+
+        public RendererInitializationException(final String REASON) {
+            super(REASON);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.cybertekt;
+
+/**
+ * Test Utility - (C) Cybertekt Software
+ *
+ * Assertions shared by the main-class tests. A failed assertion throws an
+ * {@link IllegalStateException}, so that the test exits with a stack trace
+ * and a non-zero status without depending on a test framework.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public final class TestUtil {
+
+    private TestUtil() {
+    }
+
+    /**
+     * Asserts that a condition holds.
+     *
+     * @param CONDITION the condition.
+     * @param MESSAGE describes the condition.
+     * @throws IllegalStateException if the condition does not hold.
+     */
+    public static void check(final boolean CONDITION, final String MESSAGE) {
+        if (!CONDITION) {
+            throw new IllegalStateException("Check failed: " + MESSAGE);
+        }
+    }
+
+    /**
+     * Asserts that an action throws an exception of the given type.
+     *
+     * @param <T> the type of the exception.
+     * @param TYPE the class of the exception.
+     * @param ACTION the action.
+     * @param MESSAGE describes the action.
+     * @return the exception thrown by the action.
+     * @throws IllegalStateException if the action completes normally.
+     */
+    public static <T extends Throwable> T expect(final Class<T> TYPE, final Action ACTION, final String MESSAGE) {
+        try {
+            ACTION.run();
+        } catch (Throwable e) {
+            if (TYPE.isInstance(e)) {
+                return TYPE.cast(e);
+            }
+            throw new IllegalStateException("Check failed: " + MESSAGE + " threw " + e, e);
+        }
+        throw new IllegalStateException("Check failed: " + MESSAGE + " did not throw " + TYPE.getSimpleName());
+    }
+
+    /**
+     * Action expected to fail, which may throw checked exceptions.
+     */
+    @FunctionalInterface
+    public static interface Action {
+
+        public void run() throws Exception;
+    }
+}
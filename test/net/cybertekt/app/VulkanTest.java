@@ -1,6 +1,8 @@
 package net.cybertekt.app;
 
 import net.cybertekt.app.AppSettings.Version;
+import net.cybertekt.job.FrameGraph;
+import net.cybertekt.job.FrameGraph.Stage;
 import net.cybertekt.vulkan.Vulkan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,13 +29,21 @@ public class VulkanTest extends Application {
         // Set Vulkan Layer Settings \\
         settings.VK_LAYERS.add(Vulkan.Layer.STANDARD_VALIDATION);
         
+        // Step The Simulation At 60 Hz \\
+        settings.setFixedTimestep(1.0 / 60);
+        
         VulkanTest app = new VulkanTest();
         app.initialize(settings);
     }
     
     @Override
-    public final void init() {
-        
+    protected final void register(final FrameGraph GRAPH) {
+        GRAPH.add(Stage.Simulation, "Timer", (frame) -> {
+            if (frame.getTime() >= 5) {
+                LOG.info("Stopping after {} frames", frame.getNumber() + 1);
+                stop();
+            }
+        });
     }
     
     @Override
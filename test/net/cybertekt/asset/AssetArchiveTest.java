@@ -0,0 +1,106 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+import static net.cybertekt.TestUtil.expect;
+
+/**
+ * Asset Archive Test - (C) Cybertekt Software
+ *
+ * Packs a directory of assets into stored and compressed
+ * {@link AssetArchive asset archives}, verifies that every entry reads back
+ * unchanged, and verifies that archives with a corrupt table of contents are
+ * rejected when they are opened.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class AssetArchiveTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AssetArchiveTest.class);
+
+    public static void main(final String[] args) throws IOException {
+        final Path dir = Files.createTempDirectory("cybertekt-archive-test");
+        final Path loose = Files.createDirectories(dir.resolve("loose"));
+        final Path stored = dir.resolve("stored." + AssetArchive.EXT);
+        final Path compressed = dir.resolve("compressed." + AssetArchive.EXT);
+
+        try {
+            // Generate Assets Of Varying Size And Compressibility \\
+            final Random random = new Random(0);
+            final byte[][] data = new byte[64][];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = new byte[random.nextInt(20000)];
+                for (int j = 0; j < data[i].length; j++) {
+                    data[i][j] = (byte) ((i % 2 == 0) ? j / 7 : random.nextInt());
+                }
+                Files.createDirectories(loose.resolve("dir" + (i % 4)));
+                Files.write(loose.resolve(path(i)), data[i]);
+            }
+
+            AssetPacker.pack(loose, stored, false);
+            AssetPacker.pack(loose, compressed, true);
+            verify(stored, data);
+            verify(compressed, data);
+
+            // Stored Entry Whose Uncompressed Size Exceeds Its Stored Size \\
+            corrupt(stored, dir.resolve("size.ctpk"), 8, 1 << 20);
+            expect(IOException.class, () -> AssetArchive.open(dir.resolve("size.ctpk")).close(), "Opening stored entry larger than its data");
+
+            // Entry With A Negative Stored Size \\
+            corrupt(stored, dir.resolve("negative.ctpk"), 4, -1);
+            expect(IOException.class, () -> AssetArchive.open(dir.resolve("negative.ctpk")).close(), "Opening negative entry size");
+
+            LOG.info("Packed and verified {} entries", data.length);
+        } finally {
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static String path(final int INDEX) {
+        return "dir" + (INDEX % 4) + "/asset" + INDEX + ".bin";
+    }
+
+    private static void verify(final Path ARCHIVE, final byte[][] DATA) throws IOException {
+        try (AssetArchive archive = AssetArchive.open(ARCHIVE)) {
+            check(archive.size() == DATA.length, "Entry count " + archive.size());
+            for (int i = 0; i < DATA.length; i++) {
+                final AssetBuffer buffer = archive.read(AssetKey.get(path(i)));
+                check(buffer != null, "Missing entry " + path(i));
+                final ByteBuffer bytes = buffer.get();
+                check(bytes.remaining() == DATA[i].length, "Entry size " + path(i));
+                for (int j = 0; j < DATA[i].length; j++) {
+                    check(bytes.get(j) == DATA[i][j], "Entry content " + path(i) + " at " + j);
+                }
+                buffer.release();
+            }
+            check(archive.read(AssetKey.get("missing/asset.bin")) == null, "Read of missing entry");
+        }
+    }
+
+    /**
+     * Copies an archive, overwriting an int field of the first table of
+     * contents entry at the specified offset from the end of its path.
+     */
+    private static void corrupt(final Path SRC, final Path DST, final int FIELD, final int VALUE) throws IOException {
+        final byte[] bytes = Files.readAllBytes(SRC);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        final int toc = (int) buffer.getLong(16);
+        final int length = buffer.getShort(toc) & 0xFFFF;
+        buffer.putInt(toc + 2 + length + FIELD, VALUE);
+        Files.write(DST, bytes);
+    }
+}
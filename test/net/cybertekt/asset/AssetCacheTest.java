@@ -0,0 +1,98 @@
+package net.cybertekt.asset;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+
+/**
+ * Asset Cache Test - (C) Cybertekt Software
+ *
+ * Verifies that the {@link AssetCache asset cache} evicts, replaces, rejects
+ * and removes assets within its budget, and that assets it disposes are only
+ * released once every acquired reference has been relinquished.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class AssetCacheTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AssetCacheTest.class);
+
+    public static void main(final String[] args) {
+        final AssetCache cache = new AssetCache(1000);
+
+        // Eviction Of An Unreferenced Asset Releases It \\
+        final TestAsset a = new TestAsset("a", 400);
+        final TestAsset b = new TestAsset("b", 400);
+        check(cache.put(a) && cache.put(b), "Admission within budget");
+        final Asset held = cache.acquire(a.getKey());
+        check(held == a, "Acquire cached asset");
+        final TestAsset c = new TestAsset("c", 400);
+        check(cache.put(c), "Admission with eviction");
+        check(b.isReleased() && cache.peek(b.getKey()) == null, "Probationary asset evicted");
+        check(cache.getUsage() <= cache.getBudget(), "Usage within budget");
+
+        // Removal Of A Referenced Asset Defers Its Release \\
+        check(cache.remove(a.getKey()), "Remove cached asset");
+        check(a.isDisposed() && !a.isReleased(), "Removed asset held by caller");
+        a.relinquish();
+        check(a.isReleased(), "Removed asset released by last holder");
+
+        // Rejected Assets Are Disposed \\
+        final TestAsset d = new TestAsset("d", 300);
+        check(cache.put(d), "Admission without eviction");
+        for (int i = 0; i < 8; i++) {
+            cache.get(c.getKey());
+            cache.get(d.getKey());
+        }
+        final TestAsset e = new TestAsset("e", 400);
+        check(!cache.put(e), "Rejection of infrequent asset");
+        check(e.isReleased(), "Rejected asset released");
+        final TestAsset f = new TestAsset("f", 400);
+        check(f.acquire() && !cache.put(f), "Rejection of acquired asset");
+        check(!f.isReleased(), "Rejected asset held by caller");
+        f.relinquish();
+        check(f.isReleased(), "Rejected asset released by last holder");
+        check(cache.getRejections() == 2, "Rejection count " + cache.getRejections());
+
+        // Replacement Of A Referenced Asset Defers Its Release \\
+        final Asset previous = cache.acquire(c.getKey());
+        final TestAsset replacement = new TestAsset("c", 400);
+        check(cache.put(replacement), "Replacement admitted");
+        check(cache.peek(c.getKey()) == replacement, "Replacement cached");
+        check(previous.isDisposed() && !previous.isReleased(), "Replaced asset held by caller");
+        previous.relinquish();
+        check(previous.isReleased(), "Replaced asset released by last holder");
+
+        // Pinned Assets Survive Clearing \\
+        cache.pin(replacement.getKey());
+        cache.clear();
+        check(cache.size() == 1 && !replacement.isDisposed(), "Pinned asset retained");
+        cache.unpin(replacement.getKey());
+        cache.clear();
+        check(cache.size() == 0 && replacement.isReleased(), "Unpinned asset released");
+
+        LOG.info("Cache evicted {} and rejected {} assets", cache.getEvictions(), cache.getRejections());
+    }
+
+    /**
+     * Asset with a fixed heap footprint and no native resources.
+     */
+    private static final class TestAsset extends Asset {
+
+        private final long SIZE;
+
+        private TestAsset(final String NAME, final long SIZE) {
+            super(AssetKey.get("test/" + NAME + ".bin"));
+            this.SIZE = SIZE;
+        }
+
+        @Override
+        public long getHeapSize() {
+            return SIZE;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package net.cybertekt.asset;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+
+/**
+ * Asset Manager Test - (C) Cybertekt Software
+ *
+ * Loads assets from a mounted {@link AssetArchive asset archive} through an
+ * {@link AssetManager asset manager}, reloads one of them, and verifies that
+ * the changed asset and its dependent are reloaded in dependency order and
+ * that every replaced asset is released once no caller holds it, so that hot
+ * reloading does not leak the native memory of the previous assets.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class AssetManagerTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(AssetManagerTest.class);
+
+    private static final AssetType TYPE = AssetType.getType("rld");
+
+    private static final AssetKey TEXTURE = AssetKey.get("reload/texture.rld");
+
+    private static final AssetKey MATERIAL = AssetKey.get("reload/material.rld");
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final Path dir = Files.createTempDirectory("cybertekt-manager-test");
+        final Path archivePath = dir.resolve("assets." + AssetArchive.EXT);
+        Files.createDirectories(dir.resolve("loose/reload"));
+        Files.write(dir.resolve("loose/" + TEXTURE.getPath()), new byte[16]);
+        Files.write(dir.resolve("loose/" + MATERIAL.getPath()), new byte[16]);
+        AssetPacker.pack(dir.resolve("loose"), archivePath, false);
+
+        final AssetManager manager = new AssetManager(2, 2, 1 << 20);
+        final AssetArchive archive = AssetArchive.open(archivePath);
+        try {
+            manager.mount(archive);
+            manager.register(new TestLoader());
+            final List<AssetKey> reloaded = new CopyOnWriteArrayList<>();
+            manager.addListener((previous, asset) -> reloaded.add(asset.getKey()));
+
+            // Load Both Assets - The Caller Keeps The Material \\
+            final Asset texture = manager.load(TEXTURE);
+            final Asset material = manager.load(MATERIAL);
+            texture.relinquish();
+
+            // Reload The Texture And Its Dependent \\
+            manager.reload(Collections.singleton(TEXTURE));
+            await(manager, TEXTURE, texture);
+            await(manager, MATERIAL, material);
+            check(reloaded.equals(Arrays.asList(TEXTURE, MATERIAL)), "Reloaded in dependency order: " + reloaded);
+
+            // Replaced Assets Are Released Once No Caller Holds Them \\
+            awaitReleased(texture);
+            check(material.isDisposed() && !material.isReleased(), "Replaced material held by caller");
+            material.relinquish();
+            check(material.isReleased(), "Replaced material released by last holder");
+
+            // Repeated Reloads Leave Only The Current Assets Unreleased \\
+            final List<Asset> replaced = new CopyOnWriteArrayList<>();
+            manager.addListener((previous, asset) -> replaced.add(previous));
+            for (int i = 0; i < 10; i++) {
+                final Asset current = manager.getCache().peek(MATERIAL);
+                manager.reload(Collections.singleton(MATERIAL));
+                await(manager, MATERIAL, current);
+            }
+            check(replaced.size() == 10, "Material reloaded alone: " + replaced.size());
+            for (Asset previous : replaced) {
+                awaitReleased(previous);
+            }
+            check(manager.getCache().size() == 2, "Only current assets cached: " + manager.getCache().size());
+
+            final Asset current = manager.getCache().peek(TEXTURE);
+            manager.destroy();
+            check(current.isReleased(), "Cached asset released by destroy");
+            LOG.info("Released {} replaced assets", replaced.size() + 2);
+        } finally {
+            archive.close();
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Waits until the cached asset for a key is no longer the given asset.
+     */
+    private static void await(final AssetManager MANAGER, final AssetKey KEY, final Asset PREVIOUS) throws InterruptedException {
+        final long deadline = System.nanoTime() + 5_000_000_000L;
+        while (MANAGER.getCache().peek(KEY) == PREVIOUS) {
+            check(System.nanoTime() < deadline, "Reload of " + KEY + " timed out");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Waits until a replaced asset is released. The reload that replaced it
+     * relinquishes its reference shortly after caching the new asset.
+     */
+    private static void awaitReleased(final Asset ASSET) throws InterruptedException {
+        final long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!ASSET.isReleased()) {
+            check(System.nanoTime() < deadline, "Replaced asset not released: " + ASSET.getKey());
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Loader whose materials depend on the texture.
+     */
+    private static final class TestLoader implements AssetLoader {
+
+        @Override
+        public AssetType[] getTypes() {
+            return new AssetType[]{TYPE};
+        }
+
+        @Override
+        public Asset load(final AssetInput INPUT) {
+            if (INPUT.getKey() == MATERIAL) {
+                INPUT.dependsOn(TEXTURE);
+            }
+            return new TestAsset(INPUT.getKey());
+        }
+    }
+
+    private static final class TestAsset extends Asset {
+
+        private TestAsset(final AssetKey KEY) {
+            super(KEY);
+        }
+
+        @Override
+        public long getHeapSize() {
+            return 100;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package net.cybertekt.job;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import net.cybertekt.job.FrameGraph.FrameException;
+import net.cybertekt.job.FrameGraph.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+import static net.cybertekt.TestUtil.expect;
+
+/**
+ * Frame Graph Test - (C) Cybertekt Software
+ *
+ * Runs a {@link FrameGraph frame graph} on a {@link JobSystem job system} and
+ * verifies that its stages run in order within and across frames, that a
+ * {@link FrameGraph#setFrameRateLimit(double) frame rate limit} of one frame
+ * per fixed timestep paces the loop to one simulation step per frame instead
+ * of spinning, that every simulation step receives its own time and index,
+ * and that a failed task is rethrown by the loop.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class FrameGraphTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(FrameGraphTest.class);
+
+    private static final double TIMESTEP = 1.0 / 100;
+
+    public static void main(final String[] args) {
+        final JobSystem jobs = new JobSystem(2);
+        try {
+            pacing(jobs);
+            steps(jobs);
+            failure(jobs);
+        } finally {
+            jobs.close();
+        }
+    }
+
+    /**
+     * Frames limited to the fixed timestep run in stage order with one step
+     * each.
+     */
+    private static void pacing(final JobSystem JOBS) {
+        final FrameGraph graph = new FrameGraph(JOBS, TIMESTEP).setFrameRateLimit(1 / TIMESTEP);
+        check(Math.abs(graph.getFrameRateLimit() - 1 / TIMESTEP) < 0.01, "Frame rate limit: " + graph.getFrameRateLimit());
+
+        // Record The Last Frame Number Seen By Each Stage \\
+        final AtomicLong[] seen = new AtomicLong[Stage.values().length];
+        final List<String> errors = new CopyOnWriteArrayList<>();
+        for (Stage stage : Stage.values()) {
+            seen[stage.ordinal()] = new AtomicLong(-1);
+            graph.add(stage, stage + " Order", (frame) -> {
+                // Culling Follows Input In Frames Without A Simulation Step \\
+                final int previous = (stage == Stage.Culling && frame.getSteps() == 0) ? 0 : stage.ordinal() - 1;
+                if (previous >= 0 && seen[previous].get() < frame.getNumber()) {
+                    errors.add(stage + " ran before " + Stage.values()[previous] + " in " + frame);
+                }
+                if (stage != Stage.Simulation || frame.getStep() == frame.getSteps() - 1) {
+                    if (seen[stage.ordinal()].getAndSet(frame.getNumber()) > frame.getNumber()) {
+                        errors.add(stage + " ran out of order in " + frame);
+                    }
+                }
+            });
+        }
+
+        final long start = System.nanoTime();
+        int steps = 0;
+        while (System.nanoTime() - start < 300_000_000L) {
+            final Frame frame = graph.frame();
+            if (frame.getNumber() > 0) {
+                check(frame.getSteps() >= 1, "Step in every paced frame: " + frame);
+            }
+            steps += frame.getSteps();
+        }
+        graph.finish();
+        check(errors.isEmpty(), errors.toString());
+        check(graph.getFrames() <= 35, "Frames paced to the timestep: " + graph.getFrames());
+        check(steps >= graph.getFrames() - 1, "Steps run: " + steps);
+        LOG.info("Paced {} frames and {} steps in 300 ms", graph.getFrames(), steps);
+    }
+
+    /**
+     * Every simulation step receives the time at its end and its index.
+     */
+    private static void steps(final JobSystem JOBS) {
+        final FrameGraph graph = new FrameGraph(JOBS, TIMESTEP);
+        final List<Frame> frames = new CopyOnWriteArrayList<>();
+        graph.add(Stage.Simulation, "Step", frames::add);
+        graph.add(Stage.Culling, "Culling", (frame) -> check(frame.getStep() == -1, "No step outside the simulation"));
+
+        // Let Several Steps Accumulate \\
+        graph.frame();
+        sleep(45);
+        final Frame frame = graph.frame();
+        graph.finish();
+        check(frame.getSteps() >= 4, "Steps accumulated: " + frame.getSteps());
+        check(frames.size() == frame.getSteps(), "Simulation ran once per step: " + frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            final Frame step = frames.get(i);
+            check(step.getStep() == i, "Step index " + step.getStep());
+            check(step.getNumber() == frame.getNumber(), "Step frame number");
+            check(Math.abs(step.getTime() - (frame.getTime() - (frame.getSteps() - 1 - i) * TIMESTEP)) < 1e-9, "Step time " + step.getTime());
+        }
+        check(frames.get(frames.size() - 1).getTime() == frame.getTime(), "Last step ends at the frame time");
+    }
+
+    /**
+     * A failed task is rethrown by a later frame, and only once.
+     */
+    private static void failure(final JobSystem JOBS) {
+        final FrameGraph graph = new FrameGraph(JOBS, 0);
+        graph.add(Stage.Commands, "Failure", (frame) -> {
+            if (frame.getNumber() == 3) {
+                throw new IllegalStateException("Expected failure");
+            }
+        });
+        final FrameException thrown = expect(FrameException.class, () -> {
+            for (int i = 0; i < 100; i++) {
+                graph.frame();
+            }
+        }, "Frames after a failed task");
+        check(thrown.getCause() instanceof IllegalStateException, "Failure rethrown by the loop");
+        graph.finish();
+    }
+
+    private static void sleep(final long MILLIS) {
+        try {
+            Thread.sleep(MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package net.cybertekt.scene;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.cybertekt.job.JobSystem;
+import org.joml.Matrix4f;
+import org.lwjgl.system.MemoryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+import static net.cybertekt.TestUtil.expect;
+
+/**
+ * Entity Store Test - (C) Cybertekt Software
+ *
+ * Applies a random sequence of entity creations, destructions and component
+ * additions and removals to an {@link EntityStore entity store} and to a heap
+ * model, and verifies that they agree. Every entity carries a value derived
+ * from its id in each of its components, so that a component lost or mixed
+ * up when an entity moves between archetypes, or when swap-removal moves
+ * another entity into its row, is detected. Ids of destroyed entities must be
+ * rejected, and queries must visit every matching entity exactly once, both
+ * sequentially and in parallel.
+ *
+ * Usage: EntityStoreTest [operations]
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class EntityStoreTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(EntityStoreTest.class);
+
+    private static final Component VELOCITY = Component.define("Test.Velocity", 3 * Float.BYTES);
+
+    private static final Component[] COMPONENTS = {Component.TRANSFORM, Component.BOUNDS, Component.FLAGS, VELOCITY};
+
+    public static void main(final String[] args) {
+        final int operations = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+
+        final Random random = new Random(0);
+        final Map<Long, Long> model = new HashMap<>();
+        final List<Long> entities = new ArrayList<>();
+        final List<Long> destroyed = new ArrayList<>();
+        final JobSystem jobs = new JobSystem(2);
+        final EntityStore store = new EntityStore();
+        try {
+            for (int i = 0; i < operations; i++) {
+                final int operation = random.nextInt(10);
+                if (operation < 4 || entities.isEmpty()) {
+                    // Create \\
+                    final long mask = random.nextInt(1 << COMPONENTS.length);
+                    final long entity = store.create(components(mask));
+                    check(!model.containsKey(entity), "Fresh id " + Long.toHexString(entity));
+                    write(store, entity, mask);
+                    model.put(entity, mask);
+                    entities.add(entity);
+                } else {
+                    final int slot = random.nextInt(entities.size());
+                    final long entity = entities.get(slot);
+                    if (operation < 6) {
+                        // Destroy \\
+                        store.destroy(entity);
+                        model.remove(entity);
+                        entities.set(slot, entities.get(entities.size() - 1));
+                        entities.remove(entities.size() - 1);
+                        destroyed.add(entity);
+                    } else {
+                        // Add Or Remove A Component \\
+                        final Component component = COMPONENTS[random.nextInt(COMPONENTS.length)];
+                        long mask = model.get(entity);
+                        if (operation < 8) {
+                            store.add(entity, component);
+                            if ((mask & component.getMask()) == 0) {
+                                mask |= component.getMask();
+                                write(store, entity, component);
+                            }
+                        } else {
+                            store.remove(entity, component);
+                            mask &= ~component.getMask();
+                        }
+                        model.put(entity, mask);
+                    }
+                }
+                if (i % 1000 == 999) {
+                    verify(store, model, jobs);
+                }
+            }
+            verify(store, model, jobs);
+
+            // Stale Ids \\
+            for (long entity : destroyed) {
+                if (!model.containsKey(entity)) {
+                    check(!store.isAlive(entity), "Destroyed entity alive: " + Long.toHexString(entity));
+                    expect(IllegalArgumentException.class, () -> store.add(entity, Component.FLAGS), "Stale id " + Long.toHexString(entity));
+                }
+            }
+            check(!store.isAlive(EntityStore.NULL), "NULL is never alive");
+            LOG.info("Store holds {} entities in {} archetypes, {} bytes", store.getEntityCount(), store.getArchetypeCount(), store.getMemory());
+        } finally {
+            store.close();
+            jobs.close();
+        }
+        check(store.getEntityCount() == 0, "Close destroys every entity");
+    }
+
+    private static Component[] components(final long MASK) {
+        final List<Component> components = new ArrayList<>();
+        for (Component component : COMPONENTS) {
+            if ((MASK & component.getMask()) != 0) {
+                components.add(component);
+            }
+        }
+        return components.toArray(new Component[0]);
+    }
+
+    private static void write(final EntityStore STORE, final long ENTITY, final long MASK) {
+        for (Component component : components(MASK)) {
+            write(STORE, ENTITY, component);
+        }
+    }
+
+    /**
+     * Writes the value of an entity into every word of a component.
+     */
+    private static void write(final EntityStore STORE, final long ENTITY, final Component COMPONENT) {
+        final long address = STORE.getAddress(ENTITY, COMPONENT);
+        for (int offset = 0; offset < COMPONENT.getSize(); offset += 4) {
+            MemoryUtil.memPutInt(address + offset, value(ENTITY, COMPONENT, offset));
+        }
+    }
+
+    private static int value(final long ENTITY, final Component COMPONENT, final int OFFSET) {
+        return (int) (ENTITY * 31 + (ENTITY >>> 32)) ^ (COMPONENT.getId() << 24) ^ OFFSET;
+    }
+
+    private static void verify(final EntityStore STORE, final Map<Long, Long> MODEL, final JobSystem JOBS) {
+        check(STORE.getEntityCount() == MODEL.size(), "Entity count " + STORE.getEntityCount() + " != " + MODEL.size());
+        final Matrix4f transform = new Matrix4f();
+        for (Map.Entry<Long, Long> entry : MODEL.entrySet()) {
+            final long entity = entry.getKey(), mask = entry.getValue();
+            check(STORE.isAlive(entity), "Entity alive");
+            check(STORE.getArchetype(entity).getMask() == mask, "Archetype of " + Long.toHexString(entity));
+            for (Component component : COMPONENTS) {
+                check(STORE.has(entity, component) == ((mask & component.getMask()) != 0), "Has " + component);
+            }
+            for (Component component : components(mask)) {
+                final long address = STORE.getAddress(entity, component);
+                for (int offset = 0; offset < component.getSize(); offset += 4) {
+                    check(MemoryUtil.memGetInt(address + offset) == value(entity, component, offset), component + " of " + Long.toHexString(entity) + " at " + offset);
+                }
+            }
+            if ((mask & Component.TRANSFORM.getMask()) != 0) {
+                check(Float.floatToRawIntBits(STORE.getTransform(entity, transform).m00()) == value(entity, Component.TRANSFORM, 0), "Transform of " + Long.toHexString(entity));
+            }
+        }
+
+        // Queries Visit Every Matching Entity Once \\
+        final Query query = STORE.query(Component.FLAGS, VELOCITY);
+        int expected = 0;
+        for (long mask : MODEL.values()) {
+            if ((mask & Component.FLAGS.getMask()) != 0 && (mask & VELOCITY.getMask()) != 0) {
+                expected++;
+            }
+        }
+        check(query.getEntityCount() == expected, "Query count " + query.getEntityCount() + " != " + expected);
+        final Map<Long, Integer> visits = new HashMap<>();
+        query.forEach((chunk) -> {
+            for (int row = 0; row < chunk.getCount(); row++) {
+                final long entity = chunk.getEntity(row);
+                visits.merge(entity, 1, Integer::sum);
+                check(MemoryUtil.memGetInt(chunk.getAddress(Component.FLAGS, row)) == value(entity, Component.FLAGS, 0), "Flags in chunk");
+            }
+        });
+        check(visits.size() == expected && !visits.containsValue(2), "Sequential query visits");
+        final AtomicInteger parallel = new AtomicInteger();
+        query.forEach(JOBS, (chunk) -> parallel.addAndGet(chunk.getCount()));
+        check(parallel.get() == expected, "Parallel query visits " + parallel.get() + " != " + expected);
+    }
+}
@@ -0,0 +1,132 @@
+package net.cybertekt.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import org.lwjgl.system.MemoryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+import static net.cybertekt.TestUtil.expect;
+
+/**
+ * LZ4 Test - (C) Cybertekt Software
+ *
+ * Compresses blocks of varying size and content with {@link LZ4} and verifies
+ * that they decompress to the original data. Covers blocks too short to hold
+ * a match, incompressible data, runs that produce overlapping matches, literal
+ * and match lengths beyond the 15 of a token, and offsets into the source and
+ * destination arrays. Truncated and corrupted blocks must be rejected with an
+ * {@link IllegalArgumentException} without reading or writing out of bounds.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class LZ4Test {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(LZ4Test.class);
+
+    public static void main(final String[] args) {
+        final Random random = new Random(0);
+
+        // Round Trips \\
+        for (int length : new int[]{0, 1, 5, 12, 13, 64, 1000, 65536, 1 << 20}) {
+            roundTrip(random(random, length), "Random " + length);
+            roundTrip(new byte[length], "Zeros " + length);
+            roundTrip(text(length), "Text " + length);
+            roundTrip(runs(random, length), "Runs " + length);
+        }
+
+        // Offsets Into The Source And Destination \\
+        final byte[] data = text(5000);
+        final byte[] compressed = new byte[7 + LZ4.maxCompressedLength(4000)];
+        final int length = LZ4.compress(data, 500, 4000, compressed, 7);
+        check(Arrays.equals(decompress(Arrays.copyOfRange(compressed, 7, 7 + length), 4000), Arrays.copyOfRange(data, 500, 4500)), "Offset round trip");
+
+        // Malformed Blocks \\
+        final byte[] text = text(10000);
+        final byte[] block = compress(text);
+        for (int i = 0; i < block.length; i += 7) {
+            final byte[] truncated = Arrays.copyOf(block, i);
+            expect(IllegalArgumentException.class, () -> decompress(truncated, text.length), "Block truncated at " + i);
+        }
+        expect(IllegalArgumentException.class, () -> decompress(block, text.length - 1), "Short destination");
+        expect(IllegalArgumentException.class, () -> decompress(block, text.length + 1), "Long destination");
+        int corrupted = 0;
+        for (int i = 0; i < 2000; i++) {
+            final byte[] copy = block.clone();
+            copy[random.nextInt(copy.length)] ^= (byte) (1 + random.nextInt(255));
+            try {
+                decompress(copy, text.length);
+            } catch (IllegalArgumentException e) {
+                corrupted++;
+            }
+        }
+        LOG.info("{} of 2000 corrupted blocks rejected", corrupted);
+    }
+
+    private static void roundTrip(final byte[] DATA, final String NAME) {
+        final byte[] compressed = compress(DATA);
+        check(compressed.length <= LZ4.maxCompressedLength(DATA.length), NAME + " within the maximum compressed length");
+        check(Arrays.equals(decompress(compressed, DATA.length), DATA), NAME + " round trip");
+    }
+
+    private static byte[] compress(final byte[] DATA) {
+        final byte[] compressed = new byte[LZ4.maxCompressedLength(DATA.length)];
+        return Arrays.copyOf(compressed, LZ4.compress(DATA, 0, DATA.length, compressed, 0));
+    }
+
+    /**
+     * Decompresses a block between native buffers sized exactly to the block
+     * and the expected length.
+     */
+    private static byte[] decompress(final byte[] BLOCK, final int LENGTH) {
+        final ByteBuffer src = MemoryUtil.memAlloc(Math.max(1, BLOCK.length));
+        final ByteBuffer dst = MemoryUtil.memAlloc(Math.max(1, LENGTH));
+        try {
+            src.put(BLOCK).flip();
+            LZ4.decompress(MemoryUtil.memAddress(src), BLOCK.length, MemoryUtil.memAddress(dst), LENGTH);
+            final byte[] result = new byte[LENGTH];
+            dst.get(result, 0, LENGTH);
+            return result;
+        } finally {
+            MemoryUtil.memFree(src);
+            MemoryUtil.memFree(dst);
+        }
+    }
+
+    private static byte[] random(final Random RANDOM, final int LENGTH) {
+        final byte[] data = new byte[LENGTH];
+        RANDOM.nextBytes(data);
+        return data;
+    }
+
+    private static byte[] text(final int LENGTH) {
+        final byte[] words = "the quick brown fox jumps over the lazy dog while the lazy cat sleeps ".getBytes();
+        final byte[] data = new byte[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            data[i] = words[(i * 7 + i / words.length) % words.length];
+        }
+        return data;
+    }
+
+    /**
+     * Runs of random length of a few byte values, mixed with random bytes.
+     */
+    private static byte[] runs(final Random RANDOM, final int LENGTH) {
+        final byte[] data = new byte[LENGTH];
+        int i = 0;
+        while (i < LENGTH) {
+            final int run = Math.min(LENGTH - i, 1 + RANDOM.nextInt(600));
+            Arrays.fill(data, i, i + run, (byte) RANDOM.nextInt(4));
+            i += run;
+            for (int j = RANDOM.nextInt(20); j > 0 && i < LENGTH; j--) {
+                data[i++] = (byte) RANDOM.nextInt();
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,80 @@
+package net.cybertekt.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import net.cybertekt.util.CacheMap.CacheMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+
+/**
+ * Primitive Cache Map Test - (C) Cybertekt Software
+ *
+ * Applies the same random sequence of insertions, replacements and removals
+ * to a {@link LongCacheMap}, an {@link IntCacheMap} and a {@link HashMap} and
+ * verifies that they agree after every operation. Keys are clustered and
+ * aligned like native handles so that probe sequences collide, grow the table
+ * and exercise backward shift deletion. Every value is strongly referenced by
+ * the hash map, so no entry is reclaimed during the test.
+ *
+ * Usage: PrimitiveCacheMapTest [operations]
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class PrimitiveCacheMapTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(PrimitiveCacheMapTest.class);
+
+    public static void main(final String[] args) {
+        final int operations = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+
+        final Random random = new Random(0);
+        final LongCacheMap<Object> longs = new LongCacheMap<>(CacheMode.Soft);
+        final IntCacheMap<Object> ints = new IntCacheMap<>(CacheMode.Soft);
+        final Map<Long, Object> expected = new HashMap<>();
+
+        for (int i = 0; i < operations; i++) {
+            final int id = random.nextInt(5000) - 2500;
+            final long handle = 0x7F0000000000L + id * 64L;
+            switch (random.nextInt(3)) {
+                case 0: {
+                    final Object value = new Object();
+                    longs.put(handle, value);
+                    ints.put(id, value);
+                    expected.put(handle, value);
+                    break;
+                }
+                case 1: {
+                    longs.remove(handle);
+                    ints.remove(id);
+                    expected.remove(handle);
+                    break;
+                }
+                default: {
+                    break;
+                }
+            }
+            check(longs.get(handle) == expected.get(handle), "LongCacheMap value at operation " + i);
+            check(ints.get(id) == expected.get(handle), "IntCacheMap value at operation " + i);
+            check(longs.contains(handle) == expected.containsKey(handle), "LongCacheMap contains at operation " + i);
+            check(longs.size() == expected.size() && ints.size() == expected.size(), "Size at operation " + i);
+        }
+
+        // Every Remaining Entry Must Still Be Reachable After Deletions \\
+        for (Map.Entry<Long, Object> entry : expected.entrySet()) {
+            check(longs.get(entry.getKey()) == entry.getValue(), "LongCacheMap entry " + entry.getKey());
+            check(ints.get((int) ((entry.getKey() - 0x7F0000000000L) / 64)) == entry.getValue(), "IntCacheMap entry " + entry.getKey());
+        }
+
+        longs.clear();
+        ints.clear();
+        check(longs.size() == 0 && ints.size() == 0, "Cleared size");
+
+        LOG.info("Maps agree after {} operations with {} entries", operations, expected.size());
+    }
+}
@@ -0,0 +1,161 @@
+package net.cybertekt.vulkan;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import org.lwjgl.system.MemoryUtil;
+import org.lwjgl.vulkan.EXTDebugReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+
+/**
+ * Debug Report Sink Test - (C) Cybertekt Software
+ *
+ * Injects reports into a {@link DebugReportSink debug report sink} by invoking
+ * its callback directly, without a Vulkan instance, and verifies the metrics
+ * gathered by the consumer and the reports it logs. Covers deduplication of
+ * identical reports and the logging of their repeat count when the sink is
+ * freed, the per code rate limit, truncation of long messages, and that every
+ * report received by a ring too small for a burst is either processed or
+ * counted as dropped.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class DebugReportSinkTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(DebugReportSinkTest.class);
+
+    private static final int WARNING = EXTDebugReport.VK_DEBUG_REPORT_WARNING_BIT_EXT;
+
+    private static final int INFORMATION = EXTDebugReport.VK_DEBUG_REPORT_INFORMATION_BIT_EXT;
+
+    public static void main(final String[] args) throws InterruptedException {
+        consumer();
+        burst();
+    }
+
+    /**
+     * Reports are deduplicated, rate limited and truncated by the consumer,
+     * and pending repeat counts are logged when the sink is freed.
+     */
+    private static void consumer() throws InterruptedException {
+        final List<String> logged = new CopyOnWriteArrayList<>();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(final LogRecord RECORD) {
+                logged.add(RECORD.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final java.util.logging.Logger log = java.util.logging.Logger.getLogger(DebugReportSink.class.getName());
+        log.addHandler(handler);
+
+        final DebugReportSink sink = new DebugReportSink(64, 64);
+        try {
+            // Duplicates \\
+            for (int i = 0; i < 5; i++) {
+                report(sink, WARNING, 7, "Duplicate report");
+            }
+            await(sink);
+            check(sink.getCount(7) == 5, "Duplicates counted: " + sink.getCount(7));
+            check(sink.getWarnings() == 5, "Warnings counted: " + sink.getWarnings());
+            check(sink.getDuplicates() == 4, "Duplicates deduplicated: " + sink.getDuplicates());
+
+            // Rate Limit \\
+            for (int i = 0; i < DebugReportSink.RATE_LIMIT + 5; i++) {
+                report(sink, INFORMATION, 8, "Distinct report " + i);
+            }
+            await(sink);
+            check(sink.getCount(8) == DebugReportSink.RATE_LIMIT + 5, "Rate limited reports counted");
+            check(sink.getSuppressed() > 0, "Reports over the rate limit suppressed");
+
+            // Truncation \\
+            report(sink, WARNING, 9, message(100));
+            await(sink);
+            check(sink.getMessages() == sink.getReceived(), "Every report processed");
+            check(sink.getDropped() == 0, "No reports dropped");
+        } finally {
+            sink.free();
+            log.removeHandler(handler);
+        }
+
+        check(contains(logged, "Duplicate report (repeated 4 times)"), "Pending repeats logged when freed");
+        check(contains(logged, "Suppressed"), "Suppressed reports logged when freed");
+        check(contains(logged, message(64) + "..."), "Long message truncated");
+    }
+
+    /**
+     * A burst from several threads into a small ring drops reports instead
+     * of blocking, and accounts for every report received.
+     */
+    private static void burst() throws InterruptedException {
+        final DebugReportSink sink = new DebugReportSink(8, 32);
+        try {
+            final Thread[] producers = new Thread[4];
+            for (int i = 0; i < producers.length; i++) {
+                final int code = 100 + i;
+                producers[i] = new Thread(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        report(sink, INFORMATION, code, "Burst report");
+                    }
+                });
+                producers[i].start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            await(sink);
+            check(sink.getReceived() == 40000, "Reports received: " + sink.getReceived());
+            check(sink.getMessages() + sink.getDropped() == sink.getReceived(), "Reports processed or dropped: " + sink.getMessages() + " + " + sink.getDropped());
+            LOG.info("Burst processed {} reports and dropped {}", sink.getMessages(), sink.getDropped());
+        } finally {
+            sink.free();
+        }
+    }
+
+    private static void report(final DebugReportSink SINK, final int FLAGS, final int CODE, final String MESSAGE) {
+        final ByteBuffer message = MemoryUtil.memUTF8(MESSAGE);
+        try {
+            SINK.invoke(FLAGS, 0, 0, 0, CODE, MemoryUtil.NULL, MemoryUtil.memAddress(message), MemoryUtil.NULL);
+        } finally {
+            MemoryUtil.memFree(message);
+        }
+    }
+
+    private static void await(final DebugReportSink SINK) throws InterruptedException {
+        while (SINK.getPending() > 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static String message(final int LENGTH) {
+        final StringBuilder message = new StringBuilder();
+        for (int i = 0; i < LENGTH; i++) {
+            message.append('x');
+        }
+        return message.toString();
+    }
+
+    private static boolean contains(final List<String> LOGGED, final String TEXT) {
+        for (String message : LOGGED) {
+            if (message.contains(TEXT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,80 @@
+package net.cybertekt.vulkan;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.cybertekt.vulkan.DeviceAllocator.Allocation;
+import net.cybertekt.vulkan.DeviceAllocator.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+import static net.cybertekt.TestUtil.expect;
+
+/**
+ * Device Allocator Test - (C) Cybertekt Software
+ *
+ * Verifies that the {@link DeviceAllocator device allocator} sub-allocates
+ * blocks, keeps one spare empty block, returns evacuated blocks to the device
+ * and never frees device memory twice when allocations are freed after the
+ * allocator has been closed, using a {@link SimulatedDeviceMemory simulated
+ * device} that rejects unknown memory handles.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class DeviceAllocatorTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(DeviceAllocatorTest.class);
+
+    private static final long BLOCK = 1 << 20, SIZE = 200 << 10;
+
+    public static void main(final String[] args) {
+        final SimulatedDeviceMemory memory = new SimulatedDeviceMemory(64L << 20, 1);
+        final DeviceAllocator allocator = new DeviceAllocator(memory, BLOCK);
+
+        // Fill Three Blocks And A Dedicated Allocation \\
+        final List<Allocation> allocations = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            allocations.add(allocator.allocate(0, SIZE, 256, Resource.Linear));
+        }
+        final Allocation dedicated = allocator.allocate(0, BLOCK, 256, Resource.Optimal);
+        check(dedicated.isDedicated() && !allocations.get(0).isDedicated(), "Dedicated threshold");
+        check(allocator.getStats(0).getBlocks() == 3, "Blocks: " + allocator.getStats(0).getBlocks());
+        check(memory.getAllocationCount() == 4 && allocator.getDeviceAllocationCount() == 4, "Device allocations");
+
+        // Thin Out The First Two Blocks So That They Are Evacuated \\
+        final List<Allocation> live = new ArrayList<>();
+        for (int i = 0; i < allocations.size(); i++) {
+            if (i < 10 && i % 5 != 0) {
+                allocator.free(allocations.get(i));
+            } else {
+                live.add(allocations.get(i));
+            }
+        }
+        final List<Allocation> moves = allocator.getDefragmentationHints(0);
+        check(!moves.isEmpty(), "Sparse blocks marked for evacuation");
+        LOG.info("{} allocations to move: {}", moves.size(), allocator.getStats(0));
+
+        final Allocation freed = live.get(live.size() - 1);
+        allocator.free(freed);
+        expect(IllegalStateException.class, () -> allocator.free(freed), "Double free");
+
+        // Freeing Into A Closed Allocator Must Not Free Device Memory Again \\
+        allocator.close();
+        check(memory.getAllocationCount() == 0 && allocator.getDeviceAllocationCount() == 0, "Close returns every block");
+        for (Allocation allocation : moves) {
+            allocator.free(allocation);
+            live.remove(allocation);
+        }
+        for (Allocation allocation : live) {
+            if (allocation != freed) {
+                allocator.free(allocation);
+            }
+        }
+        allocator.free(dedicated);
+        check(memory.getAllocationCount() == 0 && allocator.getDeviceAllocationCount() == 0, "Free after close is a no-op");
+        expect(IllegalStateException.class, () -> allocator.allocate(0, SIZE, 256, Resource.Linear), "Allocate after close");
+    }
+}
@@ -0,0 +1,97 @@
+package net.cybertekt.vulkan;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+import static net.cybertekt.TestUtil.expect;
+
+/**
+ * Native Arena Test - (C) Cybertekt Software
+ *
+ * Verifies bump allocation, alignment, nested scopes, block overflow and
+ * block reuse of the {@link NativeArena native arena} without a Vulkan
+ * device.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class NativeArenaTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(NativeArenaTest.class);
+
+    public static void main(final String[] args) {
+        final NativeArena arena = new NativeArena(1024);
+        try {
+
+            // Bump Allocation Advances By Size Rounded Up To Alignment \\
+            final long a = arena.malloc(3, 1);
+            final long b = arena.malloc(8, 8);
+            final long c = arena.malloc(1, 64);
+            check(b > a && b % 8 == 0 && b - a < 16, "Aligned bump allocation");
+            check(c > b && c % 64 == 0, "Large alignment");
+            check(arena.capacity() == 1024, "Single block");
+
+            // Nested Scopes Release Their Allocations In Reverse Order \\
+            final long used = arena.used();
+            try (NativeArena.Scope outer = arena.push()) {
+                final ByteBuffer bytes = outer.arena().bytes(100);
+                check(bytes.get(99) == 0, "Zero-initialized buffer");
+                final long inner;
+                try (NativeArena.Scope scope = arena.push()) {
+                    final LongBuffer longs = scope.arena().longs(4);
+                    inner = arena.used();
+                    check(longs.capacity() == 4 && inner > used + 100, "Nested allocation");
+                }
+                check(arena.used() < inner && arena.used() >= used + 100, "Inner scope released");
+            }
+            check(arena.used() == used, "Outer scope released");
+
+            // Array Sizes That Overflow An Int Are Rejected \\
+            expect(IllegalArgumentException.class, () -> arena.ints(Integer.MAX_VALUE / 2), "Int count overflow");
+            expect(IllegalArgumentException.class, () -> arena.longs(-1), "Negative long count");
+            check(arena.used() == used, "Rejected allocations leave the arena untouched");
+
+            // Closing An Outer Scope First Is Rejected \\
+            final NativeArena.Scope first = arena.push();
+            final NativeArena.Scope second = arena.push();
+            final IllegalStateException order = expect(IllegalStateException.class, first::close, "Closing outer scope first");
+            check(order.getMessage().contains("reverse order"), "Out of order scope close rejected");
+            second.close();
+            first.close();
+
+            // Overflow Chains A New Block, Oversized Allocations Get Their Own \\
+            try (NativeArena.Scope scope = arena.push()) {
+                for (int i = 0; i < 20; i++) {
+                    scope.arena().malloc(100, 8);
+                }
+                check(arena.capacity() == 3 * 1024, "Blocks chained on overflow: " + arena.capacity());
+                final long large = scope.arena().malloc(5000, 8);
+                check(large != 0 && arena.capacity() > 3 * 1024 + 5000, "Oversized block");
+            }
+            check(arena.used() == used, "Overflow scope released");
+
+            // Released Blocks Are Reused Without Allocating \\
+            final long capacity = arena.capacity();
+            try (NativeArena.Scope scope = arena.push()) {
+                for (int i = 0; i < 20; i++) {
+                    scope.arena().malloc(100, 8);
+                }
+                scope.arena().malloc(5000, 8);
+            }
+            check(arena.capacity() == capacity, "Blocks reused: " + arena.capacity());
+            LOG.info("Arena grew to {} bytes and reused its blocks", capacity);
+
+            arena.reset();
+            check(arena.used() == 0, "Reset");
+        } finally {
+            arena.close();
+        }
+        final IllegalStateException closed = expect(IllegalStateException.class, () -> arena.malloc(1, 1), "Allocating from closed arena");
+        check(closed.getMessage().contains("closed"), "Closed arena rejected allocation");
+    }
+}
@@ -0,0 +1,186 @@
+package net.cybertekt.vulkan;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.lwjgl.system.MemoryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+
+/**
+ * Staging Ring Test - (C) Cybertekt Software
+ *
+ * Uploads data through a {@link StagingRing staging ring} into a
+ * {@link SimulatedTransferBackend simulated transfer backend} and verifies the
+ * destination contents. The simulated backend reads staging memory only when
+ * a submission completes, so a region recycled before its fence was signaled
+ * corrupts the destination and fails the test. Covers packing of contiguous
+ * uploads into a single copy, wrap-around at the end of the ring with
+ * submissions completing after a latency, stalls on a full ring whose
+ * submissions only complete when awaited, and image uploads whose texel size
+ * is not a power of two.
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class StagingRingTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(StagingRingTest.class);
+
+    public static void main(final String[] args) {
+        packing();
+        wrap();
+        stall();
+        texels();
+    }
+
+    /**
+     * Contiguous uploads into the same buffer are coalesced into one copy.
+     */
+    private static void packing() {
+        final SimulatedTransferBackend backend = new SimulatedTransferBackend(2);
+        final long dst = backend.createBuffer(4096);
+        final byte[] expected = new byte[4096];
+        final StagingRing ring = new StagingRing(backend, 8192);
+        try {
+            for (int i = 0; i < 16; i++) {
+                upload(ring, dst, i * 256, 256, expected, i);
+            }
+            ring.flush();
+            check(ring.getCommands() == 1 && backend.getBufferRegions() == 1, "Contiguous uploads coalesced: " + backend.getBufferRegions());
+            check(backend.getInFlight() == 1, "Submission pending until latency elapses");
+        } finally {
+            ring.close();
+        }
+        verify(backend.getBuffer(dst), expected, "Packed buffer");
+    }
+
+    /**
+     * Uploads of varying size wrap around the end of the ring while earlier
+     * submissions complete after a latency of two submissions.
+     */
+    private static void wrap() {
+        final SimulatedTransferBackend backend = new SimulatedTransferBackend(2);
+        final long[] dst = {backend.createBuffer(1 << 16), backend.createBuffer(1 << 16)};
+        final byte[][] expected = {new byte[1 << 16], new byte[1 << 16]};
+        final long image = backend.createImage();
+        final byte[] texels = new byte[1000];
+        final Random random = new Random(0);
+        random.nextBytes(texels);
+
+        final StagingRing ring = new StagingRing(backend, 16384);
+        try {
+            int offset = 0;
+            for (int i = 0; offset < (1 << 16) - 1000; i++) {
+                final int size = 100 + random.nextInt(900);
+                // Alternate Destinations So That Uploads Are Not Contiguous \\
+                upload(ring, dst[i & 1], offset, size, expected[i & 1], i);
+                if (i % 3 == 2) {
+                    ring.flush();
+                    offset += size;
+                }
+                if (i == 7) {
+                    final ByteBuffer data = MemoryUtil.memAlloc(texels.length);
+                    data.put(texels).flip();
+                    ring.upload(image, 1, 2, 10, 25, data);
+                    MemoryUtil.memFree(data);
+                }
+            }
+            check(ring.getBytes() > 4 * ring.getSize(), "Uploads wrapped the ring: " + ring.getBytes());
+            check(ring.getStalls() == 0, "No stalls with automatic completion: " + ring.getStalls());
+        } finally {
+            ring.close();
+        }
+        verify(backend.getBuffer(dst[0]), expected[0], "Wrapped buffer 0");
+        verify(backend.getBuffer(dst[1]), expected[1], "Wrapped buffer 1");
+        verify(ByteBuffer.wrap(backend.getImage(image, 1, 2)), texels, "Image subresource");
+    }
+
+    /**
+     * Submissions that never complete on their own force the ring to await
+     * the oldest fence once it is full.
+     */
+    private static void stall() {
+        final SimulatedTransferBackend backend = new SimulatedTransferBackend();
+        final long dst = backend.createBuffer(1 << 14);
+        final byte[] expected = new byte[1 << 14];
+        final StagingRing ring = new StagingRing(backend, 1024);
+        try {
+            for (int i = 0; i < 32; i++) {
+                upload(ring, dst, i * 512, 512, expected, i);
+                ring.flush();
+                check(ring.getBytesInUse() <= ring.getSize(), "Ring bounded: " + ring.getBytesInUse());
+            }
+            check(ring.getStalls() > 0, "Full ring stalled");
+            LOG.info("Full ring stalled {} times in {} submissions", ring.getStalls(), ring.getSubmissions());
+            check(backend.getInFlight() > 0, "Submissions in flight");
+        } finally {
+            ring.close();
+        }
+        check(backend.getInFlight() == 0, "Close awaited every submission");
+        verify(backend.getBuffer(dst), expected, "Stalled buffer");
+    }
+
+    /**
+     * Image data of 3 byte texels is aligned to a multiple of 12 bytes,
+     * including after wrapping around the end of the ring.
+     */
+    private static void texels() {
+        check(StagingRing.getImageAlignment(3) == 12 && StagingRing.getImageAlignment(6) == 12, "Alignment of 3 and 6 byte texels");
+        check(StagingRing.getImageAlignment(2) == 4 && StagingRing.getImageAlignment(16) == 16, "Alignment of power of two texels");
+        final int alignment = StagingRing.getImageAlignment(3);
+
+        final SimulatedTransferBackend backend = new SimulatedTransferBackend(1);
+        final long buffer = backend.createBuffer(1);
+        final long image = backend.createImage();
+        final StagingRing ring = new StagingRing(backend, 1024);
+        try {
+            // The First Reservation Of A Fresh Ring Starts At Its Base \\
+            final long base = MemoryUtil.memAddress(ring.reserveBuffer(buffer, 0, 1));
+            for (int i = 0; i < 100; i++) {
+                final int width = 1 + i * 13 % 60;
+                final ByteBuffer data = ring.reserveImage(image, i, 0, width, 1, width * 3, alignment);
+                final long offset = MemoryUtil.memAddress(data) - base;
+                check(offset % alignment == 0, "Texel data aligned to " + alignment + ": " + offset);
+                for (int j = 0; j < data.capacity(); j++) {
+                    data.put(j, (byte) (i + j));
+                }
+                ring.flush();
+            }
+            check(ring.getBytes() > 2 * ring.getSize(), "Uploads wrapped the ring: " + ring.getBytes());
+        } finally {
+            ring.close();
+        }
+        for (int i = 0; i < 100; i++) {
+            final byte[] texels = backend.getImage(image, i, 0);
+            check(texels != null && texels.length == (1 + i * 13 % 60) * 3, "Image subresource " + i + " size");
+            for (int j = 0; j < texels.length; j++) {
+                check(texels[j] == (byte) (i + j), "Image subresource " + i + " content at " + j);
+            }
+        }
+    }
+
+    /**
+     * Uploads a range of bytes derived from a seed and records the expected
+     * destination contents.
+     */
+    private static void upload(final StagingRing RING, final long DST, final int OFFSET, final int SIZE, final byte[] EXPECTED, final int SEED) {
+        final ByteBuffer data = MemoryUtil.memAlloc(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            data.put(i, (byte) (SEED * 31 + i));
+            EXPECTED[OFFSET + i] = (byte) (SEED * 31 + i);
+        }
+        RING.upload(DST, OFFSET, data);
+        MemoryUtil.memFree(data);
+    }
+
+    private static void verify(final ByteBuffer ACTUAL, final byte[] EXPECTED, final String NAME) {
+        check(ACTUAL != null && ACTUAL.capacity() == EXPECTED.length, NAME + " size");
+        for (int i = 0; i < EXPECTED.length; i++) {
+            check(ACTUAL.get(i) == EXPECTED[i], NAME + " content at " + i);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package net.cybertekt.vulkan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static net.cybertekt.TestUtil.check;
+import static net.cybertekt.TestUtil.expect;
+
+/**
+ * Tlsf Test - (C) Cybertekt Software
+ *
+ * Verifies allocation, alignment, freeing and coalescing of the
+ * {@link Tlsf two-level segregated fit allocator}, including the separation
+ * of resource kinds by granularity page, followed by a randomized run that
+ * checks used regions never overlap and that freeing every region merges the
+ * range back into a single free region.
+ *
+ * Usage: TlsfTest [operations]
+ *
+ * @version 1.2.0
+ * @author Andrew Vektor
+ */
+public class TlsfTest {
+
+    /**
+     * Internal SLF4J Class Logger For Debugging.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(TlsfTest.class);
+
+    private static final byte LINEAR = 1, OPTIMAL = 2;
+
+    public static void main(final String[] args) {
+        final int operations = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+
+        // Allocate, Free And Merge Neighbouring Regions \\
+        final Tlsf tlsf = new Tlsf(1 << 20);
+        final int a = tlsf.allocate(1000, 256, LINEAR, 0);
+        final int b = tlsf.allocate(5000, 4096, LINEAR, 0);
+        final int c = tlsf.allocate(10, 16, LINEAR, 0);
+        check(a >= 0 && b >= 0 && c >= 0, "Allocation");
+        check(tlsf.offset(b) % 4096 == 0 && tlsf.offset(a) % 256 == 0, "Alignment");
+        check(tlsf.size(a) == 1008 && tlsf.allocations() == 3, "Size rounded to granule");
+        checkDisjoint(tlsf);
+
+        tlsf.free(b);
+        check(tlsf.allocations() == 2, "Free");
+        final IllegalStateException twice = expect(IllegalStateException.class, () -> tlsf.free(b), "Double free");
+        check(twice.getMessage().contains("already free"), "Double free rejected");
+        tlsf.free(a);
+        tlsf.free(c);
+        check(tlsf.used() == 0 && tlsf.freeRegions() == 1, "Merged into one region: " + tlsf.freeRegions());
+        check(tlsf.largestFree() == tlsf.capacity(), "Largest free region spans the range");
+
+        // Exhaustion Returns -1 Instead Of Overlapping \\
+        final int whole = tlsf.allocate(tlsf.capacity(), 16, LINEAR, 0);
+        check(whole >= 0 && tlsf.allocate(16, 16, LINEAR, 0) == -1, "Exhaustion");
+        tlsf.free(whole);
+
+        // Kinds Never Share A Granularity Page \\
+        final int linear = tlsf.allocate(100, 16, LINEAR, 1024);
+        final int optimal = tlsf.allocate(100, 16, OPTIMAL, 1024);
+        check(linear >= 0 && optimal >= 0, "Granularity allocation");
+        check(tlsf.offset(optimal) / 1024 != (tlsf.offset(linear) + tlsf.size(linear) - 1) / 1024, "Granularity separation");
+        tlsf.free(linear);
+        tlsf.free(optimal);
+        check(tlsf.freeRegions() == 1, "Granularity regions merged");
+
+        // Randomized Allocation And Free \\
+        final Random random = new Random(0);
+        final List<Integer> live = new ArrayList<>();
+        for (int i = 0; i < operations; i++) {
+            if (live.isEmpty() || random.nextInt(100) < 55) {
+                final long bytes = 1 + random.nextInt(random.nextBoolean() ? 256 : 16384);
+                final long alignment = 16L << random.nextInt(6);
+                final byte kind = random.nextBoolean() ? LINEAR : OPTIMAL;
+                final int node = tlsf.allocate(bytes, alignment, kind, 1024);
+                if (node >= 0) {
+                    check(tlsf.offset(node) % alignment == 0 && tlsf.size(node) >= bytes, "Random allocation " + i);
+                    live.add(node);
+                }
+            } else {
+                tlsf.free(live.remove(random.nextInt(live.size())));
+            }
+            if (i % 1000 == 0) {
+                checkDisjoint(tlsf);
+            }
+        }
+        checkDisjoint(tlsf);
+        check(tlsf.allocations() == live.size(), "Allocation count");
+        for (int node : live) {
+            tlsf.free(node);
+        }
+        check(tlsf.used() == 0 && tlsf.freeRegions() == 1 && tlsf.largestFree() == tlsf.capacity(), "Randomized regions merged");
+
+        LOG.info("Regions disjoint and merged after {} operations", operations);
+    }
+
+    /**
+     * Verifies that used regions are in physical order, within the range and
+     * do not overlap, and that their sizes add up to the used byte count.
+     */
+    private static void checkDisjoint(final Tlsf TLSF) {
+        final long[] state = {0, 0};
+        TLSF.forEachUsed(node -> {
+            check(TLSF.offset(node) >= state[0], "Overlapping region at " + TLSF.offset(node));
+            state[0] = TLSF.offset(node) + TLSF.size(node);
+            state[1] += TLSF.size(node);
+        });
+        check(state[0] <= TLSF.capacity() && state[1] == TLSF.used(), "Used regions");
+    }
+}